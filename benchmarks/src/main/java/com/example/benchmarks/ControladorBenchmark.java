@@ -0,0 +1,47 @@
+package com.example.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.Controlador;
+
+/**
+    * Mide {@link Controlador#evaluarTransaccion(boolean)} sobre cada
+    * combinación firmaN/llaveN de las pruebas. Los scripts se cargan una sola
+    * vez, por lo que el resultado aísla la ejecución del parseo.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControladorBenchmark {
+
+    @Param({"1", "2", "3", "4", "5", "6"})
+    public int combinacion;
+
+    private Controlador controlador;
+
+    @Setup
+    public void cargar() {
+        controlador = new Controlador();
+        controlador.cargarScripts(Fixtures.script("firma" + combinacion), Fixtures.script("llave" + combinacion));
+    }
+
+    @Benchmark
+    public boolean evaluarTransaccion() {
+        return controlador.evaluarTransaccion(false);
+    }
+}
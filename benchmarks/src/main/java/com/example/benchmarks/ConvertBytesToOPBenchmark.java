@@ -0,0 +1,45 @@
+package com.example.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.ConvertBytesToOP;
+
+/**
+    * Mide el parseo de un script en bytes a OPCODES y slices de carga
+    * al construir un {@link ConvertBytesToOP}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConvertBytesToOPBenchmark {
+
+    @Param({"firma1", "llave1", "llave4", "llave5"})
+    public String script;
+
+    private byte[] bytes;
+
+    @Setup
+    public void cargar() {
+        bytes = Fixtures.script(script);
+    }
+
+    @Benchmark
+    public ConvertBytesToOP construir() {
+        return new ConvertBytesToOP(bytes);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.DecodificadorHex;
+
+/**
+    * Compara {@link DecodificadorHex} con {@link HexFormat#parseHex(CharSequence)}
+    * sobre textos hexadecimales aleatorios de distintos tamaños, desde un
+    * script típico hasta un volcado de 1 MB. HexFormat recibe el texto ya
+    * convertido a {@code String}, así que la comparación no le cobra la
+    * conversión que sí pagaba {@link com.example.LectorDeBytes} antes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecodificadorHexBenchmark {
+
+    @Param({"50", "4096", "1048576"})
+    public int bytes;
+
+    private String texto;
+    private byte[] hex;
+    private ByteBuffer hexDirecto;
+    private byte[] destino;
+    private ByteBuffer destinoDirecto;
+
+    @Setup
+    public void generar() {
+        byte[] datos = new byte[bytes];
+        new Random(23).nextBytes(datos);
+        texto = HexFormat.of().formatHex(datos);
+        hex = texto.getBytes(StandardCharsets.US_ASCII);
+        hexDirecto = ByteBuffer.allocateDirect(hex.length).put(hex).flip();
+        destino = new byte[bytes];
+        destinoDirecto = ByteBuffer.allocateDirect(bytes);
+    }
+
+    @Benchmark
+    public byte[] hexFormat() {
+        return HexFormat.of().parseHex(texto);
+    }
+
+    @Benchmark
+    public byte[] decodificador() {
+        return DecodificadorHex.decodificar(hex);
+    }
+
+    @Benchmark
+    public int decodificadorSinReservar() {
+        return DecodificadorHex.decodificar(hex, 0, hex.length, destino, 0);
+    }
+
+    @Benchmark
+    public int decodificadorBufferDirecto() {
+        return DecodificadorHex.decodificar(hexDirecto.duplicate(), destinoDirecto.clear());
+    }
+
+    @Benchmark
+    public long decodificadorStreaming() throws IOException {
+        return DecodificadorHex.decodificar(new ByteArrayInputStream(hex), OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.ConvertBytesToOP;
+import com.example.Interprete;
+import com.example.ScriptCompilado;
+import com.example.ScriptError;
+import com.example.ScriptStack;
+
+/**
+    * Compara el despacho de instrucciones del diseño anterior, un override
+    * por const de {@link OpcodeLegado} con búsqueda en un mapa por cada
+    * instrucción, contra el switch por byte de {@link Interprete}.
+    *
+    * Ambos recorren los mismos programas compilados sin fusionar, sobre el
+    * mismo tipo de stack, así que la diferencia es solo el costo del despacho.
+    * Los scripts son los seis pares de prueba más un script numérico largo;
+    * los benchmarks *Numerico ejecutan solo este último, donde el despacho
+    * domina porque cada instrucción hace muy poco trabajo.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DespachoBenchmark {
+
+    // Repeticiones de OP_1 OP_DUP OP_EQUAL OP_DROP en el script numérico
+    private static final int REPETICIONES_NUMERICO = 50;
+
+    private ScriptCompilado[] firmas;
+    private ScriptCompilado[] llaves;
+    private byte[][] codigosFirmas;
+    private byte[][] codigosLlaves;
+    private ScriptStack stack;
+
+    @Setup
+    public void preparar() {
+        byte[] numerico = new byte[REPETICIONES_NUMERICO * 4 + 1];
+        for (int i = 0; i < REPETICIONES_NUMERICO; i++) {
+            numerico[i * 4] = 0x51;
+            numerico[i * 4 + 1] = 0x76;
+            numerico[i * 4 + 2] = (byte) 0x87;
+            numerico[i * 4 + 3] = 0x75;
+        }
+        numerico[numerico.length - 1] = 0x51;
+
+        int pares = 7;
+        firmas = new ScriptCompilado[pares];
+        llaves = new ScriptCompilado[pares];
+        for (int i = 0; i < 6; i++) {
+            firmas[i] = ScriptCompilado.compilar(new ConvertBytesToOP(Fixtures.script("firma" + (i + 1))));
+            llaves[i] = ScriptCompilado.compilar(new ConvertBytesToOP(Fixtures.script("llave" + (i + 1))));
+        }
+        firmas[6] = ScriptCompilado.compilar(new ConvertBytesToOP(new byte[0]));
+        llaves[6] = ScriptCompilado.compilar(new ConvertBytesToOP(numerico));
+
+        codigosFirmas = new byte[pares][];
+        codigosLlaves = new byte[pares][];
+        for (int i = 0; i < pares; i++) {
+            codigosFirmas[i] = codigos(firmas[i]);
+            codigosLlaves[i] = codigos(llaves[i]);
+        }
+        stack = new ScriptStack();
+    }
+
+    private static byte[] codigos(ScriptCompilado programa) {
+        byte[] codigos = new byte[programa.getLongitud()];
+        for (int pc = 0; pc < codigos.length; pc++) {
+            codigos[pc] = programa.getOpcode(pc).getCode();
+        }
+        return codigos;
+    }
+
+    @Benchmark
+    public int enumLegado() {
+        int validos = 0;
+        for (int i = 0; i < firmas.length; i++) {
+            stack.clear();
+            if (ejecutarLegado(firmas[i], codigosFirmas[i]) == ScriptError.OK
+                    && ejecutarLegado(llaves[i], codigosLlaves[i]) == ScriptError.OK
+                    && !stack.isEmpty() && stack.popEsVerdadero()) {
+                validos++;
+            }
+        }
+        return validos;
+    }
+
+    @Benchmark
+    public int switchPorTabla() {
+        int validos = 0;
+        for (int i = 0; i < firmas.length; i++) {
+            stack.clear();
+            if (Interprete.ejecutar(firmas[i], stack) == ScriptError.OK
+                    && Interprete.ejecutar(llaves[i], stack) == ScriptError.OK
+                    && !stack.isEmpty() && stack.popEsVerdadero()) {
+                validos++;
+            }
+        }
+        return validos;
+    }
+
+    @Benchmark
+    public ScriptError enumLegadoNumerico() {
+        stack.clear();
+        return ejecutarLegado(llaves[6], codigosLlaves[6]);
+    }
+
+    @Benchmark
+    public ScriptError switchPorTablaNumerico() {
+        stack.clear();
+        return Interprete.ejecutar(llaves[6], stack);
+    }
+
+    // El ciclo del Controlador anterior: fromId, isPUSHDATA y un override por instrucción
+    private ScriptError ejecutarLegado(ScriptCompilado programa, byte[] codigos) {
+        ConvertBytesToOP convertidor = programa.getConvertidor();
+        int pc = 0;
+
+        while (pc < codigos.length) {
+            OpcodeLegado opcode = OpcodeLegado.fromId(codigos[pc]);
+            ScriptError error = ScriptError.OK;
+
+            if (opcode == OpcodeLegado.OP_IF) {
+                if (stack.isEmpty()) {
+                    return ScriptError.STACK_UNDERFLOW;
+                }
+                pc = opcode.evaluar(stack) ? pc + 1 : programa.getOperando(pc);
+            }
+            else if (opcode == OpcodeLegado.OP_ELSE) {
+                pc = programa.getOperando(pc);
+            }
+            else if (opcode == OpcodeLegado.OP_ENDIF) {
+                pc++;
+            }
+            else if (OpcodeLegado.isPUSHDATA(opcode)) {
+                int carga = programa.getOperando(pc);
+                stack.pushSlice(convertidor.getLinea(), convertidor.getOffsetCarga(carga), convertidor.getLongitudCarga(carga));
+                pc++;
+            }
+            else {
+                error = opcode.ejecutar(null, stack);
+                pc++;
+            }
+
+            if (error != ScriptError.OK) {
+                return error;
+            }
+        }
+
+        return ScriptError.OK;
+    }
+}
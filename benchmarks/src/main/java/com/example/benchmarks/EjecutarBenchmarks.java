@@ -0,0 +1,29 @@
+package com.example.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+    * Punto de entrada de benchmarks.jar.
+    * Acepta los mismos argumentos que la línea de comandos de JMH
+    * (por ejemplo un filtro por nombre, -f, -wi o -i) y agrega siempre el
+    * profiler de GC, para que cada resultado de throughput venga acompañado
+    * de la tasa de asignación de memoria (gc.alloc.rate.norm).
+ */
+public final class EjecutarBenchmarks {
+
+    private EjecutarBenchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options opciones = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(opciones).run();
+    }
+}
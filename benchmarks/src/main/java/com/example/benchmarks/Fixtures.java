@@ -0,0 +1,45 @@
+package com.example.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+
+/**
+    * Acceso a los scripts de prueba firma*.txt y llave*.txt, empaquetados
+    * como recursos del jar de benchmarks para que corran sin depender
+    * del directorio de trabajo.
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+        * Lee un recurso de texto con un script en hexadecimal y lo decodifica.
+        *
+        * @param nombre nombre del recurso sin extensión, por ejemplo {@code "llave5"}
+        * @return el script en bytes crudos
+     */
+    static byte[] script(String nombre) {
+        return HexFormat.of().parseHex(texto(nombre).strip());
+    }
+
+    /**
+        * Lee un recurso de texto tal como está en disco.
+        *
+        * @param nombre nombre del recurso sin extensión
+        * @return el contenido del recurso
+     */
+    static String texto(String nombre) {
+        try (InputStream entrada = Fixtures.class.getResourceAsStream("/" + nombre + ".txt")) {
+            if (entrada == null) {
+                throw new IllegalArgumentException("No existe el recurso " + nombre + ".txt");
+            }
+            return new String(entrada.readAllBytes(), StandardCharsets.US_ASCII);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
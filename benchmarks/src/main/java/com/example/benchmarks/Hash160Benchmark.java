@@ -0,0 +1,80 @@
+package com.example.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.OPCODES.Hash160;
+
+/**
+    * Mide {@link Hash160#hash160(byte[])} con los tamaños de entrada
+    * típicos de OP_HASH160: llaves públicas comprimidas (33 bytes) y sin
+    * comprimir (65 bytes).
+    *
+    * Los benchmarks de lote hashean {@link #TAMANO_LOTE} llaves por operación,
+    * una a una con el API por llamada o de una vez con
+    * {@link Hash160#hash160Batch(byte[][], byte[], int)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Hash160Benchmark {
+
+    @Param({"33", "65"})
+    public int longitud;
+
+    static final int TAMANO_LOTE = 4096;
+
+    private byte[] llave;
+    private byte[][] lote;
+    private byte[] salidaLote;
+
+    @Setup
+    public void generar() {
+        Random random = new Random(longitud);
+        llave = new byte[longitud];
+        random.nextBytes(llave);
+
+        lote = new byte[TAMANO_LOTE][longitud];
+        for (byte[] llaveLote : lote) {
+            random.nextBytes(llaveLote);
+        }
+        salidaLote = new byte[TAMANO_LOTE * Hash160.LONGITUD_HASH160];
+    }
+
+    @Benchmark
+    public byte[] hash160() throws Exception {
+        return Hash160.hash160(llave);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TAMANO_LOTE)
+    public byte[] loteLlamadaPorLlamada() throws Exception {
+        for (int i = 0; i < TAMANO_LOTE; i++) {
+            Hash160.hash160(lote[i], 0, longitud, salidaLote, i * Hash160.LONGITUD_HASH160);
+        }
+        return salidaLote;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TAMANO_LOTE)
+    public byte[] loteHash160Batch() {
+        Hash160.hash160Batch(lote, salidaLote, 0);
+        return salidaLote;
+    }
+}
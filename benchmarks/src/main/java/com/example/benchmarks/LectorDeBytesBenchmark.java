@@ -0,0 +1,58 @@
+package com.example.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.LectorDeBytes;
+
+/**
+    * Mide la lectura de un script hexadecimal desde disco con
+    * {@link LectorDeBytes#getByteArray(String)}. El archivo se copia a un
+    * directorio temporal porque el lector trabaja con rutas, no con recursos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LectorDeBytesBenchmark {
+
+    @Param({"llave1", "llave5", "firma1"})
+    public String script;
+
+    private Path archivo;
+
+    @Setup(Level.Trial)
+    public void crearArchivo() throws IOException {
+        archivo = Files.createTempFile("benchmark-" + script, ".txt");
+        Files.writeString(archivo, Fixtures.texto(script), StandardCharsets.US_ASCII);
+    }
+
+    @TearDown(Level.Trial)
+    public void borrarArchivo() throws IOException {
+        Files.deleteIfExists(archivo);
+    }
+
+    @Benchmark
+    public byte[] getByteArray() throws IOException {
+        return LectorDeBytes.getByteArray(archivo.toString());
+    }
+}
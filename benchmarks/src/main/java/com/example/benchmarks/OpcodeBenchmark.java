@@ -0,0 +1,86 @@
+package com.example.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.ScriptStack;
+import com.example.OPCODES.OPCODE;
+
+/**
+    * Mide llamadas individuales a {@link OPCODE#aplicar(byte[], ScriptStack)}.
+    * Cada benchmark deja el stack en el mismo estado en que lo encontró
+    * (pusheando sus operandos y sacando su resultado), para que las
+    * iteraciones sean independientes entre sí.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpcodeBenchmark {
+
+    private ScriptStack stack;
+    private byte[] carga;
+    private byte[] hash;
+
+    @Setup
+    public void preparar() throws Exception {
+        stack = new ScriptStack();
+        carga = Fixtures.script("firma3");
+        hash = new byte[20];
+    }
+
+    @Benchmark
+    public byte[] op16() throws Exception {
+        OPCODE.OP_16.aplicar(null, stack);
+        return stack.popItem();
+    }
+
+    @Benchmark
+    public byte[] pushData() throws Exception {
+        OPCODE.OP_PUSHDATA1.aplicar(carga, stack);
+        return stack.popItem();
+    }
+
+    @Benchmark
+    public byte[] dupDrop() throws Exception {
+        stack.pushItem(carga);
+        OPCODE.OP_DUP.aplicar(null, stack);
+        OPCODE.OP_DROP.aplicar(null, stack);
+        return stack.popItem();
+    }
+
+    @Benchmark
+    public byte[] equal() throws Exception {
+        stack.pushItem(hash);
+        stack.pushItem(hash);
+        OPCODE.OP_EQUAL.aplicar(null, stack);
+        return stack.popItem();
+    }
+
+    @Benchmark
+    public byte[] checkSig() throws Exception {
+        stack.pushItem(carga);
+        stack.pushItem(carga);
+        OPCODE.OP_CHECKSIG.aplicar(null, stack);
+        return stack.popItem();
+    }
+
+    @Benchmark
+    public byte[] hash160() throws Exception {
+        stack.pushItem(carga);
+        OPCODE.OP_HASH160.aplicar(null, stack);
+        return stack.popItem();
+    }
+}
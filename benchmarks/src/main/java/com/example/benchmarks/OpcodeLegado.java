@@ -0,0 +1,501 @@
+package com.example.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.example.ScriptError;
+import com.example.ScriptStack;
+
+/**
+    * Copia congelada del enum OPCODE tal como era antes del despacho por tabla:
+    * un override de ejecutar y evaluar por cada const, búsqueda por byte en un
+    * {@code Map<Byte, OpcodeLegado>} e isPUSHDATA con tres equals.
+    * Solo existe para que {@link DespachoBenchmark} compare ambos diseños
+    * sobre el mismo stack; no debe usarse fuera de los benchmarks.
+ */
+public enum OpcodeLegado {
+
+    OP_0((byte) 0x00) {
+        @Override
+        public ScriptError ejecutar(byte[] dato, ScriptStack stack) {
+            stack.pushNumero(0);
+            return ScriptError.OK;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    },
+
+    OP_1((byte) 0x51) {
+        @Override
+        public ScriptError ejecutar(byte[] d, ScriptStack s) {
+            s.pushNumero(1);
+            return ScriptError.OK;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    },
+
+    OP_2((byte) 0x52) {
+        @Override
+        public ScriptError ejecutar(byte[] d, ScriptStack s) {
+            s.pushNumero(2);
+            return ScriptError.OK;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    },
+
+    OP_3((byte) 0x53) {
+        @Override
+        public ScriptError ejecutar(byte[] d, ScriptStack s) {
+            s.pushNumero(3);
+            return ScriptError.OK;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    },
+
+    OP_4((byte) 0x54) {
+        @Override
+        public ScriptError ejecutar(byte[] d, ScriptStack s) {
+            s.pushNumero(4);
+            return ScriptError.OK;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    },
+
+    OP_5((byte) 0x55) {
+        @Override
+        public ScriptError ejecutar(byte[] d, ScriptStack s) {
+            s.pushNumero(5);
+            return ScriptError.OK;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    },
+
+    OP_6((byte) 0x56) {
+        @Override
+        public ScriptError ejecutar(byte[] d, ScriptStack s) {
+            s.pushNumero(6);
+            return ScriptError.OK;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    },
+
+    OP_7((byte) 0x57) {
+        @Override
+        public ScriptError ejecutar(byte[] d, ScriptStack s) {
+            s.pushNumero(7);
+            return ScriptError.OK;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    },
+
+    OP_8((byte) 0x58) {
+        @Override
+        public ScriptError ejecutar(byte[] d, ScriptStack s) {
+            s.pushNumero(8);
+            return ScriptError.OK;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    },
+
+    OP_9((byte) 0x59) {
+        @Override
+        public ScriptError ejecutar(byte[] d, ScriptStack s) {
+            s.pushNumero(9);
+            return ScriptError.OK;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    },
+
+    OP_10((byte) 0x5a) {
+        @Override
+        public ScriptError ejecutar(byte[] d, ScriptStack s) {
+            s.pushNumero(10);
+            return ScriptError.OK;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    },
+
+    OP_11((byte) 0x5b) {
+        @Override
+        public ScriptError ejecutar(byte[] d, ScriptStack s) {
+            s.pushNumero(11);
+            return ScriptError.OK;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    },
+
+    OP_12((byte) 0x5c) {
+        @Override
+        public ScriptError ejecutar(byte[] d, ScriptStack s) {
+            s.pushNumero(12);
+            return ScriptError.OK;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    },
+
+    OP_13((byte) 0x5d) {
+        @Override
+        public ScriptError ejecutar(byte[] d, ScriptStack s) {
+            s.pushNumero(13);
+            return ScriptError.OK;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    },
+
+    OP_14((byte) 0x5e) {
+        @Override
+        public ScriptError ejecutar(byte[] d, ScriptStack s) {
+            s.pushNumero(14);
+            return ScriptError.OK;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    },
+
+    OP_15((byte) 0x5f) {
+        @Override
+        public ScriptError ejecutar(byte[] d, ScriptStack s) {
+            s.pushNumero(15);
+            return ScriptError.OK;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    },
+
+    OP_16((byte) 0x60) {
+        @Override
+        public ScriptError ejecutar(byte[] d, ScriptStack s) {
+            s.pushNumero(16);
+            return ScriptError.OK;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    },
+
+    OP_PUSHDATA1((byte) 0x4c) {
+        @Override
+        public ScriptError ejecutar(byte[] dato, ScriptStack stack) {
+            stack.pushItem(dato);
+            return ScriptError.OK;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    },
+
+    OP_PUSHDATA2((byte) 0x4d) {
+        @Override
+        public ScriptError ejecutar(byte[] dato, ScriptStack stack) {
+            stack.pushItem(dato);
+            return ScriptError.OK;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    },
+
+    OP_PUSHDATA4((byte) 0x4e) {
+        @Override
+        public ScriptError ejecutar(byte[] dato, ScriptStack stack) {
+            stack.pushItem(dato);
+            return ScriptError.OK;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    },
+
+    OP_DUP((byte) 0x76) {
+        @Override
+        public ScriptError ejecutar(byte[] dato, ScriptStack stack) {
+            if (stack.size() < 1)
+                return ScriptError.STACK_UNDERFLOW;
+
+            stack.duplicarTope();
+            return ScriptError.OK;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    },
+
+    OP_DROP((byte) 0x75) {
+        @Override
+        public ScriptError ejecutar(byte[] dato, ScriptStack stack) {
+            if (stack.size() < 1)
+                return ScriptError.STACK_UNDERFLOW;
+
+            stack.descartar(1);
+            return ScriptError.OK;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    },
+
+    OP_EQUAL((byte) 0x87) {
+        @Override
+        public ScriptError ejecutar(byte[] dato, ScriptStack stack) {
+            if (stack.size() < 2)
+                return ScriptError.STACK_UNDERFLOW;
+
+            boolean iguales = stack.itemsIguales(0, 1);
+            stack.descartar(2);
+
+            stack.pushNumero(iguales ? 1 : 0);
+            return ScriptError.OK;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    },
+
+    OP_EQUALVERIFY((byte) 0x88) {
+        @Override
+        public ScriptError ejecutar(byte[] dato, ScriptStack stack) {
+            if (stack.size() < 2)
+                return ScriptError.STACK_UNDERFLOW;
+
+            boolean iguales = stack.itemsIguales(0, 1);
+            stack.descartar(2);
+
+            if (!iguales)
+                return ScriptError.EQUALVERIFY;
+
+            return ScriptError.OK;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    },
+
+    OP_HASH160((byte) 0xa9) {
+        @Override
+        public ScriptError ejecutar(byte[] dato, ScriptStack stack) {
+            if (stack.size() < 1)
+                return ScriptError.STACK_UNDERFLOW;
+
+            stack.hash160Tope();
+            return ScriptError.OK;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    },
+
+    OP_CHECKSIG((byte) 0xac) {
+        @Override
+        public ScriptError ejecutar(byte[] dato, ScriptStack stack) {
+            if (stack.size() < 2)
+                return ScriptError.STACK_UNDERFLOW;
+
+            // Mock: la firma es válida si es igual a la llave pública
+            boolean firmaValida = stack.itemsIguales(0, 1);
+            stack.descartar(2);
+
+            stack.pushNumero(firmaValida ? 1 : 0);
+            return ScriptError.OK;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    },
+
+    OP_CHECKMULTISIG((byte) 0xae){
+        @Override
+        public ScriptError ejecutar(byte[] dato, ScriptStack stack) {
+            if (stack.size() < 1)
+                return ScriptError.STACK_UNDERFLOW;
+
+            int cantPubKey = leerConteo(stack, 0);
+            if (cantPubKey < 0)
+                return ScriptError.PUBKEY_COUNT;
+            if (stack.size() < cantPubKey + 2)
+                return ScriptError.STACK_UNDERFLOW;
+
+            int cantSig = leerConteo(stack, cantPubKey + 1);
+            if (cantSig < 1 || cantSig > cantPubKey)
+                return ScriptError.SIG_COUNT;
+            if (stack.size() < cantPubKey + cantSig + 2)
+                return ScriptError.STACK_UNDERFLOW;
+
+            // Profundidad de la primera llave y de la primera firma
+            int baseLlaves = 1;
+            int baseFirmas = cantPubKey + 2;
+
+            int contExitos = 0;
+            int indexCurrentPubKey = 0;
+
+            while (indexCurrentPubKey < cantPubKey && contExitos < cantSig) {
+                if (stack.itemsIguales(baseFirmas + contExitos, baseLlaves + indexCurrentPubKey)) {
+                    contExitos++;
+                }
+
+                indexCurrentPubKey++;
+            }
+
+            if (contExitos != cantSig)
+                return ScriptError.CHECKMULTISIG;
+
+            stack.descartar(cantPubKey + cantSig + 2);
+            stack.pushNumero(1);
+            return ScriptError.OK;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    },
+
+    OP_IF((byte) 0x63) {
+        @Override
+        public ScriptError ejecutar(byte[] dato, ScriptStack stack) {
+            return ScriptError.OK;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            return stack.popEsVerdadero();
+        }
+    },
+
+    OP_ELSE((byte) 0x67){
+        @Override
+        public ScriptError ejecutar(byte[] dato, ScriptStack stack) {
+            return ScriptError.UNBALANCED_CONDITIONAL;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    },
+
+    OP_ENDIF((byte) 0x68){
+        @Override
+        public ScriptError ejecutar(byte[] dato, ScriptStack stack) {
+            return ScriptError.UNBALANCED_CONDITIONAL;
+        }
+
+        @Override
+        public boolean evaluar(ScriptStack stack) {
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+        }
+    };
+
+    private static final Map<Byte, OpcodeLegado> BY_CODE = new HashMap<>();
+
+    static {
+        for (OpcodeLegado op : values()) {
+            BY_CODE.put(op.code, op);
+        }
+    }
+
+    // El identificador byte asignado al protocolo Bitcoin
+    private final byte code;
+
+    OpcodeLegado(byte code) {
+        this.code = code;
+    }
+
+    public abstract ScriptError ejecutar(byte[] dato, ScriptStack stack);
+    public abstract boolean evaluar(ScriptStack stack);
+
+    public static OpcodeLegado fromId(byte code) {
+        OpcodeLegado op = BY_CODE.get(code);
+        if (op == null)
+            throw new IllegalArgumentException("Codigo no valido: " + code);
+        return op;
+    }
+
+    private static int leerConteo(ScriptStack stack, int profundidad) {
+        return stack.longitudItem(profundidad) == 0 ? 0 : stack.byteDeItem(profundidad, 0);
+    }
+
+    public static boolean isPUSHDATA(OpcodeLegado op){
+        return (op.equals(OpcodeLegado.OP_PUSHDATA1) || op.equals(OpcodeLegado.OP_PUSHDATA2) || op.equals(OpcodeLegado.OP_PUSHDATA4)); 
+    }
+}
\ No newline at end of file
@@ -0,0 +1,444 @@
+package com.example;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.example.OPCODES.OPCODE;
+
+/**
+    * Análisis estático de un script parseado, hecho antes de ejecutarlo.
+    *
+    * Recorre los OPCODES de {@link ConvertBytesToOP} una sola vez, sin tocar
+    * el stack ni calcular hashes, y por cada camino posible del script sigue
+    * un intervalo [mínimo, máximo] con la profundidad que tendría el stack.
+    * Los condicionales se siguen con un estado por rama: en un OP_ELSE se
+    * alternan la rama de la condición verdadera y la de la falsa, y en el
+    * OP_ENDIF ambos intervalos se unen. Si la condición de un OP_IF es un
+    * OP_0..OP_16 pusheado justo antes, solo se sigue la rama que se tomará.
+    *
+    * Un camino muere cuando una instrucción necesita más elementos que la
+    * profundidad máxima posible, o cuando un OP_CHECKMULTISIG recibe 0 llaves
+    * de un OP_0 literal. Si todos los caminos mueren, el script falla con
+    * cualquier entrada y {@link #getError()} reporta el primer motivo
+    * encontrado en el recorrido. El análisis es conservador: nunca rechaza
+    * un script que la ejecución aceptaría, pero el motivo que reporta puede
+    * diferir del que daría la ejecución si antes hay una instrucción que
+    * falla según los datos (como OP_EQUALVERIFY), o un camino que muere
+    * mientras otro sigue vivo. {@link #puedeFallarAntes()} indica ese caso,
+    * y {@link #analizarTransaccion} solo reporta un rechazo cuando no ocurre.
+    *
+    * Además calcula la profundidad máxima que puede alcanzar el stack y un
+    * costo estimado, en unidades relativas, que suma todas las instrucciones
+    * del script sin importar qué rama se tome.
+    *
+    * @see ConvertBytesToOP
+    * @see Controlador
+ */
+public final class AnalisisScript {
+
+    // Costo estimado de cada instrucción que no tiene un costo propio
+    private static final int COSTO_INSTRUCCION = 1;
+
+    // Costo de OP_HASH160: dos digests sobre el elemento de la cima
+    private static final int COSTO_HASH160 = 10;
+
+    // Llaves que se suponen en un OP_CHECKMULTISIG cuya cantidad no se conoce
+    private static final int LLAVES_MULTISIG_DESCONOCIDAS = 20;
+
+    private final ScriptError error;
+    // true si la ejecución puede fallar, según los datos, antes o en lugar del error probado
+    private final boolean puedeFallarAntes;
+    // Intervalo de profundidad con el que empezó el análisis
+    private final int entradaMinima;
+    private final int entradaMaxima;
+    private final int profundidadMinima;
+    private final int profundidadMaxima;
+    private final int profundidadPico;
+    private final long costoEstimado;
+
+    private AnalisisScript(ScriptError error, boolean puedeFallarAntes, int entradaMinima, int entradaMaxima,
+                           int profundidadMinima, int profundidadMaxima, int profundidadPico, long costoEstimado) {
+        this.error = error;
+        this.puedeFallarAntes = puedeFallarAntes;
+        this.entradaMinima = entradaMinima;
+        this.entradaMaxima = entradaMaxima;
+        this.profundidadMinima = profundidadMinima;
+        this.profundidadMaxima = profundidadMaxima;
+        this.profundidadPico = profundidadPico;
+        this.costoEstimado = costoEstimado;
+    }
+
+    /**
+        * Analiza un script que se ejecuta sobre un stack vacío, como el scriptSig.
+        *
+        * @param convertidor el script parseado
+        * @return el resultado del análisis
+     */
+    public static AnalisisScript analizar(ConvertBytesToOP convertidor) {
+        return analizar(convertidor, 0, 0);
+    }
+
+    /**
+        * Analiza un script que empieza con una profundidad de stack dentro
+        * del intervalo indicado, como el scriptPubKey después del scriptSig.
+        *
+        * @param convertidor       el script parseado
+        * @param profundidadMinima profundidad mínima del stack al empezar
+        * @param profundidadMaxima profundidad máxima del stack al empezar
+        * @return el resultado del análisis
+        * @throws IllegalArgumentException si el intervalo es inválido
+     */
+    public static AnalisisScript analizar(ConvertBytesToOP convertidor, int profundidadMinima, int profundidadMaxima) {
+        if (profundidadMinima < 0 || profundidadMinima > profundidadMaxima) {
+            throw new IllegalArgumentException("Intervalo de profundidad invalido: [" + profundidadMinima + ", " + profundidadMaxima + "]");
+        }
+        if (convertidor.getError() != ScriptError.OK) {
+            // Un error de parseo se reporta antes de ejecutar cualquier instrucción del script
+            return new AnalisisScript(convertidor.getError(), false, profundidadMinima, profundidadMaxima, 0, 0, profundidadMaxima, 0);
+        }
+
+        List<OPCODE> opcodes = convertidor.getOpcodes();
+
+        // Estado de la rama actual
+        int min = profundidadMinima;
+        int max = profundidadMaxima;
+        boolean viva = true;
+        // Valor del OP_0..OP_16 que está en la cima, o -1 si no se conoce
+        int cima = -1;
+
+        // Por cada OP_IF abierto, el estado de la rama que no se está recorriendo; crecen con el anidamiento
+        int[] otrasMin = null;
+        int[] otrasMax = null;
+        boolean[] otrasVivas = null;
+        int abiertos = 0;
+        boolean puedeFallarAntes = false;
+
+        int pico = profundidadMaxima;
+        long costo = 0;
+        ScriptError primerError = null;
+        int indiceCarga = 0;
+
+        for (OPCODE opcode : opcodes) {
+            costo += COSTO_INSTRUCCION;
+
+            if (opcode == OPCODE.OP_IF) {
+                boolean verdaderaViva = false;
+                boolean falsaViva = false;
+
+                if (viva && max < 1) {
+                    primerError = primerError == null ? ScriptError.STACK_UNDERFLOW : primerError;
+                    puedeFallarAntes |= hayOtroCamino(otrasVivas, abiertos);
+                }
+                else if (viva) {
+                    puedeFallarAntes |= min < 1;
+                    min = Math.max(min, 1) - 1;
+                    max--;
+                    verdaderaViva = cima < 0 || cima == 1;
+                    falsaViva = cima != 1;
+                }
+
+                if (otrasMin == null) {
+                    otrasMin = new int[4];
+                    otrasMax = new int[4];
+                    otrasVivas = new boolean[4];
+                }
+                else if (abiertos == otrasMin.length) {
+                    otrasMin = Arrays.copyOf(otrasMin, abiertos * 2);
+                    otrasMax = Arrays.copyOf(otrasMax, abiertos * 2);
+                    otrasVivas = Arrays.copyOf(otrasVivas, abiertos * 2);
+                }
+                otrasMin[abiertos] = min;
+                otrasMax[abiertos] = max;
+                otrasVivas[abiertos] = falsaViva;
+                abiertos++;
+                viva = verdaderaViva;
+                cima = -1;
+                continue;
+            }
+
+            if (opcode == OPCODE.OP_ELSE || opcode == OPCODE.OP_ENDIF) {
+                if (abiertos == 0) {
+                    // Los condicionales desbalanceados se reportan antes de ejecutar el script
+                    return new AnalisisScript(ScriptError.UNBALANCED_CONDITIONAL, false, profundidadMinima, profundidadMaxima, 0, 0, pico, costo);
+                }
+
+                int otraMin = otrasMin[abiertos - 1];
+                int otraMax = otrasMax[abiertos - 1];
+                boolean otraViva = otrasVivas[abiertos - 1];
+
+                if (opcode == OPCODE.OP_ELSE) {
+                    otrasMin[abiertos - 1] = min;
+                    otrasMax[abiertos - 1] = max;
+                    otrasVivas[abiertos - 1] = viva;
+                    min = otraMin;
+                    max = otraMax;
+                    viva = otraViva;
+                }
+                else {
+                    abiertos--;
+                    if (viva && otraViva) {
+                        min = Math.min(min, otraMin);
+                        max = Math.max(max, otraMax);
+                    }
+                    else if (otraViva) {
+                        min = otraMin;
+                        max = otraMax;
+                        viva = true;
+                    }
+                }
+                cima = -1;
+                continue;
+            }
+
+            if (OPCODE.isPUSHDATA(opcode)) {
+                costo += convertidor.getLongitudCarga(indiceCarga++) / 64;
+            }
+            else if (opcode == OPCODE.OP_HASH160) {
+                costo += COSTO_HASH160;
+            }
+            else if (opcode == OPCODE.OP_CHECKMULTISIG) {
+                costo += cima > 0 ? cima : LLAVES_MULTISIG_DESCONOCIDAS;
+            }
+
+            if (!viva) {
+                cima = -1;
+                continue;
+            }
+
+            // Elementos que la instrucción necesita y elementos que deja en su lugar
+            int requeridos;
+            int minRetirados;
+            int maxRetirados;
+            int pusheados;
+
+            switch (opcode) {
+                case OP_DUP:
+                    requeridos = 1;
+                    minRetirados = maxRetirados = 0;
+                    pusheados = 1;
+                    break;
+
+                case OP_DROP:
+                    requeridos = minRetirados = maxRetirados = 1;
+                    pusheados = 0;
+                    break;
+
+                case OP_HASH160:
+                    requeridos = 1;
+                    minRetirados = maxRetirados = 0;
+                    pusheados = 0;
+                    break;
+
+                case OP_EQUAL:
+                case OP_CHECKSIG:
+                    requeridos = 2;
+                    minRetirados = maxRetirados = 2;
+                    pusheados = 1;
+                    break;
+
+                case OP_EQUALVERIFY:
+                    requeridos = minRetirados = maxRetirados = 2;
+                    pusheados = 0;
+                    break;
+
+                case OP_CHECKMULTISIG:
+                    if (cima == 0 && max >= 2) {
+                        // Con n = 0 ningún m es válido, pero si m puede faltar el error es STACK_UNDERFLOW
+                        puedeFallarAntes |= min < 2 || hayOtroCamino(otrasVivas, abiertos);
+                        primerError = primerError == null ? ScriptError.SIG_COUNT : primerError;
+                        viva = false;
+                        continue;
+                    }
+                    // Qué error da, y si da alguno, depende de los conteos, las firmas y el límite de llaves
+                    puedeFallarAntes |= cima != 0;
+                    // Se retiran n, las n llaves, m y entre 1 y n firmas; si n no se conoce, al menos 1
+                    requeridos = minRetirados = cima > 0 ? cima + 3 : cima == 0 ? 2 : 4;
+                    maxRetirados = cima > 0 ? 2 * cima + 2 : Integer.MAX_VALUE;
+                    pusheados = 1;
+                    break;
+
+                default:
+                    // OP_0..OP_16 y PUSHDATA
+                    requeridos = minRetirados = maxRetirados = 0;
+                    pusheados = 1;
+            }
+
+            if (max < requeridos) {
+                primerError = primerError == null ? ScriptError.STACK_UNDERFLOW : primerError;
+                puedeFallarAntes |= hayOtroCamino(otrasVivas, abiertos);
+                viva = false;
+                continue;
+            }
+            // Con menos elementos la instrucción falla; con suficientes, OP_EQUALVERIFY falla según los datos
+            puedeFallarAntes |= min < requeridos || opcode == OPCODE.OP_EQUALVERIFY;
+
+            min = Math.max(Math.max(min, requeridos) - maxRetirados, 0) + pusheados;
+            max = max - minRetirados + pusheados;
+            pico = Math.max(pico, max);
+
+            int valor = OPCODE.valorNumerico(opcode);
+            if (valor >= 0) {
+                cima = valor;
+            }
+            else if (opcode != OPCODE.OP_DUP) {
+                cima = -1;
+            }
+        }
+
+        if (abiertos != 0) {
+            return new AnalisisScript(ScriptError.UNBALANCED_CONDITIONAL, false, profundidadMinima, profundidadMaxima, 0, 0, pico, costo);
+        }
+        if (!viva) {
+            return new AnalisisScript(primerError, puedeFallarAntes, profundidadMinima, profundidadMaxima, 0, 0, pico, costo);
+        }
+        return new AnalisisScript(ScriptError.OK, puedeFallarAntes, profundidadMinima, profundidadMaxima, min, max, pico, costo);
+    }
+
+    // Indica si alguno de los OP_IF abiertos tiene otra rama que todavía puede ejecutarse
+    private static boolean hayOtroCamino(boolean[] otrasVivas, int abiertos) {
+        for (int i = 0; i < abiertos; i++) {
+            if (otrasVivas[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+        * Analiza la transacción completa: el scriptSig desde un stack vacío y
+        * el scriptPubKey desde la profundidad con la que termina el scriptSig.
+        * Un stack que termina vacío no se reporta aquí: la verificación final
+        * es barata y la ejecución da un motivo más preciso.
+        *
+        * Solo se reporta un rechazo si es exactamente el primer error que
+        * daría la ejecución con los límites de consenso: ninguna instrucción
+        * anterior puede fallar según los datos ni superar el límite de
+        * elementos del stack. Si no, se retorna {@link ScriptError#OK} y la
+        * ejecución decide.
+        *
+        * @param firma        el scriptSig parseado
+        * @param llavePublica el scriptPubKey parseado
+        * @return {@link ScriptError#OK} si la transacción puede ser válida o
+        * fallar por otro motivo antes, o el error que la ejecución reportará
+     */
+    public static ScriptError analizarTransaccion(ConvertBytesToOP firma, ConvertBytesToOP llavePublica) {
+        AnalisisScript analisisFirma = analizar(firma);
+        AnalisisScript analisisLlave = analisisFirma.isRechazado()
+                ? null
+                : analizar(llavePublica, analisisFirma.getProfundidadMinima(), analisisFirma.getProfundidadMaxima());
+        return rechazo(analisisFirma, analisisLlave, LimitesScript.CONSENSO);
+    }
+
+    /**
+        * Igual que {@link #analizarTransaccion(ConvertBytesToOP, ConvertBytesToOP)},
+        * pero sobre programas compilados, que conservan su análisis: un
+        * scriptPubKey de {@link CacheScripts} se analiza una sola vez por
+        * cada profundidad de entrada distinta, no en cada evaluación.
+        *
+        * @param firma        el scriptSig compilado
+        * @param llavePublica el scriptPubKey compilado
+        * @param limites      los límites con los que se ejecutará el par
+        * @return {@link ScriptError#OK}, o el error que la ejecución reportará
+     */
+    static ScriptError analizarTransaccion(ScriptCompilado firma, ScriptCompilado llavePublica, LimitesScript limites) {
+        AnalisisScript analisisFirma = firma.getAnalisis(0, 0);
+        AnalisisScript analisisLlave = analisisFirma.isRechazado()
+                ? null
+                : llavePublica.getAnalisis(analisisFirma.getProfundidadMinima(), analisisFirma.getProfundidadMaxima());
+        return rechazo(analisisFirma, analisisLlave, limites);
+    }
+
+    // El rechazo seguro del par, o OK si el error probado podría no ser el primero de la ejecución
+    private static ScriptError rechazo(AnalisisScript firma, AnalisisScript llave, LimitesScript limites) {
+        int maxElementos = limites.getMaxElementosStack();
+        if (firma.puedeFallarAntes || firma.profundidadPico > maxElementos) {
+            return ScriptError.OK;
+        }
+        if (firma.isRechazado()) {
+            return firma.error;
+        }
+        if (llave.puedeFallarAntes || llave.profundidadPico > maxElementos) {
+            return ScriptError.OK;
+        }
+        return llave.error;
+    }
+
+    /**
+        * Indica si el análisis corresponde al intervalo de profundidad de entrada indicado.
+        *
+        * @param profundidadMinima profundidad mínima del stack al empezar
+        * @param profundidadMaxima profundidad máxima del stack al empezar
+        * @return {@code true} si el análisis empezó con exactamente ese intervalo
+     */
+    boolean empiezaCon(int profundidadMinima, int profundidadMaxima) {
+        return entradaMinima == profundidadMinima && entradaMaxima == profundidadMaxima;
+    }
+
+    /**
+        * Retorna el error que la ejecución producirá con cualquier entrada.
+        *
+        * @return {@link ScriptError#OK} si algún camino del script puede terminar sin errores
+     */
+    public ScriptError getError() {
+        return error;
+    }
+
+    /**
+        * Indica si alguna instrucción puede fallar, según los datos o el camino
+        * que tome la ejecución, antes del error que reporta {@link #getError()}
+        * o en lugar de él; en un script no rechazado, si puede fallar en absoluto.
+        *
+        * @return {@code false} si el error reportado es con seguridad el primero de la ejecución
+     */
+    public boolean puedeFallarAntes() {
+        return puedeFallarAntes;
+    }
+
+    /**
+        * Indica si el script falla con cualquier entrada y puede rechazarse sin ejecutarlo.
+        *
+        * @return {@code true} si {@link #getError()} no es {@link ScriptError#OK}
+     */
+    public boolean isRechazado() {
+        return error != ScriptError.OK;
+    }
+
+    /**
+        * Retorna la menor profundidad posible del stack al terminar el script.
+        *
+        * @return la profundidad mínima, o 0 si el script fue rechazado
+     */
+    public int getProfundidadMinima() {
+        return profundidadMinima;
+    }
+
+    /**
+        * Retorna la mayor profundidad posible del stack al terminar el script.
+        *
+        * @return la profundidad máxima, o 0 si el script fue rechazado
+     */
+    public int getProfundidadMaxima() {
+        return profundidadMaxima;
+    }
+
+    /**
+        * Retorna la mayor profundidad que el stack puede alcanzar en algún
+        * punto del script.
+        *
+        * @return la profundidad pico
+     */
+    public int getProfundidadPico() {
+        return profundidadPico;
+    }
+
+    /**
+        * Retorna el costo estimado de ejecutar el script, en unidades relativas:
+        * 1 por instrucción, más el tamaño de las cargas, los hashes y las
+        * llaves que compara OP_CHECKMULTISIG. Cuenta todas las ramas.
+        *
+        * @return el costo estimado
+     */
+    public long getCostoEstimado() {
+        return costoEstimado;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example;
 
+import java.util.Arrays;
 import java.util.Scanner;
  /**
     * Parte vista del programa
@@ -9,7 +10,9 @@ import java.util.Scanner;
     *
     * Acepta el argumento --trace al iniciar para activar el modo de
     * trazabilidad desde la línea de comandos, o permite habilitarlo
-    * por sesión desde la opción 2 del menú.
+    * por sesión desde la opción 2 del menú. Con --batch no muestra el menú:
+    * valida un manifiesto completo en paralelo (ver {@link ProcesadorLote}).
+    * Con --serve atiende validaciones por HTTP (ver {@link ServidorValidacion}).
     *
     * @see Controlador
 */
@@ -26,13 +29,31 @@ public class App {
     /**
      * Método principal que inicia el programa y muestra el menú.
      * Permite al usuario elegir opciones para cargar archivos o evaluar transacciones.
-     * @param args Argumentos de la línea de comandos. Usa --trace para habilitar el modo de trazabilidad.
+     * @param args Argumentos de la línea de comandos. Usa --trace para habilitar el modo de trazabilidad,
+     * --batch manifiesto.tsv [--threads N] [--out resultados.tsv] para el modo por lotes,
+     * o --serve [--port P] [--max-in-flight N] para el servicio HTTP.
      * @throws Exception Si ocurre un error durante la ejecución.
      */
     public static void main(String[] args) throws Exception {
         boolean continuar = true;
         int opcion = 0;
         
+        if (Arrays.asList(args).contains("--serve")) {
+            int codigo = ServidorValidacion.ejecutar(args);
+            if (codigo != 0) {
+                System.exit(codigo);
+            }
+            return;
+        }
+
+        if (Arrays.asList(args).contains("--batch")) {
+            int codigo = ProcesadorLote.ejecutar(args);
+            if (codigo != 0) {
+                System.exit(codigo);
+            }
+            return;
+        }
+
         if (args.length > 0 && args[0].equals("--trace")) {
             traceMode = true;
         }
@@ -0,0 +1,386 @@
+package com.example;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+    * Caché concurrente y acotada de scripts ya parseados y compilados,
+    * indexada por el contenido de sus bytes.
+    *
+    * En producción los mismos scriptPubKey (direcciones populares, multisig
+    * estándar) se repiten constantemente; con esta caché, un script que ya
+    * se vio antes se reutiliza sin volver a pasar por {@link ConvertBytesToOP}
+    * ni por {@link ScriptCompilado#compilarEvaluado(ConvertBytesToOP)}, que
+    * además deja evaluada la parte del script que no depende del scriptSig.
+    * Los {@link ScriptCompilado} son inmutables una vez construidos, por lo
+    * que una misma entrada puede ejecutarse desde varios hilos a la vez.
+    *
+    * La clave es una copia de los bytes del script con su hash precalculado;
+    * dos scripts solo se consideran iguales si sus bytes coinciden, así que
+    * una colisión de hash nunca devuelve el programa equivocado.
+    *
+    * Las entradas se reparten en segmentos, cada uno con su propio lock,
+    * para que hilos que buscan scripts distintos no compitan entre sí.
+    * La política de desalojo se elige al construir la caché:
+    * <ul>
+    *   <li>{@link PoliticaDesalojo#LRU}: desaloja la entrada usada hace más tiempo.</li>
+    *   <li>{@link PoliticaDesalojo#W_TINYLFU}: las entradas nuevas llegan a una
+    *   ventana LRU pequeña; al salir de ella solo entran a la zona principal
+    *   si su frecuencia estimada supera a la de la víctima de esa zona.
+    *   Protege a los scripts frecuentes de ser desplazados por ráfagas de
+    *   scripts que se ven una sola vez.</li>
+    * </ul>
+    *
+    * @see ScriptCompilado
+    * @see Controlador
+ */
+public final class CacheScripts {
+
+    /**
+        * Políticas de desalojo disponibles.
+     */
+    public enum PoliticaDesalojo {
+        LRU,
+        W_TINYLFU
+    }
+
+    // Capacidad a partir de la cual la caché se divide en varios segmentos
+    private static final int CAPACIDAD_MINIMA_SEGMENTADA = 1024;
+
+    private static final int SEGMENTOS = 16;
+
+    private final Segmento[] segmentos;
+    private final PoliticaDesalojo politica;
+    private final int capacidad;
+
+    // Límites con los que se parsean los scripts que entran a la caché
+    private final LimitesScript limites;
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder desalojos = new LongAdder();
+
+    /**
+        * Crea una caché con la política W-TinyLFU.
+        *
+        * @param capacidad cantidad máxima de scripts que conserva la caché
+     */
+    public CacheScripts(int capacidad) {
+        this(capacidad, PoliticaDesalojo.W_TINYLFU);
+    }
+
+    /**
+        * Crea una caché con la política de desalojo indicada.
+        *
+        * @param capacidad cantidad máxima de scripts que conserva la caché
+        * @param politica  la política que decide qué entrada desalojar
+        * @throws IllegalArgumentException si la capacidad no es positiva
+     */
+    public CacheScripts(int capacidad, PoliticaDesalojo politica) {
+        this(capacidad, politica, LimitesScript.CONSENSO);
+    }
+
+    /**
+        * Crea una caché que parsea los scripts con límites distintos de los
+        * de consenso. Solo puede usarla un Controlador con los mismos límites.
+        *
+        * @param capacidad cantidad máxima de scripts que conserva la caché
+        * @param politica  la política que decide qué entrada desalojar
+        * @param limites   los límites con los que se parsean los scripts
+        * @throws IllegalArgumentException si la capacidad no es positiva
+     */
+    public CacheScripts(int capacidad, PoliticaDesalojo politica, LimitesScript limites) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad de la cache debe ser positiva");
+        }
+
+        this.capacidad = capacidad;
+        this.politica = politica;
+        this.limites = limites;
+
+        int cantidadSegmentos = capacidad >= CAPACIDAD_MINIMA_SEGMENTADA ? SEGMENTOS : 1;
+        segmentos = new Segmento[cantidadSegmentos];
+        for (int i = 0; i < cantidadSegmentos; i++) {
+            int capacidadSegmento = capacidad / cantidadSegmentos + (i < capacidad % cantidadSegmentos ? 1 : 0);
+            segmentos[i] = new Segmento(capacidadSegmento, politica);
+        }
+    }
+
+    /**
+        * Retorna el programa compilado del script, compilándolo y guardándolo
+        * en la caché si no estaba.
+        * La compilación ocurre fuera del lock del segmento, para que un script
+        * largo no bloquee a los demás hilos.
+        *
+        * @param script los bytes crudos del script
+        * @return el programa compilado correspondiente. Un script que no puede
+        * parsearse también se guarda, con su error en {@link ScriptCompilado#getError()},
+        * para que un script inválido repetido tampoco se vuelva a parsear.
+        * La excepción son los scripts más largos que el límite: se rechazan
+        * sin copiarlos ni guardarlos
+     */
+    public ScriptCompilado obtener(byte[] script) {
+        if (script.length > limites.getMaxTamanoScript()) {
+            return ScriptCompilado.compilar(new ConvertBytesToOP(script, 0, script.length, limites));
+        }
+
+        ClaveScript clave = new ClaveScript(script);
+        Segmento segmento = segmentos[(clave.hash >>> 16) & (segmentos.length - 1)];
+
+        ScriptCompilado programa = segmento.buscar(clave);
+        if (programa != null) {
+            aciertos.increment();
+            return programa;
+        }
+
+        fallos.increment();
+        ClaveScript claveCopia = new ClaveScript(script.clone(), clave.hash);
+        programa = ScriptCompilado.compilarEvaluado(new ConvertBytesToOP(claveCopia.bytes, 0, claveCopia.bytes.length, limites));
+        return segmento.insertar(claveCopia, programa, desalojos);
+    }
+
+    /**
+        * Retorna la cantidad de búsquedas que encontraron el script en la caché.
+        *
+        * @return número de aciertos
+     */
+    public long getAciertos() {
+        return aciertos.sum();
+    }
+
+    /**
+        * Retorna la cantidad de búsquedas que tuvieron que compilar el script.
+        *
+        * @return número de fallos
+     */
+    public long getFallos() {
+        return fallos.sum();
+    }
+
+    /**
+        * Retorna la cantidad de entradas desalojadas o rechazadas por falta de espacio.
+        *
+        * @return número de desalojos
+     */
+    public long getDesalojos() {
+        return desalojos.sum();
+    }
+
+    /**
+        * Retorna la cantidad de scripts guardados actualmente.
+        *
+        * @return número de entradas en la caché
+     */
+    public int getTamano() {
+        int tamano = 0;
+        for (Segmento segmento : segmentos) {
+            tamano += segmento.tamano();
+        }
+        return tamano;
+    }
+
+    /**
+        * Retorna la capacidad máxima configurada.
+        *
+        * @return cantidad máxima de entradas
+     */
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    /**
+        * Retorna la política de desalojo configurada.
+        *
+        * @return la política de desalojo
+     */
+    public PoliticaDesalojo getPolitica() {
+        return politica;
+    }
+
+    /**
+        * Retorna los límites con los que se parsean los scripts de la caché.
+        *
+        * @return los límites configurados
+     */
+    public LimitesScript getLimites() {
+        return limites;
+    }
+
+    /**
+        * Clave de la caché: los bytes del script con su hash precalculado.
+     */
+    private static final class ClaveScript {
+        private final byte[] bytes;
+        private final int hash;
+
+        private ClaveScript(byte[] bytes) {
+            this(bytes, mezclar(Arrays.hashCode(bytes)));
+        }
+
+        private ClaveScript(byte[] bytes, int hash) {
+            this.bytes = bytes;
+            this.hash = hash;
+        }
+
+        // Dispersa los bits del hash para que los bits altos también varíen
+        private static int mezclar(int h) {
+            h ^= h >>> 16;
+            h *= 0x85ebca6b;
+            h ^= h >>> 13;
+            h *= 0xc2b2ae35;
+            return h ^ (h >>> 16);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object otro) {
+            return otro instanceof ClaveScript
+                    && ((ClaveScript) otro).hash == hash
+                    && Arrays.equals(((ClaveScript) otro).bytes, bytes);
+        }
+    }
+
+    /**
+        * Porción de la caché protegida por su propio lock.
+        * Con LRU usa un único mapa en orden de acceso; con W-TinyLFU usa una
+        * ventana y una zona principal, ambas en orden de acceso, y un
+        * sketch de frecuencias para decidir las admisiones.
+     */
+    private static final class Segmento {
+        private final LinkedHashMap<ClaveScript, ScriptCompilado> ventana;
+        private final LinkedHashMap<ClaveScript, ScriptCompilado> principal;
+        private final int capacidadVentana;
+        private final int capacidadPrincipal;
+        private final SketchFrecuencias sketch;
+
+        private Segmento(int capacidad, PoliticaDesalojo politica) {
+            if (politica == PoliticaDesalojo.LRU || capacidad < 2) {
+                capacidadVentana = capacidad;
+                capacidadPrincipal = 0;
+                sketch = null;
+            }
+            else {
+                capacidadVentana = Math.max(1, capacidad / 100);
+                capacidadPrincipal = capacidad - capacidadVentana;
+                sketch = new SketchFrecuencias(capacidad);
+            }
+
+            ventana = new LinkedHashMap<>(16, 0.75f, true);
+            principal = new LinkedHashMap<>(16, 0.75f, true);
+        }
+
+        private synchronized ScriptCompilado buscar(ClaveScript clave) {
+            if (sketch != null) {
+                sketch.incrementar(clave.hash);
+            }
+
+            ScriptCompilado programa = ventana.get(clave);
+            return programa != null ? programa : principal.get(clave);
+        }
+
+        private synchronized ScriptCompilado insertar(ClaveScript clave, ScriptCompilado programa, LongAdder desalojos) {
+            ScriptCompilado existente = ventana.get(clave);
+            if (existente == null) {
+                existente = principal.get(clave);
+            }
+            if (existente != null) {
+                return existente;
+            }
+
+            ventana.put(clave, programa);
+            if (ventana.size() <= capacidadVentana) {
+                return programa;
+            }
+
+            Map.Entry<ClaveScript, ScriptCompilado> candidato = extraerMasAntiguo(ventana);
+            if (sketch == null) {
+                desalojos.increment();
+                return programa;
+            }
+
+            if (principal.size() < capacidadPrincipal) {
+                principal.put(candidato.getKey(), candidato.getValue());
+                return programa;
+            }
+
+            ClaveScript victima = principal.keySet().iterator().next();
+            if (sketch.frecuencia(candidato.getKey().hash) > sketch.frecuencia(victima.hash)) {
+                principal.remove(victima);
+                principal.put(candidato.getKey(), candidato.getValue());
+            }
+            desalojos.increment();
+            return programa;
+        }
+
+        private synchronized int tamano() {
+            return ventana.size() + principal.size();
+        }
+
+        private static Map.Entry<ClaveScript, ScriptCompilado> extraerMasAntiguo(LinkedHashMap<ClaveScript, ScriptCompilado> mapa) {
+            Iterator<Map.Entry<ClaveScript, ScriptCompilado>> it = mapa.entrySet().iterator();
+            Map.Entry<ClaveScript, ScriptCompilado> masAntigua = it.next();
+            Map.Entry<ClaveScript, ScriptCompilado> entrada = Map.entry(masAntigua.getKey(), masAntigua.getValue());
+            it.remove();
+            return entrada;
+        }
+    }
+
+    /**
+        * Count-min sketch de cuatro filas que estima cuántas veces se buscó
+        * cada script. Los contadores saturan en 15 y se dividen a la mitad
+        * cada cierta cantidad de incrementos, para que la frecuencia refleje
+        * el uso reciente y no todo el historial.
+     */
+    private static final class SketchFrecuencias {
+        private static final int FILAS = 4;
+        private static final int MAXIMO = 15;
+        private static final int[] SEMILLAS = { 0x9e3779b1, 0x85ebca6b, 0xc2b2ae35, 0x27d4eb2f };
+
+        private final int[] contadores;
+        private final int mascara;
+        private final int muestrasParaEnvejecer;
+        private int muestras;
+
+        private SketchFrecuencias(int capacidad) {
+            int ancho = Integer.highestOneBit(Math.max(16, 4 * capacidad - 1) << 1);
+            contadores = new int[FILAS * ancho];
+            mascara = ancho - 1;
+            muestrasParaEnvejecer = 10 * Math.max(16, capacidad);
+        }
+
+        private int indice(int fila, int hash) {
+            return fila * (mascara + 1) + (((hash * SEMILLAS[fila]) >>> 16 ^ hash * SEMILLAS[fila]) & mascara);
+        }
+
+        private void incrementar(int hash) {
+            for (int fila = 0; fila < FILAS; fila++) {
+                int i = indice(fila, hash);
+                if (contadores[i] < MAXIMO) {
+                    contadores[i]++;
+                }
+            }
+
+            if (++muestras >= muestrasParaEnvejecer) {
+                for (int i = 0; i < contadores.length; i++) {
+                    contadores[i] >>>= 1;
+                }
+                muestras = 0;
+            }
+        }
+
+        private int frecuencia(int hash) {
+            int minimo = MAXIMO;
+            for (int fila = 0; fila < FILAS; fila++) {
+                minimo = Math.min(minimo, contadores[indice(fila, hash)]);
+            }
+            return minimo;
+        }
+    }
+}
@@ -2,9 +2,6 @@ package com.example;
 
 import java.io.IOException;
 
-import java.util.List;
-import java.util.Arrays;
-
 import com.example.OPCODES.OPCODE;
 /**
     * Controlador principal de la validación de transacciones Bitcoin.
@@ -19,6 +16,7 @@ import com.example.OPCODES.OPCODE;
     * exactamente un elemento con valor 1.
     *
     * @see ConvertBytesToOP
+    * @see ScriptCompilado
     * @see ScriptStack
     * @see LectorDeBytes
  */
@@ -29,19 +27,19 @@ public class Controlador {
         * Se limpia al inicio de cada evaluación para garantizar que
         * transacciones anteriores no contaminen el estado actual.
      */
-    private ScriptStack stack = new ScriptStack();
+    private final ScriptStack stack;
 
     /**
-        * Convertidor que procesa los bytes del scriptSig (firma del gastador)
-        * y los traduce a una lista de OPCODES ejecutables.
+        * Programa compilado del scriptSig (firma del gastador),
+        * listo para ejecutarse sobre el stack.
     */
-    private ConvertBytesToOP convertidorFirma;
+    private ScriptCompilado programaFirma;
 
     /**
-        * Convertidor que procesa los bytes del scriptPubKey (llave pública bloqueada)
-        * y los traduce a una lista de OPCODES ejecutables.
+        * Programa compilado del scriptPubKey (llave pública bloqueada),
+        * listo para ejecutarse sobre el stack.
     */
-    private ConvertBytesToOP convertidorLlave;
+    private ScriptCompilado programaLlave;
 
     /**
         * Controla si la ejecución imprime el estado del stack después
@@ -49,12 +47,82 @@ public class Controlador {
      */
     private boolean traceMode = false;
 
+    /**
+        * Caché opcional de scriptPubKey compilados. Si es {@code null},
+        * cada carga vuelve a parsear y compilar la llave pública.
+     */
+    private final CacheScripts cacheLlaves;
+
+    /**
+        * Límites de recursos que se aplican al parsear y ejecutar los scripts.
+        * Los scriptPubKey que vienen de la caché se parsearon con los límites
+        * de la caché.
+     */
+    private final LimitesScript limites;
+
+    /**
+        * Crea un Controlador que parsea y compila cada script que recibe.
+     */
+    public Controlador() {
+        this(null);
+    }
+
+    /**
+        * Crea un Controlador que obtiene los scriptPubKey desde una caché
+        * compartida, de modo que las llaves públicas repetidas no se vuelven
+        * a parsear. La caché puede compartirse entre varios Controladores
+        * en hilos distintos.
+        *
+        * @param cacheLlaves la caché de scriptPubKey compilados, o {@code null}
+        * para no usar caché
+     */
+    public Controlador(CacheScripts cacheLlaves) {
+        this(cacheLlaves, false);
+    }
+
+    /**
+        * Crea un Controlador que puede guardar los elementos de su stack en
+        * una arena reutilizable (ver {@link ScriptStack#conArena()}).
+        * Conviene cuando un mismo Controlador evalúa muchas transacciones
+        * seguidas: después de las primeras, las evaluaciones ya no reservan
+        * memoria para los elementos del stack.
+        *
+        * @param cacheLlaves la caché de scriptPubKey compilados, o {@code null}
+        * para no usar caché
+        * @param usarArena   si es {@code true}, el stack usa el modo arena
+     */
+    public Controlador(CacheScripts cacheLlaves, boolean usarArena) {
+        this(cacheLlaves, usarArena, LimitesScript.CONSENSO);
+    }
+
+    /**
+        * Crea un Controlador que aplica límites de recursos distintos de los
+        * de consenso, por ejemplo para validar scripts de prueba más grandes
+        * o para acotar aún más lo que acepta un servicio expuesto.
+        *
+        * @param cacheLlaves la caché de scriptPubKey compilados, o {@code null}
+        * para no usar caché
+        * @param usarArena   si es {@code true}, el stack usa el modo arena
+        * @param limites     los límites de tamaño, cantidad de OPCODES y stack
+        * @throws IllegalArgumentException si la caché parsea sus scripts con
+        * otros límites, porque los scriptPubKey que salen de ella no respetarían estos
+     */
+    public Controlador(CacheScripts cacheLlaves, boolean usarArena, LimitesScript limites) {
+        if (cacheLlaves != null && !cacheLlaves.getLimites().equals(limites)) {
+            throw new IllegalArgumentException("La cache usa los limites " + cacheLlaves.getLimites()
+                    + " y el Controlador " + limites);
+        }
+
+        this.cacheLlaves = cacheLlaves;
+        this.stack = usarArena ? ScriptStack.conArena() : new ScriptStack();
+        this.limites = limites;
+    }
 
     /**
         * Carga y procesa los scripts de firma y llave pública desde archivos de texto
         * que contienen su representación hexadecimal.
         * Debe llamarse antes de evaluarTransaccion, ya que establece los
-        * convertidores que el evaluador necesita para operar.
+        * programas compilados que el evaluador necesita para operar.
         *
         * @param rutaFirma  ruta al archivo .txt con el scriptSig en hexadecimal
         * @param rutaLlave  ruta al archivo .txt con el scriptPubKey en hexadecimal
@@ -73,8 +141,26 @@ public class Controlador {
             throw new IllegalArgumentException("La ruta del archivo.txt en donde esta la firma o la llave publica es incorrecta(s)");
         }
 
-        convertidorFirma = new ConvertBytesToOP(firma);
-        convertidorLlave = new ConvertBytesToOP(llavePublica);
+        cargarScripts(firma, llavePublica);
+    }
+
+    /**
+        * Carga y compila los scripts de firma y llave pública a partir de
+        * sus bytes crudos, sin pasar por el disco.
+        * Es la entrada que usan los evaluadores en lote, donde los scripts
+        * ya están en memoria.
+        *
+        * Un script con un OPCODE desconocido o un PUSHDATA truncado se carga
+        * igual; el error se reporta al evaluarlo.
+        *
+        * @param firma        el scriptSig en bytes crudos
+        * @param llavePublica el scriptPubKey en bytes crudos
+     */
+    public void cargarScripts(byte[] firma, byte[] llavePublica){
+        programaFirma = ScriptCompilado.compilar(new ConvertBytesToOP(firma, 0, firma.length, limites));
+        programaLlave = cacheLlaves != null
+                ? cacheLlaves.obtener(llavePublica)
+                : ScriptCompilado.compilar(new ConvertBytesToOP(llavePublica, 0, llavePublica.length, limites));
     }
 
     /**
@@ -82,9 +168,9 @@ public class Controlador {
         * del scriptPubKey sobre un stack limpio.
         * Replica el modelo de validación de Bitcoin: el scriptSig aporta
         * los datos de desbloqueo y el scriptPubKey impone las condiciones
-        * que deben cumplirse. Si cualquier OPCODE lanza una excepción durante
-        * la ejecución (por ejemplo OP_EQUALVERIFY al detectar una llave incorrecta),
-        * la transacción se considera inválida sin propagar el error.
+        * que deben cumplirse. Si cualquier OPCODE falla durante la ejecución
+        * (por ejemplo OP_EQUALVERIFY al detectar una llave incorrecta),
+        * la transacción se considera inválida.
         *
         * @param traceMode si es {@code true}, imprime el nombre del OPCODE y el
         * estado del stack después de cada instrucción ejecutada
@@ -95,75 +181,136 @@ public class Controlador {
      */
 
     public boolean evaluarTransaccion(boolean traceMode) throws IllegalStateException{
-        if (convertidorFirma == null || convertidorLlave == null) {
+        return evaluarTransaccionDetallada(traceMode) == ScriptError.OK;
+    }
+
+    /**
+        * Igual que {@link #evaluarTransaccion(boolean)}, pero retorna el motivo
+        * por el que la transacción fue rechazada en lugar de un booleano.
+        * La ejecución no usa excepciones para reportar fallos del script,
+        * así que rechazar una transacción cuesta lo mismo que aceptarla.
+        * Antes de ejecutar, {@link AnalisisScript} descarta los pares que
+        * fallan con cualquier entrada, solo cuando el motivo que encontró es
+        * el mismo primer error que daría la ejecución.
+        *
+        * @param traceMode si es {@code true}, imprime el nombre del OPCODE y el
+        * estado del stack después de cada instrucción ejecutada
+        * @return {@link ScriptError#OK} si la transacción es válida, o el
+        * primer error encontrado
+        * @throws IllegalStateException si obtenerFirmaYLlave no fue llamado antes
+     */
+    public ScriptError evaluarTransaccionDetallada(boolean traceMode) throws IllegalStateException{
+        if (programaFirma == null || programaLlave == null) {
             throw new IllegalStateException("No se han elegido los archivos de donde provienen la llave publica ni la firma");
         }
 
         this.traceMode = traceMode;        
         stack.clear();
 
-        List<byte[]> dataToPushFirma = convertidorFirma.getDataToPush();
-        List<byte[]> dataToPushLlave = convertidorLlave.getDataToPush();
-        List<OPCODE> opcodesFirma = convertidorFirma.getOpcodes();
-        List<OPCODE> opcodesLlave = convertidorLlave.getOpcodes();
-    
-        if (!procesarBlockchain(opcodesFirma, dataToPushFirma)) {
-            return false;
+        // Un par que falla con cualquier entrada se rechaza sin ejecutar ninguna instrucción ni calcular hashes
+        ScriptError rechazo = AnalisisScript.analizarTransaccion(programaFirma, programaLlave, limites);
+        if (rechazo != ScriptError.OK) {
+            if (traceMode) {
+                System.out.println("Rechazado antes de ejecutar: " + rechazo.getMensaje());
+            }
+            return rechazo;
+        }
+
+        // El trace muestra cada OPCODE del script, así que usa el programa sin fusionar
+        ScriptError error = procesarBlockchain(traceMode ? programaFirma : programaFirma.getFusionado());
+        if (error != ScriptError.OK) {
+            return error;
         }
-        else if (!procesarBlockchain(opcodesLlave, dataToPushLlave)){
-            return false;
+
+        error = procesarBlockchain(traceMode ? programaLlave : programaLlave.getFusionado());
+        if (error != ScriptError.OK) {
+            return error;
         }
-        else{
-            return (!stack.isEmpty() && Arrays.equals(stack.popItem(), new byte[]{ 1 }));
+
+        if (!stack.isEmpty() && stack.popEsVerdadero()) {
+            return ScriptError.OK;
         }
+        return ScriptError.EVAL_FALSE;
     }
 
-    private boolean procesarBlockchain(List<OPCODE> opcodes, List<byte[]> dataToPush){
-        int i = 0;
-        
-        int countIfElse = 0;
-        int countIfEnd = 0;
-        boolean aceptar = true;
-
-        while (i < opcodes.size()){
-            try {
-                OPCODE opcode = opcodes.get(i);
-                if (opcode == OPCODE.OP_ELSE) {
-                    aceptar = !aceptar;
-                    countIfElse--;
-                    if (countIfElse < 0) {
-                        throw new Exception("Se tuvo un else sin el if adecuado");
-                    }
-                }
-                else if (opcode == OPCODE.OP_ENDIF) {
-                    aceptar = true;
-                    countIfEnd--;
-                    if (countIfEnd < 0) {
-                        throw new Exception("Se tuvo un else sin el if adecuado");
-                    }
+    /**
+        * Ejecuta un programa compilado sobre el stack compartido.
+        * Los saltos de OP_IF y OP_ELSE ya vienen resueltos, por lo que una
+        * rama descartada se salta directamente y las cargas de los PUSHDATA
+        * se obtienen por su índice precalculado, copiándose solo cuando
+        * el PUSHDATA realmente se ejecuta.
+        * Sin trace, el programa lo ejecuta el ciclo de {@link Interprete}, que
+        * despacha con un único switch; con trace se recorre OPCODE por OPCODE
+        * para poder imprimir cada paso.
+        * La ejecución se detiene en la primera instrucción que reporta un error.
+        *
+        * @param programa el script compilado a ejecutar
+        * @return {@link ScriptError#OK} si el script terminó sin errores, o el
+        * error de parseo, de balance o de ejecución que lo detuvo
+     */
+    private ScriptError procesarBlockchain(ScriptCompilado programa){
+        if (!traceMode) {
+            return Interprete.ejecutar(programa, stack, limites);
+        }
+        if (programa.getError() != ScriptError.OK) {
+            return programa.getError();
+        }
+
+        int pc = 0;
+        int longitud = programa.getLongitud();
+
+        while (pc < longitud){
+            OPCODE opcode = programa.getOpcode(pc);
+            ScriptError error = ScriptError.OK;
+
+            if (opcode == OPCODE.OP_IF) {
+                if (stack.isEmpty()) {
+                    return ScriptError.STACK_UNDERFLOW;
                 }
-                else if (aceptar) {
-                    if (opcode == OPCODE.OP_IF) {
-                        aceptar = opcode.evaluar(stack);
-                        countIfElse++;
-                        countIfEnd++;
-                    }
-                    else if (OPCODE.isPUSHDATA(opcode)) {
-                        execute(opcode, dataToPush.remove(0), stack);
-                    }
-                    else{
-                        execute(opcode, null, stack);
-                    }   
+                pc = opcode.evaluar(stack) ? pc + 1 : programa.getOperando(pc);
+            }
+            else if (opcode == OPCODE.OP_ELSE) {
+                pc = programa.getOperando(pc);
+            }
+            else if (opcode == OPCODE.OP_ENDIF) {
+                pc++;
+            }
+            else if (OPCODE.isPUSHDATA(opcode)) {
+                if (stack.size() >= limites.getMaxElementosStack()) {
+                    return ScriptError.STACK_SIZE;
                 }
-                 
-            } catch (Exception e) {
-                return false;
+                pushCarga(programa, pc);
+                pc++;
+            }
+            else {
+                error = execute(opcode, null, stack);
+                pc++;
             }
 
-            i++;
+            if (error != ScriptError.OK) {
+                return error;
+            }
+            if (stack.size() > limites.getMaxElementosStack()) {
+                return ScriptError.STACK_SIZE;
+            }
         }
 
-        return countIfEnd == 0;
+        return ScriptError.OK;
+    }
+
+    /**
+        * Pushea la carga del PUSHDATA ubicado en la instrucción indicada
+        * copiándola directamente desde el script, sin materializarla antes.
+     */
+    private void pushCarga(ScriptCompilado programa, int pc) {
+        ConvertBytesToOP convertidor = programa.getConvertidor();
+        int indice = programa.getOperando(pc);
+        stack.pushSlice(convertidor.getLinea(), convertidor.getOffsetCarga(indice), convertidor.getLongitudCarga(indice));
+
+        if (traceMode) {
+            System.out.println(programa.getOpcode(pc).name());
+            stack.printStackState();
+        }
     }
 
     /**
@@ -176,15 +323,16 @@ public class Controlador {
         * @param data   la carga de bytes para OPCODES de tipo PUSHDATA;
         * {@code null} para el resto
         * @param stack  el stack compartido sobre el que opera el OPCODE
-        * @throws Exception si el OPCODE encuentra un error durante su ejecución
+        * @return el resultado del OPCODE; el stack solo se imprime si tuvo éxito
      */
 
-    private void execute(OPCODE opcode, byte[] data, ScriptStack stack) throws Exception {
-        opcode.aplicar(data, stack);
+    private ScriptError execute(OPCODE opcode, byte[] data, ScriptStack stack) {
+        ScriptError error = Interprete.ejecutarOperacion(opcode.getCode() & 0xff, data, stack, limites);
 
-        if (traceMode) {
+        if (traceMode && error == ScriptError.OK) {
             System.out.println(opcode.name());
             stack.printStackState();
         }
+        return error;
     }
 }
@@ -1,20 +1,28 @@
 package com.example;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import com.example.OPCODES.OPCODE;
 
 /**
     * Parser que traduce un script Bitcoin en formato de bytes crudos
-    * a dos listas paralelas: los OPCODES identificados y las cargas de datos
+    * a dos secuencias paralelas: los OPCODES identificados y las cargas de datos
     * asociadas a los OPCODES de tipo PUSHDATA.
     *
     * En el protocolo Bitcoin, un script es una secuencia de bytes donde cada
     * byte puede representar un OPCODE o formar parte de una carga de datos.
-    * Esta clase recorre esa secuencia, clasifica cada byte y extrae las cargas
-    * de los PUSHDATA de forma anticipada, dejando todo listo para que el
-    * Controlador pueda ejecutar el script sin necesidad de volver a parsear.
+    * Esta clase recorre esa secuencia, clasifica cada byte y registra la
+    * posición de las cargas de los PUSHDATA de forma anticipada, dejando todo
+    * listo para que el Controlador pueda ejecutar el script sin necesidad de
+    * volver a parsear.
+    *
+    * Las cargas no se copian durante el parseo: solo se guarda su offset y su
+    * longitud dentro del array original. Los bytes se materializan en un
+    * array nuevo únicamente cuando un OPCODE realmente necesita una copia,
+    * por ejemplo al pushear la carga al stack.
     *
     * @see OPCODE
     * @see Controlador
@@ -31,13 +39,23 @@ public class ConvertBytesToOP{
     private int cursor = 0;
 
     /**
-        * Cargas de datos extraídas de los OPCODES de tipo PUSHDATA,
-        * en el mismo orden en que aparecen en el script.
-        * Se mantienen separadas de los OPCODES para que el Controlador
-        * pueda despacharlas de forma independiente al ejecutar cada instrucción.
+        * Offsets, dentro de {@link #linea}, del primer byte de cada carga
+        * de los OPCODES de tipo PUSHDATA, en el mismo orden en que aparecen
+        * en el script. Junto con {@link #longitudesCarga} describe cada carga
+        * como un slice del script original, sin copiar sus bytes.
+     */
+    private int[] offsetsCarga = new int[4];
+
+    /**
+        * Longitud en bytes de cada carga registrada en {@link #offsetsCarga}.
      */
-    private List<byte[]> dataToPush = new ArrayList<>();
+    private int[] longitudesCarga = new int[4];
 
+    /**
+        * Cantidad de cargas registradas; los arrays de offsets y longitudes
+        * pueden tener capacidad sobrante.
+     */
+    private int cantidadCargas = 0;
 
     /**
         * Secuencia de OPCODES identificados en el script, en orden de aparición.
@@ -49,13 +67,32 @@ public class ConvertBytesToOP{
      /**
         * El script Bitcoin en su representación de bytes crudos.
         * Es la fuente de datos que traducirToList y PushDataBytes recorren
-        * durante el parseo inicial.
+        * durante el parseo inicial, y el array al que apuntan los slices
+        * de las cargas. No se modifica ni se copia.
      */
     private byte[] linea;
 
+    // Posiciones, inclusiva y exclusiva, en las que empieza y termina el script dentro de linea
+    private int inicio;
+    private int fin;
+
+    /**
+        * Resultado del parseo: {@link ScriptError#OK} si el script completo
+        * se pudo traducir, o el motivo por el que se detuvo. Un script mal
+        * formado no lanza excepción; el parseo se corta en el primer byte
+        * inválido y el error queda registrado para el Controlador.
+     */
+    private ScriptError error = ScriptError.OK;
+
+    // Límites de tamaño del script, de las cargas y de cantidad de OPCODES
+    private final LimitesScript limites;
+
+    // OPCODES posteriores a OP_16 encontrados hasta ahora; los pushes no cuentan
+    private int cantidadOpcodes = 0;
+
     /**
         * Construye el convertidor a partir de un script en bytes y lo parsea
-        * de inmediato, dejando las listas de OPCODES y datos listas para su consulta.
+        * de inmediato, dejando los OPCODES y los slices de datos listos para su consulta.
         * El parseo ocurre en construcción porque el convertidor no tiene estado
         * válido sin haber procesado el script que lo define.
         *
@@ -64,24 +101,124 @@ public class ConvertBytesToOP{
      */
 
     public ConvertBytesToOP(byte[] linea){
+        this(linea, 0, linea.length);
+    }
+
+    /**
+        * Construye el convertidor a partir de una región de un array más grande,
+        * sin copiarla. Permite parsear scripts que forman parte de un buffer
+        * compartido, como un corpus cargado completo en memoria.
+        *
+        * @param linea  el array que contiene el script
+        * @param inicio posición del primer byte del script dentro de linea
+        * @param fin    posición, exclusiva, del final del script dentro de linea
+        * @throws IndexOutOfBoundsException si la región no está contenida en linea
+     */
+    public ConvertBytesToOP(byte[] linea, int inicio, int fin){
+        this(linea, inicio, fin, LimitesScript.CONSENSO);
+    }
+
+    /**
+        * Construye el convertidor aplicando límites distintos de los de consenso.
+        * Un script más largo que el máximo se rechaza sin recorrerlo; una carga
+        * o una cantidad de OPCODES que supera su límite corta el parseo en ese
+        * punto, con el error correspondiente.
+        *
+        * @param linea   el array que contiene el script
+        * @param inicio  posición del primer byte del script dentro de linea
+        * @param fin     posición, exclusiva, del final del script dentro de linea
+        * @param limites los límites a aplicar
+        * @throws IndexOutOfBoundsException si la región no está contenida en linea
+     */
+    public ConvertBytesToOP(byte[] linea, int inicio, int fin, LimitesScript limites){
+        if (inicio < 0 || fin > linea.length || inicio > fin) {
+            throw new IndexOutOfBoundsException("Region invalida del script: [" + inicio + ", " + fin + ")");
+        }
+
         this.linea = linea;
+        this.cursor = inicio;
+        this.inicio = inicio;
+        this.fin = fin;
+        this.limites = limites;
+
+        if (fin - inicio > limites.getMaxTamanoScript()) {
+            error = ScriptError.SCRIPT_SIZE;
+            return;
+        }
         traducirToList();
     }
 
+    /**
+        * Construye el convertidor a partir de los bytes entre la posición y el
+        * límite de un buffer, como los slices de un {@link CorpusBinario}.
+        * La posición del buffer no cambia.
+        *
+        * @param script el buffer con el script
+     */
+    public ConvertBytesToOP(ByteBuffer script){
+        this(script, LimitesScript.CONSENSO);
+    }
+
+    /**
+        * Igual que {@link #ConvertBytesToOP(ByteBuffer)}, con los límites indicados.
+        * Un buffer respaldado por un array se parsea sin copiarlo; uno directo
+        * o mapeado a memoria se copia en bloque una sola vez, porque los slices
+        * de las cargas apuntan a un array. Un script más largo que el máximo
+        * se rechaza sin copiarlo entero.
+        *
+        * @param script  el buffer con el script
+        * @param limites los límites a aplicar
+     */
+    public ConvertBytesToOP(ByteBuffer script, LimitesScript limites){
+        this(arrayDe(script, limites), inicioDe(script), inicioDe(script) + longitudDe(script, limites), limites);
+    }
+
+    private static byte[] arrayDe(ByteBuffer script, LimitesScript limites) {
+        if (script.hasArray()) {
+            return script.array();
+        }
+        byte[] copia = new byte[longitudDe(script, limites)];
+        script.get(script.position(), copia);
+        return copia;
+    }
+
+    private static int inicioDe(ByteBuffer script) {
+        return script.hasArray() ? script.arrayOffset() + script.position() : 0;
+    }
+
+    // Basta un byte más que el máximo para que el script se rechace por su tamaño
+    private static int longitudDe(ByteBuffer script, LimitesScript limites) {
+        return script.hasArray() ? script.remaining() : (int) Math.min(script.remaining(), limites.getMaxTamanoScript() + 1L);
+    }
+
     /**
         * Recorre el array de bytes del script e identifica cada OPCODE.
-        * Cuando encuentra un OPCODE de tipo PUSHDATA, delega la extracción
+        * Cuando encuentra un OPCODE de tipo PUSHDATA, delega el registro
         * de su carga a PushDataBytes para que el cursor avance correctamente
         * más allá de los bytes de longitud y datos antes de continuar.
-        * El resultado queda almacenado en las listas opcodes y dataToPush.
+        * El resultado queda almacenado en opcodes y en los slices de carga.
      */
     private void traducirToList(){
-        while (cursor < linea.length) {
+        while (cursor < fin) {
             byte byteActual = linea[cursor];
-            opcodes.add(OPCODE.fromId(byteActual));
+            OPCODE opcode = OPCODE.buscarPorId(byteActual);
+            if (opcode == null) {
+                error = ScriptError.BAD_OPCODE;
+                return;
+            }
+            opcodes.add(opcode);
+
+            if ((byteActual & 0xff) > 0x60 && ++cantidadOpcodes > limites.getMaxOpcodes()) {
+                error = ScriptError.OP_COUNT;
+                return;
+            }
 
             if (byteActual == (byte) 0x4c || byteActual == (byte) 0x4d || byteActual == (byte) 0x4e){
-                dataToPush.add(PushDataBytes(byteActual));    
+                ScriptError errorCarga = PushDataBytes(byteActual);
+                if (errorCarga != ScriptError.OK) {
+                    error = errorCarga;
+                    return;
+                }
             }
 
             cursor++;
@@ -89,20 +226,25 @@ public class ConvertBytesToOP{
     }
 
      /**
-        * Extrae la carga de datos de un OPCODE PUSHDATA a partir de la
+        * Registra la carga de datos de un OPCODE PUSHDATA a partir de la
         * posición actual del cursor.
         * Cada variante de PUSHDATA indica en cuántos bytes viene codificada
         * la longitud de la carga: 1 byte para PUSHDATA1, 2 para PUSHDATA2
-        * y 4 para PUSHDATA4. Este método lee primero esos bytes de longitud
-        * y luego los bytes de carga, avanzando el cursor en consecuencia
+        * y 4 para PUSHDATA4, como un entero sin signo little-endian. Este
+        * método lee primero esos bytes de longitud y luego salta sobre los
+        * bytes de carga, anotando su offset y longitud y avanzando el cursor
         * para que traducirToList pueda continuar desde el byte correcto.
+        * La longitud declarada se compara con el límite antes de registrar
+        * nada, así que un encabezado que anuncia gigabytes no cuesta memoria.
         *
         * @param OP el byte identificador del OPCODE PUSHDATA que se está procesando
-        * @return el array de bytes que representa la carga a pushear en el stack
+        * @return {@link ScriptError#PUSH_SIZE} si la carga supera el límite,
+        * {@link ScriptError#PUSH_TRUNCATED} si faltan bytes de longitud o la carga
+        * excede el final del script, o {@link ScriptError#OK}
      */
-    private byte[] PushDataBytes(byte OP){
+    private ScriptError PushDataBytes(byte OP){
         int bytesALeer = 0;
-        int bytesAIngresar = 0;
+        long bytesAIngresar = 0;
 
         switch (OP) {
             case 0x4c: bytesALeer = 1; break;
@@ -112,32 +254,121 @@ public class ConvertBytesToOP{
             default: break;
         }        
 
+        if (cursor + bytesALeer >= fin) {
+            return ScriptError.PUSH_TRUNCATED;
+        }
+
         for (int i = 0; i < bytesALeer; i++) {
             cursor++;
-            bytesAIngresar += linea[cursor];
+            bytesAIngresar |= (long) (linea[cursor] & 0xff) << (8 * i);
         }
 
-        byte[] newHead = new byte[bytesAIngresar];
+        if (bytesAIngresar > limites.getMaxTamanoCarga()) {
+            return ScriptError.PUSH_SIZE;
+        }
+        if (bytesAIngresar > fin - cursor - 1) {
+            return ScriptError.PUSH_TRUNCATED;
+        }
 
-        for (int i = 0; i < bytesAIngresar; i++){
-            cursor++;
-            newHead[i] = linea[cursor];
+        if (cantidadCargas == offsetsCarga.length) {
+            offsetsCarga = Arrays.copyOf(offsetsCarga, cantidadCargas * 2);
+            longitudesCarga = Arrays.copyOf(longitudesCarga, cantidadCargas * 2);
         }
 
-        return newHead;   
+        offsetsCarga[cantidadCargas] = cursor + 1;
+        longitudesCarga[cantidadCargas] = (int) bytesAIngresar;
+        cantidadCargas++;
+
+        cursor += (int) bytesAIngresar;
+        return ScriptError.OK;
     }
+
     /**
         * Retorna la lista de cargas de datos extraídas de los OPCODES PUSHDATA,
         * en el orden en que aparecen en el script original.
-        * El Controlador consume esta lista de forma secuencial al despachar
-        * cada OPCODE PUSHDATA durante la ejecución del script.
+        * Cada llamada materializa una copia nueva de todas las cargas; se
+        * conserva por compatibilidad. Para consumir cargas sin copiarlas se
+        * debe usar {@link #getOffsetCarga(int)} y {@link #getLongitudCarga(int)}.
         *
         * @return lista de arrays de bytes listos para ser pusheados al stack
      */
     public List<byte[]> getDataToPush() {
+        List<byte[]> dataToPush = new ArrayList<>(cantidadCargas);
+        for (int i = 0; i < cantidadCargas; i++) {
+            dataToPush.add(getCarga(i));
+        }
         return dataToPush;
     }
 
+    /**
+        * Materializa la carga indicada en un array nuevo.
+        * Es el único punto del parser que copia bytes; el Controlador lo
+        * invoca solo cuando un PUSHDATA se ejecuta de verdad.
+        *
+        * @param indice posición de la carga, en orden de aparición en el script
+        * @return una copia de los bytes de la carga
+        * @throws IndexOutOfBoundsException si no existe una carga con ese índice
+     */
+    public byte[] getCarga(int indice) {
+        verificarIndiceCarga(indice);
+        int offset = offsetsCarga[indice];
+        return Arrays.copyOfRange(linea, offset, offset + longitudesCarga[indice]);
+    }
+
+    /**
+        * Retorna la carga indicada como una vista de solo lectura sobre el
+        * script original, sin copiar sus bytes.
+        *
+        * @param indice posición de la carga, en orden de aparición en el script
+        * @return un ByteBuffer de solo lectura con exactamente los bytes de la carga
+        * @throws IndexOutOfBoundsException si no existe una carga con ese índice
+     */
+    public ByteBuffer getCargaComoBuffer(int indice) {
+        verificarIndiceCarga(indice);
+        return ByteBuffer.wrap(linea, offsetsCarga[indice], longitudesCarga[indice]).slice().asReadOnlyBuffer();
+    }
+
+    /**
+        * Retorna el offset, dentro de {@link #getLinea()}, del primer byte de la carga indicada.
+        *
+        * @param indice posición de la carga, en orden de aparición en el script
+        * @return offset de la carga en el array original
+     */
+    public int getOffsetCarga(int indice) {
+        verificarIndiceCarga(indice);
+        return offsetsCarga[indice];
+    }
+
+    /**
+        * Retorna la longitud en bytes de la carga indicada.
+        *
+        * @param indice posición de la carga, en orden de aparición en el script
+        * @return longitud de la carga
+     */
+    public int getLongitudCarga(int indice) {
+        verificarIndiceCarga(indice);
+        return longitudesCarga[indice];
+    }
+
+    /**
+        * Retorna la cantidad de cargas PUSHDATA encontradas en el script.
+        *
+        * @return número de cargas registradas
+     */
+    public int getCantidadCargas() {
+        return cantidadCargas;
+    }
+
+    /**
+        * Retorna el array original sobre el que apuntan los slices de carga.
+        * No es una copia: el llamador no debe modificarlo.
+        *
+        * @return el array de bytes del script
+     */
+    public byte[] getLinea() {
+        return linea;
+    }
+
     /**
         * Retorna la secuencia completa de OPCODES identificados en el script,
         * en el orden de aparición original.
@@ -150,4 +381,32 @@ public class ConvertBytesToOP{
     public List<OPCODE> getOpcodes() {
         return opcodes;
     }
-}
\ No newline at end of file
+
+    // Posición del primer byte del script dentro de getLinea()
+    int getInicio() {
+        return inicio;
+    }
+
+    // Posición, exclusiva, del final del script dentro de getLinea()
+    int getFin() {
+        return fin;
+    }
+
+    /**
+        * Retorna el resultado del parseo. Si no es {@link ScriptError#OK},
+        * {@link #getOpcodes()} solo contiene los OPCODES anteriores al byte inválido
+        * y el script no debe ejecutarse.
+        *
+        * @return OK, {@link ScriptError#BAD_OPCODE}, {@link ScriptError#PUSH_TRUNCATED}
+        * o el error del límite que se superó
+     */
+    public ScriptError getError() {
+        return error;
+    }
+
+    private void verificarIndiceCarga(int indice) {
+        if (indice < 0 || indice >= cantidadCargas) {
+            throw new IndexOutOfBoundsException("No existe la carga " + indice);
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package com.example;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+    * Corpus binario de pares (scriptSig, scriptPubKey) con acceso directo a
+    * cualquier registro.
+    *
+    * Guardar los scripts en hexadecimal duplica su tamaño y obliga a
+    * decodificarlos en cada carga. En este formato los scripts se guardan
+    * crudos, y un índice de offsets al final del archivo permite leer el
+    * registro i en O(1). Todos los enteros son little-endian:
+    * <pre>
+    *   "BSC1"                                  encabezado
+    *   u32 longitud, firma, u32 longitud, llave  un registro por par
+    *   u64 offset de cada registro             índice
+    *   u64 offset del índice, u32 cantidad de registros,
+    *   u32 bytes del registro más largo, "BSC1" pie
+    * </pre>
+    *
+    * El archivo se mapea a memoria por segmentos que se solapan en el largo
+    * del registro más largo, así que cada registro cabe entero en el
+    * segmento donde empieza. Los scripts se entregan como slices de solo
+    * lectura de la memoria mapeada, sin copiarlos: {@link InterpreteStreaming}
+    * los ejecuta directamente y {@link ConvertBytesToOP#ConvertBytesToOP(ByteBuffer)}
+    * los parsea con una sola copia en bloque, sin decodificar nada. Recargar
+    * un corpus de varios GB queda dominado por la lectura del page cache.
+    *
+    * Las instancias son inmutables una vez abiertas y pueden leerse desde
+    * varios hilos a la vez.
+    *
+    * @see CorpusScripts
+ */
+public final class CorpusBinario implements Closeable {
+
+    private static final byte[] MAGIA = { 'B', 'S', 'C', '1' };
+
+    // Bytes del pie: offset del índice, cantidad, registro más largo y la marca
+    private static final int TAMANO_PIE = 8 + 4 + 4 + MAGIA.length;
+
+    // Distancia entre el inicio de dos segmentos mapeados consecutivos
+    static final int PASO = 1 << 30;
+
+    private final FileChannel canal;
+    private final int cantidad;
+    private final int paso;
+    private final MappedByteBuffer indice;
+    private final MappedByteBuffer[] segmentos;
+
+    CorpusBinario(Path ruta, int paso) throws IOException {
+        this.canal = FileChannel.open(ruta, StandardOpenOption.READ);
+        this.paso = paso;
+
+        try {
+            long tamano = canal.size();
+            if (tamano < MAGIA.length + TAMANO_PIE) {
+                throw new IOException("Corpus binario invalido: el archivo es demasiado corto");
+            }
+
+            ByteBuffer pie = canal.map(FileChannel.MapMode.READ_ONLY, tamano - TAMANO_PIE, TAMANO_PIE).order(ByteOrder.LITTLE_ENDIAN);
+            long offsetIndice = pie.getLong(0);
+            long cantidadRegistros = Integer.toUnsignedLong(pie.getInt(8));
+            long registroMasLargo = Integer.toUnsignedLong(pie.getInt(12));
+            byte[] magia = new byte[MAGIA.length];
+            pie.get(16, magia);
+
+            if (!Arrays.equals(MAGIA, magia) || offsetIndice < MAGIA.length
+                    || offsetIndice + cantidadRegistros * 8 != tamano - TAMANO_PIE
+                    || cantidadRegistros > Integer.MAX_VALUE / 8
+                    || registroMasLargo > Integer.MAX_VALUE - paso) {
+                throw new IOException("Corpus binario invalido: pie o indice corrupto");
+            }
+
+            this.cantidad = (int) cantidadRegistros;
+            this.indice = canal.map(FileChannel.MapMode.READ_ONLY, offsetIndice, cantidadRegistros * 8);
+            this.indice.order(ByteOrder.LITTLE_ENDIAN);
+
+            // Segmento k: [k * paso, (k + 1) * paso + registroMasLargo) dentro de la zona de registros
+            long finRegistros = offsetIndice;
+            this.segmentos = new MappedByteBuffer[(int) ((finRegistros + paso - 1) / paso)];
+            for (int k = 0; k < segmentos.length; k++) {
+                long desde = (long) k * paso;
+                long largo = Math.min(finRegistros - desde, paso + registroMasLargo);
+                segmentos[k] = canal.map(FileChannel.MapMode.READ_ONLY, desde, largo);
+                segmentos[k].order(ByteOrder.LITTLE_ENDIAN);
+            }
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /**
+        * Abre un corpus binario y lo mapea a memoria.
+        *
+        * @param ruta el archivo escrito por {@link Escritor}
+        * @return el corpus abierto, que debe cerrarse al terminar
+        * @throws IOException si el archivo no existe, no puede mapearse o no
+        * tiene el formato esperado
+     */
+    public static CorpusBinario abrir(Path ruta) throws IOException {
+        return new CorpusBinario(ruta, PASO);
+    }
+
+    /**
+        * Retorna la cantidad de registros del corpus.
+        *
+        * @return la cantidad de pares (scriptSig, scriptPubKey)
+     */
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    /**
+        * Retorna el scriptSig del registro indicado como un slice de la
+        * memoria mapeada, sin copiarlo.
+        *
+        * @param registro posición del registro, empezando en 0
+        * @return un buffer de solo lectura con exactamente los bytes del script
+        * @throws IndexOutOfBoundsException si el registro no existe
+        * @throws IllegalStateException si el registro apunta fuera del archivo
+     */
+    public ByteBuffer getFirma(int registro) {
+        return script(registro, false);
+    }
+
+    /**
+        * Retorna el scriptPubKey del registro indicado como un slice de la
+        * memoria mapeada, sin copiarlo.
+        *
+        * @param registro posición del registro, empezando en 0
+        * @return un buffer de solo lectura con exactamente los bytes del script
+        * @throws IndexOutOfBoundsException si el registro no existe
+        * @throws IllegalStateException si el registro apunta fuera del archivo
+     */
+    public ByteBuffer getLlave(int registro) {
+        return script(registro, true);
+    }
+
+    /**
+        * Cierra el archivo. Los segmentos mapeados se liberan cuando el
+        * recolector de basura los reclama.
+        *
+        * @throws IOException si el archivo no puede cerrarse
+     */
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    private ByteBuffer script(int registro, boolean llave) {
+        long offset = indice.getLong(Objects.checkIndex(registro, cantidad) * 8);
+        if (offset < MAGIA.length || offset / paso >= segmentos.length) {
+            throw new IllegalStateException("Corpus binario corrupto en el registro " + registro);
+        }
+
+        MappedByteBuffer segmento = segmentos[(int) (offset / paso)];
+        int posicion = (int) (offset % paso);
+        try {
+            int longitud = segmento.getInt(posicion);
+            if (llave) {
+                posicion += 4 + longitud;
+                longitud = segmento.getInt(posicion);
+            }
+            return segmento.slice(posicion + 4, longitud);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalStateException("Corpus binario corrupto en el registro " + registro, e);
+        }
+    }
+
+    /**
+        * Escribe un corpus binario registro por registro. El índice y el pie
+        * solo se escriben con {@link #terminar()}; si el escritor se cierra
+        * sin terminar, por ejemplo porque la conversión falló a la mitad, el
+        * archivo se borra, así que un corpus incompleto nunca puede abrirse.
+     */
+    public static final class Escritor implements Closeable {
+
+        private final Path destino;
+        private final OutputStream salida;
+        private final ByteBuffer entero = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+
+        private long[] offsets = new long[1024];
+        private int cantidad;
+        private long posicion;
+        private long registroMasLargo;
+        // true una vez escritos el índice y el pie
+        private boolean terminado;
+
+        /**
+            * Crea el archivo del corpus, reemplazándolo si ya existe.
+            *
+            * @param destino ruta del archivo a escribir
+            * @throws IOException si el archivo no puede crearse
+         */
+        public Escritor(Path destino) throws IOException {
+            this.destino = destino;
+            this.salida = new BufferedOutputStream(Files.newOutputStream(destino), 1 << 16);
+            salida.write(MAGIA);
+            posicion = MAGIA.length;
+        }
+
+        /**
+            * Agrega un par de scripts al corpus.
+            *
+            * @param firma el scriptSig
+            * @param llave el scriptPubKey
+            * @throws IOException si falla la escritura
+            * @throws IllegalStateException si el corpus ya se terminó
+         */
+        public void agregar(byte[] firma, byte[] llave) throws IOException {
+            agregar(firma, 0, firma.length, llave, 0, llave.length);
+        }
+
+        /**
+            * Agrega un par de scripts tomados de regiones de arrays más
+            * grandes, como los buffers de un {@link CorpusScripts.Registro}.
+            *
+            * @param firma          array que contiene el scriptSig
+            * @param inicioFirma    posición del primer byte del scriptSig
+            * @param longitudFirma  bytes del scriptSig, desde el inicio indicado
+            * @param llave          array que contiene el scriptPubKey
+            * @param inicioLlave    posición del primer byte del scriptPubKey
+            * @param longitudLlave  bytes del scriptPubKey, desde el inicio indicado
+            * @throws IOException si falla la escritura o el corpus supera la cantidad máxima de registros
+            * @throws IllegalStateException si el corpus ya se terminó
+         */
+        public void agregar(byte[] firma, int inicioFirma, int longitudFirma, byte[] llave, int inicioLlave, int longitudLlave) throws IOException {
+            Objects.checkFromIndexSize(inicioFirma, longitudFirma, firma.length);
+            Objects.checkFromIndexSize(inicioLlave, longitudLlave, llave.length);
+            if (terminado) {
+                throw new IllegalStateException("El corpus binario ya se termino");
+            }
+            if (cantidad == Integer.MAX_VALUE / 8) {
+                throw new IOException("El corpus binario supera la cantidad maxima de registros");
+            }
+            if (cantidad == offsets.length) {
+                offsets = Arrays.copyOf(offsets, cantidad * 2);
+            }
+            offsets[cantidad++] = posicion;
+
+            escribirEntero(longitudFirma, 4);
+            salida.write(firma, inicioFirma, longitudFirma);
+            escribirEntero(longitudLlave, 4);
+            salida.write(llave, inicioLlave, longitudLlave);
+
+            long largo = 8L + longitudFirma + longitudLlave;
+            posicion += largo;
+            registroMasLargo = Math.max(registroMasLargo, largo);
+        }
+
+        /**
+            * Escribe el índice y el pie, con lo que el corpus queda listo para
+            * abrirse. Después solo puede cerrarse.
+            *
+            * @throws IOException si falla la escritura
+            * @throws IllegalStateException si el corpus ya se terminó
+         */
+        public void terminar() throws IOException {
+            if (terminado) {
+                throw new IllegalStateException("El corpus binario ya se termino");
+            }
+            for (int i = 0; i < cantidad; i++) {
+                escribirEntero(offsets[i], 8);
+            }
+            escribirEntero(posicion, 8);
+            escribirEntero(cantidad, 4);
+            escribirEntero(registroMasLargo, 4);
+            salida.write(MAGIA);
+            salida.flush();
+            terminado = true;
+        }
+
+        /**
+            * Cierra el archivo. Si el corpus no se terminó, lo borra.
+            *
+            * @throws IOException si el archivo no puede cerrarse o borrarse
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                salida.close();
+            } finally {
+                if (!terminado) {
+                    Files.deleteIfExists(destino);
+                }
+            }
+        }
+
+        private void escribirEntero(long valor, int bytes) throws IOException {
+            entero.putLong(0, valor);
+            salida.write(entero.array(), 0, bytes);
+        }
+    }
+
+    /**
+        * Convierte los fixtures en hexadecimal de un directorio, {@code firma1.txt}
+        * con {@code llave1.txt}, {@code firma2.txt} con {@code llave2.txt} y así
+        * hasta el primer número sin par, a un corpus binario. Si la conversión
+        * falla, el destino no queda escrito.
+        *
+        * @param directorio el directorio con los archivos .txt
+        * @param destino    ruta del corpus binario a escribir
+        * @return la cantidad de registros escritos
+        * @throws IOException si algún archivo no puede leerse o escribirse
+     */
+    public static int convertirFixtures(Path directorio, Path destino) throws IOException {
+        int registros = 0;
+        try (Escritor escritor = new Escritor(destino)) {
+            while (true) {
+                Path firma = directorio.resolve("firma" + (registros + 1) + ".txt");
+                Path llave = directorio.resolve("llave" + (registros + 1) + ".txt");
+                if (!Files.exists(firma) || !Files.exists(llave)) {
+                    escritor.terminar();
+                    return registros;
+                }
+                escritor.agregar(LectorDeBytes.getByteArray(firma.toString()), LectorDeBytes.getByteArray(llave.toString()));
+                registros++;
+            }
+        }
+    }
+
+    /**
+        * Convierte un corpus de texto con un par {@code firma,llave} en
+        * hexadecimal por línea (ver {@link CorpusScripts}) a un corpus binario.
+        * Si la conversión falla, el destino no queda escrito.
+        *
+        * @param corpusTexto el corpus en hexadecimal
+        * @param destino     ruta del corpus binario a escribir
+        * @return la cantidad de registros escritos
+        * @throws IOException si algún archivo no puede leerse o escribirse
+        * @throws IllegalArgumentException si una línea no es un par de scripts en hexadecimal
+     */
+    public static int convertir(Path corpusTexto, Path destino) throws IOException {
+        int registros = 0;
+        try (CorpusScripts lector = LectorDeBytes.abrirCorpus(corpusTexto.toString());
+             Escritor escritor = new Escritor(destino)) {
+            while (lector.hasNext()) {
+                CorpusScripts.Registro registro = lector.next();
+                if (registro.getCantidad() != 2) {
+                    throw new IllegalArgumentException("Linea " + registro.getNumeroLinea() + ": se esperaba un par firma,llave");
+                }
+                escritor.agregar(registro.getScript(0), 0, registro.getLongitud(0), registro.getScript(1), 0, registro.getLongitud(1));
+                registros++;
+            }
+            escritor.terminar();
+        }
+        return registros;
+    }
+}
@@ -0,0 +1,264 @@
+package com.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+    * Lector de un corpus de scripts en un archivo de texto, un registro por
+    * línea. Cada línea tiene un script en hexadecimal o varios separados por
+    * comas (por ejemplo {@code firma,llave}); las líneas vacías se ignoran y
+    * se aceptan finales de línea {@code \n} y {@code \r\n}.
+    *
+    * El archivo se mapea a memoria con {@link FileChannel#map} por ventanas
+    * y cada registro se decodifica directamente desde los bytes mapeados a
+    * buffers que se reutilizan entre registros, sin crear un {@code String}
+    * por línea. Un corpus de millones de scripts se recorre con memoria
+    * constante: la que ocupe el registro más largo.
+    *
+    * El iterador es perezoso y siempre retorna el mismo {@link Registro},
+    * que solo es válido hasta la siguiente llamada a {@link #next()}; quien
+    * necesite conservar un script debe copiarlo con {@link Registro#copiar(int)}.
+    * Una instancia no debe compartirse entre hilos.
+    *
+    * @see LectorDeBytes#abrirCorpus(String)
+ */
+public final class CorpusScripts implements Iterator<CorpusScripts.Registro>, Closeable {
+
+    // Tamaño de cada ventana mapeada; un registro no puede ocupar más que una ventana
+    static final int VENTANA = 1 << 30;
+
+    private final FileChannel canal;
+    private final long tamano;
+    private final int ventana;
+
+    private MappedByteBuffer mapa;
+    // Posición en el archivo del primer byte de la ventana actual
+    private long base;
+    // Posición en el archivo del siguiente registro por leer
+    private long posicion;
+    private long numeroLinea;
+    // true si registro ya contiene un registro que next() todavía no retornó
+    private boolean pendiente;
+
+    private final Registro registro = new Registro();
+
+    /**
+        * Un registro del corpus: los scripts de una línea, ya decodificados.
+        * Los arrays que retorna {@link #getScript(int)} son buffers
+        * reutilizados; solo sus primeros {@link #getLongitud(int)} bytes
+        * pertenecen al registro actual.
+     */
+    public static final class Registro {
+
+        private byte[][] scripts = { new byte[64], new byte[64] };
+        private int[] longitudes = new int[2];
+        private int cantidad;
+        private long numeroLinea;
+
+        private Registro() {
+        }
+
+        /**
+            * Retorna la cantidad de scripts de la línea.
+            *
+            * @return 1 para una línea con un solo script, 2 para un par firma,llave
+         */
+        public int getCantidad() {
+            return cantidad;
+        }
+
+        /**
+            * Retorna el buffer que contiene el script indicado. Puede pasarse
+            * a {@link ConvertBytesToOP#ConvertBytesToOP(byte[], int, int)} con
+            * el rango {@code [0, getLongitud(indice))} sin copiarlo.
+            *
+            * @param indice posición del script en la línea, empezando en 0
+            * @return el buffer, válido hasta la siguiente llamada a {@link CorpusScripts#next()}
+            * @throws IndexOutOfBoundsException si la línea no tiene ese script
+         */
+        public byte[] getScript(int indice) {
+            return scripts[Objects.checkIndex(indice, cantidad)];
+        }
+
+        /**
+            * Retorna la cantidad de bytes del script indicado.
+            *
+            * @param indice posición del script en la línea, empezando en 0
+            * @return la longitud del script en bytes
+            * @throws IndexOutOfBoundsException si la línea no tiene ese script
+         */
+        public int getLongitud(int indice) {
+            return longitudes[Objects.checkIndex(indice, cantidad)];
+        }
+
+        /**
+            * Retorna una copia del script indicado que sobrevive al registro.
+            *
+            * @param indice posición del script en la línea, empezando en 0
+            * @return un array nuevo con exactamente los bytes del script
+            * @throws IndexOutOfBoundsException si la línea no tiene ese script
+         */
+        public byte[] copiar(int indice) {
+            return Arrays.copyOf(getScript(indice), longitudes[indice]);
+        }
+
+        /**
+            * Retorna el número de la línea del archivo, empezando en 1.
+            *
+            * @return el número de línea del registro
+         */
+        public long getNumeroLinea() {
+            return numeroLinea;
+        }
+
+        // Reserva el buffer del campo indicado con al menos la capacidad pedida
+        private byte[] preparar(int indice, int capacidad) {
+            if (indice == scripts.length) {
+                scripts = Arrays.copyOf(scripts, indice * 2);
+                longitudes = Arrays.copyOf(longitudes, indice * 2);
+            }
+            if (scripts[indice] == null || scripts[indice].length < capacidad) {
+                scripts[indice] = new byte[Math.max(capacidad, 64)];
+            }
+            longitudes[indice] = capacidad;
+            return scripts[indice];
+        }
+    }
+
+    CorpusScripts(Path ruta, int ventana) throws IOException {
+        this.canal = FileChannel.open(ruta, StandardOpenOption.READ);
+        this.tamano = canal.size();
+        this.ventana = ventana;
+
+        try {
+            mapear(0);
+        } catch (IOException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /**
+        * Indica si quedan registros por leer.
+        *
+        * @return true si {@link #next()} retornará otro registro
+        * @throws UncheckedIOException si no se puede mapear una ventana del archivo
+        * o si un registro no cabe en una ventana
+        * @throws IllegalArgumentException si una línea no es un hexadecimal válido
+     */
+    @Override
+    public boolean hasNext() {
+        while (!pendiente && posicion < tamano) {
+            try {
+                leerLinea();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return pendiente;
+    }
+
+    /**
+        * Retorna el siguiente registro del corpus.
+        *
+        * @return el registro, reutilizado en cada llamada
+        * @throws NoSuchElementException si no quedan registros
+     */
+    @Override
+    public Registro next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        pendiente = false;
+        return registro;
+    }
+
+    /**
+        * Cierra el archivo. La ventana mapeada se libera cuando el recolector
+        * de basura la reclama.
+        *
+        * @throws IOException si el archivo no puede cerrarse
+     */
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    private void mapear(long desde) throws IOException {
+        base = desde;
+        mapa = canal.map(FileChannel.MapMode.READ_ONLY, desde, Math.min(ventana, tamano - desde));
+    }
+
+    // Ubica la línea que empieza en posicion y la decodifica, o la salta si está vacía
+    private void leerLinea() throws IOException {
+        if (posicion - base >= mapa.limit()) {
+            mapear(posicion);
+        }
+
+        int inicio = (int) (posicion - base);
+        int fin = buscarFinDeLinea(inicio);
+        while (fin == mapa.limit() && base + fin < tamano) {
+            // La línea sigue en la ventana siguiente: se remapea desde su inicio
+            if (inicio == 0) {
+                throw new IOException("Linea " + (numeroLinea + 1) + ": el registro no cabe en una ventana de " + ventana + " bytes");
+            }
+            mapear(posicion);
+            inicio = 0;
+            fin = buscarFinDeLinea(0);
+        }
+
+        numeroLinea++;
+        posicion = base + fin + 1;
+
+        int finContenido = fin;
+        if (finContenido > inicio && mapa.get(finContenido - 1) == '\r') {
+            finContenido--;
+        }
+        if (finContenido > inicio) {
+            decodificar(inicio, finContenido);
+            pendiente = true;
+        }
+    }
+
+    private int buscarFinDeLinea(int desde) {
+        int limite = mapa.limit();
+        for (int i = desde; i < limite; i++) {
+            if (mapa.get(i) == '\n') {
+                return i;
+            }
+        }
+        return limite;
+    }
+
+    // Decodifica los campos separados por comas de [inicio, fin) a los buffers del registro
+    private void decodificar(int inicio, int fin) {
+        int campo = 0;
+        int desde = inicio;
+        for (int i = inicio; i <= fin; i++) {
+            if (i == fin || mapa.get(i) == ',') {
+                decodificarCampo(campo++, desde, i);
+                desde = i + 1;
+            }
+        }
+        registro.cantidad = campo;
+        registro.numeroLinea = numeroLinea;
+    }
+
+    private void decodificarCampo(int campo, int desde, int hasta) {
+        byte[] destino = registro.preparar(campo, (hasta - desde) / 2);
+        try {
+            DecodificadorHex.decodificar(mapa, desde, hasta, destino, 0);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Linea " + numeroLinea + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+    * Decodificador de texto hexadecimal a bytes que trabaja directamente
+    * sobre {@code byte[]} y {@link ByteBuffer}, sin pasar por un {@code String}.
+    *
+    * Cada par de caracteres se decodifica con una sola lectura de una tabla
+    * de 64K entradas indexada por los dos caracteres juntos, que además marca
+    * los pares inválidos con un valor negativo; la validación acumula esas
+    * marcas y se verifica una vez por región, sin un salto por caracter.
+    * En las mediciones de DecodificadorHexBenchmark este camino supera tanto
+    * a {@link java.util.HexFormat} como a una variante SWAR que procesaba
+    * ocho caracteres por {@code long}. La validación es estricta: una
+    * longitud impar o un caracter que no sea {@code 0-9}, {@code a-f} o
+    * {@code A-F}, incluidos espacios y saltos de línea, se rechazan con
+    * {@link IllegalArgumentException} indicando la posición.
+    *
+    * Para entradas que no caben en memoria, {@link #decodificar(InputStream, OutputStream)}
+    * decodifica por bloques con un buffer de tamaño fijo.
+    *
+    * @see LectorDeBytes
+ */
+public final class DecodificadorHex {
+
+    // Valor de cada dígito hexadecimal indexado por su byte ASCII, o -1 si no es un dígito
+    private static final byte[] VALORES = new byte[256];
+
+    // Byte que codifican dos caracteres, indexado por (primero << 8) | segundo, o -1 si el par es inválido
+    private static final short[] PARES = new short[1 << 16];
+
+    static {
+        Arrays.fill(VALORES, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            VALORES['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            VALORES['a' + i] = (byte) (10 + i);
+            VALORES['A' + i] = (byte) (10 + i);
+        }
+
+        for (int alto = 0; alto < 256; alto++) {
+            for (int bajo = 0; bajo < 256; bajo++) {
+                boolean valido = VALORES[alto] >= 0 && VALORES[bajo] >= 0;
+                PARES[(alto << 8) | bajo] = (short) (valido ? (VALORES[alto] << 4) | VALORES[bajo] : -1);
+            }
+        }
+    }
+
+    private static final VarHandle SHORT_BE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+
+    // Tamaño del bloque de texto que se lee por vez en modo streaming
+    private static final int BLOQUE = 1 << 16;
+
+    private DecodificadorHex() {
+    }
+
+    /**
+        * Decodifica un array completo de caracteres hexadecimales ASCII.
+        *
+        * @param hex el texto en hexadecimal
+        * @return un array nuevo con los bytes decodificados
+        * @throws IllegalArgumentException si la longitud es impar o algún caracter no es hexadecimal
+     */
+    public static byte[] decodificar(byte[] hex) {
+        byte[] destino = new byte[longitudDecodificada(hex.length, 0)];
+        decodificar(hex, 0, hex.length, destino, 0);
+        return destino;
+    }
+
+    /**
+        * Decodifica la región {@code [inicio, fin)} de un array y escribe los
+        * bytes en otro a partir de la posición indicada. Si la región no es
+        * válida, el destino puede quedar escrito en parte.
+        *
+        * @param hex           el array con el texto en hexadecimal
+        * @param inicio        posición del primer caracter
+        * @param fin           posición, exclusiva, del último caracter
+        * @param destino       el array donde se escriben los bytes
+        * @param offsetDestino posición del primer byte a escribir
+        * @return la cantidad de bytes escritos, {@code (fin - inicio) / 2}
+        * @throws IllegalArgumentException si la longitud es impar o algún caracter no es hexadecimal
+        * @throws IndexOutOfBoundsException si alguna región no está contenida en su array
+     */
+    public static int decodificar(byte[] hex, int inicio, int fin, byte[] destino, int offsetDestino) {
+        return decodificar(hex, inicio, fin, destino, offsetDestino, 0);
+    }
+
+    // Decodifica una región; base se suma a las posiciones que reportan los errores
+    private static int decodificar(byte[] hex, int inicio, int fin, byte[] destino, int offsetDestino, long base) {
+        Objects.checkFromToIndex(inicio, fin, hex.length);
+        int bytes = longitudDecodificada(fin - inicio, inicio);
+        Objects.checkFromIndexSize(offsetDestino, bytes, destino.length);
+
+        // Los errores se acumulan en el bit de signo y se buscan solo si hubo alguno
+        int errores = 0;
+        for (int i = inicio, j = offsetDestino; i < fin; i += 2, j++) {
+            int valor = PARES[(short) SHORT_BE.get(hex, i) & 0xffff];
+            errores |= valor;
+            destino[j] = (byte) valor;
+        }
+        if (errores < 0) {
+            throw caracterInvalido(hex, inicio, base);
+        }
+        return bytes;
+    }
+
+    /**
+        * Decodifica los caracteres entre la posición y el límite de un buffer,
+        * que puede ser directo o mapeado a memoria, y los escribe en otro.
+        * Ambos buffers avanzan su posición.
+        *
+        * @param hex     el buffer con el texto en hexadecimal
+        * @param destino el buffer donde se escriben los bytes
+        * @return la cantidad de bytes escritos
+        * @throws IllegalArgumentException si la longitud es impar o algún caracter no es hexadecimal
+        * @throws BufferOverflowException si el destino no tiene espacio suficiente
+     */
+    public static int decodificar(ByteBuffer hex, ByteBuffer destino) {
+        int bytes = longitudDecodificada(hex.remaining(), 0);
+        if (destino.remaining() < bytes) {
+            throw new BufferOverflowException();
+        }
+
+        if (hex.hasArray() && destino.hasArray() && !destino.isReadOnly()) {
+            int inicio = hex.arrayOffset() + hex.position();
+            decodificar(hex.array(), inicio, inicio + hex.remaining(), destino.array(), destino.arrayOffset() + destino.position());
+        }
+        else {
+            // En big-endian el primer caracter de cada par queda en el byte alto
+            ByteBuffer origen = hex.duplicate().order(ByteOrder.BIG_ENDIAN);
+            int errores = 0;
+            int j = destino.position();
+            for (int i = origen.position(); i < origen.limit(); i += 2, j++) {
+                int valor = PARES[origen.getShort(i) & 0xffff];
+                errores |= valor;
+                destino.put(j, (byte) valor);
+            }
+            if (errores < 0) {
+                throw caracterInvalido(hex, hex.position());
+            }
+        }
+
+        hex.position(hex.limit());
+        destino.position(destino.position() + bytes);
+        return bytes;
+    }
+
+    /**
+        * Decodifica la región {@code [inicio, fin)} de un buffer, que puede ser
+        * directo o mapeado a memoria, con lecturas absolutas: no cambia la
+        * posición del buffer ni crea vistas sobre él. Permite decodificar
+        * muchas regiones de un mismo buffer sin asignar memoria por región.
+        * Si la región no es válida, el destino puede quedar escrito en parte.
+        *
+        * @param hex           el buffer con el texto en hexadecimal
+        * @param inicio        índice del primer caracter
+        * @param fin           índice, exclusivo, del último caracter
+        * @param destino       el array donde se escriben los bytes
+        * @param offsetDestino posición del primer byte a escribir
+        * @return la cantidad de bytes escritos, {@code (fin - inicio) / 2}
+        * @throws IllegalArgumentException si la longitud es impar o algún caracter no es hexadecimal
+        * @throws IndexOutOfBoundsException si alguna región no está contenida en su buffer o array
+     */
+    public static int decodificar(ByteBuffer hex, int inicio, int fin, byte[] destino, int offsetDestino) {
+        Objects.checkFromToIndex(inicio, fin, hex.limit());
+        int bytes = longitudDecodificada(fin - inicio, inicio);
+        Objects.checkFromIndexSize(offsetDestino, bytes, destino.length);
+
+        // getShort respeta el orden del buffer; el primer caracter de cada par va en el byte alto
+        boolean invertir = hex.order() != ByteOrder.BIG_ENDIAN;
+        int errores = 0;
+        for (int i = inicio, j = offsetDestino; i < fin; i += 2, j++) {
+            short par = hex.getShort(i);
+            int valor = PARES[(invertir ? Short.reverseBytes(par) : par) & 0xffff];
+            errores |= valor;
+            destino[j] = (byte) valor;
+        }
+        if (errores < 0) {
+            throw caracterInvalido(hex, inicio);
+        }
+        return bytes;
+    }
+
+    /**
+        * Decodifica un stream de texto hexadecimal de cualquier tamaño y
+        * escribe los bytes en otro, usando memoria constante. Ninguno de los
+        * dos streams se cierra.
+        *
+        * @param hex    el stream con el texto en hexadecimal
+        * @param salida el stream donde se escriben los bytes
+        * @return la cantidad total de bytes escritos
+        * @throws IOException si falla la lectura o la escritura
+        * @throws IllegalArgumentException si la longitud total es impar o algún
+        * caracter no es hexadecimal; la posición indicada se cuenta desde el inicio del stream
+     */
+    public static long decodificar(InputStream hex, OutputStream salida) throws IOException {
+        byte[] texto = new byte[BLOQUE];
+        byte[] bytes = new byte[BLOQUE / 2];
+        long consumidos = 0;
+        long escritos = 0;
+        // Un caracter sin su par queda al inicio del bloque siguiente
+        int pendientes = 0;
+
+        while (true) {
+            int leidos = hex.read(texto, pendientes, texto.length - pendientes);
+            if (leidos < 0) {
+                break;
+            }
+
+            int disponibles = pendientes + leidos;
+            int pares = disponibles & ~1;
+            escritos += decodificar(texto, 0, pares, bytes, 0, consumidos);
+            salida.write(bytes, 0, pares / 2);
+
+            consumidos += pares;
+            pendientes = disponibles - pares;
+            if (pendientes == 1) {
+                texto[0] = texto[pares];
+            }
+        }
+
+        if (pendientes != 0) {
+            throw new IllegalArgumentException("Hexadecimal de longitud impar: " + (consumidos + pendientes) + " caracteres");
+        }
+        return escritos;
+    }
+
+    private static int longitudDecodificada(int caracteres, int inicio) {
+        if ((caracteres & 1) != 0) {
+            throw new IllegalArgumentException("Hexadecimal de longitud impar: " + caracteres + " caracteres desde la posicion " + inicio);
+        }
+        return caracteres / 2;
+    }
+
+    private static IllegalArgumentException caracterInvalido(byte[] hex, int inicio, long base) {
+        for (int i = inicio; ; i++) {
+            if (VALORES[hex[i] & 0xff] < 0) {
+                return new IllegalArgumentException("Caracter hexadecimal invalido en la posicion " + (base + i));
+            }
+        }
+    }
+
+    private static IllegalArgumentException caracterInvalido(ByteBuffer hex, int inicio) {
+        for (int i = inicio; ; i++) {
+            if (VALORES[hex.get(i) & 0xff] < 0) {
+                return new IllegalArgumentException("Caracter hexadecimal invalido en la posicion " + i);
+            }
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.example;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.example.OPCODES.Hash160;
+import com.example.OPCODES.OPCODE;
+
+/**
+    * Evaluación parcial de un script en tiempo de compilación.
+    *
+    * Ejecuta de antemano la parte del script que no depende del stack que
+    * deja el scriptSig: el prefijo de instrucciones que solo operan sobre
+    * constantes pusheadas por el mismo script (pushes, OP_DUP, OP_DROP,
+    * OP_HASH160, OP_EQUAL, OP_CHECKSIG y un OP_EQUALVERIFY que se cumple), y
+    * los OP_IF cuya condición es una de esas constantes, que se reemplazan por
+    * la rama que se toma. El resultado es un script residual: las constantes
+    * que quedaron en el stack como pushes, seguidas del resto del script.
+    * Un scriptPubKey en caché se evalúa una sola vez y cada gasto ejecuta
+    * solo el residuo.
+    *
+    * El residuo produce los mismos resultados y errores que el script
+    * original. Las instrucciones evaluadas no pueden fallar, con una
+    * excepción: el límite de elementos del stack, que depende de cuántos
+    * dejó el scriptSig. Por eso el residuo guarda la altura máxima que
+    * alcanzó la parte evaluada ({@link ScriptCompilado#getMargenStack()}) y
+    * el {@link Interprete} la compara con el stack antes de empezar.
+    *
+    * @see ScriptCompilado#compilarEvaluado(ConvertBytesToOP)
+ */
+final class EvaluadorParcial {
+
+    // El residuo proviene de un script que ya pasó los límites; sus constantes pueden ocupar más bytes
+    private static final LimitesScript SIN_LIMITES = new LimitesScript(Integer.MAX_VALUE, Integer.MAX_VALUE,
+            Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+    private EvaluadorParcial() {
+    }
+
+    /**
+        * Evalúa parcialmente un programa que puede ejecutarse.
+        *
+        * @param programa el programa compilado, sin errores
+        * @return el programa residual fusionado, o {@code null} si la
+        * evaluación no ahorra ninguna instrucción
+     */
+    static ScriptCompilado evaluar(ScriptCompilado programa) {
+        ConvertBytesToOP convertidor = programa.getConvertidor();
+        int margen = 0;
+        boolean cambio = false;
+
+        // Cada OP_IF resuelto deja un residuo nuevo cuyo prefijo puede seguir evaluándose
+        while (true) {
+            Residuo residuo = evaluarPrefijo(convertidor);
+            margen = Math.max(margen, residuo.pico);
+            if (residuo.bytes == null) {
+                break;
+            }
+
+            convertidor = new ConvertBytesToOP(residuo.bytes, 0, residuo.bytes.length, SIN_LIMITES);
+            cambio = true;
+            if (!residuo.resolvioCondicional) {
+                break;
+            }
+        }
+
+        if (!cambio || convertidor.getOpcodes().size() >= programa.getLongitud()) {
+            return null;
+        }
+
+        ScriptCompilado residual = ScriptCompilado.compilar(convertidor).getFusionado();
+        residual.setMargenStack(margen);
+        return residual;
+    }
+
+    // Script residual de una pasada y altura máxima que alcanzaron las constantes
+    private static final class Residuo {
+        final byte[] bytes;
+        final int pico;
+        final boolean resolvioCondicional;
+
+        Residuo(byte[] bytes, int pico, boolean resolvioCondicional) {
+            this.bytes = bytes;
+            this.pico = pico;
+            this.resolvioCondicional = resolvioCondicional;
+        }
+    }
+
+    /**
+        * Ejecuta sobre una lista de constantes el prefijo del script que no
+        * necesita elementos del scriptSig, hasta la primera instrucción que
+        * no puede evaluarse o hasta el primer OP_IF con condición constante.
+        * Retorna bytes null si no se evaluó nada que no fuera un push.
+     */
+    private static Residuo evaluarPrefijo(ConvertBytesToOP convertidor) {
+        List<OPCODE> opcodes = convertidor.getOpcodes();
+        int cantidad = opcodes.size();
+        int[] inicios = iniciosDeInstruccion(convertidor);
+
+        List<byte[]> constantes = new ArrayList<>();
+        int pico = 0;
+        int indiceCarga = 0;
+        boolean soloPushes = true;
+
+        for (int i = 0; i < cantidad; i++) {
+            OPCODE opcode = opcodes.get(i);
+            int tope = constantes.size() - 1;
+            int valor = OPCODE.valorNumerico(opcode);
+
+            if (valor >= 0) {
+                constantes.add(ValoresScript.numero(valor));
+            }
+            else if (OPCODE.isPUSHDATA(opcode)) {
+                constantes.add(convertidor.getCarga(indiceCarga++));
+            }
+            else if (opcode == OPCODE.OP_DUP && tope >= 0) {
+                constantes.add(constantes.get(tope));
+            }
+            else if (opcode == OPCODE.OP_DROP && tope >= 0) {
+                constantes.remove(tope);
+            }
+            else if (opcode == OPCODE.OP_HASH160 && tope >= 0) {
+                constantes.set(tope, Hash160.hash160(constantes.get(tope)));
+            }
+            else if ((opcode == OPCODE.OP_EQUAL || opcode == OPCODE.OP_CHECKSIG) && tope >= 1) {
+                boolean iguales = Arrays.equals(constantes.remove(tope), constantes.remove(tope - 1));
+                constantes.add(ValoresScript.booleano(iguales));
+            }
+            else if (opcode == OPCODE.OP_EQUALVERIFY && tope >= 1 && Arrays.equals(constantes.get(tope), constantes.get(tope - 1))) {
+                constantes.remove(tope);
+                constantes.remove(tope - 1);
+            }
+            else if (opcode == OPCODE.OP_IF && tope >= 0) {
+                boolean condicion = ValoresScript.esVerdadero(constantes.remove(tope));
+                byte[] residuo = resolverCondicional(convertidor, inicios, i, condicion, constantes);
+                return new Residuo(residuo, pico, true);
+            }
+            else {
+                return new Residuo(soloPushes ? null : concatenar(constantes, convertidor, inicios[i], inicios[cantidad]), pico, false);
+            }
+
+            soloPushes &= valor >= 0 || OPCODE.isPUSHDATA(opcode);
+            pico = Math.max(pico, constantes.size());
+        }
+
+        return new Residuo(soloPushes ? null : concatenar(constantes, convertidor, inicios[cantidad], inicios[cantidad]), pico, false);
+    }
+
+    /**
+        * Reemplaza el OP_IF de la posición indicada por las partes de su
+        * bloque que se ejecutan con esa condición: con verdadera, la primera
+        * rama y las que siguen a un número par de OP_ELSE; con falsa, las otras.
+     */
+    private static byte[] resolverCondicional(ConvertBytesToOP convertidor, int[] inicios, int posicionIf, boolean condicion, List<byte[]> constantes) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        escribirConstantes(salida, constantes);
+
+        byte[] linea = convertidor.getLinea();
+        List<OPCODE> opcodes = convertidor.getOpcodes();
+        boolean ramaTomada = condicion;
+        int inicioRama = posicionIf + 1;
+        int profundidad = 0;
+
+        for (int i = posicionIf + 1; ; i++) {
+            OPCODE opcode = opcodes.get(i);
+            if (opcode == OPCODE.OP_IF) {
+                profundidad++;
+            }
+            else if (profundidad > 0 && opcode == OPCODE.OP_ENDIF) {
+                profundidad--;
+            }
+            else if (profundidad == 0 && (opcode == OPCODE.OP_ELSE || opcode == OPCODE.OP_ENDIF)) {
+                if (ramaTomada) {
+                    salida.write(linea, inicios[inicioRama], inicios[i] - inicios[inicioRama]);
+                }
+                if (opcode == OPCODE.OP_ENDIF) {
+                    salida.write(linea, inicios[i + 1], inicios[opcodes.size()] - inicios[i + 1]);
+                    return salida.toByteArray();
+                }
+                ramaTomada = !ramaTomada;
+                inicioRama = i + 1;
+            }
+        }
+    }
+
+    private static byte[] concatenar(List<byte[]> constantes, ConvertBytesToOP convertidor, int desde, int hasta) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        escribirConstantes(salida, constantes);
+        salida.write(convertidor.getLinea(), desde, hasta - desde);
+        return salida.toByteArray();
+    }
+
+    // Codifica cada constante con el push más corto que la reproduce
+    private static void escribirConstantes(ByteArrayOutputStream salida, List<byte[]> constantes) {
+        for (byte[] constante : constantes) {
+            if (constante.length == 1 && constante[0] >= 0 && constante[0] <= 16) {
+                salida.write(constante[0] == 0 ? 0x00 : 0x50 + constante[0]);
+            }
+            else if (constante.length <= 0xff) {
+                salida.write(0x4c);
+                salida.write(constante.length);
+                salida.writeBytes(constante);
+            }
+            else if (constante.length <= 0xffff) {
+                salida.write(0x4d);
+                salida.write(constante.length & 0xff);
+                salida.write(constante.length >>> 8);
+                salida.writeBytes(constante);
+            }
+            else {
+                salida.write(0x4e);
+                for (int i = 0; i < 4; i++) {
+                    salida.write(constante.length >>> (8 * i));
+                }
+                salida.writeBytes(constante);
+            }
+        }
+    }
+
+    // Posición en la línea del primer byte de cada instrucción; la última entrada es el final del script
+    private static int[] iniciosDeInstruccion(ConvertBytesToOP convertidor) {
+        List<OPCODE> opcodes = convertidor.getOpcodes();
+        int[] inicios = new int[opcodes.size() + 1];
+        int posicion = convertidor.getInicio();
+        int indiceCarga = 0;
+
+        for (int i = 0; i < opcodes.size(); i++) {
+            inicios[i] = posicion;
+            if (OPCODE.isPUSHDATA(opcodes.get(i))) {
+                posicion = convertidor.getOffsetCarga(indiceCarga) + convertidor.getLongitudCarga(indiceCarga);
+                indiceCarga++;
+            }
+            else {
+                posicion++;
+            }
+        }
+        inicios[opcodes.size()] = convertidor.getFin();
+        return inicios;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example;
+
+import com.example.OPCODES.Operaciones;
+
+/**
+    * Intérprete de los programas compilados por {@link ScriptCompilado}.
+    *
+    * Todas las instrucciones se despachan con un {@code switch} sobre el byte
+    * de protocolo del OPCODE (o el código de la superinstrucción), con casos
+    * densos que el JIT compila a una tabla de saltos. No hay búsquedas en
+    * mapas ni llamadas virtuales por instrucción. Los OPCODES sueltos se
+    * ejecutan con el switch de {@link Operaciones}, el mismo en el que
+    * delega el enum OPCODE.
+    *
+    * @see ScriptCompilado
+    * @see Controlador
+ */
+public final class Interprete {
+
+    private Interprete() {
+    }
+
+    /**
+        * Ejecuta un programa compilado sobre el stack, deteniéndose en la
+        * primera instrucción que reporta un error. Aplica los límites de
+        * {@link LimitesScript#CONSENSO}.
+        *
+        * @param programa el programa a ejecutar, fusionado o no
+        * @param stack    el stack sobre el que se ejecuta
+        * @return {@link ScriptError#OK} si el programa terminó sin errores, o el
+        * error de parseo, de balance o de ejecución que lo detuvo
+     */
+    public static ScriptError ejecutar(ScriptCompilado programa, ScriptStack stack) {
+        return ejecutar(programa, stack, LimitesScript.CONSENSO);
+    }
+
+    /**
+        * Igual que {@link #ejecutar(ScriptCompilado, ScriptStack)}, con los
+        * límites indicados. Los límites de tamaño y de cantidad de OPCODES
+        * ya los aplicó el parseo; aquí se verifica el tamaño del stack después
+        * de cada instrucción y la cantidad de llaves de OP_CHECKMULTISIG.
+        *
+        * @param programa el programa a ejecutar, fusionado o no
+        * @param stack    el stack sobre el que se ejecuta
+        * @param limites  los límites a aplicar durante la ejecución
+        * @return {@link ScriptError#OK} si el programa terminó sin errores, o el
+        * error de parseo, de balance, de límites o de ejecución que lo detuvo
+     */
+    public static ScriptError ejecutar(ScriptCompilado programa, ScriptStack stack, LimitesScript limites) {
+        if (programa.getError() != ScriptError.OK) {
+            return programa.getError();
+        }
+
+        ConvertBytesToOP convertidor = programa.getConvertidor();
+        byte[] linea = convertidor.getLinea();
+        int longitud = programa.getLongitud();
+        int maxElementos = limites.getMaxElementosStack();
+        int pc = 0;
+
+        // Un residuo de evaluación parcial falla donde el original habría superado el límite
+        if (stack.size() + programa.getMargenStack() > maxElementos) {
+            return ScriptError.STACK_SIZE;
+        }
+
+        while (pc < longitud) {
+            ScriptError error;
+
+            switch (programa.getCodigo(pc)) {
+                case 0x63: // OP_IF
+                    if (stack.isEmpty()) {
+                        return ScriptError.STACK_UNDERFLOW;
+                    }
+                    pc = stack.popEsVerdadero() ? pc + 1 : programa.getOperando(pc);
+                    continue;
+
+                case 0x67: // OP_ELSE
+                    pc = programa.getOperando(pc);
+                    continue;
+
+                case 0x68: // OP_ENDIF
+                    pc++;
+                    continue;
+
+                case 0x4c: // OP_PUSHDATA1
+                case 0x4d: // OP_PUSHDATA2
+                case 0x4e: // OP_PUSHDATA4
+                    int carga = programa.getOperando(pc);
+                    if (stack.size() >= maxElementos) {
+                        return ScriptError.STACK_SIZE;
+                    }
+                    stack.pushSlice(linea, convertidor.getOffsetCarga(carga), convertidor.getLongitudCarga(carga));
+                    pc++;
+                    continue;
+
+                case Superinstruccion.CODIGO_P2PKH:
+                    error = Superinstruccion.P2PKH.ejecutar(programa, pc, stack, limites);
+                    break;
+
+                case Superinstruccion.CODIGO_PUSH_EQUALVERIFY:
+                    error = Superinstruccion.PUSH_EQUALVERIFY.ejecutar(programa, pc, stack, limites);
+                    break;
+
+                case Superinstruccion.CODIGO_PUSH_EQUAL:
+                    error = Superinstruccion.PUSH_EQUAL.ejecutar(programa, pc, stack, limites);
+                    break;
+
+                case Superinstruccion.CODIGO_MULTISIG:
+                    error = Superinstruccion.MULTISIG.ejecutar(programa, pc, stack, limites);
+                    break;
+
+                default:
+                    error = ejecutarOperacion(programa.getCodigo(pc), null, stack, limites);
+                    break;
+            }
+
+            if (error != ScriptError.OK) {
+                return error;
+            }
+            if (stack.size() > maxElementos) {
+                return ScriptError.STACK_SIZE;
+            }
+            pc++;
+        }
+
+        return ScriptError.OK;
+    }
+
+    /**
+        * Ejecuta un OPCODE suelto sobre el stack con {@link Operaciones}; los
+        * condicionales no tienen efecto aquí porque su salto lo resuelve
+        * quien recorre el programa.
+        *
+        * @param codigo el byte de protocolo del OPCODE, entre 0 y 255
+        * @param dato   la carga a pushear para los OP_PUSHDATA; se ignora en el resto
+        * @param stack  el stack sobre el que opera
+        * @return {@link ScriptError#OK} o el error que hizo fallar al OPCODE
+     */
+    public static ScriptError ejecutarOperacion(int codigo, byte[] dato, ScriptStack stack) {
+        return ejecutarOperacion(codigo, dato, stack, LimitesScript.CONSENSO);
+    }
+
+    /**
+        * Igual que {@link #ejecutarOperacion(int, byte[], ScriptStack)}, con
+        * el límite de llaves de OP_CHECKMULTISIG indicado. El tamaño del stack
+        * lo verifica quien recorre el programa.
+        *
+        * @param codigo  el byte de protocolo del OPCODE, entre 0 y 255
+        * @param dato    la carga a pushear para los OP_PUSHDATA; se ignora en el resto
+        * @param stack   el stack sobre el que opera
+        * @param limites los límites a aplicar
+        * @return {@link ScriptError#OK} o el error que hizo fallar al OPCODE
+     */
+    public static ScriptError ejecutarOperacion(int codigo, byte[] dato, ScriptStack stack, LimitesScript limites) {
+        return Operaciones.ejecutar(codigo, dato, stack, limites);
+    }
+}
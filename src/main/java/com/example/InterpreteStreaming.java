@@ -0,0 +1,457 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import com.example.OPCODES.OPCODE;
+
+/**
+    * Intérprete que decodifica y ejecuta un script en una sola pasada sobre
+    * sus bytes, sin construir antes un {@link ConvertBytesToOP} ni un
+    * {@link ScriptCompilado}.
+    *
+    * Cada OPCODE se ejecuta apenas se lee, así que un script que falla en
+    * sus primeras instrucciones se rechaza sin leer el resto: ni el scriptSig
+    * ni el scriptPubKey pagan un parseo completo. Como los saltos no se
+    * conocen de antemano, los condicionales se resuelven con un stack de
+    * condiciones: una instrucción solo se ejecuta si todos los OP_IF y OP_ELSE
+    * que la encierran tomaron su rama; en una rama descartada los OPCODES
+    * se siguen decodificando (para saltar sus cargas y detectar bytes
+    * inválidos) pero no se ejecutan.
+    *
+    * El stack de condiciones se reduce a dos enteros: su profundidad y la
+    * posición de la primera condición falsa. Las condiciones por debajo de
+    * esa posición son todas verdaderas, y las que están por encima no
+    * importan porque la rama ya está descartada; al cerrarse el nivel de la
+    * primera falsa, todo lo que queda abierto es verdadero. Así, saber si una
+    * instrucción se ejecuta y abrir, alternar o cerrar un nivel cuestan O(1)
+    * a cualquier profundidad de anidamiento.
+    *
+    * Un script se acepta o se rechaza igual que con el {@link Controlador}.
+    * Lo que puede cambiar es el error reportado cuando un script tiene más de
+    * un problema: aquí gana el primero que aparece en el recorrido, mientras
+    * que el programa compilado reporta primero los errores de parseo y de
+    * balance de condicionales.
+    *
+    * Además de arrays, acepta un {@link ByteBuffer} o un {@link InputStream},
+    * de modo que un script grande puede ejecutarse sin cargarlo completo.
+    * Los {@link LimitesScript} se verifican con contadores dentro del mismo
+    * recorrido: los bytes leídos, los OPCODES, el tamaño de cada carga antes
+    * de leerla y el tamaño del stack después de cada instrucción.
+    *
+    * @see Interprete
+ */
+public final class InterpreteStreaming {
+
+    // Valor de la posición de la primera condición falsa cuando todas son verdaderas
+    private static final int SIN_FALSAS = -1;
+
+    private InterpreteStreaming() {
+    }
+
+    /**
+        * Evalúa una transacción completa: ejecuta el scriptSig y luego el
+        * scriptPubKey sobre un stack limpio y verifica que la cima final sea 1.
+        *
+        * @param firma        el scriptSig en bytes crudos
+        * @param llavePublica el scriptPubKey en bytes crudos
+        * @param stack        el stack a usar; se vacía antes de empezar
+        * @return {@link ScriptError#OK} si la transacción es válida, o el primer error encontrado
+     */
+    public static ScriptError evaluarTransaccion(byte[] firma, byte[] llavePublica, ScriptStack stack) {
+        return evaluarTransaccion(firma, llavePublica, stack, LimitesScript.CONSENSO);
+    }
+
+    /**
+        * Igual que {@link #evaluarTransaccion(byte[], byte[], ScriptStack)},
+        * con los límites indicados.
+        *
+        * @param firma        el scriptSig en bytes crudos
+        * @param llavePublica el scriptPubKey en bytes crudos
+        * @param stack        el stack a usar; se vacía antes de empezar
+        * @param limites      los límites a aplicar a cada script
+        * @return {@link ScriptError#OK} si la transacción es válida, o el primer error encontrado
+     */
+    public static ScriptError evaluarTransaccion(byte[] firma, byte[] llavePublica, ScriptStack stack, LimitesScript limites) {
+        stack.clear();
+
+        ScriptError error = ejecutar(firma, 0, firma.length, stack, limites);
+        if (error != ScriptError.OK) {
+            return error;
+        }
+
+        error = ejecutar(llavePublica, 0, llavePublica.length, stack, limites);
+        if (error != ScriptError.OK) {
+            return error;
+        }
+
+        return !stack.isEmpty() && stack.popEsVerdadero() ? ScriptError.OK : ScriptError.EVAL_FALSE;
+    }
+
+    /**
+        * Ejecuta un script completo sobre el stack.
+        *
+        * @param script el script en bytes crudos
+        * @param stack  el stack sobre el que se ejecuta
+        * @return {@link ScriptError#OK} o el primer error encontrado
+     */
+    public static ScriptError ejecutar(byte[] script, ScriptStack stack) {
+        return ejecutar(script, 0, script.length, stack);
+    }
+
+    /**
+        * Ejecuta el script contenido en una región de un array, sin copiarla.
+        *
+        * @param script el array que contiene el script
+        * @param inicio posición del primer byte del script
+        * @param fin    posición, exclusiva, del final del script
+        * @param stack  el stack sobre el que se ejecuta
+        * @return {@link ScriptError#OK} o el primer error encontrado
+        * @throws IndexOutOfBoundsException si la región no está contenida en script
+     */
+    public static ScriptError ejecutar(byte[] script, int inicio, int fin, ScriptStack stack) {
+        return ejecutar(script, inicio, fin, stack, LimitesScript.CONSENSO);
+    }
+
+    /**
+        * Igual que {@link #ejecutar(byte[], int, int, ScriptStack)}, con los
+        * límites indicados. Un script más largo que el máximo se rechaza sin leerlo.
+        *
+        * @param script  el array que contiene el script
+        * @param inicio  posición del primer byte del script
+        * @param fin     posición, exclusiva, del final del script
+        * @param stack   el stack sobre el que se ejecuta
+        * @param limites los límites a aplicar
+        * @return {@link ScriptError#OK} o el primer error encontrado
+        * @throws IndexOutOfBoundsException si la región no está contenida en script
+     */
+    public static ScriptError ejecutar(byte[] script, int inicio, int fin, ScriptStack stack, LimitesScript limites) {
+        if (inicio < 0 || fin > script.length || inicio > fin) {
+            throw new IndexOutOfBoundsException("Region invalida del script: [" + inicio + ", " + fin + ")");
+        }
+        if (fin - inicio > limites.getMaxTamanoScript()) {
+            return ScriptError.SCRIPT_SIZE;
+        }
+
+        try {
+            return ejecutar(new FuenteArray(script, inicio, fin), stack, limites);
+        } catch (IOException e) {
+            // Un array en memoria no produce errores de lectura
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+        * Ejecuta los bytes restantes de un buffer. Si el buffer tiene un
+        * array accesible se lee sin copiarlo; si es directo, las cargas se
+        * copian a medida que se pushean. La posición del buffer no cambia.
+        *
+        * @param script el buffer con el script entre su posición y su límite
+        * @param stack  el stack sobre el que se ejecuta
+        * @return {@link ScriptError#OK} o el primer error encontrado
+     */
+    public static ScriptError ejecutar(ByteBuffer script, ScriptStack stack) {
+        return ejecutar(script, stack, LimitesScript.CONSENSO);
+    }
+
+    /**
+        * Igual que {@link #ejecutar(ByteBuffer, ScriptStack)}, con los límites indicados.
+        *
+        * @param script  el buffer con el script entre su posición y su límite
+        * @param stack   el stack sobre el que se ejecuta
+        * @param limites los límites a aplicar
+        * @return {@link ScriptError#OK} o el primer error encontrado
+     */
+    public static ScriptError ejecutar(ByteBuffer script, ScriptStack stack, LimitesScript limites) {
+        if (script.hasArray()) {
+            int inicio = script.arrayOffset() + script.position();
+            return ejecutar(script.array(), inicio, inicio + script.remaining(), stack, limites);
+        }
+        if (script.remaining() > limites.getMaxTamanoScript()) {
+            return ScriptError.SCRIPT_SIZE;
+        }
+
+        try {
+            return ejecutar(new FuenteBuffer(script.duplicate()), stack, limites);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+        * Ejecuta un script leyéndolo de un stream, hasta su final o hasta el
+        * primer error. Si el script falla, el resto del stream no se lee.
+        * El stream no se cierra.
+        *
+        * @param script el stream con el script en bytes crudos
+        * @param stack  el stack sobre el que se ejecuta
+        * @return {@link ScriptError#OK} o el primer error encontrado
+        * @throws IOException si falla la lectura del stream
+     */
+    public static ScriptError ejecutar(InputStream script, ScriptStack stack) throws IOException {
+        return ejecutar(script, stack, LimitesScript.CONSENSO);
+    }
+
+    /**
+        * Igual que {@link #ejecutar(InputStream, ScriptStack)}, con los límites
+        * indicados. Como el largo del stream no se conoce de antemano, el
+        * tamaño del script se controla contando los bytes leídos, y la lectura
+        * se detiene en cuanto se supera.
+        *
+        * @param script  el stream con el script en bytes crudos
+        * @param stack   el stack sobre el que se ejecuta
+        * @param limites los límites a aplicar
+        * @return {@link ScriptError#OK} o el primer error encontrado
+        * @throws IOException si falla la lectura del stream
+     */
+    public static ScriptError ejecutar(InputStream script, ScriptStack stack, LimitesScript limites) throws IOException {
+        return ejecutar(new FuenteStream(script), stack, limites);
+    }
+
+    private static ScriptError ejecutar(Fuente fuente, ScriptStack stack, LimitesScript limites) throws IOException {
+        // Niveles de OP_IF abiertos y posición del primero cuya rama está descartada
+        int profundidad = 0;
+        int primeraFalsa = SIN_FALSAS;
+
+        int maxTamano = limites.getMaxTamanoScript();
+        int maxElementos = limites.getMaxElementosStack();
+        int cantidadOpcodes = 0;
+
+        int codigo;
+        while ((codigo = fuente.siguiente()) >= 0) {
+            if (fuente.consumidos() > maxTamano) {
+                return ScriptError.SCRIPT_SIZE;
+            }
+            if (codigo > 0x60 && ++cantidadOpcodes > limites.getMaxOpcodes()) {
+                return ScriptError.OP_COUNT;
+            }
+
+            boolean ejecutando = primeraFalsa == SIN_FALSAS;
+
+            switch (codigo) {
+                case 0x4c: // OP_PUSHDATA1
+                case 0x4d: // OP_PUSHDATA2
+                case 0x4e: // OP_PUSHDATA4
+                    long longitud = fuente.longitudCarga(codigo == 0x4c ? 1 : codigo == 0x4d ? 2 : 4);
+                    if (longitud < 0) {
+                        return ScriptError.PUSH_TRUNCATED;
+                    }
+                    // Los límites se verifican antes de leer o reservar la carga
+                    if (longitud > limites.getMaxTamanoCarga()) {
+                        return ScriptError.PUSH_SIZE;
+                    }
+                    if (fuente.consumidos() + longitud > maxTamano) {
+                        return ScriptError.SCRIPT_SIZE;
+                    }
+                    if (ejecutando && stack.size() >= maxElementos) {
+                        return ScriptError.STACK_SIZE;
+                    }
+                    if (!fuente.consumirCarga((int) longitud, ejecutando ? stack : null)) {
+                        return ScriptError.PUSH_TRUNCATED;
+                    }
+                    continue;
+
+                case 0x63: // OP_IF
+                    boolean condicion = false;
+                    if (ejecutando) {
+                        if (stack.isEmpty()) {
+                            return ScriptError.STACK_UNDERFLOW;
+                        }
+                        condicion = stack.popEsVerdadero();
+                    }
+                    if (ejecutando && !condicion) {
+                        primeraFalsa = profundidad;
+                    }
+                    profundidad++;
+                    continue;
+
+                case 0x67: // OP_ELSE
+                    if (profundidad == 0) {
+                        return ScriptError.UNBALANCED_CONDITIONAL;
+                    }
+                    // Solo importa alternar el nivel superior si no hay una falsa por debajo
+                    if (primeraFalsa == SIN_FALSAS) {
+                        primeraFalsa = profundidad - 1;
+                    }
+                    else if (primeraFalsa == profundidad - 1) {
+                        primeraFalsa = SIN_FALSAS;
+                    }
+                    continue;
+
+                case 0x68: // OP_ENDIF
+                    if (profundidad == 0) {
+                        return ScriptError.UNBALANCED_CONDITIONAL;
+                    }
+                    profundidad--;
+                    if (primeraFalsa == profundidad) {
+                        primeraFalsa = SIN_FALSAS;
+                    }
+                    continue;
+
+                default:
+                    ScriptError error;
+                    if (ejecutando) {
+                        error = Interprete.ejecutarOperacion(codigo, null, stack, limites);
+                    }
+                    else {
+                        error = OPCODE.buscarPorId((byte) codigo) != null ? ScriptError.OK : ScriptError.BAD_OPCODE;
+                    }
+
+                    if (error != ScriptError.OK) {
+                        return error;
+                    }
+                    if (stack.size() > maxElementos) {
+                        return ScriptError.STACK_SIZE;
+                    }
+            }
+        }
+
+        return profundidad == 0 ? ScriptError.OK : ScriptError.UNBALANCED_CONDITIONAL;
+    }
+
+    /**
+        * Origen de los bytes del script. Las implementaciones solo avanzan
+        * hacia adelante y nunca leen más allá de lo que el intérprete pide.
+     */
+    private interface Fuente {
+
+        // Retorna el siguiente byte sin signo, o -1 al final del script
+        int siguiente() throws IOException;
+
+        // Cantidad de bytes del script leídos o saltados hasta ahora
+        int consumidos();
+
+        /*
+            * Lee los bytes de longitud de un PUSHDATA, un entero sin signo
+            * little-endian como en ConvertBytesToOP, o retorna -1 si el
+            * script termina antes.
+         */
+        default long longitudCarga(int bytesALeer) throws IOException {
+            long longitud = 0;
+            for (int i = 0; i < bytesALeer; i++) {
+                int b = siguiente();
+                if (b < 0) {
+                    return -1;
+                }
+                longitud |= (long) b << (8 * i);
+            }
+            return longitud;
+        }
+
+        /*
+            * Consume la carga de un PUSHDATA. Si stack no es null la pushea;
+            * si es null solo la salta. Retorna false si el script termina antes.
+         */
+        boolean consumirCarga(int longitud, ScriptStack stack) throws IOException;
+    }
+
+    private static final class FuenteArray implements Fuente {
+        private final byte[] script;
+        private final int inicio;
+        private final int fin;
+        private int cursor;
+
+        FuenteArray(byte[] script, int inicio, int fin) {
+            this.script = script;
+            this.inicio = inicio;
+            this.cursor = inicio;
+            this.fin = fin;
+        }
+
+        @Override
+        public int siguiente() {
+            return cursor < fin ? script[cursor++] & 0xff : -1;
+        }
+
+        @Override
+        public int consumidos() {
+            return cursor - inicio;
+        }
+
+        @Override
+        public boolean consumirCarga(int longitud, ScriptStack stack) {
+            if (longitud > fin - cursor) {
+                return false;
+            }
+            if (stack != null) {
+                stack.pushSlice(script, cursor, longitud);
+            }
+            cursor += longitud;
+            return true;
+        }
+    }
+
+    private static final class FuenteBuffer implements Fuente {
+        private final ByteBuffer script;
+        private final int inicio;
+
+        FuenteBuffer(ByteBuffer script) {
+            this.script = script;
+            this.inicio = script.position();
+        }
+
+        @Override
+        public int siguiente() {
+            return script.hasRemaining() ? script.get() & 0xff : -1;
+        }
+
+        @Override
+        public int consumidos() {
+            return script.position() - inicio;
+        }
+
+        @Override
+        public boolean consumirCarga(int longitud, ScriptStack stack) {
+            if (longitud > script.remaining()) {
+                return false;
+            }
+            if (stack != null) {
+                byte[] carga = new byte[longitud];
+                script.get(carga);
+                stack.pushItem(carga);
+            }
+            else {
+                script.position(script.position() + longitud);
+            }
+            return true;
+        }
+    }
+
+    private static final class FuenteStream implements Fuente {
+        private final InputStream script;
+        private int consumidos;
+
+        FuenteStream(InputStream script) {
+            this.script = script;
+        }
+
+        @Override
+        public int siguiente() throws IOException {
+            int b = script.read();
+            if (b >= 0) {
+                consumidos++;
+            }
+            return b;
+        }
+
+        @Override
+        public int consumidos() {
+            return consumidos;
+        }
+
+        @Override
+        public boolean consumirCarga(int longitud, ScriptStack stack) throws IOException {
+            // La longitud ya está acotada por el límite de carga
+            byte[] carga = script.readNBytes(longitud);
+            consumidos += carga.length;
+            if (carga.length < longitud) {
+                return false;
+            }
+            if (stack != null) {
+                stack.pushItem(carga);
+            }
+            return true;
+        }
+    }
+}
@@ -4,7 +4,6 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HexFormat;
 
 /**
     * Clase para leer scripts Bitcoin desde archivos de texto
@@ -25,24 +24,45 @@ public class LectorDeBytes {
         * Separar la lectura del disco de la lógica de parseo permite que
         * ConvertBytesToOP opere siempre sobre bytes, sin acoplar la fuente
         * de los datos al intérprete del script.
+        * Los bytes del archivo se decodifican con {@link DecodificadorHex}
+        * sin convertirlos antes a un {@code String}.
         *
         * @param filePath ruta al archivo .txt que contiene el script en hexadecimal
         * @return el script como array de bytes listo para ser parseado
-        * @throws IOException si el archivo no existe, no puede ser leído,
-        * o su contenido no es un hexadecimal válido
+        * @throws IOException si el archivo no existe o no puede ser leído
+        * @throws IllegalArgumentException si su contenido no es un hexadecimal válido
      */
     public static byte[] getByteArray(String filePath) throws IOException {
-        String contenidoArchivo = null;
-        HexFormat hexFormat = HexFormat.of();
+        Path path = Paths.get(filePath);
+        byte[] contenidoArchivo = Files.readAllBytes(path);
 
-        try {
-            Path path = Paths.get(filePath);
-            contenidoArchivo = Files.readString(path);
+        return DecodificadorHex.decodificar(contenidoArchivo);
+    }
 
-        } catch (IOException e) {
-            throw e;
-        }
+    /**
+        * Abre un corpus con un script o un par firma,llave en hexadecimal por
+        * línea. A diferencia de {@link #getByteArray(String)}, el archivo no
+        * se carga entero en un {@code String}: se mapea a memoria y cada
+        * registro se decodifica a medida que se recorre.
+        *
+        * @param filePath ruta al archivo del corpus
+        * @return un iterador perezoso sobre los registros, que debe cerrarse al terminar
+        * @throws IOException si el archivo no existe o no puede mapearse
+     */
+    public static CorpusScripts abrirCorpus(String filePath) throws IOException {
+        return new CorpusScripts(Paths.get(filePath), CorpusScripts.VENTANA);
+    }
 
-        return hexFormat.parseHex(contenidoArchivo);
+    /**
+        * Abre un corpus binario de pares firma y llave (ver {@link CorpusBinario}),
+        * que no necesita decodificarse.
+        *
+        * @param filePath ruta al archivo del corpus binario
+        * @return el corpus mapeado a memoria, que debe cerrarse al terminar
+        * @throws IOException si el archivo no existe, no puede mapearse o no
+        * tiene el formato esperado
+     */
+    public static CorpusBinario abrirCorpusBinario(String filePath) throws IOException {
+        return CorpusBinario.abrir(Paths.get(filePath));
     }
 }
@@ -0,0 +1,139 @@
+package com.example;
+
+import java.util.Objects;
+
+/**
+    * Límites de recursos que se aplican al parsear y ejecutar un script.
+    *
+    * Sin límites, un script malicioso puede declarar una carga de 4 GB en un
+    * PUSHDATA4, repetir OPCODES hasta agotar la CPU o llenar el stack hasta
+    * agotar la memoria. Cada límite se verifica con un contador o una
+    * comparación antes de reservar memoria o de ejecutar la instrucción que
+    * lo superaría, y al superarse el script se rechaza con un
+    * {@link ScriptError} específico.
+    *
+    * Los valores de {@link #CONSENSO} son los de las reglas de consenso de
+    * Bitcoin y son los que se usan cuando no se indican otros. Las instancias
+    * son inmutables y pueden compartirse entre hilos.
+    *
+    * @see ConvertBytesToOP
+    * @see Interprete
+ */
+public final class LimitesScript {
+
+    /**
+        * Límites de consenso: scripts de hasta 10000 bytes, cargas de hasta
+        * 520 bytes, 201 OPCODES que no son pushes, 1000 elementos en el stack
+        * y 20 llaves públicas por OP_CHECKMULTISIG.
+     */
+    public static final LimitesScript CONSENSO = new LimitesScript(10000, 520, 201, 1000, 20);
+
+    private final int maxTamanoScript;
+    private final int maxTamanoCarga;
+    private final int maxOpcodes;
+    private final int maxElementosStack;
+    private final int maxLlavesMultisig;
+
+    /**
+        * Crea un conjunto de límites.
+        *
+        * @param maxTamanoScript   cantidad máxima de bytes de un script
+        * @param maxTamanoCarga    cantidad máxima de bytes de la carga de un PUSHDATA
+        * @param maxOpcodes        cantidad máxima de OPCODES posteriores a OP_16 en un script
+        * @param maxElementosStack cantidad máxima de elementos en el stack
+        * @param maxLlavesMultisig cantidad máxima de llaves públicas de un OP_CHECKMULTISIG
+        * @throws IllegalArgumentException si algún límite es negativo
+     */
+    public LimitesScript(int maxTamanoScript, int maxTamanoCarga, int maxOpcodes, int maxElementosStack, int maxLlavesMultisig) {
+        if (maxTamanoScript < 0 || maxTamanoCarga < 0 || maxOpcodes < 0 || maxElementosStack < 0 || maxLlavesMultisig < 0) {
+            throw new IllegalArgumentException("Los limites de un script no pueden ser negativos");
+        }
+
+        this.maxTamanoScript = maxTamanoScript;
+        this.maxTamanoCarga = maxTamanoCarga;
+        this.maxOpcodes = maxOpcodes;
+        this.maxElementosStack = maxElementosStack;
+        this.maxLlavesMultisig = maxLlavesMultisig;
+    }
+
+    /**
+        * Retorna la cantidad máxima de bytes de un script.
+        *
+        * @return el límite; un script más largo se rechaza con {@link ScriptError#SCRIPT_SIZE}
+     */
+    public int getMaxTamanoScript() {
+        return maxTamanoScript;
+    }
+
+    /**
+        * Retorna la cantidad máxima de bytes que puede pushear un PUSHDATA.
+        *
+        * @return el límite; una carga más larga se rechaza con {@link ScriptError#PUSH_SIZE}
+     */
+    public int getMaxTamanoCarga() {
+        return maxTamanoCarga;
+    }
+
+    /**
+        * Retorna la cantidad máxima de OPCODES posteriores a OP_16 en un script.
+        * Los pushes (OP_0, PUSHDATA y OP_1..OP_16) no cuentan; las instrucciones
+        * de una rama descartada sí.
+        *
+        * @return el límite; superarlo se rechaza con {@link ScriptError#OP_COUNT}
+     */
+    public int getMaxOpcodes() {
+        return maxOpcodes;
+    }
+
+    /**
+        * Retorna la cantidad máxima de elementos que puede tener el stack
+        * después de cada instrucción.
+        *
+        * @return el límite; superarlo se rechaza con {@link ScriptError#STACK_SIZE}
+     */
+    public int getMaxElementosStack() {
+        return maxElementosStack;
+    }
+
+    /**
+        * Retorna la cantidad máxima de llaves públicas de un OP_CHECKMULTISIG.
+        *
+        * @return el límite; superarlo se rechaza con {@link ScriptError#PUBKEY_COUNT}
+     */
+    public int getMaxLlavesMultisig() {
+        return maxLlavesMultisig;
+    }
+
+    /**
+        * Dos conjuntos de límites son iguales si todos sus valores coinciden.
+        *
+        * @param otro el objeto a comparar
+        * @return {@code true} si otro es un LimitesScript con los mismos valores
+     */
+    @Override
+    public boolean equals(Object otro) {
+        if (this == otro) {
+            return true;
+        }
+        if (!(otro instanceof LimitesScript)) {
+            return false;
+        }
+        LimitesScript limites = (LimitesScript) otro;
+        return maxTamanoScript == limites.maxTamanoScript
+                && maxTamanoCarga == limites.maxTamanoCarga
+                && maxOpcodes == limites.maxOpcodes
+                && maxElementosStack == limites.maxElementosStack
+                && maxLlavesMultisig == limites.maxLlavesMultisig;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxTamanoScript, maxTamanoCarga, maxOpcodes, maxElementosStack, maxLlavesMultisig);
+    }
+
+    @Override
+    public String toString() {
+        return "LimitesScript[script=" + maxTamanoScript + ", carga=" + maxTamanoCarga + ", opcodes=" + maxOpcodes
+                + ", stack=" + maxElementosStack + ", multisig=" + maxLlavesMultisig + "]";
+    }
+}
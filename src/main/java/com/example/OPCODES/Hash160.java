@@ -1,8 +1,8 @@
 package com.example.OPCODES;
 
-import java.security.MessageDigest;
-import java.security.Security;
-import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import java.security.DigestException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
     * Utilidad criptográfica que implementa el algoritmo HASH160,
@@ -14,22 +14,42 @@ import org.bouncycastle.jce.provider.BouncyCastleProvider;
     * (SHA-256) y un output más corto (RIPEMD-160), lo que reduce el tamaño
     * de las transacciones y es la base de los tipos de dirección P2PKH y P2SH.
     *
-    * El proveedor BouncyCastle se registra en el bloque estático porque
-    * la JVM estándar no incluye RIPEMD-160 de forma nativa.
+    * Ambas funciones se calculan con los motores propios {@link Sha256} y
+    * {@link Ripemd160}, escritos en Java puro. Así la clase no necesita
+    * registrar BouncyCastle al cargarse ni pasar por la indirección de la
+    * JCA en cada hash, lo que acorta el arranque de las ejecuciones cortas
+    * desde la línea de comandos.
+    *
+    * Como OP_HASH160 está en el camino más caliente de la validación, cada hilo
+    * conserva sus propios motores y un buffer intermedio de 32 bytes,
+    * que se reutilizan entre llamadas.
  */
 
 public class Hash160 {
 
-     /**
-        * Registra el proveedor criptográfico BouncyCastle en la JVM.
-        * Necesario para que MessageDigest pueda resolver el algoritmo
-        * RIPEMD-160, que no está disponible en los proveedores estándar de Java.
-        * Se ejecuta una única vez al cargar la clase.
+    // Longitud en bytes del digest SHA-256
+    public static final int LONGITUD_SHA256 = Sha256.LONGITUD_DIGEST;
+
+    // Longitud en bytes del digest RIPEMD-160 y, por lo tanto, de HASH160
+    public static final int LONGITUD_HASH160 = Ripemd160.LONGITUD_DIGEST;
+
+    /**
+        * Motores de hash reutilizables de cada hilo.
+        * Los motores guardan el estado del mensaje en curso, por lo que cada
+        * hilo tiene los suyos; dentro de un hilo se reutilizan indefinidamente.
      */
+    private static final ThreadLocal<Motores> MOTORES = ThreadLocal.withInitial(Motores::new);
 
-    static {
-        Security.addProvider(new BouncyCastleProvider());
-    }
+    /**
+        * Motores multi-buffer de cada hilo, usados por los métodos de lote.
+     */
+    private static final ThreadLocal<MotorMultiLinea> MOTORES_LOTE = ThreadLocal.withInitial(MotorMultiLinea::new);
+
+    /**
+        * Cantidad de mensajes por debajo de la cual un lote ya no se divide
+        * entre núcleos y se procesa completo en el hilo actual.
+     */
+    private static final int UMBRAL_SECUENCIAL_LOTE = 2048;
 
     /**
         * Aplica el algoritmo SHA-256 a los bytes de entrada y retorna su digest.
@@ -39,12 +59,12 @@ public class Hash160 {
         *
         * @param input el array de bytes a hashear; típicamente una clave pública serializada
         * @return el digest SHA-256 de 32 bytes correspondiente al input
-        * @throws Exception si el algoritmo SHA-256 no está disponible en el entorno
      */
 
-    public static byte[] sha256(byte[] input) throws Exception {
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        return digest.digest(input);
+    public static byte[] sha256(byte[] input) {
+        byte[] salida = new byte[LONGITUD_SHA256];
+        MOTORES.get().sha256.hashear(input, 0, input.length, salida, 0);
+        return salida;
     }
 
     /**
@@ -52,18 +72,16 @@ public class Hash160 {
         * RIPEMD-160 es la segunda etapa del HASH160 y es responsable de
         * comprimir el output de 32 bytes de SHA-256 a un identificador
         * compacto de 20 bytes, reduciendo el tamaño de las direcciones Bitcoin.
-        * Requiere el proveedor BouncyCastle registrado en el bloque estático.
         *
         * @param input el array de bytes a hashear; en el contexto de HASH160,
         * corresponde al digest SHA-256 de la clave pública
         * @return el digest RIPEMD-160 de 20 bytes correspondiente al input
-        * @throws Exception si el algoritmo RIPEMD-160 no está disponible
-        * o el proveedor BouncyCastle no fue registrado
      */
 
-    public static byte[] ripemd160(byte[] input) throws Exception {
-        MessageDigest digest = MessageDigest.getInstance("RIPEMD160", "BC");
-        return digest.digest(input);
+    public static byte[] ripemd160(byte[] input) {
+        byte[] salida = new byte[LONGITUD_HASH160];
+        MOTORES.get().ripemd160.hashear(input, 0, input.length, salida, 0);
+        return salida;
     }
 
     /**
@@ -74,13 +92,127 @@ public class Hash160 {
         *
         * @param input el array de bytes a hashear; típicamente una clave pública serializada
         * @return el digest HASH160 de 20 bytes: RIPEMD-160(SHA-256(input))
-        * @throws Exception si alguno de los algoritmos de hash no está disponible
         * @see #sha256(byte[])
         * @see #ripemd160(byte[])
      */
 
-    public static byte[] hash160(byte[] input) throws Exception {
-        byte[] sha256 = sha256(input);
-        return ripemd160(sha256);
+    public static byte[] hash160(byte[] input) {
+        byte[] salida = new byte[LONGITUD_HASH160];
+        MOTORES.get().hash160(input, 0, input.length, salida, 0);
+        return salida;
+    }
+
+    /**
+        * Calcula el HASH160 de una región de un array y escribe los 20 bytes
+        * del resultado en un buffer provisto por el llamador.
+        * El digest intermedio de SHA-256 se guarda en el buffer reutilizable
+        * del hilo, de modo que esta variante no crea arrays propios.
+        *
+        * @param entrada      el array que contiene los bytes a hashear
+        * @param offset       posición del primer byte a hashear
+        * @param longitud     cantidad de bytes a hashear
+        * @param salida       el array donde se escribe el resultado
+        * @param offsetSalida posición de salida donde comienza el resultado
+        * @throws DigestException si salida no tiene 20 bytes libres desde offsetSalida
+     */
+    public static void hash160(byte[] entrada, int offset, int longitud, byte[] salida, int offsetSalida)
+            throws DigestException {
+        if (offsetSalida < 0 || salida.length - offsetSalida < LONGITUD_HASH160) {
+            throw new DigestException("El buffer de salida no tiene espacio para los 20 bytes de HASH160");
+        }
+
+        MOTORES.get().hash160(entrada, offset, longitud, salida, offsetSalida);
+    }
+
+    /**
+        * Calcula el HASH160 de muchos mensajes y retorna los resultados
+        * concatenados en un único array: los 20 bytes del mensaje i
+        * ocupan las posiciones [i * 20, i * 20 + 20).
+        *
+        * Está pensado para hashear en bloque conjuntos grandes de llaves
+        * públicas, por ejemplo al construir índices de direcciones.
+        *
+        * @param entradas los mensajes a hashear
+        * @return los HASH160 de todos los mensajes, contiguos y en el mismo orden
+        * @see #hash160Batch(byte[][], byte[], int)
+     */
+    public static byte[] hash160Batch(byte[][] entradas) {
+        byte[] salida = new byte[entradas.length * LONGITUD_HASH160];
+        hash160Batch(entradas, salida, 0);
+        return salida;
+    }
+
+    /**
+        * Calcula el HASH160 de muchos mensajes y escribe los resultados
+        * contiguos en un buffer provisto por el llamador.
+        * Los mensajes se procesan de a varios en paralelo dentro de cada
+        * núcleo con {@link MotorMultiLinea}, y los lotes grandes se
+        * reparten además entre los núcleos con el ForkJoinPool común.
+        *
+        * @param entradas     los mensajes a hashear
+        * @param salida       el array donde se escriben los resultados
+        * @param offsetSalida posición donde comienza el resultado del primer mensaje
+        * @throws IllegalArgumentException si salida no tiene espacio para
+        * {@code entradas.length * 20} bytes desde offsetSalida
+     */
+    public static void hash160Batch(byte[][] entradas, byte[] salida, int offsetSalida) {
+        if (offsetSalida < 0 || salida.length - offsetSalida < (long) entradas.length * LONGITUD_HASH160) {
+            throw new IllegalArgumentException("El buffer de salida no tiene espacio para todos los HASH160 del lote");
+        }
+
+        if (entradas.length <= UMBRAL_SECUENCIAL_LOTE) {
+            MOTORES_LOTE.get().procesar(entradas, 0, entradas.length, salida, offsetSalida);
+        }
+        else {
+            ForkJoinPool.commonPool().invoke(new TareaLote(entradas, 0, entradas.length, salida, offsetSalida));
+        }
+    }
+
+    /**
+        * Tarea recursiva que hashea el rango [desde, hasta) de un lote,
+        * dividiéndolo en mitades mientras supere el umbral secuencial.
+     */
+    private static final class TareaLote extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[][] entradas;
+        private final int desde;
+        private final int hasta;
+        private final byte[] salida;
+        private final int offsetSalida;
+
+        TareaLote(byte[][] entradas, int desde, int hasta, byte[] salida, int offsetSalida) {
+            this.entradas = entradas;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.salida = salida;
+            this.offsetSalida = offsetSalida;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde <= UMBRAL_SECUENCIAL_LOTE) {
+                MOTORES_LOTE.get().procesar(entradas, desde, hasta, salida, offsetSalida + desde * LONGITUD_HASH160);
+                return;
+            }
+
+            int mitad = (desde + hasta) >>> 1;
+            invokeAll(new TareaLote(entradas, desde, mitad, salida, offsetSalida),
+                      new TareaLote(entradas, mitad, hasta, salida, offsetSalida));
+        }
+    }
+
+    /**
+        * Motores y buffer intermedio que pertenecen a un único hilo.
+     */
+    private static final class Motores {
+        private final Sha256 sha256 = new Sha256();
+        private final Ripemd160 ripemd160 = new Ripemd160();
+        private final byte[] intermedio = new byte[LONGITUD_SHA256];
+
+        private void hash160(byte[] entrada, int offset, int longitud, byte[] salida, int offsetSalida) {
+            sha256.hashear(entrada, offset, longitud, intermedio, 0);
+            ripemd160.hashear(intermedio, 0, LONGITUD_SHA256, salida, offsetSalida);
+        }
     }
-}
\ No newline at end of file
+}
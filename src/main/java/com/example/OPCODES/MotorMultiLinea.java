@@ -0,0 +1,296 @@
+package com.example.OPCODES;
+
+/**
+    * Motor multi-buffer de HASH160: calcula SHA-256 y RIPEMD-160 de varios
+    * mensajes a la vez, intercalados en {@link #LINEAS} líneas.
+    *
+    * Cada variable de trabajo de los algoritmos (a, b, c...) se guarda como
+    * un array con un valor por línea, y cada paso de la ronda se aplica a
+    * todas las líneas en un ciclo corto sobre esos arrays. Las líneas son
+    * independientes entre sí, lo que le da al procesador varias cadenas de
+    * dependencias para ejecutar en paralelo y al compilador JIT un ciclo
+    * simple que puede vectorizar. En lugar de desplazar los valores entre
+    * variables en cada paso, se rotan las referencias a los arrays.
+    *
+    * Solo los mensajes que caben en uno o dos bloques de SHA-256 (hasta 119
+    * bytes, lo que incluye las llaves públicas de 33 y 65 bytes) pasan por
+    * las líneas; se agrupan por cantidad de bloques para que todas las
+    * líneas de un grupo hagan el mismo trabajo. Los mensajes más largos y
+    * los grupos incompletos al final del lote usan los motores escalares.
+    *
+    * Una instancia no es segura entre hilos.
+ */
+final class MotorMultiLinea {
+
+    // Cantidad de mensajes que se procesan intercalados
+    static final int LINEAS = 4;
+
+    private static final int LONGITUD_BLOQUE = 64;
+
+    // Longitud máxima de un mensaje que, con su padding, cabe en dos bloques
+    private static final int MAXIMO_DOS_BLOQUES = 2 * LONGITUD_BLOQUE - 9;
+
+    // Mensajes con padding, dos bloques por línea: la línea l empieza en l * 128
+    private final byte[] bloques = new byte[LINEAS * 2 * LONGITUD_BLOQUE];
+
+    // Mensaje expandido de SHA-256, intercalado: w[t * LINEAS + l]
+    private final int[] w = new int[64 * LINEAS];
+
+    // Estado de SHA-256 intercalado: estadoSha[i * LINEAS + l]
+    private final int[] estadoSha = new int[8 * LINEAS];
+
+    // Palabras del bloque de RIPEMD-160 intercaladas: x[i * LINEAS + l]
+    private final int[] x = new int[16 * LINEAS];
+
+    // Variables de trabajo, un valor por línea
+    private final int[][] variables = new int[10][LINEAS];
+
+    // Índices de los mensajes pendientes en cada grupo, por cantidad de bloques
+    private final int[] pendientesUno = new int[LINEAS];
+    private final int[] pendientesDos = new int[LINEAS];
+
+    // Motores escalares para mensajes largos y grupos incompletos
+    private final Sha256 sha256 = new Sha256();
+    private final Ripemd160 ripemd160 = new Ripemd160();
+    private final byte[] intermedio = new byte[Sha256.LONGITUD_DIGEST];
+
+    /**
+        * Calcula el HASH160 de {@code entradas[desde..hasta)} y escribe el
+        * resultado del mensaje i en {@code salida[offsetSalida + (i - desde) * 20]}.
+     */
+    void procesar(byte[][] entradas, int desde, int hasta, byte[] salida, int offsetSalida) {
+        int cantidadUno = 0;
+        int cantidadDos = 0;
+
+        for (int i = desde; i < hasta; i++) {
+            int longitud = entradas[i].length;
+
+            if (longitud < LONGITUD_BLOQUE - 8) {
+                pendientesUno[cantidadUno++] = i;
+                if (cantidadUno == LINEAS) {
+                    procesarGrupo(entradas, pendientesUno, 1, desde, salida, offsetSalida);
+                    cantidadUno = 0;
+                }
+            }
+            else if (longitud <= MAXIMO_DOS_BLOQUES) {
+                pendientesDos[cantidadDos++] = i;
+                if (cantidadDos == LINEAS) {
+                    procesarGrupo(entradas, pendientesDos, 2, desde, salida, offsetSalida);
+                    cantidadDos = 0;
+                }
+            }
+            else {
+                escalar(entradas[i], salida, offsetSalida + (i - desde) * Ripemd160.LONGITUD_DIGEST);
+            }
+        }
+
+        for (int j = 0; j < cantidadUno; j++) {
+            int i = pendientesUno[j];
+            escalar(entradas[i], salida, offsetSalida + (i - desde) * Ripemd160.LONGITUD_DIGEST);
+        }
+        for (int j = 0; j < cantidadDos; j++) {
+            int i = pendientesDos[j];
+            escalar(entradas[i], salida, offsetSalida + (i - desde) * Ripemd160.LONGITUD_DIGEST);
+        }
+    }
+
+    private void escalar(byte[] entrada, byte[] salida, int offsetSalida) {
+        sha256.hashear(entrada, 0, entrada.length, intermedio, 0);
+        ripemd160.hashear(intermedio, 0, intermedio.length, salida, offsetSalida);
+    }
+
+    private void procesarGrupo(byte[][] entradas, int[] indices, int cantidadBloques, int desde, byte[] salida, int offsetSalida) {
+        for (int l = 0; l < LINEAS; l++) {
+            rellenarSha(entradas[indices[l]], l, cantidadBloques);
+        }
+
+        shaLineas(cantidadBloques);
+        rellenarRipemd();
+        ripemdLineas();
+
+        for (int l = 0; l < LINEAS; l++) {
+            int posicion = offsetSalida + (indices[l] - desde) * Ripemd160.LONGITUD_DIGEST;
+            for (int i = 0; i < 5; i++) {
+                int valor = estadoSha[i * LINEAS + l];
+                salida[posicion++] = (byte) valor;
+                salida[posicion++] = (byte) (valor >>> 8);
+                salida[posicion++] = (byte) (valor >>> 16);
+                salida[posicion++] = (byte) (valor >>> 24);
+            }
+        }
+    }
+
+    // Copia el mensaje a la línea l con el padding de SHA-256 (longitud big-endian)
+    private void rellenarSha(byte[] mensaje, int l, int cantidadBloques) {
+        int base = l * 2 * LONGITUD_BLOQUE;
+        int fin = base + cantidadBloques * LONGITUD_BLOQUE;
+        System.arraycopy(mensaje, 0, bloques, base, mensaje.length);
+
+        int p = base + mensaje.length;
+        bloques[p++] = (byte) 0x80;
+        while (p < fin - 8) {
+            bloques[p++] = 0;
+        }
+
+        long bits = (long) mensaje.length << 3;
+        for (int i = 7; i >= 0; i--) {
+            bloques[p++] = (byte) (bits >>> (i * 8));
+        }
+    }
+
+    // Prepara el bloque de RIPEMD-160 de cada línea a partir del digest SHA-256 (256 bits de entrada)
+    private void rellenarRipemd() {
+        for (int l = 0; l < LINEAS; l++) {
+            for (int i = 0; i < 8; i++) {
+                x[i * LINEAS + l] = Integer.reverseBytes(estadoSha[i * LINEAS + l]);
+            }
+            x[8 * LINEAS + l] = 0x80;
+            for (int i = 9; i < 16; i++) {
+                x[i * LINEAS + l] = 0;
+            }
+            x[14 * LINEAS + l] = 256;
+        }
+    }
+
+    private void shaLineas(int cantidadBloques) {
+        for (int i = 0; i < 8; i++) {
+            for (int l = 0; l < LINEAS; l++) {
+                estadoSha[i * LINEAS + l] = Sha256.INICIAL[i];
+            }
+        }
+
+        for (int b = 0; b < cantidadBloques; b++) {
+            for (int t = 0; t < 16; t++) {
+                for (int l = 0; l < LINEAS; l++) {
+                    int p = l * 2 * LONGITUD_BLOQUE + b * LONGITUD_BLOQUE + t * 4;
+                    w[t * LINEAS + l] = (bloques[p] << 24) | ((bloques[p + 1] & 0xff) << 16)
+                            | ((bloques[p + 2] & 0xff) << 8) | (bloques[p + 3] & 0xff);
+                }
+            }
+            for (int t = 16; t < 64; t++) {
+                for (int l = 0; l < LINEAS; l++) {
+                    int x15 = w[(t - 15) * LINEAS + l];
+                    int x2 = w[(t - 2) * LINEAS + l];
+                    int s0 = Integer.rotateRight(x15, 7) ^ Integer.rotateRight(x15, 18) ^ (x15 >>> 3);
+                    int s1 = Integer.rotateRight(x2, 17) ^ Integer.rotateRight(x2, 19) ^ (x2 >>> 10);
+                    w[t * LINEAS + l] = w[(t - 16) * LINEAS + l] + s0 + w[(t - 7) * LINEAS + l] + s1;
+                }
+            }
+
+            int[] a = variables[0], bb = variables[1], c = variables[2], d = variables[3];
+            int[] e = variables[4], f = variables[5], g = variables[6], h = variables[7];
+            for (int l = 0; l < LINEAS; l++) {
+                a[l] = estadoSha[l];
+                bb[l] = estadoSha[LINEAS + l];
+                c[l] = estadoSha[2 * LINEAS + l];
+                d[l] = estadoSha[3 * LINEAS + l];
+                e[l] = estadoSha[4 * LINEAS + l];
+                f[l] = estadoSha[5 * LINEAS + l];
+                g[l] = estadoSha[6 * LINEAS + l];
+                h[l] = estadoSha[7 * LINEAS + l];
+            }
+
+            for (int t = 0; t < 64; t++) {
+                int k = Sha256.K[t];
+                for (int l = 0; l < LINEAS; l++) {
+                    int ev = e[l];
+                    int av = a[l];
+                    int s1 = Integer.rotateRight(ev, 6) ^ Integer.rotateRight(ev, 11) ^ Integer.rotateRight(ev, 25);
+                    int ch = (ev & f[l]) ^ (~ev & g[l]);
+                    int t1 = h[l] + s1 + ch + k + w[t * LINEAS + l];
+                    int s0 = Integer.rotateRight(av, 2) ^ Integer.rotateRight(av, 13) ^ Integer.rotateRight(av, 22);
+                    int maj = (av & bb[l]) ^ (av & c[l]) ^ (bb[l] & c[l]);
+                    d[l] += t1;
+                    h[l] = t1 + s0 + maj;
+                }
+
+                int[] libre = h;
+                h = g;
+                g = f;
+                f = e;
+                e = d;
+                d = c;
+                c = bb;
+                bb = a;
+                a = libre;
+            }
+
+            for (int l = 0; l < LINEAS; l++) {
+                estadoSha[l] += a[l];
+                estadoSha[LINEAS + l] += bb[l];
+                estadoSha[2 * LINEAS + l] += c[l];
+                estadoSha[3 * LINEAS + l] += d[l];
+                estadoSha[4 * LINEAS + l] += e[l];
+                estadoSha[5 * LINEAS + l] += f[l];
+                estadoSha[6 * LINEAS + l] += g[l];
+                estadoSha[7 * LINEAS + l] += h[l];
+            }
+        }
+    }
+
+    // Deja el resultado de RIPEMD-160 en las primeras cinco palabras de estadoSha
+    private void ripemdLineas() {
+        int[] a = variables[0], b = variables[1], c = variables[2], d = variables[3], e = variables[4];
+        int[] ap = variables[5], bp = variables[6], cp = variables[7], dp = variables[8], ep = variables[9];
+
+        for (int l = 0; l < LINEAS; l++) {
+            a[l] = ap[l] = Ripemd160.INICIAL[0];
+            b[l] = bp[l] = Ripemd160.INICIAL[1];
+            c[l] = cp[l] = Ripemd160.INICIAL[2];
+            d[l] = dp[l] = Ripemd160.INICIAL[3];
+            e[l] = ep[l] = Ripemd160.INICIAL[4];
+        }
+
+        for (int paso = 0; paso < 80; paso++) {
+            int ronda = paso >>> 4;
+            int r = Ripemd160.R[paso] * LINEAS;
+            int rp = Ripemd160.R_PRIMA[paso] * LINEAS;
+            int s = Ripemd160.S[paso];
+            int sp = Ripemd160.S_PRIMA[paso];
+            int k = Ripemd160.K[ronda];
+            int kp = Ripemd160.K_PRIMA[ronda];
+
+            for (int l = 0; l < LINEAS; l++) {
+                int fv = f(ronda, b[l], c[l], d[l]);
+                int fp = f(4 - ronda, bp[l], cp[l], dp[l]);
+                a[l] = Integer.rotateLeft(a[l] + fv + x[r + l] + k, s) + e[l];
+                c[l] = Integer.rotateLeft(c[l], 10);
+                ap[l] = Integer.rotateLeft(ap[l] + fp + x[rp + l] + kp, sp) + ep[l];
+                cp[l] = Integer.rotateLeft(cp[l], 10);
+            }
+
+            int[] libre = a;
+            a = e;
+            e = d;
+            d = c;
+            c = b;
+            b = libre;
+
+            libre = ap;
+            ap = ep;
+            ep = dp;
+            dp = cp;
+            cp = bp;
+            bp = libre;
+        }
+
+        for (int l = 0; l < LINEAS; l++) {
+            int t = Ripemd160.INICIAL[1] + c[l] + dp[l];
+            estadoSha[LINEAS + l] = Ripemd160.INICIAL[2] + d[l] + ep[l];
+            estadoSha[2 * LINEAS + l] = Ripemd160.INICIAL[3] + e[l] + ap[l];
+            estadoSha[3 * LINEAS + l] = Ripemd160.INICIAL[4] + a[l] + bp[l];
+            estadoSha[4 * LINEAS + l] = Ripemd160.INICIAL[0] + b[l] + cp[l];
+            estadoSha[l] = t;
+        }
+    }
+
+    private static int f(int ronda, int b, int c, int d) {
+        switch (ronda) {
+            case 0: return b ^ c ^ d;
+            case 1: return (b & c) | (~b & d);
+            case 2: return (b | ~c) ^ d;
+            case 3: return (b & d) | (c & ~d);
+            default: return b ^ (c | ~d);
+        }
+    }
+}
@@ -1,12 +1,8 @@
 package com.example.OPCODES;
 
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.List;
-import java.util.ArrayList;
-
 import com.example.ConvertBytesToOP;
+import com.example.LimitesScript;
+import com.example.ScriptError;
 import com.example.ScriptStack;
 /**
     * Enum que representa todos los OPCODES del Script de Bitcoin.
@@ -15,8 +11,10 @@ import com.example.ScriptStack;
     * {@code OPCODE} y aplicados en un stack compartido {@link ScriptStack}.
     * Siguiendo los lineamientos originales del Script de Bitcoin.
     * 
-    * Cada OPCODE tiene su identificador byte y hace override a:
-    * {@link #aplicar(byte[], ScriptStack)} que define su comportamiento específico.
+    * Cada OPCODE tiene su identificador byte. Su comportamiento no está en
+    * cada const sino en el switch de {@link Operaciones}, indexado por ese byte;
+    * {@link #ejecutar(byte[], ScriptStack)} delega en él y reporta los fallos
+    * como un {@link ScriptError} en lugar de una excepción.
     * 
     * Los OPCODES están organizados por tarea:
     * Pusheo numérico (@code OP_0.. @code OP_16), 
@@ -38,258 +36,98 @@ public enum OPCODE {
         * Pushea el Integer {@code 0} al stack como un byte array [0].
         * Byte de OPCODE: {@code 0x00}
     */
-    OP_0((byte) 0x00) {
-        @Override
-        public void aplicar(byte[] dato, ScriptStack stack) {
-            stack.pushItem(new byte[] { 0 });
-        }
-
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    },
+    OP_0((byte) 0x00),
     /**
         * Pushea el Integer {@code 1} al stack como un byte array [1].
         * Byte de OPCODE: {@code 0x51}
     */
 
-    OP_1((byte) 0x51) {
-        @Override
-        public void aplicar(byte[] d, ScriptStack s) {
-            s.pushItem(new byte[] { 1 });
-        }
-
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    },
+    OP_1((byte) 0x51),
 
     /**
         * Pushea el Integer {@code 2} al stack como un byte array [2].
         * Comunmente se usa para el {@code m} y {@code n} en esquemas multisig m-of-n.
         * Byte de OPCODE: {@code 0x52}
     */
-    OP_2((byte) 0x52) {
-        @Override
-        public void aplicar(byte[] d, ScriptStack s) {
-            s.pushItem(new byte[] { 2 });
-        }
-
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    },
+    OP_2((byte) 0x52),
 
     /**
         * Pushea el Integer {@code 3} al stack como un byte array [3].
         * Byte de OPCODE: {@code 0x53}
     */
-    OP_3((byte) 0x53) {
-        @Override
-        public void aplicar(byte[] d, ScriptStack s) {
-            s.pushItem(new byte[] { 3 });
-        }
-
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    },
+    OP_3((byte) 0x53),
 
     /**
         * Pushea el Integer {@code 4} al stack como un byte array [4].
         * Byte de OPCODE: {@code 0x54}
     */
-    OP_4((byte) 0x54) {
-        @Override
-        public void aplicar(byte[] d, ScriptStack s) {
-            s.pushItem(new byte[] { 4 });
-        }
-
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    },
+    OP_4((byte) 0x54),
 
     /**
         * Pushea el Integer {@code 5} al stack como un byte array [5].
         * Byte de OPCODE: {@code 0x55}
     */
-    OP_5((byte) 0x55) {
-        @Override
-        public void aplicar(byte[] d, ScriptStack s) {
-            s.pushItem(new byte[] { 5 });
-        }
-
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    },
+    OP_5((byte) 0x55),
 
     /**
         * Pushea el Integer {@code 6} al stack como un byte array [6].
         * Byte de OPCODE: {@code 0x56}
     */
-    OP_6((byte) 0x56) {
-        @Override
-        public void aplicar(byte[] d, ScriptStack s) {
-            s.pushItem(new byte[] { 6 });
-        }
-
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    },
+    OP_6((byte) 0x56),
 
     /**
         * Pushea el Integer {@code 7} al stack como un byte array [7].
         * Byte de OPCODE: {@code 0x57}
     */
-    OP_7((byte) 0x57) {
-        @Override
-        public void aplicar(byte[] d, ScriptStack s) {
-            s.pushItem(new byte[] { 7 });
-        }
-
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    },
+    OP_7((byte) 0x57),
 
     /**
         * Pushea el Integer {@code 8} al stack como un byte array [8].
         * Byte de OPCODE: {@code 0x58}
     */
-    OP_8((byte) 0x58) {
-        @Override
-        public void aplicar(byte[] d, ScriptStack s) {
-            s.pushItem(new byte[] { 8 });
-        }
-
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    },
+    OP_8((byte) 0x58),
 
     /**
         * Pushea el Integer {@code 9} al stack como un byte array [9].
         * Byte de OPCODE: {@code 0x59}
     */
-    OP_9((byte) 0x59) {
-        @Override
-        public void aplicar(byte[] d, ScriptStack s) {
-            s.pushItem(new byte[] { 9 });
-        }
-
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    },
+    OP_9((byte) 0x59),
 
     /**
         * Pushea el Integer {@code 10} al stack como un byte array [10].
         * Byte de OPCODE: {@code 0x5a}
     */
-    OP_10((byte) 0x5a) {
-        @Override
-        public void aplicar(byte[] d, ScriptStack s) {
-            s.pushItem(new byte[] { 10 });
-        }
-
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    },
+    OP_10((byte) 0x5a),
 
     /**
         * Pushea el Integer {@code 11} al stack como un byte array [11].
         * Byte de OPCODE: {@code 0x5b}
     */
-    OP_11((byte) 0x5b) {
-        @Override
-        public void aplicar(byte[] d, ScriptStack s) {
-            s.pushItem(new byte[] { 11 });
-        }
-
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    },
+    OP_11((byte) 0x5b),
 
     /**
         * Pushea el Integer {@code 12} al stack como un byte array [12].
         * Byte de OPCODE: {@code 0x5c}
     */
-    OP_12((byte) 0x5c) {
-        @Override
-        public void aplicar(byte[] d, ScriptStack s) {
-            s.pushItem(new byte[] { 12 });
-        }
-
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    },
+    OP_12((byte) 0x5c),
 
     /**
         * Pushea el Integer {@code 13} al stack como un byte array [13].
         * Byte de OPCODE: {@code 0x5d}
     */
-    OP_13((byte) 0x5d) {
-        @Override
-        public void aplicar(byte[] d, ScriptStack s) {
-            s.pushItem(new byte[] { 13 });
-        }
-
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    },
+    OP_13((byte) 0x5d),
 
     /**
         * Pushea el Integer {@code 14} al stack como un byte array [14].
         * Byte de OPCODE: {@code 0x5e}
     */
-    OP_14((byte) 0x5e) {
-        @Override
-        public void aplicar(byte[] d, ScriptStack s) {
-            s.pushItem(new byte[] { 14 });
-        }
-
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    },
+    OP_14((byte) 0x5e),
 
     /**
         * Pushea el Integer {@code 15} al stack como un byte array [15].
         * Byte de OPCODE: {@code 0x5f}
     */
-    OP_15((byte) 0x5f) {
-        @Override
-        public void aplicar(byte[] d, ScriptStack s) {
-            s.pushItem(new byte[] { 15 });
-        }
-
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    },
+    OP_15((byte) 0x5f),
 
     /**
         * Pushea el Integer {@code 16} al stack como un byte array [16].
@@ -298,17 +136,7 @@ public enum OPCODE {
         * Byte de OPCODE: {@code 0x60}
     */
 
-    OP_16((byte) 0x60) {
-        @Override
-        public void aplicar(byte[] d, ScriptStack s) {
-            s.pushItem(new byte[] { 16 });
-        }
-
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    },
+    OP_16((byte) 0x60),
 
     // ─────────────────────────────────────────────────────────────────
     // OPCODES DE PUSHEO DE DATOS: OP_PUSHDATA1, OP_PUSHDATA2, OP_PUSHDATA4
@@ -320,69 +148,30 @@ public enum OPCODE {
         * Hace push de un array de bytes de hasta 255 bytes al stack.
         * En el script puro el opcode va seguido de un byte que funciona como
         * prefijo. El {@link ConvertBytesToOP} se encarga de extraer el prefijo
-        * y la carga antes de que este método se llame. De esta forma el {@code dato} que recibe este método es exactamente el array de bytes a pushear.
-        * ya solo contiene la carga a pushear.
-        * 
-        * @param dato es la carga de bytes a pushear
-        * @param stack el stack donde se pushea el dato
+        * y la carga antes de que este OPCODE se ejecute. De esta forma el
+        * {@code dato} que recibe es exactamente el array de bytes a pushear.
     */
-    OP_PUSHDATA1((byte) 0x4c) {
-        @Override
-        public void aplicar(byte[] dato, ScriptStack stack) {
-            stack.pushItem(dato);
-        }
-
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    },
+    OP_PUSHDATA1((byte) 0x4c),
 
     /**
         * Hace push de un array de bytes de hasta 65535 bytes al stack.
         * En el script puro el opcode va seguido de dos bytes que funcionan como
         * prefijo. El {@link ConvertBytesToOP} se encarga de extraer el prefijo
-        * y la carga antes de que este método se llame. De esta forma el {@code dato} que recibe este método es exactamente el array de bytes a pushear.
-        * ya solo contiene la carga a pushear.
-        * 
-        * @param dato es la carga de bytes a pushear
-        * @param stack el stack donde se pushea el dato
+        * y la carga antes de que este OPCODE se ejecute. De esta forma el
+        * {@code dato} que recibe es exactamente el array de bytes a pushear.
     */
-    OP_PUSHDATA2((byte) 0x4d) {
-        @Override
-        public void aplicar(byte[] dato, ScriptStack stack) {
-            stack.pushItem(dato);
-        }
-
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    },
+    OP_PUSHDATA2((byte) 0x4d),
 
     /**
         * Hace push de un array de bytes de hasta 4294967295 bytes al stack.
         * En el script puro el opcode va seguido de cuatro bytes que funcionan como
         * prefijo. El {@link ConvertBytesToOP} se encarga de extraer
-        * el prefijo y la carga antes de que este método se llame. 
-        * De esta forma el {@code dato} que recibe este método es 
+        * el prefijo y la carga antes de que este OPCODE se ejecute.
+        * De esta forma el {@code dato} que recibe es
         * exactamente el array de bytes a pushear.
-        * 
-        * @param dato es la carga de bytes a pushear
-        * @param stack el stack donde se pushea el dato
     */
 
-    OP_PUSHDATA4((byte) 0x4e) {
-        @Override
-        public void aplicar(byte[] dato, ScriptStack stack) {
-            stack.pushItem(dato);
-        }
-
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    },
+    OP_PUSHDATA4((byte) 0x4e),
 
     // ─────────────────────────────────────────────────────────────────
     // OPCODES DE MANIPULACIÓN DE STACK: OP_DUP, OP_DROP
@@ -395,51 +184,23 @@ public enum OPCODE {
         * Sin este OPCODE, una copia de la llave pública debería aparecer 2 veces 
         * en el scriptSig, lo que no es eficiente.
         * 
+        * Falla con {@link ScriptError#STACK_UNDERFLOW} si el stack está vacío.
+        * 
         * Byte de OPCODE: {@code 0x76}
-        * @param dato no se utiliza en este OPCODE
-        * @param stack el stack donde se duplica el elemento superior
-        * @throws IllegalStateException si el stack está vacío al intentar duplicar
     */
-    OP_DUP((byte) 0x76) {
-        @Override
-        public void aplicar(byte[] dato, ScriptStack stack) {
-            if (stack.size() < 1)
-                throw new IllegalStateException("Stack vacio en OP_DUP");
-
-            stack.pushItem(stack.peekItem());
-        }
-
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    },
+    OP_DUP((byte) 0x76),
 
     /**
         * Elimina el elemento en la cima del stack.
         * Útil para descartar datos que no son necesarios para la autenticación,
         * como un byte de versión o flag al inicio del scriptSig.
         * 
+        * Falla con {@link ScriptError#STACK_UNDERFLOW} si el stack está vacío.
+        * 
         * Byte de OPCODE: {@code 0x75}
-        * @param dato no se utiliza en este OPCODE
-        * @param stack el stack donde se elimina el elemento superior
-        * @throws IllegalStateException si el stack está vacío al intentar eliminar
     */
 
-    OP_DROP((byte) 0x75) {
-        @Override
-        public void aplicar(byte[] dato, ScriptStack stack) {
-            if (stack.size() < 1)
-                throw new IllegalStateException("Stack vacio en OP_DROP");
-
-            stack.popItem();
-        }
-
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    },
+    OP_DROP((byte) 0x75),
 
     // ─────────────────────────────────────────────────────────────────
     // OPCODES DE COMPARACIÓN: OP_EQUAL, OP_EQUALVERIFY
@@ -451,66 +212,27 @@ public enum OPCODE {
         * Esencial para verificar que el hash de la clave pública coincida con 
         * el hash bloqueado en el scriptPubKey.
         * 
+        * Falla con {@link ScriptError#STACK_UNDERFLOW} si el stack tiene menos
+        * de 2 elementos.
+        * 
         * Byte de OPCODE: {@code 0x87}
-        * @param dato no se utiliza en este OPCODE
-        * @param stack el stack donde se comparan los dos elementos superiores 
-        * y se pushea el resultado
-        * @throws IllegalStateException si el stack tiene menos de 2 elementos 
-        * al intentar comparar
-    */
-    OP_EQUAL((byte) 0x87) {
-        @Override
-        public void aplicar(byte[] dato, ScriptStack stack) {
-            if (stack.size() < 2)
-                throw new IllegalStateException("Stack insuficiente en OP_EQUAL");
-
-            byte[] a = stack.popItem();
-            byte[] b = stack.popItem();
-
-            stack.pushItem(Arrays.equals(a, b) ? new byte[] { 1 } : new byte[] { 0 });
-        }
-
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    },
+    */
+    OP_EQUAL((byte) 0x87),
 
     /**
-        * Hace POP de los 2 elementos superiores del stack y hace un throw
-        * si no son iguales. Es como OP_EQUAL pero en lugar de pushear el resultado,
-        * valida que sean iguales y falla el script si no lo son.
+        * Hace POP de los 2 elementos superiores del stack y falla con
+        * {@link ScriptError#EQUALVERIFY} si no son iguales. Es como OP_EQUAL pero
+        * en lugar de pushear el resultado, valida que sean iguales.
         * Es esencial para el P2PKH, donde se compara el hash de la clave pública 
         * duplicada con el hash bloqueado en el scriptPubKey. Si no coinciden, 
         * el script falla inmediatamente.
+        * Falla con {@link ScriptError#STACK_UNDERFLOW} si el stack tiene menos
+        * de 2 elementos.
         * 
         * Byte de OPCODE: {@code 0x88}
-        * 
-        * @param dato no se utiliza en este OPCODE
-        * @param stack el stack donde se comparan los dos elementos superiores 
-        * y se valida que sean iguales
-        * @throws IllegalStateException si el stack tiene menos de 2 
-        * elementos al intentar comparar
     */
 
-    OP_EQUALVERIFY((byte) 0x88) {
-        @Override
-        public void aplicar(byte[] dato, ScriptStack stack) {
-            if (stack.size() < 2)
-                throw new IllegalStateException("Stack insuficiente en OP_EQUALVERIFY");
-
-            byte[] a = stack.popItem();
-            byte[] b = stack.popItem();
-
-            if (!Arrays.equals(a, b))
-                throw new IllegalStateException("OP_EQUALVERIFY fallo");
-        }
-
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    },
+    OP_EQUALVERIFY((byte) 0x88),
 
     // ─────────────────────────────────────────────────────────────────
     // OPCODES DE HASHING Y VERIFICACIÓN DE FIRMA: OP_HASH160, OP_CHECKSIG
@@ -522,30 +244,12 @@ public enum OPCODE {
         * Hash160 es el estándar en como Bitcoin compacta las claves públicas para 
         * usarlas en los scripts.
         * 
-        * Byte de OPCODE: {@code 0xa9}
+        * Falla con {@link ScriptError#STACK_UNDERFLOW} si el stack está vacío.
         * 
-        * @param dato no se utiliza en este OPCODE
-        * @param stack el stack donde se hace POP del elemento superior, 
-        * se le aplica hash160 y se pushea el resultado
-        * @throws IllegalStateException si el stack está vacío al intentar 
-        * hacer POP
+        * Byte de OPCODE: {@code 0xa9}
     */
 
-    OP_HASH160((byte) 0xa9) {
-        @Override
-        public void aplicar(byte[] dato, ScriptStack stack) throws Exception {
-            if (stack.size() < 1)
-                throw new IllegalStateException("Stack vacio en OP_HASH160");
-
-            byte[] value = stack.popItem();
-            stack.pushItem(Hash160.hash160(value));
-        }
-
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    },
+    OP_HASH160((byte) 0xa9),
 
     /**
         * Verifica una firma digital con una llave pública.
@@ -558,133 +262,48 @@ public enum OPCODE {
         * Esta implementación utiliza un mock de comparación de Bytes para simular
         * la verificación real ECDSA.
         * 
+        * Falla con {@link ScriptError#STACK_UNDERFLOW} si el stack tiene menos
+        * de 2 elementos.
+        * 
         * Byte de OPCODE: {@code 0xac}
-        * @param dato no se utiliza en este OPCODE
-        * @param stack el stack donde se hace POP de la firma y la clave pública.
-        * @throws IllegalStateException si el stack tiene menos de 2 
-        * elementos al intentar hacer POP
     */
 
-    OP_CHECKSIG((byte) 0xac) {
-        @Override
-        public void aplicar(byte[] dato, ScriptStack stack) {
-            if (stack.size() < 2)
-                throw new IllegalStateException("Stack insuficiente en OP_CHECKSIG");
-
-            byte[] publicKey = stack.popItem();
-            byte[] signature = stack.popItem();
-
-            stack.pushItem(Arrays.equals(publicKey, signature)
-                    ? new byte[] { 1 }
-                    : new byte[] { 0 });
-        }
-
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    },
-
-    OP_CHECKMULTISIG((byte) 0xae){
-        @Override
-        public void aplicar(byte[] dato, ScriptStack stack) throws Exception {
-            List<byte[]> pubKeyList = new ArrayList<byte[]>();
-            List<byte[]> sigList = new ArrayList<byte[]>();
-            
-            int cantPubKey = stack.popItem()[0];
-            for (int i = 0; i < cantPubKey; i++) {
-                pubKeyList.add(stack.popItem());
-            }
-
-            int cantSig = stack.popItem()[0];
-            if (cantSig > cantPubKey) { throw new IllegalStateException("Hay mas firmas que llaves en OP_CHECKMULTISIG"); }
-            for (int i = 0; i < cantSig; i++) {
-                sigList.add(stack.popItem());
-            }
-
-            int contExitos = 0;
-            int indexCurrentSig = 0;
-            int indexCurrentPubKey = 0;
-            byte[] currentSig = sigList.get(0);
-
-            while (indexCurrentPubKey < pubKeyList.size()) {
-                if (Arrays.equals(currentSig, pubKeyList.get(indexCurrentPubKey))) {
-                    contExitos++;
-
-                    if (contExitos == cantSig) {
-                        stack.pushItem(new byte[]{ 1 });
-                        break;
-                    }
-                    else{
-                        indexCurrentSig++;
-                        currentSig = sigList.get(indexCurrentSig);
-                    }
-                }
-
-                indexCurrentPubKey++;
-            }
-
-            if (contExitos != cantSig) {
-                throw new Exception("El checkeo de OP_CHECKMULTISIG resulto negativo");
-            }
-        }
+    OP_CHECKSIG((byte) 0xac),
 
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    },
-
-    OP_IF((byte) 0x63) {
-        @Override
-        public void aplicar(byte[] dato, ScriptStack stack) {
-        }
-
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            return Arrays.equals(stack.popItem(), new byte[]{ 1 });
-        }
-    },
+    /**
+        * Verifica m firmas contra n llaves públicas.
+        * El stack contiene, de la cima hacia la base: n, las n llaves, m y las m firmas.
+        * Cada firma debe coincidir con alguna llave, respetando el orden de ambas
+        * listas. Si todas coinciden pushea 1; si no, el script falla de inmediato.
+        *
+        * Las llaves y firmas se comparan en su lugar con {@link ScriptStack#itemsIguales(int, int)}
+        * y se retiran juntas al final, sin copiarlas a listas intermedias.
+        *
+        * Byte de OPCODE: {@code 0xae}
+    */
+    OP_CHECKMULTISIG((byte) 0xae),
 
-    OP_ELSE((byte) 0x67){
-        @Override
-        public void aplicar(byte[] dato, ScriptStack stack) {
-            throw new IllegalStateException("Este else no tiene un if previo");
-        }
+    OP_IF((byte) 0x63),
 
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    },
+    OP_ELSE((byte) 0x67),
 
-    OP_ENDIF((byte) 0x68){
-        @Override
-        public void aplicar(byte[] dato, ScriptStack stack) {
-            throw new IllegalStateException("Este endif no tiene un if previo");
-        }
-
-        @Override
-        public boolean evaluar(ScriptStack stack) {
-            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
-        }
-    };
+    OP_ENDIF((byte) 0x68);
 
     // ─────────────────────────────────────────────────────────────────
     // Infraestructura del enum OPCODE
     // ─────────────────────────────────────────────────────────────────
 
     /**
-        * Mapea cada byte de protocolo hacia su respectivo const {@code OPCODE}
-        * Se precarga para que {@link #fromId(byte)} pueda obtener el OPCODE en O(1) 
-        * dado su byte de protocolo. Sin tener que iterar sobre {@link #values()} 
-        * cada vez.
+        * Tabla de 256 posiciones indexada por el byte de protocolo sin signo.
+        * Se precarga para que {@link #fromId(byte)} pueda obtener el OPCODE con
+        * un solo acceso a un array, sin boxing del byte ni hashing; las
+        * posiciones de los bytes que no son OPCODES quedan en {@code null}.
     */
-    private static final Map<Byte, OPCODE> BY_CODE = new HashMap<>();
+    private static final OPCODE[] POR_CODIGO = new OPCODE[256];
 
     static {
         for (OPCODE op : values()) {
-            BY_CODE.put(op.code, op);
+            POR_CODIGO[op.code & 0xff] = op;
         }
     }
     // El identificador byte asignado al protocolo Bitcoin
@@ -697,14 +316,68 @@ public enum OPCODE {
     OPCODE(byte code) {
         this.code = code;
     }
+
+    /**
+        * Retorna el byte de protocolo que identifica este OPCODE.
+        * @return el byte del OPCODE en un script
+    */
+    public byte getCode() {
+        return code;
+    }
+
     /**
-        * Método abstracto que cada OPCODE implementa para definir su comportamiento específico.
+        * Retorna el número que pushea un OPCODE numérico.
+        * @param op el OPCODE a consultar
+        * @return el valor de OP_0..OP_16, o -1 si el OPCODE no es numérico
+    */
+    public static int valorNumerico(OPCODE op) {
+        if (op == OP_0)
+            return 0;
+
+        int code = op.code & 0xff;
+        return code >= 0x51 && code <= 0x60 ? code - 0x50 : -1;
+    }
+    /**
+        * Ejecuta este OPCODE sobre el stack.
+        * No lanza excepciones ante un script inválido: reporta el motivo
+        * del fallo en el valor de retorno. El comportamiento de todos los
+        * OPCODES está en un único switch, {@link Operaciones#ejecutar(int, byte[], ScriptStack, LimitesScript)},
+        * el mismo que usan los intérpretes.
+        * @param dato es un array de bytes que algunos OPCODES pueden usar como carga (e.g. OP_PUSHDATA)
+        * @param stack el stack donde el OPCODE realiza sus operaciones
+        * @return {@link ScriptError#OK} si la operación tuvo éxito, o el error que la hizo fallar
+    */
+    public ScriptError ejecutar(byte[] dato, ScriptStack stack) {
+        return Operaciones.ejecutar(code & 0xff, dato, stack, LimitesScript.CONSENSO);
+    }
+
+    /**
+        * Evalúa la condición de un OP_IF: extrae la cima del stack y retorna
+        * si es verdadera según {@link com.example.ValoresScript#esVerdadero(byte[])}.
+        * @param stack el stack del que se extrae la condición
+        * @return {@code true} si la rama del OP_IF debe ejecutarse
+        * @throws IllegalStateException si este OPCODE no es OP_IF
+    */
+    public boolean evaluar(ScriptStack stack) {
+        if (this != OP_IF)
+            throw new IllegalStateException("Esta operacion no puede evaluar el Stack");
+
+        return stack.popEsVerdadero();
+    }
+
+    /**
+        * Aplica el OPCODE sobre el stack y convierte un fallo en excepción.
+        * Se conserva para quien prefiera el estilo con excepciones, como
+        * las pruebas que ejecutan OPCODES sueltos.
         * @param dato es un array de bytes que algunos OPCODES pueden usar como carga (e.g. OP_PUSHDATA)
         * @param stack el stack donde el OPCODE realiza sus operaciones
-        * @throws Exception si ocurre algún error durante la aplicación del OPCODE
+        * @throws IllegalStateException si el OPCODE falla, con el mensaje del {@link ScriptError}
     */
-    public abstract void aplicar(byte[] dato, ScriptStack stack) throws Exception;
-    public abstract boolean evaluar(ScriptStack stack);
+    public void aplicar(byte[] dato, ScriptStack stack) throws Exception {
+        ScriptError error = ejecutar(dato, stack);
+        if (error != ScriptError.OK)
+            throw new IllegalStateException(error.getMensaje());
+    }
 
     /**
         * Dado un byte de protocolo, retorna el OPCODE correspondiente.
@@ -714,12 +387,23 @@ public enum OPCODE {
         * ningún OPCODE válido
     */
     public static OPCODE fromId(byte code) {
-        OPCODE op = BY_CODE.get(code);
+        OPCODE op = buscarPorId(code);
         if (op == null)
             throw new IllegalArgumentException("Codigo no valido: " + code);
         return op;
     }
 
+    /**
+        * Igual que {@link #fromId(byte)}, pero sin lanzar excepción: retorna
+        * {@code null} si el byte no corresponde a ningún OPCODE. Lo usa el
+        * parser para reportar un código desconocido como {@link ScriptError#BAD_OPCODE}.
+        * @param code el byte de protocolo a buscar
+        * @return el OPCODE correspondiente, o {@code null}
+    */
+    public static OPCODE buscarPorId(byte code) {
+        return POR_CODIGO[code & 0xff];
+    }
+
     /**
         * Método de utilidad para verificar si un OPCODE es un OP_PUSHDATA.
         * @param op el OPCODE a verificar
@@ -728,6 +412,6 @@ public enum OPCODE {
     */
 
     public static boolean isPUSHDATA(OPCODE op){
-        return (op.equals(OPCODE.OP_PUSHDATA1) || op.equals(OPCODE.OP_PUSHDATA2) || op.equals(OPCODE.OP_PUSHDATA4)); 
+        return op == OP_PUSHDATA1 || op == OP_PUSHDATA2 || op == OP_PUSHDATA4;
     }
 }
\ No newline at end of file
@@ -0,0 +1,156 @@
+package com.example.OPCODES;
+
+import com.example.LimitesScript;
+import com.example.ScriptError;
+import com.example.ScriptStack;
+
+/**
+    * Comportamiento de los OPCODES que no alteran el flujo del programa.
+    *
+    * Todos están en un único {@code switch} sobre el byte de protocolo, con
+    * casos densos que el JIT compila a una tabla de saltos. Lo usan
+    * {@link OPCODE#ejecutar(byte[], ScriptStack)} y los intérpretes del
+    * paquete {@code com.example}; vive junto al enum para que OPCODE no
+    * dependa de ellos.
+ */
+public final class Operaciones {
+
+    private Operaciones() {
+    }
+
+    /**
+        * Ejecuta un OPCODE suelto sobre el stack. Los condicionales no tienen
+        * efecto aquí porque su salto lo resuelve quien recorre el programa,
+        * y el tamaño del stack también lo verifica quien lo recorre.
+        *
+        * @param codigo  el byte de protocolo del OPCODE, entre 0 y 255
+        * @param dato    la carga a pushear para los OP_PUSHDATA; se ignora en el resto
+        * @param stack   el stack sobre el que opera
+        * @param limites los límites a aplicar
+        * @return {@link ScriptError#OK} o el error que hizo fallar al OPCODE
+     */
+    public static ScriptError ejecutar(int codigo, byte[] dato, ScriptStack stack, LimitesScript limites) {
+        switch (codigo) {
+            case 0x00: // OP_0
+                stack.pushNumero(0);
+                return ScriptError.OK;
+
+            case 0x51: case 0x52: case 0x53: case 0x54: // OP_1..OP_4
+            case 0x55: case 0x56: case 0x57: case 0x58: // OP_5..OP_8
+            case 0x59: case 0x5a: case 0x5b: case 0x5c: // OP_9..OP_12
+            case 0x5d: case 0x5e: case 0x5f: case 0x60: // OP_13..OP_16
+                stack.pushNumero(codigo - 0x50);
+                return ScriptError.OK;
+
+            case 0x4c: // OP_PUSHDATA1
+            case 0x4d: // OP_PUSHDATA2
+            case 0x4e: // OP_PUSHDATA4
+                stack.pushItem(dato);
+                return ScriptError.OK;
+
+            case 0x76: // OP_DUP
+                if (stack.size() < 1)
+                    return ScriptError.STACK_UNDERFLOW;
+
+                stack.duplicarTope();
+                return ScriptError.OK;
+
+            case 0x75: // OP_DROP
+                if (stack.size() < 1)
+                    return ScriptError.STACK_UNDERFLOW;
+
+                stack.descartar(1);
+                return ScriptError.OK;
+
+            case 0x87: // OP_EQUAL
+            case 0xac: // OP_CHECKSIG; mock: la firma es válida si es igual a la llave pública
+                if (stack.size() < 2)
+                    return ScriptError.STACK_UNDERFLOW;
+
+                boolean iguales = stack.itemsIguales(0, 1);
+                stack.descartar(2);
+                stack.pushNumero(iguales ? 1 : 0);
+                return ScriptError.OK;
+
+            case 0x88: // OP_EQUALVERIFY
+                if (stack.size() < 2)
+                    return ScriptError.STACK_UNDERFLOW;
+
+                boolean verificado = stack.itemsIguales(0, 1);
+                stack.descartar(2);
+                return verificado ? ScriptError.OK : ScriptError.EQUALVERIFY;
+
+            case 0xa9: // OP_HASH160
+                if (stack.size() < 1)
+                    return ScriptError.STACK_UNDERFLOW;
+
+                stack.hash160Tope();
+                return ScriptError.OK;
+
+            case 0xae: // OP_CHECKMULTISIG
+                return checkMultisig(stack, limites.getMaxLlavesMultisig());
+
+            case 0x63: // OP_IF
+            case 0x68: // OP_ENDIF
+                return ScriptError.OK;
+
+            case 0x67: // OP_ELSE
+                return ScriptError.UNBALANCED_CONDITIONAL;
+
+            default:
+                return ScriptError.BAD_OPCODE;
+        }
+    }
+
+    /**
+        * OP_CHECKMULTISIG: el stack contiene, de la cima hacia la base, n,
+        * las n llaves, m y las m firmas. Las llaves y firmas se comparan en su
+        * lugar y se retiran juntas al final.
+     */
+    private static ScriptError checkMultisig(ScriptStack stack, int maxLlaves) {
+        if (stack.size() < 1)
+            return ScriptError.STACK_UNDERFLOW;
+
+        int cantPubKey = leerConteo(stack, 0);
+        if (cantPubKey < 0 || cantPubKey > maxLlaves)
+            return ScriptError.PUBKEY_COUNT;
+        if (stack.size() < cantPubKey + 2)
+            return ScriptError.STACK_UNDERFLOW;
+
+        int cantSig = leerConteo(stack, cantPubKey + 1);
+        if (cantSig < 1 || cantSig > cantPubKey)
+            return ScriptError.SIG_COUNT;
+        if (stack.size() < cantPubKey + cantSig + 2)
+            return ScriptError.STACK_UNDERFLOW;
+
+        // Profundidad de la primera llave y de la primera firma
+        int baseLlaves = 1;
+        int baseFirmas = cantPubKey + 2;
+
+        int contExitos = 0;
+        int indexCurrentPubKey = 0;
+
+        while (indexCurrentPubKey < cantPubKey && contExitos < cantSig) {
+            if (stack.itemsIguales(baseFirmas + contExitos, baseLlaves + indexCurrentPubKey)) {
+                contExitos++;
+            }
+
+            indexCurrentPubKey++;
+        }
+
+        if (contExitos != cantSig)
+            return ScriptError.CHECKMULTISIG;
+
+        stack.descartar(cantPubKey + cantSig + 2);
+        stack.pushNumero(1);
+        return ScriptError.OK;
+    }
+
+    /**
+        * Interpreta un elemento del stack como un conteo pequeño, como los
+        * m y n de OP_CHECKMULTISIG: el valor de su primer byte, o 0 si está vacío.
+     */
+    private static int leerConteo(ScriptStack stack, int profundidad) {
+        return stack.longitudItem(profundidad) == 0 ? 0 : stack.byteDeItem(profundidad, 0);
+    }
+}
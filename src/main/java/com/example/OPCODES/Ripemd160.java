@@ -0,0 +1,230 @@
+package com.example.OPCODES;
+
+/**
+    * Implementación en Java puro de RIPEMD-160, sin depender del proveedor
+    * BouncyCastle.
+    *
+    * Sigue la especificación original de Dobbertin, Bosselaers y Preneel:
+    * dos líneas paralelas de 80 pasos sobre palabras little-endian, cuyos
+    * resultados se combinan al final de cada bloque. Igual que {@link Sha256},
+    * trabaja sobre arrays y offsets y reutiliza su estado entre mensajes.
+    * En HASH160 la entrada es siempre el digest de 32 bytes de SHA-256,
+    * que cabe junto con su padding en un único bloque.
+    *
+    * Una instancia no es segura entre hilos; {@link Hash160} mantiene una por hilo.
+ */
+public final class Ripemd160 {
+
+    // Longitud en bytes del digest
+    public static final int LONGITUD_DIGEST = 20;
+
+    private static final int LONGITUD_BLOQUE = 64;
+
+    // Palabra del mensaje que usa cada paso de la línea izquierda
+    static final int[] R = {
+        0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15,
+        7, 4, 13, 1, 10, 6, 15, 3, 12, 0, 9, 5, 2, 14, 11, 8,
+        3, 10, 14, 4, 9, 15, 8, 1, 2, 7, 0, 6, 13, 11, 5, 12,
+        1, 9, 11, 10, 0, 8, 12, 4, 13, 3, 7, 15, 14, 5, 6, 2,
+        4, 0, 5, 9, 7, 12, 2, 10, 14, 1, 3, 8, 11, 6, 15, 13
+    };
+
+    // Palabra del mensaje que usa cada paso de la línea derecha
+    static final int[] R_PRIMA = {
+        5, 14, 7, 0, 9, 2, 11, 4, 13, 6, 15, 8, 1, 10, 3, 12,
+        6, 11, 3, 7, 0, 13, 5, 10, 14, 15, 8, 12, 4, 9, 1, 2,
+        15, 5, 1, 3, 7, 14, 6, 9, 11, 8, 12, 2, 10, 0, 4, 13,
+        8, 6, 4, 1, 3, 11, 15, 0, 5, 12, 2, 13, 9, 7, 10, 14,
+        12, 15, 10, 4, 1, 5, 8, 7, 6, 2, 13, 14, 0, 3, 9, 11
+    };
+
+    // Rotación a la izquierda de cada paso de la línea izquierda
+    static final int[] S = {
+        11, 14, 15, 12, 5, 8, 7, 9, 11, 13, 14, 15, 6, 7, 9, 8,
+        7, 6, 8, 13, 11, 9, 7, 15, 7, 12, 15, 9, 11, 7, 13, 12,
+        11, 13, 6, 7, 14, 9, 13, 15, 14, 8, 13, 6, 5, 12, 7, 5,
+        11, 12, 14, 15, 14, 15, 9, 8, 9, 14, 5, 6, 8, 6, 5, 12,
+        9, 15, 5, 11, 6, 8, 13, 12, 5, 12, 13, 14, 11, 8, 5, 6
+    };
+
+    // Rotación a la izquierda de cada paso de la línea derecha
+    static final int[] S_PRIMA = {
+        8, 9, 9, 11, 13, 15, 15, 5, 7, 7, 8, 11, 14, 14, 12, 6,
+        9, 13, 15, 7, 12, 8, 9, 11, 7, 7, 12, 7, 6, 15, 13, 11,
+        9, 7, 15, 11, 8, 6, 6, 14, 12, 13, 5, 14, 13, 13, 7, 5,
+        15, 5, 8, 11, 14, 14, 6, 14, 6, 9, 12, 9, 12, 5, 15, 8,
+        8, 5, 12, 9, 12, 5, 14, 6, 8, 13, 6, 5, 15, 13, 11, 11
+    };
+
+    // Constantes de cada ronda; MotorMultiLinea también usa estas tablas
+    static final int[] K = { 0x00000000, 0x5a827999, 0x6ed9eba1, 0x8f1bbcdc, 0xa953fd4e };
+    static final int[] K_PRIMA = { 0x50a28be6, 0x5c4dd124, 0x6d703ef3, 0x7a6d76e9, 0x00000000 };
+
+    // Valores iniciales del hash
+    static final int[] INICIAL = { 0x67452301, 0xefcdab89, 0x98badcfe, 0x10325476, 0xc3d2e1f0 };
+
+    // Valores intermedios del hash (h0..h4)
+    private final int[] estado = new int[5];
+
+    // Palabras little-endian del bloque actual
+    private final int[] x = new int[16];
+
+    // Bytes pendientes que aún no completan un bloque
+    private final byte[] bloque = new byte[LONGITUD_BLOQUE];
+
+    private int bytesEnBloque;
+    private long longitudTotal;
+
+    public Ripemd160() {
+        reset();
+    }
+
+    /**
+        * Descarta el mensaje en curso y deja el motor listo para uno nuevo.
+     */
+    public void reset() {
+        System.arraycopy(INICIAL, 0, estado, 0, INICIAL.length);
+        bytesEnBloque = 0;
+        longitudTotal = 0;
+    }
+
+    /**
+        * Agrega una región de un array al mensaje en curso.
+        *
+        * @param entrada  el array que contiene los bytes
+        * @param offset   posición del primer byte a agregar
+        * @param longitud cantidad de bytes a agregar
+     */
+    public void update(byte[] entrada, int offset, int longitud) {
+        longitudTotal += longitud;
+
+        if (bytesEnBloque > 0) {
+            int faltantes = Math.min(LONGITUD_BLOQUE - bytesEnBloque, longitud);
+            System.arraycopy(entrada, offset, bloque, bytesEnBloque, faltantes);
+            bytesEnBloque += faltantes;
+            offset += faltantes;
+            longitud -= faltantes;
+
+            if (bytesEnBloque < LONGITUD_BLOQUE) {
+                return;
+            }
+            comprimir(bloque, 0);
+            bytesEnBloque = 0;
+        }
+
+        while (longitud >= LONGITUD_BLOQUE) {
+            comprimir(entrada, offset);
+            offset += LONGITUD_BLOQUE;
+            longitud -= LONGITUD_BLOQUE;
+        }
+
+        System.arraycopy(entrada, offset, bloque, 0, longitud);
+        bytesEnBloque = longitud;
+    }
+
+    /**
+        * Termina el mensaje en curso, escribe los 20 bytes del digest en la
+        * salida indicada y reinicia el motor.
+        *
+        * @param salida       el array donde se escribe el digest
+        * @param offsetSalida posición donde comienza el digest
+     */
+    public void digest(byte[] salida, int offsetSalida) {
+        long bits = longitudTotal << 3;
+
+        bloque[bytesEnBloque++] = (byte) 0x80;
+        if (bytesEnBloque > LONGITUD_BLOQUE - 8) {
+            while (bytesEnBloque < LONGITUD_BLOQUE) {
+                bloque[bytesEnBloque++] = 0;
+            }
+            comprimir(bloque, 0);
+            bytesEnBloque = 0;
+        }
+        while (bytesEnBloque < LONGITUD_BLOQUE - 8) {
+            bloque[bytesEnBloque++] = 0;
+        }
+        for (int i = 0; i < 8; i++) {
+            bloque[LONGITUD_BLOQUE - 8 + i] = (byte) (bits >>> (i * 8));
+        }
+        comprimir(bloque, 0);
+
+        for (int i = 0; i < 5; i++) {
+            int valor = estado[i];
+            int posicion = offsetSalida + i * 4;
+            salida[posicion] = (byte) valor;
+            salida[posicion + 1] = (byte) (valor >>> 8);
+            salida[posicion + 2] = (byte) (valor >>> 16);
+            salida[posicion + 3] = (byte) (valor >>> 24);
+        }
+
+        reset();
+    }
+
+    /**
+        * Hashea una región completa en una sola llamada.
+        *
+        * @param entrada      el array que contiene los bytes a hashear
+        * @param offset       posición del primer byte
+        * @param longitud     cantidad de bytes
+        * @param salida       el array donde se escriben los 20 bytes del digest
+        * @param offsetSalida posición donde comienza el digest
+     */
+    public void hashear(byte[] entrada, int offset, int longitud, byte[] salida, int offsetSalida) {
+        reset();
+        update(entrada, offset, longitud);
+        digest(salida, offsetSalida);
+    }
+
+    private static int f(int paso, int b, int c, int d) {
+        switch (paso >>> 4) {
+            case 0: return b ^ c ^ d;
+            case 1: return (b & c) | (~b & d);
+            case 2: return (b | ~c) ^ d;
+            case 3: return (b & d) | (c & ~d);
+            default: return b ^ (c | ~d);
+        }
+    }
+
+    private void comprimir(byte[] datos, int offset) {
+        for (int i = 0; i < 16; i++) {
+            int p = offset + i * 4;
+            x[i] = (datos[p] & 0xff) | ((datos[p + 1] & 0xff) << 8) | ((datos[p + 2] & 0xff) << 16) | (datos[p + 3] << 24);
+        }
+
+        int a = estado[0];
+        int b = estado[1];
+        int c = estado[2];
+        int d = estado[3];
+        int e = estado[4];
+        int ap = a;
+        int bp = b;
+        int cp = c;
+        int dp = d;
+        int ep = e;
+
+        for (int paso = 0; paso < 80; paso++) {
+            int ronda = paso >>> 4;
+
+            int t = Integer.rotateLeft(a + f(paso, b, c, d) + x[R[paso]] + K[ronda], S[paso]) + e;
+            a = e;
+            e = d;
+            d = Integer.rotateLeft(c, 10);
+            c = b;
+            b = t;
+
+            t = Integer.rotateLeft(ap + f(79 - paso, bp, cp, dp) + x[R_PRIMA[paso]] + K_PRIMA[ronda], S_PRIMA[paso]) + ep;
+            ap = ep;
+            ep = dp;
+            dp = Integer.rotateLeft(cp, 10);
+            cp = bp;
+            bp = t;
+        }
+
+        int t = estado[1] + c + dp;
+        estado[1] = estado[2] + d + ep;
+        estado[2] = estado[3] + e + ap;
+        estado[3] = estado[4] + a + bp;
+        estado[4] = estado[0] + b + cp;
+        estado[0] = t;
+    }
+}
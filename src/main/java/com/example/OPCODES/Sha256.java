@@ -0,0 +1,201 @@
+package com.example.OPCODES;
+
+/**
+    * Implementación en Java puro de SHA-256 (FIPS 180-4), sin pasar por
+    * los proveedores de la JCA.
+    *
+    * Trabaja directamente sobre arrays y offsets y reutiliza su estado
+    * interno entre mensajes, por lo que hashear no crea objetos.
+    * Los bloques completos se comprimen leyendo directamente del array de
+    * entrada; solo el final del mensaje pasa por el bloque interno para
+    * agregarle el padding. Con las llaves públicas de 33 y 65 bytes que
+    * dominan OP_HASH160 eso significa uno o dos bloques sin copias intermedias.
+    *
+    * Una instancia no es segura entre hilos; {@link Hash160} mantiene una por hilo.
+ */
+public final class Sha256 {
+
+    // Longitud en bytes del digest
+    public static final int LONGITUD_DIGEST = 32;
+
+    private static final int LONGITUD_BLOQUE = 64;
+
+    // Constantes de ronda; MotorMultiLinea también las usa
+    static final int[] K = {
+        0x428a2f98, 0x71374491, 0xb5c0fbcf, 0xe9b5dba5, 0x3956c25b, 0x59f111f1, 0x923f82a4, 0xab1c5ed5,
+        0xd807aa98, 0x12835b01, 0x243185be, 0x550c7dc3, 0x72be5d74, 0x80deb1fe, 0x9bdc06a7, 0xc19bf174,
+        0xe49b69c1, 0xefbe4786, 0x0fc19dc6, 0x240ca1cc, 0x2de92c6f, 0x4a7484aa, 0x5cb0a9dc, 0x76f988da,
+        0x983e5152, 0xa831c66d, 0xb00327c8, 0xbf597fc7, 0xc6e00bf3, 0xd5a79147, 0x06ca6351, 0x14292967,
+        0x27b70a85, 0x2e1b2138, 0x4d2c6dfc, 0x53380d13, 0x650a7354, 0x766a0abb, 0x81c2c92e, 0x92722c85,
+        0xa2bfe8a1, 0xa81a664b, 0xc24b8b70, 0xc76c51a3, 0xd192e819, 0xd6990624, 0xf40e3585, 0x106aa070,
+        0x19a4c116, 0x1e376c08, 0x2748774c, 0x34b0bcb5, 0x391c0cb3, 0x4ed8aa4a, 0x5b9cca4f, 0x682e6ff3,
+        0x748f82ee, 0x78a5636f, 0x84c87814, 0x8cc70208, 0x90befffa, 0xa4506ceb, 0xbef9a3f7, 0xc67178f2
+    };
+
+    // Valores iniciales del hash
+    static final int[] INICIAL = {
+        0x6a09e667, 0xbb67ae85, 0x3c6ef372, 0xa54ff53a, 0x510e527f, 0x9b05688c, 0x1f83d9ab, 0x5be0cd19
+    };
+
+    // Valores intermedios del hash (H0..H7)
+    private final int[] estado = new int[8];
+
+    // Mensaje expandido de la ronda actual
+    private final int[] w = new int[64];
+
+    // Bytes pendientes que aún no completan un bloque
+    private final byte[] bloque = new byte[LONGITUD_BLOQUE];
+
+    private int bytesEnBloque;
+    private long longitudTotal;
+
+    public Sha256() {
+        reset();
+    }
+
+    /**
+        * Descarta el mensaje en curso y deja el motor listo para uno nuevo.
+     */
+    public void reset() {
+        System.arraycopy(INICIAL, 0, estado, 0, INICIAL.length);
+        bytesEnBloque = 0;
+        longitudTotal = 0;
+    }
+
+    /**
+        * Agrega una región de un array al mensaje en curso.
+        *
+        * @param entrada  el array que contiene los bytes
+        * @param offset   posición del primer byte a agregar
+        * @param longitud cantidad de bytes a agregar
+     */
+    public void update(byte[] entrada, int offset, int longitud) {
+        longitudTotal += longitud;
+
+        if (bytesEnBloque > 0) {
+            int faltantes = Math.min(LONGITUD_BLOQUE - bytesEnBloque, longitud);
+            System.arraycopy(entrada, offset, bloque, bytesEnBloque, faltantes);
+            bytesEnBloque += faltantes;
+            offset += faltantes;
+            longitud -= faltantes;
+
+            if (bytesEnBloque < LONGITUD_BLOQUE) {
+                return;
+            }
+            comprimir(bloque, 0);
+            bytesEnBloque = 0;
+        }
+
+        while (longitud >= LONGITUD_BLOQUE) {
+            comprimir(entrada, offset);
+            offset += LONGITUD_BLOQUE;
+            longitud -= LONGITUD_BLOQUE;
+        }
+
+        System.arraycopy(entrada, offset, bloque, 0, longitud);
+        bytesEnBloque = longitud;
+    }
+
+    /**
+        * Termina el mensaje en curso, escribe los 32 bytes del digest en la
+        * salida indicada y reinicia el motor.
+        *
+        * @param salida       el array donde se escribe el digest
+        * @param offsetSalida posición donde comienza el digest
+     */
+    public void digest(byte[] salida, int offsetSalida) {
+        long bits = longitudTotal << 3;
+
+        bloque[bytesEnBloque++] = (byte) 0x80;
+        if (bytesEnBloque > LONGITUD_BLOQUE - 8) {
+            while (bytesEnBloque < LONGITUD_BLOQUE) {
+                bloque[bytesEnBloque++] = 0;
+            }
+            comprimir(bloque, 0);
+            bytesEnBloque = 0;
+        }
+        while (bytesEnBloque < LONGITUD_BLOQUE - 8) {
+            bloque[bytesEnBloque++] = 0;
+        }
+        for (int i = 7; i >= 0; i--) {
+            bloque[LONGITUD_BLOQUE - 1 - i] = (byte) (bits >>> (i * 8));
+        }
+        comprimir(bloque, 0);
+
+        for (int i = 0; i < 8; i++) {
+            int valor = estado[i];
+            int posicion = offsetSalida + i * 4;
+            salida[posicion] = (byte) (valor >>> 24);
+            salida[posicion + 1] = (byte) (valor >>> 16);
+            salida[posicion + 2] = (byte) (valor >>> 8);
+            salida[posicion + 3] = (byte) valor;
+        }
+
+        reset();
+    }
+
+    /**
+        * Hashea una región completa en una sola llamada.
+        *
+        * @param entrada      el array que contiene los bytes a hashear
+        * @param offset       posición del primer byte
+        * @param longitud     cantidad de bytes
+        * @param salida       el array donde se escriben los 32 bytes del digest
+        * @param offsetSalida posición donde comienza el digest
+     */
+    public void hashear(byte[] entrada, int offset, int longitud, byte[] salida, int offsetSalida) {
+        reset();
+        update(entrada, offset, longitud);
+        digest(salida, offsetSalida);
+    }
+
+    private void comprimir(byte[] datos, int offset) {
+        for (int t = 0; t < 16; t++) {
+            int p = offset + t * 4;
+            w[t] = (datos[p] << 24) | ((datos[p + 1] & 0xff) << 16) | ((datos[p + 2] & 0xff) << 8) | (datos[p + 3] & 0xff);
+        }
+        for (int t = 16; t < 64; t++) {
+            int x = w[t - 15];
+            int y = w[t - 2];
+            int s0 = Integer.rotateRight(x, 7) ^ Integer.rotateRight(x, 18) ^ (x >>> 3);
+            int s1 = Integer.rotateRight(y, 17) ^ Integer.rotateRight(y, 19) ^ (y >>> 10);
+            w[t] = w[t - 16] + s0 + w[t - 7] + s1;
+        }
+
+        int a = estado[0];
+        int b = estado[1];
+        int c = estado[2];
+        int d = estado[3];
+        int e = estado[4];
+        int f = estado[5];
+        int g = estado[6];
+        int h = estado[7];
+
+        for (int t = 0; t < 64; t++) {
+            int s1 = Integer.rotateRight(e, 6) ^ Integer.rotateRight(e, 11) ^ Integer.rotateRight(e, 25);
+            int ch = (e & f) ^ (~e & g);
+            int t1 = h + s1 + ch + K[t] + w[t];
+            int s0 = Integer.rotateRight(a, 2) ^ Integer.rotateRight(a, 13) ^ Integer.rotateRight(a, 22);
+            int maj = (a & b) ^ (a & c) ^ (b & c);
+            int t2 = s0 + maj;
+
+            h = g;
+            g = f;
+            f = e;
+            e = d + t1;
+            d = c;
+            c = b;
+            b = a;
+            a = t1 + t2;
+        }
+
+        estado[0] += a;
+        estado[1] += b;
+        estado[2] += c;
+        estado[3] += d;
+        estado[4] += e;
+        estado[5] += f;
+        estado[6] += g;
+        estado[7] += h;
+    }
+}
@@ -0,0 +1,364 @@
+package com.example;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+    * Modo por lotes, sin interacción, para validar muchos pares
+    * (scriptSig, scriptPubKey) desde la línea de comandos:
+    * <pre>
+    *   --batch manifiesto.tsv [--threads N] [--out resultados.tsv]
+    * </pre>
+    *
+    * Cada línea del manifiesto tiene una firma y una llave separadas por un
+    * tabulador; las líneas vacías y las que empiezan con {@code #} se
+    * ignoran. Un campo formado solo por dígitos hexadecimales (o vacío) es
+    * el script en línea; cualquier otro es la ruta a un archivo .txt con el
+    * script en hexadecimal, relativa al directorio del manifiesto.
+    *
+    * Los pares se validan en paralelo en un pool de tamaño fijo, y el
+    * manifiesto se lee a medida que avanza la validación: como mucho una
+    * ventana de pares está en vuelo a la vez, así que la memoria no depende
+    * del tamaño del manifiesto. Los resultados se escriben en el orden de
+    * entrada, una línea por par:
+    * <pre>
+    *   linea  valido  resultado  microsegundos
+    * </pre>
+    * donde resultado es el {@link ScriptError} de la evaluación, o
+    * {@code ENTRADA_INVALIDA} si la línea o alguno de sus archivos no pudo
+    * leerse. Al terminar se imprime un resumen con el throughput y los
+    * percentiles de latencia por par.
+    *
+    * @see ScriptValidator
+    * @see App
+ */
+public final class ProcesadorLote {
+
+    // Resultado de una línea del manifiesto que no pudo convertirse en un par de scripts
+    static final String ENTRADA_INVALIDA = "ENTRADA_INVALIDA";
+
+    // Pares en vuelo por hilo; acota la memoria y mantiene ocupado al pool mientras se escribe
+    private static final int VENTANA_POR_HILO = 32;
+
+    private static final String USO = "Uso: --batch manifiesto.tsv [--threads N] [--out resultados.tsv]";
+
+    private final int hilos;
+    private final CacheScripts cacheLlaves;
+
+    /**
+        * Resumen de un lote procesado.
+     */
+    public static final class Resumen {
+
+        private final long pares;
+        private final long validos;
+        private final long entradasInvalidas;
+        private final long nanosTotales;
+        private final long[] latencias;
+
+        Resumen(long pares, long validos, long entradasInvalidas, long nanosTotales, long[] latencias) {
+            this.pares = pares;
+            this.validos = validos;
+            this.entradasInvalidas = entradasInvalidas;
+            this.nanosTotales = nanosTotales;
+            this.latencias = latencias;
+            Arrays.sort(this.latencias);
+        }
+
+        /**
+            * Retorna la cantidad de pares procesados, incluidas las entradas inválidas.
+            *
+            * @return la cantidad de líneas con un par del manifiesto
+         */
+        public long getPares() {
+            return pares;
+        }
+
+        /**
+            * Retorna la cantidad de pares cuya firma desbloquea la llave.
+            *
+            * @return la cantidad de pares con resultado {@link ScriptError#OK}
+         */
+        public long getValidos() {
+            return validos;
+        }
+
+        /**
+            * Retorna la cantidad de pares rechazados por el intérprete.
+            *
+            * @return los pares evaluados con un resultado distinto de {@link ScriptError#OK}
+         */
+        public long getRechazados() {
+            return pares - validos - entradasInvalidas;
+        }
+
+        /**
+            * Retorna la cantidad de líneas que no pudieron convertirse en un par.
+            *
+            * @return las líneas con resultado {@code ENTRADA_INVALIDA}
+         */
+        public long getEntradasInvalidas() {
+            return entradasInvalidas;
+        }
+
+        /**
+            * Retorna los pares procesados por segundo de tiempo real.
+            *
+            * @return el throughput del lote completo
+         */
+        public double getParesPorSegundo() {
+            return nanosTotales == 0 ? 0 : pares * 1e9 / nanosTotales;
+        }
+
+        /**
+            * Retorna un percentil de la latencia por par, medida desde que un
+            * hilo toma el par hasta que termina de validarlo.
+            *
+            * @param percentil un valor entre 0 y 100
+            * @return la latencia en microsegundos, o 0 si el lote está vacío
+            * @throws IllegalArgumentException si el percentil está fuera de rango
+         */
+        public double getLatenciaMicros(double percentil) {
+            if (percentil < 0 || percentil > 100) {
+                throw new IllegalArgumentException("Percentil fuera de rango: " + percentil);
+            }
+            if (latencias.length == 0) {
+                return 0;
+            }
+            int posicion = (int) Math.ceil(percentil / 100 * latencias.length) - 1;
+            return latencias[Math.max(posicion, 0)] / 1e3;
+        }
+
+        /**
+            * Imprime el resumen en formato legible.
+            *
+            * @param salida el stream donde se imprime
+         */
+        public void imprimir(PrintStream salida) {
+            salida.printf("Pares: %d (validos: %d, rechazados: %d, entradas invalidas: %d)%n",
+                    pares, validos, getRechazados(), entradasInvalidas);
+            salida.printf("Tiempo: %.3f s, throughput: %.1f pares/s%n", nanosTotales / 1e9, getParesPorSegundo());
+            salida.printf("Latencia por par (us): p50 %.1f, p90 %.1f, p99 %.1f, max %.1f%n",
+                    getLatenciaMicros(50), getLatenciaMicros(90), getLatenciaMicros(99), getLatenciaMicros(100));
+        }
+    }
+
+    // Resultado de una línea, listo para escribirse
+    private static final class Resultado {
+        final long linea;
+        final ScriptError error;
+        final long nanos;
+
+        Resultado(long linea, ScriptError error, long nanos) {
+            this.linea = linea;
+            this.error = error;
+            this.nanos = nanos;
+        }
+    }
+
+    /**
+        * Crea un procesador que valida con la cantidad de hilos indicada,
+        * compartiendo entre ellos una caché de scriptPubKey compilados.
+        *
+        * @param hilos cantidad de hilos del pool
+        * @throws IllegalArgumentException si hilos no es positivo
+     */
+    public ProcesadorLote(int hilos) {
+        if (hilos <= 0) {
+            throw new IllegalArgumentException("La cantidad de hilos debe ser positiva");
+        }
+        this.hilos = hilos;
+        this.cacheLlaves = new CacheScripts(4096, CacheScripts.PoliticaDesalojo.W_TINYLFU);
+    }
+
+    /**
+        * Procesa un manifiesto completo y escribe un resultado por par, en el
+        * orden de entrada. El lector y el writer no se cierran.
+        *
+        * @param manifiesto     el manifiesto, una línea por par
+        * @param directorioBase directorio contra el que se resuelven las rutas relativas
+        * @param salida         donde se escriben los resultados
+        * @return el resumen del lote
+        * @throws IOException si falla la lectura del manifiesto o la escritura de resultados
+     */
+    public Resumen procesar(BufferedReader manifiesto, Path directorioBase, Writer salida) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        // Cada hilo del pool reutiliza su Controlador, con el stack en modo arena
+        ThreadLocal<Controlador> controladores = ThreadLocal.withInitial(() -> new Controlador(cacheLlaves, true));
+        ArrayDeque<Future<Resultado>> enVuelo = new ArrayDeque<>();
+        int ventana = hilos * VENTANA_POR_HILO;
+
+        long[] latencias = new long[1024];
+        long pares = 0;
+        long validos = 0;
+        long invalidas = 0;
+        long inicio = System.nanoTime();
+
+        try {
+            salida.write("#linea\tvalido\tresultado\tmicrosegundos\n");
+
+            String texto;
+            long numeroLinea = 0;
+            while (true) {
+                texto = manifiesto.readLine();
+                numeroLinea++;
+                if (texto != null && (texto.isBlank() || texto.startsWith("#"))) {
+                    continue;
+                }
+
+                // Con la ventana llena, o al final del manifiesto, se escribe el par más antiguo
+                while (enVuelo.size() >= ventana || (texto == null && !enVuelo.isEmpty())) {
+                    Resultado resultado = esperar(enVuelo.poll());
+                    escribir(salida, resultado);
+
+                    if (pares == latencias.length) {
+                        latencias = Arrays.copyOf(latencias, latencias.length * 2);
+                    }
+                    latencias[(int) pares++] = resultado.nanos;
+                    if (resultado.error == ScriptError.OK) {
+                        validos++;
+                    }
+                    else if (resultado.error == null) {
+                        invalidas++;
+                    }
+                }
+                if (texto == null) {
+                    break;
+                }
+
+                String linea = texto;
+                long numero = numeroLinea;
+                enVuelo.add(pool.submit(() -> validarLinea(controladores.get(), linea, numero, directorioBase)));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        salida.flush();
+
+        return new Resumen(pares, validos, invalidas, System.nanoTime() - inicio, Arrays.copyOf(latencias, (int) pares));
+    }
+
+    // Lee los dos scripts de la línea y los valida; error null indica una entrada inválida
+    private static Resultado validarLinea(Controlador controlador, String linea, long numero, Path directorioBase) {
+        long inicio = System.nanoTime();
+        String[] campos = linea.split("\t", -1);
+        if (campos.length != 2) {
+            return new Resultado(numero, null, System.nanoTime() - inicio);
+        }
+
+        try {
+            byte[] firma = leerScript(campos[0].strip(), directorioBase);
+            byte[] llave = leerScript(campos[1].strip(), directorioBase);
+            ScriptError error = ScriptValidator.evaluar(controlador, firma, llave);
+            return new Resultado(numero, error, System.nanoTime() - inicio);
+        } catch (IOException | IllegalArgumentException e) {
+            return new Resultado(numero, null, System.nanoTime() - inicio);
+        }
+    }
+
+    private static byte[] leerScript(String campo, Path directorioBase) throws IOException {
+        if (esHexadecimal(campo)) {
+            return DecodificadorHex.decodificar(campo.getBytes(StandardCharsets.US_ASCII));
+        }
+        return LectorDeBytes.getByteArray(directorioBase.resolve(campo).toString());
+    }
+
+    private static boolean esHexadecimal(String campo) {
+        for (int i = 0; i < campo.length(); i++) {
+            char c = campo.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Resultado esperar(Future<Resultado> futuro) throws IOException {
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Procesamiento del lote interrumpido", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Fallo inesperado al validar un par", e.getCause());
+        }
+    }
+
+    private static void escribir(Writer salida, Resultado resultado) throws IOException {
+        String nombre = resultado.error == null ? ENTRADA_INVALIDA : resultado.error.name();
+        salida.write(resultado.linea + "\t" + (resultado.error == ScriptError.OK) + "\t" + nombre + "\t" + resultado.nanos / 1000 + "\n");
+    }
+
+    /**
+        * Ejecuta el modo por lotes a partir de los argumentos de la línea de
+        * comandos. Sin {@code --out}, los resultados se escriben en la salida
+        * estándar y el resumen en la salida de error.
+        *
+        * @param args los argumentos, incluido {@code --batch}
+        * @return el código de salida: 0 si el lote se procesó, 1 si falló la
+        * lectura o la escritura, 2 si los argumentos son inválidos
+     */
+    public static int ejecutar(String[] args) {
+        String rutaManifiesto = null;
+        String rutaSalida = null;
+        int hilos = Runtime.getRuntime().availableProcessors();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--batch":
+                        rutaManifiesto = args[++i];
+                        break;
+                    case "--threads":
+                        hilos = Integer.parseInt(args[++i]);
+                        break;
+                    case "--out":
+                        rutaSalida = args[++i];
+                        break;
+                    default:
+                        System.err.println("Argumento desconocido: " + args[i] + "\n" + USO);
+                        return 2;
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            System.err.println(USO);
+            return 2;
+        }
+        if (rutaManifiesto == null || hilos <= 0) {
+            System.err.println(USO);
+            return 2;
+        }
+
+        Path manifiesto = Path.of(rutaManifiesto).toAbsolutePath();
+        ProcesadorLote procesador = new ProcesadorLote(hilos);
+        try (BufferedReader lector = Files.newBufferedReader(manifiesto, StandardCharsets.UTF_8)) {
+            if (rutaSalida == null) {
+                // La salida estándar no se cierra: solo se vacía el writer que la envuelve
+                Writer salida = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+                procesador.procesar(lector, manifiesto.getParent(), salida).imprimir(System.err);
+            }
+            else {
+                try (Writer salida = Files.newBufferedWriter(Path.of(rutaSalida), StandardCharsets.UTF_8)) {
+                    procesador.procesar(lector, manifiesto.getParent(), salida).imprimir(System.out);
+                }
+            }
+            return 0;
+        } catch (IOException e) {
+            System.err.println("No se pudo procesar el lote: " + e.getMessage());
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,444 @@
+package com.example;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.example.OPCODES.OPCODE;
+
+/**
+    * Forma compilada y plana de un script Bitcoin, lista para ser ejecutada
+    * por el Controlador en un ciclo simple sobre arrays.
+    *
+    * Parte de la salida de {@link ConvertBytesToOP} y resuelve de antemano todo
+    * lo que antes se calculaba durante la ejecución:
+    * el índice de la carga de cada PUSHDATA y el destino del salto de cada
+    * OP_IF y OP_ELSE. Así, una rama descartada se salta con una sola
+    * asignación al contador de programa en lugar de recorrerla opcode por opcode,
+    * y el costo de ejecutar un script depende solo de las instrucciones
+    * que realmente se ejecutan.
+    *
+    * Cada instrucción ocupa una posición en dos arrays paralelos:
+    * {@code codigos} guarda el byte de protocolo del OPCODE (sin signo, o un código
+    * a partir de 0x100 para las superinstrucciones) y {@code operandos} su operando.
+    * El significado del operando depende del OPCODE:
+    * para OP_PUSHDATA1..4 es el índice de la carga en el convertidor,
+    * para OP_IF es la instrucción a la que se salta si la condición es falsa,
+    * y para OP_ELSE es la instrucción a la que se salta al llegar a él
+    * ejecutando la rama anterior. En ambos casos el destino es la instrucción
+    * siguiente al OP_ELSE u OP_ENDIF hermano más cercano.
+    *
+    * Además del programa tal como está escrito, cada script compilado tiene
+    * una versión fusionada ({@link #getFusionado()}) en la que las secuencias
+    * frecuentes, como el scriptPubKey P2PKH o el preámbulo de un multisig,
+    * ocupan una sola instrucción (ver {@link Superinstruccion}).
+    *
+    * @see ConvertBytesToOP
+    * @see Controlador
+ */
+public final class ScriptCompilado {
+
+    // Superinstrucciones indexadas por su código menos Superinstruccion.CODIGO_BASE
+    private static final Superinstruccion[] SUPERINSTRUCCIONES = Superinstruccion.values();
+
+    // Código de cada instrucción: el byte de protocolo sin signo del OPCODE, o el de una superinstrucción
+    private final short[] codigos;
+
+    // Operando de cada instrucción: índice de carga o destino de salto
+    private final int[] operandos;
+
+    // Datos adicionales de las superinstrucciones; null si el programa no está fusionado
+    private final int[] auxiliares;
+
+    // Versión fusionada del programa; es el mismo programa si no hay nada que fusionar
+    private ScriptCompilado fusionado;
+
+    // Script parseado del que provienen las cargas de los PUSHDATA
+    private final ConvertBytesToOP convertidor;
+
+    /**
+        * Indica si los OP_IF, OP_ELSE y OP_ENDIF del script están balanceados.
+        * Un script desbalanceado no puede ejecutarse: el Controlador lo
+        * considera inválido sin ejecutar ninguna instrucción.
+     */
+    private final boolean balanceado;
+
+    /**
+        * Error detectado antes de ejecutar: el del parseo si lo hubo, o
+        * {@link ScriptError#UNBALANCED_CONDITIONAL} si los condicionales no cierran.
+     */
+    private final ScriptError error;
+
+    /**
+        * Altura máxima que alcanzaron las constantes evaluadas de antemano por
+        * {@link EvaluadorParcial}; 0 si el programa no proviene de una
+        * evaluación parcial.
+     */
+    private int margenStack;
+
+    /**
+        * Último análisis estático del script, con el intervalo de profundidad
+        * con el que empezó. Un scriptPubKey de la caché se gasta casi siempre
+        * desde la misma profundidad, así que un solo análisis guardado evita
+        * recorrer el script en cada evaluación. Es inmutable y se publica con
+        * una escritura volátil, por lo que varios hilos pueden compartirlo.
+     */
+    private volatile AnalisisScript analisis;
+
+    private ScriptCompilado(short[] codigos, int[] operandos, int[] auxiliares, ConvertBytesToOP convertidor, boolean balanceado) {
+        this.codigos = codigos;
+        this.operandos = operandos;
+        this.auxiliares = auxiliares;
+        this.convertidor = convertidor;
+        this.balanceado = balanceado;
+
+        if (convertidor.getError() != ScriptError.OK) {
+            this.error = convertidor.getError();
+        }
+        else {
+            this.error = balanceado ? ScriptError.OK : ScriptError.UNBALANCED_CONDITIONAL;
+        }
+    }
+
+    /**
+        * Compila un script ya parseado a su forma plana.
+        * Recorre los OPCODES una sola vez manteniendo, por cada nivel de
+        * anidamiento abierto, la posición del último OP_IF u OP_ELSE cuyo
+        * destino de salto aún no se conoce; al encontrar el OP_ELSE u OP_ENDIF
+        * hermano se completa ese destino.
+        *
+        * @param convertidor el script parseado por {@link ConvertBytesToOP}
+        * @return el script compilado; si sus condicionales no están balanceados,
+        * el resultado reporta {@code false} en {@link #isBalanceado()}
+     */
+    public static ScriptCompilado compilar(ConvertBytesToOP convertidor) {
+        List<OPCODE> opcodes = convertidor.getOpcodes();
+        int cantidad = opcodes.size();
+
+        short[] codigos = new short[cantidad];
+        int[] operandos = new int[cantidad];
+        int[] pendientes = new int[cantidad];
+        int profundidad = 0;
+        int indiceCarga = 0;
+        boolean balanceado = true;
+
+        for (int i = 0; i < cantidad; i++) {
+            OPCODE opcode = opcodes.get(i);
+            codigos[i] = (short) (opcode.getCode() & 0xff);
+
+            if (OPCODE.isPUSHDATA(opcode)) {
+                operandos[i] = indiceCarga++;
+            }
+            else if (opcode == OPCODE.OP_IF) {
+                pendientes[profundidad++] = i;
+            }
+            else if (opcode == OPCODE.OP_ELSE) {
+                if (profundidad == 0) {
+                    balanceado = false;
+                    break;
+                }
+                operandos[pendientes[profundidad - 1]] = i + 1;
+                pendientes[profundidad - 1] = i;
+            }
+            else if (opcode == OPCODE.OP_ENDIF) {
+                if (profundidad == 0) {
+                    balanceado = false;
+                    break;
+                }
+                operandos[pendientes[--profundidad]] = i + 1;
+            }
+        }
+
+        ScriptCompilado programa = new ScriptCompilado(codigos, operandos, null, convertidor, balanceado && profundidad == 0);
+        programa.fusionado = fusionar(programa);
+        return programa;
+    }
+
+    /**
+        * Compila un script y además evalúa de antemano la parte que no
+        * depende del scriptSig (ver {@link EvaluadorParcial}): el prefijo que
+        * solo opera sobre constantes y los OP_IF con condición constante.
+        * El programa retornado es el mismo que da {@link #compilar(ConvertBytesToOP)};
+        * lo que cambia es su versión fusionada, que ejecuta solo el residuo.
+        *
+        * Conviene para los scriptPubKey que se reutilizan, como los de
+        * {@link CacheScripts}: la evaluación se paga una vez y cada gasto
+        * ejecuta menos instrucciones.
+        *
+        * @param convertidor el script parseado por {@link ConvertBytesToOP}
+        * @return el script compilado, con el residuo como versión fusionada
+     */
+    public static ScriptCompilado compilarEvaluado(ConvertBytesToOP convertidor) {
+        ScriptCompilado programa = compilar(convertidor);
+        if (programa.error != ScriptError.OK) {
+            return programa;
+        }
+
+        ScriptCompilado residual = EvaluadorParcial.evaluar(programa);
+        if (residual != null) {
+            programa.fusionado = residual;
+        }
+        return programa;
+    }
+
+    /**
+        * Pasada de mirilla sobre el programa: reemplaza cada secuencia
+        * reconocida por su {@link Superinstruccion} y vuelve a calcular los
+        * destinos de salto sobre las nuevas posiciones. Ninguna secuencia
+        * contiene condicionales, así que un salto nunca cae dentro de una.
+     */
+    private static ScriptCompilado fusionar(ScriptCompilado programa) {
+        if (programa.error != ScriptError.OK) {
+            return programa;
+        }
+
+        int cantidad = programa.codigos.length;
+        short[] codigos = new short[cantidad];
+        int[] operandos = new int[cantidad];
+        int[] auxiliares = new int[cantidad];
+        int[] nuevaPosicion = new int[cantidad + 1];
+        boolean huboFusion = false;
+
+        int j = 0;
+        int i = 0;
+        while (i < cantidad) {
+            Superinstruccion fusion = null;
+            int largo;
+
+            if ((largo = largoP2PKH(programa, i)) > 0) {
+                fusion = Superinstruccion.P2PKH;
+                operandos[j] = programa.operandos[i + 2];
+            }
+            else if ((largo = largoMultisig(programa, i)) > 0) {
+                fusion = Superinstruccion.MULTISIG;
+                operandos[j] = programa.operandos[i + 1];
+                auxiliares[j] = OPCODE.valorNumerico(programa.getOpcode(i)) | (largo - 3) << 8;
+            }
+            else if (esPushData(programa, i) && i + 1 < cantidad && programa.getOpcode(i + 1) == OPCODE.OP_EQUALVERIFY) {
+                fusion = Superinstruccion.PUSH_EQUALVERIFY;
+                operandos[j] = programa.operandos[i];
+                largo = 2;
+            }
+            else if (esPushData(programa, i) && i + 1 < cantidad && programa.getOpcode(i + 1) == OPCODE.OP_EQUAL) {
+                fusion = Superinstruccion.PUSH_EQUAL;
+                operandos[j] = programa.operandos[i];
+                largo = 2;
+            }
+            else {
+                largo = 1;
+                codigos[j] = programa.codigos[i];
+                operandos[j] = programa.operandos[i];
+            }
+
+            if (fusion != null) {
+                codigos[j] = (short) fusion.getCodigo();
+                huboFusion = true;
+            }
+            for (int k = 0; k < largo; k++) {
+                nuevaPosicion[i + k] = j;
+            }
+            i += largo;
+            j++;
+        }
+        nuevaPosicion[cantidad] = j;
+
+        if (!huboFusion) {
+            return programa;
+        }
+
+        for (int k = 0; k < j; k++) {
+            if (codigos[k] == (OPCODE.OP_IF.getCode() & 0xff) || codigos[k] == (OPCODE.OP_ELSE.getCode() & 0xff)) {
+                operandos[k] = nuevaPosicion[operandos[k]];
+            }
+        }
+
+        ScriptCompilado fusionado = new ScriptCompilado(Arrays.copyOf(codigos, j), Arrays.copyOf(operandos, j),
+                Arrays.copyOf(auxiliares, j), programa.convertidor, programa.balanceado);
+        fusionado.fusionado = fusionado;
+        return fusionado;
+    }
+
+    // OP_DUP OP_HASH160 <hash> OP_EQUALVERIFY OP_CHECKSIG; retorna 5 si la secuencia empieza en i
+    private static int largoP2PKH(ScriptCompilado programa, int i) {
+        if (i + 4 < programa.codigos.length
+                && programa.getOpcode(i) == OPCODE.OP_DUP
+                && programa.getOpcode(i + 1) == OPCODE.OP_HASH160
+                && esPushData(programa, i + 2)
+                && programa.getOpcode(i + 3) == OPCODE.OP_EQUALVERIFY
+                && programa.getOpcode(i + 4) == OPCODE.OP_CHECKSIG) {
+            return 5;
+        }
+        return 0;
+    }
+
+    // OP_m <llave>... OP_n OP_CHECKMULTISIG con n cargas; retorna el largo de la secuencia
+    private static int largoMultisig(ScriptCompilado programa, int i) {
+        if (OPCODE.valorNumerico(programa.getOpcode(i)) < 0) {
+            return 0;
+        }
+
+        int k = i + 1;
+        while (k < programa.codigos.length && esPushData(programa, k)) {
+            k++;
+        }
+
+        int llaves = k - i - 1;
+        if (llaves == 0 || k + 1 >= programa.codigos.length
+                || OPCODE.valorNumerico(programa.getOpcode(k)) != llaves
+                || programa.getOpcode(k + 1) != OPCODE.OP_CHECKMULTISIG) {
+            return 0;
+        }
+        return llaves + 3;
+    }
+
+    private static boolean esPushData(ScriptCompilado programa, int pc) {
+        OPCODE opcode = programa.getOpcode(pc);
+        return opcode != null && OPCODE.isPUSHDATA(opcode);
+    }
+
+    /**
+        * Retorna la cantidad de instrucciones del programa.
+        *
+        * @return número de instrucciones
+     */
+    public int getLongitud() {
+        return codigos.length;
+    }
+
+    /**
+        * Retorna el OPCODE de la instrucción indicada.
+        *
+        * @param pc posición de la instrucción
+        * @return el OPCODE de esa instrucción, o {@code null} si es una superinstrucción
+     */
+    public OPCODE getOpcode(int pc) {
+        int codigo = codigos[pc];
+        return codigo < Superinstruccion.CODIGO_BASE ? OPCODE.buscarPorId((byte) codigo) : null;
+    }
+
+    // Código de la instrucción, sobre el que despacha el Interprete
+    int getCodigo(int pc) {
+        return codigos[pc];
+    }
+
+    /**
+        * Indica si la instrucción indicada es una superinstrucción, que
+        * reemplaza a una secuencia de OPCODES del script original.
+        *
+        * @param pc posición de la instrucción
+        * @return {@code true} si la instrucción no corresponde a un único OPCODE
+     */
+    public boolean esSuperinstruccion(int pc) {
+        return codigos[pc] >= Superinstruccion.CODIGO_BASE;
+    }
+
+    // Superinstrucción de la posición indicada; solo válido si esSuperinstruccion(pc)
+    Superinstruccion getSuperinstruccion(int pc) {
+        return SUPERINSTRUCCIONES[codigos[pc] - Superinstruccion.CODIGO_BASE];
+    }
+
+    // Dato adicional de una superinstrucción, como los conteos de un multisig
+    int getAuxiliar(int pc) {
+        return auxiliares[pc];
+    }
+
+    /**
+        * Retorna el operando resuelto de la instrucción indicada:
+        * el índice de carga para los PUSHDATA o el destino de salto
+        * para OP_IF y OP_ELSE.
+        *
+        * @param pc posición de la instrucción
+        * @return el operando de esa instrucción
+     */
+    public int getOperando(int pc) {
+        return operandos[pc];
+    }
+
+    /**
+        * Materializa la carga del PUSHDATA ubicado en la instrucción indicada.
+        *
+        * @param pc posición de una instrucción PUSHDATA
+        * @return una copia de los bytes a pushear
+     */
+    public byte[] getCarga(int pc) {
+        return convertidor.getCarga(operandos[pc]);
+    }
+
+    /**
+        * Retorna la versión fusionada del programa, con las secuencias
+        * frecuentes reemplazadas por superinstrucciones. Produce los mismos
+        * resultados y errores que el programa original con menos despachos.
+        * Si no hay nada que fusionar, o el script no puede ejecutarse,
+        * retorna este mismo programa.
+        *
+        * @return el programa fusionado
+     */
+    public ScriptCompilado getFusionado() {
+        return fusionado;
+    }
+
+    /**
+        * Retorna el análisis estático del script para el intervalo de
+        * profundidad de entrada indicado, reutilizando el último si empezó
+        * con el mismo intervalo.
+        *
+        * @param profundidadMinima profundidad mínima del stack al empezar
+        * @param profundidadMaxima profundidad máxima del stack al empezar
+        * @return el análisis del script original, no el de su versión fusionada
+     */
+    AnalisisScript getAnalisis(int profundidadMinima, int profundidadMaxima) {
+        AnalisisScript guardado = analisis;
+        if (guardado != null && guardado.empiezaCon(profundidadMinima, profundidadMaxima)) {
+            return guardado;
+        }
+
+        guardado = AnalisisScript.analizar(convertidor, profundidadMinima, profundidadMaxima);
+        analisis = guardado;
+        return guardado;
+    }
+
+    /**
+        * Retorna cuántos elementos deben caber en el stack, por encima de los
+        * que ya tiene, para que la parte evaluada de antemano no hubiera
+        * superado el límite de elementos. El {@link Interprete} lo verifica
+        * antes de la primera instrucción.
+        *
+        * @return el margen, o 0 si el programa no es un residuo
+     */
+    int getMargenStack() {
+        return margenStack;
+    }
+
+    void setMargenStack(int margenStack) {
+        this.margenStack = margenStack;
+    }
+
+    /**
+        * Retorna el script parseado a partir del cual se compiló el programa.
+        *
+        * @return el convertidor de origen
+     */
+    public ConvertBytesToOP getConvertidor() {
+        return convertidor;
+    }
+
+    /**
+        * Indica si los condicionales del script están balanceados.
+        *
+        * @return {@code true} si cada OP_ELSE y OP_ENDIF tiene su OP_IF y
+        * todo OP_IF se cierra con un OP_ENDIF
+     */
+    public boolean isBalanceado() {
+        return balanceado;
+    }
+
+    /**
+        * Retorna el error que impide ejecutar el programa, si lo hay.
+        * El Controlador lo consulta antes de ejecutar la primera instrucción.
+        *
+        * @return {@link ScriptError#OK} si el programa puede ejecutarse, o
+        * el error de parseo o de balance de condicionales
+     */
+    public ScriptError getError() {
+        return error;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example;
+
+/**
+    * Resultado de ejecutar un script o una instrucción: {@link #OK} si todo
+    * salió bien o el motivo concreto por el que el script falló.
+    *
+    * El intérprete reporta los fallos retornando uno de estos valores en
+    * lugar de lanzar excepciones. Un script inválido es algo normal en el
+    * tráfico que se valida, y una excepción por cada rechazo pagaría el
+    * costo de construir su stack trace; con un valor de retorno, rechazar
+    * un script cuesta lo mismo que aceptarlo, y quien opera el sistema
+    * obtiene el motivo del rechazo sin costo adicional.
+    *
+    * @see Controlador
+ */
+public enum ScriptError {
+
+    /** El script o la instrucción se ejecutó sin errores. */
+    OK("Sin errores"),
+
+    /** Al terminar la ejecución el stack está vacío o su cima no es 1. */
+    EVAL_FALSE("El script termino sin un 1 en la cima del stack"),
+
+    /** Una instrucción necesitaba más elementos de los que había en el stack. */
+    STACK_UNDERFLOW("Stack insuficiente para la operacion"),
+
+    /** OP_EQUALVERIFY encontró dos elementos distintos. */
+    EQUALVERIFY("OP_EQUALVERIFY fallo"),
+
+    /** OP_CHECKMULTISIG no encontró una llave para cada firma. */
+    CHECKMULTISIG("El checkeo de OP_CHECKMULTISIG resulto negativo"),
+
+    /** La cantidad de llaves públicas de OP_CHECKMULTISIG es inválida. */
+    PUBKEY_COUNT("Cantidad de llaves publicas invalida en OP_CHECKMULTISIG"),
+
+    /** La cantidad de firmas de OP_CHECKMULTISIG es inválida o supera a la de llaves. */
+    SIG_COUNT("Cantidad de firmas invalida en OP_CHECKMULTISIG"),
+
+    /** Un OP_ELSE u OP_ENDIF no tiene su OP_IF, o un OP_IF no se cierra. */
+    UNBALANCED_CONDITIONAL("Los OP_IF, OP_ELSE y OP_ENDIF no estan balanceados"),
+
+    /** El script contiene un byte que no corresponde a ningún OPCODE conocido. */
+    BAD_OPCODE("Codigo de OPCODE no valido"),
+
+    /** Un PUSHDATA declara más bytes de los que quedan en el script. */
+    PUSH_TRUNCATED("La carga del PUSHDATA excede el final del script"),
+
+    /** El script supera la cantidad máxima de bytes (ver {@link LimitesScript}). */
+    SCRIPT_SIZE("El script supera el tamano maximo"),
+
+    /** Un PUSHDATA declara una carga mayor que la permitida (ver {@link LimitesScript}). */
+    PUSH_SIZE("La carga del PUSHDATA supera el tamano maximo"),
+
+    /** El script supera la cantidad máxima de OPCODES (ver {@link LimitesScript}). */
+    OP_COUNT("El script supera la cantidad maxima de OPCODES"),
+
+    /** El stack supera la cantidad máxima de elementos (ver {@link LimitesScript}). */
+    STACK_SIZE("El stack supera la cantidad maxima de elementos"),
+
+    /** Error inesperado del intérprete; no debería ocurrir con ningún script. */
+    UNKNOWN_ERROR("Error desconocido durante la ejecucion");
+
+    // Descripción legible del error, en el mismo idioma que el resto de mensajes
+    private final String mensaje;
+
+    ScriptError(String mensaje) {
+        this.mensaje = mensaje;
+    }
+
+    /**
+        * Retorna una descripción legible del error.
+        *
+        * @return el mensaje asociado al error
+     */
+    public String getMensaje() {
+        return mensaje;
+    }
+}
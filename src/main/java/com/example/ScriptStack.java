@@ -1,35 +1,209 @@
 package com.example;
 
+import java.security.DigestException;
 import java.util.Arrays;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.NoSuchElementException;
 import java.util.function.Consumer;
 
+import com.example.OPCODES.Hash160;
+
 /*
     * Stack de ejecución para el intérprete de Bitcoin Script.
-    * Extiende LinkedBlockingDeque para representar una estructura LIFO
-    * donde cada elemento es un array de bytes, tal como lo define el
-    * protocolo Bitcoin Script.
+    * Representa una estructura LIFO donde cada elemento es un array de bytes,
+    * tal como lo define el protocolo Bitcoin Script.
+    *
+    * Los elementos se guardan en un array que crece bajo demanda, con la base
+    * en la posición 0 y la cima en la posición tope - 1. Cada evaluación usa
+    * su propio stack y nunca lo comparte entre hilos, por lo que la clase no
+    * es sincronizada: push, pop y size son accesos directos al array, sin
+    * locks ni nodos enlazados por elemento.
+    *
+    * El array se crea con capacidad para {@link #CAPACIDAD_INICIAL} elementos,
+    * el límite de consenso de Bitcoin para el tamaño del stack, de modo que
+    * los scripts válidos nunca provocan un redimensionamiento.
     *
-    * LinkedBlockingDeque almacena sus elementos con la cabeza al frente
-    * y la cola al fondo, por lo que la cima del stack se mapea al último
-    * elemento de la deque. Esta clase sobreescribe el iterador y forEach
-    * para que cualquier recorrido externo refleje el orden visual correcto
-    * del stack: de la cima hacia la base.
+    * El iterador y forEach recorren el stack de la cima hacia la base,
+    * que es el orden visual esperado al imprimirlo o inspeccionarlo.
+    *
+    * Un stack creado con {@link #conArena()} no guarda un array por elemento:
+    * copia los bytes de cada elemento a un único array reutilizable (la arena)
+    * y representa cada elemento con su offset y su longitud dentro de ella.
+    * Vaciar el stack solo reinicia esos contadores, así que un stack en modo
+    * arena que se reutiliza entre evaluaciones deja de reservar memoria una
+    * vez que la arena alcanzó el tamaño de los scripts que procesa.
+    * Los OPCODES operan sobre el stack con las primitivas que no materializan
+    * elementos ({@link #pushSlice(byte[], int, int)}, {@link #duplicarTope()},
+    * {@link #itemsIguales(int, int)}, {@link #hash160Tope()}, ...); en modo
+    * arena, popItem, peekItem y el iterador retornan copias.
+    *
+    * Los números pequeños que pushean OP_0..OP_16 y los resultados booleanos
+    * se guardan con {@link #pushNumero(long)} en una ranura numérica: un
+    * {@code long} marcado como número, sin array ni bytes en la arena. Solo
+    * se codifican como bytes cuando alguien los necesita así: HASH160 usa
+    * el array compartido de {@link ValoresScript}, mientras que popItem,
+    * peekItem y el iterador entregan una copia nueva, igual que para un
+    * array compartido pusheado con pushItem, para que nadie fuera del
+    * paquete pueda modificar esos valores. Las comparaciones y la lectura
+    * de conteos los usan directamente como número.
     *
     * @see Controlador
     * @see OPCODE
  */
-public class ScriptStack extends LinkedBlockingDeque<byte[]> {
+public class ScriptStack implements Iterable<byte[]> {
+
+    // Límite de consenso de Bitcoin para la cantidad de elementos en el stack
+    public static final int CAPACIDAD_INICIAL = 1000;
+
+    // Tamaño inicial en bytes de la arena de un stack creado con conArena()
+    public static final int BYTES_ARENA_INICIAL = 4096;
+
+    // Mayor número que se guarda como ranura numérica; coincide con OP_16
+    public static final long MAXIMO_NUMERO = 16;
+
+    // Elementos del stack, de la base (índice 0) a la cima (índice tope - 1); null en modo arena
+    private byte[][] elementos;
+
+    // Bytes de todos los elementos en modo arena; null en modo normal
+    private byte[] arena;
+
+    // Bytes de la arena ya ocupados; solo crece hasta el siguiente clear()
+    private int usado = 0;
+
+    // Offset y longitud en la arena de cada elemento, indexados igual que elementos
+    private int[] offsets;
+    private int[] longitudes;
+
+    /*
+        * Valor de los elementos guardados como ranura numérica. Una posición es
+        * numérica si su elemento es null en modo normal o si su longitud es
+        * negativa en modo arena; en cualquier otro caso este valor no se usa.
+     */
+    private long[] numeros = new long[CAPACIDAD_INICIAL];
+
+    // Buffer para los HASH160 que solo se comparan, sin pushearse
+    private byte[] hashTemporal;
+
+    // Cantidad de elementos en el stack; también es el índice libre siguiente
+    private int tope = 0;
+
+    // Cuenta las modificaciones para detectar cambios durante una iteración
+    private int modificaciones = 0;
+
+    /*
+        * Crea un stack que guarda cada elemento como un array de bytes propio.
+     */
+    public ScriptStack() {
+        this.elementos = new byte[CAPACIDAD_INICIAL][];
+    }
+
+    private ScriptStack(int bytesArena) {
+        this.arena = new byte[bytesArena];
+        this.offsets = new int[CAPACIDAD_INICIAL];
+        this.longitudes = new int[CAPACIDAD_INICIAL];
+    }
+
+    /*
+        * Crea un stack en modo arena, pensado para reutilizarse en muchas
+        * evaluaciones seguidas desde un mismo hilo.
+        *
+        * @return un stack vacío cuyos elementos se guardan en una arena reutilizable
+     */
+    public static ScriptStack conArena() {
+        return new ScriptStack(BYTES_ARENA_INICIAL);
+    }
+
+    /*
+        * Indica si el stack guarda sus elementos en una arena.
+        *
+        * @return {@code true} si el stack fue creado con {@link #conArena()}
+     */
+    public boolean usaArena() {
+        return arena != null;
+    }
+
      /*
         * Empuja un elemento a la cima del stack.
         * Es la operación fundamental que todos los OPCODES de tipo PUSH
         * utilizan para depositar sus resultados o cargas de datos en el stack.
+        * El stack guarda la referencia sin copiarla: el elemento se trata como
+        * inmutable y puede ser un valor compartido de ValoresScript.
         *
         * @param item el array de bytes a colocar en la cima del stack
      */
     public void pushItem(byte[] item) {
-        super.addLast(item);
+        if (item == null) {
+            throw new NullPointerException("El stack no admite elementos nulos");
+        }
+
+        if (arena != null) {
+            pushSlice(item, 0, item.length);
+            return;
+        }
+
+        asegurarCapacidad();
+        elementos[tope++] = item;
+        modificaciones++;
+    }
+
+    /*
+        * Empuja un número pequeño a la cima como ranura numérica, sin crear
+        * ningún array. Equivale a pushear {@code ValoresScript.numero(valor)}.
+        *
+        * @param valor un número entre 0 y {@link #MAXIMO_NUMERO}
+        * @throws IllegalArgumentException si el valor está fuera de rango
+     */
+    public void pushNumero(long valor) {
+        if (valor < 0 || valor > MAXIMO_NUMERO) {
+            throw new IllegalArgumentException("Numero fuera del rango de las ranuras numericas: " + valor);
+        }
+
+        asegurarCapacidad();
+        if (arena != null) {
+            longitudes[tope] = -1;
+        }
+        else {
+            elementos[tope] = null;
+        }
+        numeros[tope++] = valor;
+        modificaciones++;
+    }
+
+    /*
+        * Indica si el elemento a la profundidad indicada es una ranura numérica.
+        *
+        * @param profundidad distancia desde la cima; 0 es la cima
+        * @return {@code true} si el elemento se pusheó con {@link #pushNumero(long)}
+        * @throws NoSuchElementException si el stack no tiene tantos elementos
+     */
+    public boolean esNumero(int profundidad) {
+        return esNumeroEn(indice(profundidad));
+    }
+
+    /*
+        * Empuja a la cima una copia de la región indicada de un array.
+        * Permite pushear la carga de un PUSHDATA directamente desde el script,
+        * sin materializarla antes en un array intermedio; en modo arena los
+        * bytes se copian a la arena.
+        *
+        * @param origen   el array que contiene los bytes
+        * @param offset   posición del primer byte dentro de origen
+        * @param longitud cantidad de bytes
+     */
+    public void pushSlice(byte[] origen, int offset, int longitud) {
+        if (arena == null) {
+            pushItem(Arrays.copyOfRange(origen, offset, offset + longitud));
+            return;
+        }
+
+        int destino = reservar(longitud);
+        System.arraycopy(origen, offset, arena, destino, longitud);
+        asegurarCapacidad();
+        offsets[tope] = destino;
+        longitudes[tope] = longitud;
+        tope++;
+        modificaciones++;
     }
 
     /*
@@ -38,44 +212,342 @@ public class ScriptStack extends LinkedBlockingDeque<byte[]> {
         * usan este método para obtener los valores sobre los que operan.
         *
         * @return el array de bytes que estaba en la cima del stack
+        * @throws NoSuchElementException si el stack está vacío
      */
     public byte[] popItem() {
-        return super.removeLast();
+        if (tope == 0) {
+            throw new NoSuchElementException("Stack vacio");
+        }
+
+        byte[] item = itemPublico(--tope);
+        if (elementos != null) {
+            elementos[tope] = null;
+        }
+        modificaciones++;
+        return item;
+    }
+
+    /*
+        * Remueve los elementos indicados de la cima sin retornarlos.
+        * En modo arena no materializa nada.
+        *
+        * @param cantidad cantidad de elementos a remover
+        * @throws NoSuchElementException si el stack no tiene tantos elementos
+     */
+    public void descartar(int cantidad) {
+        if (cantidad < 0 || cantidad > tope) {
+            throw new NoSuchElementException("El stack no tiene " + cantidad + " elementos");
+        }
+
+        if (elementos != null) {
+            Arrays.fill(elementos, tope - cantidad, tope, null);
+        }
+        tope -= cantidad;
+        modificaciones++;
+    }
+
+    /*
+        * Empuja a la cima el mismo elemento que ya está en ella.
+        * Como los elementos son inmutables, ambos comparten sus bytes:
+        * ni en modo normal ni en modo arena se copia nada.
+        *
+        * @throws NoSuchElementException si el stack está vacío
+     */
+    public void duplicarTope() {
+        if (tope == 0) {
+            throw new NoSuchElementException("Stack vacio");
+        }
+
+        asegurarCapacidad();
+        if (arena != null) {
+            offsets[tope] = offsets[tope - 1];
+            longitudes[tope] = longitudes[tope - 1];
+        }
+        else {
+            elementos[tope] = elementos[tope - 1];
+        }
+        numeros[tope] = numeros[tope - 1];
+        tope++;
+        modificaciones++;
+    }
+
+    /*
+        * Reemplaza el elemento de la cima por su HASH160, calculado
+        * directamente sobre sus bytes. En modo arena el resultado se escribe
+        * en la propia arena, sin arrays intermedios.
+        *
+        * @throws NoSuchElementException si el stack está vacío
+     */
+    public void hash160Tope() {
+        if (tope == 0) {
+            throw new NoSuchElementException("Stack vacio");
+        }
+
+        int i = tope - 1;
+        if (arena == null) {
+            elementos[i] = Hash160.hash160(item(i));
+            modificaciones++;
+            return;
+        }
+
+        int destino = reservar(Hash160.LONGITUD_HASH160);
+        try {
+            if (esNumeroEn(i)) {
+                Hash160.hash160(ValoresScript.numero((int) numeros[i]), 0, 1, arena, destino);
+            }
+            else {
+                Hash160.hash160(arena, offsets[i], longitudes[i], arena, destino);
+            }
+        } catch (DigestException e) {
+            // reservar() garantiza el espacio de salida
+            throw new IllegalStateException(e);
+        }
+        offsets[tope - 1] = destino;
+        longitudes[tope - 1] = Hash160.LONGITUD_HASH160;
+        modificaciones++;
+    }
+
+    /*
+        * Compara los bytes de dos elementos sin removerlos ni copiarlos.
+        *
+        * @param profundidadA profundidad del primer elemento; 0 es la cima
+        * @param profundidadB profundidad del segundo elemento
+        * @return {@code true} si ambos elementos tienen los mismos bytes
+        * @throws NoSuchElementException si el stack no tiene tantos elementos
+     */
+    public boolean itemsIguales(int profundidadA, int profundidadB) {
+        int a = indice(profundidadA);
+        int b = indice(profundidadB);
+
+        boolean numeroA = esNumeroEn(a);
+        boolean numeroB = esNumeroEn(b);
+        if (numeroA && numeroB) {
+            return numeros[a] == numeros[b];
+        }
+        if (numeroA || numeroB) {
+            int numero = numeroA ? a : b;
+            int bytes = numeroA ? b : a;
+            return longitudEn(bytes) == 1 && byteEn(bytes, 0) == numeros[numero];
+        }
+
+        if (arena == null) {
+            return Arrays.equals(elementos[a], elementos[b]);
+        }
+        return Arrays.equals(arena, offsets[a], offsets[a] + longitudes[a],
+                             arena, offsets[b], offsets[b] + longitudes[b]);
+    }
+
+    /*
+        * Compara los bytes de un elemento con una región de un array, sin
+        * removerlo ni copiarlo. Permite comparar contra una carga del script
+        * sin pushearla.
+        *
+        * @param profundidad distancia desde la cima; 0 es la cima
+        * @param origen      el array con los bytes a comparar
+        * @param offset      posición del primer byte dentro de origen
+        * @param longitud    cantidad de bytes
+        * @return {@code true} si el elemento tiene exactamente esos bytes
+        * @throws NoSuchElementException si el stack no tiene tantos elementos
+     */
+    public boolean itemIgualA(int profundidad, byte[] origen, int offset, int longitud) {
+        int i = indice(profundidad);
+
+        if (esNumeroEn(i)) {
+            return longitud == 1 && origen[offset] == numeros[i];
+        }
+        if (arena == null) {
+            return Arrays.equals(elementos[i], 0, elementos[i].length, origen, offset, offset + longitud);
+        }
+        return Arrays.equals(arena, offsets[i], offsets[i] + longitudes[i], origen, offset, offset + longitud);
+    }
+
+    /*
+        * Calcula el HASH160 de un elemento y lo compara con una región de un
+        * array, sin modificar el stack. El hash se escribe en un buffer propio
+        * del stack, así que la comparación no reserva memoria.
+        *
+        * @param profundidad distancia desde la cima; 0 es la cima
+        * @param origen      el array con el hash esperado
+        * @param offset      posición del primer byte dentro de origen
+        * @param longitud    cantidad de bytes del hash esperado
+        * @return {@code true} si el HASH160 del elemento es igual a esos bytes
+        * @throws NoSuchElementException si el stack no tiene tantos elementos
+     */
+    public boolean hash160IgualA(int profundidad, byte[] origen, int offset, int longitud) {
+        int i = indice(profundidad);
+        if (longitud != Hash160.LONGITUD_HASH160) {
+            return false;
+        }
+        if (hashTemporal == null) {
+            hashTemporal = new byte[Hash160.LONGITUD_HASH160];
+        }
+
+        try {
+            if (esNumeroEn(i)) {
+                Hash160.hash160(ValoresScript.numero((int) numeros[i]), 0, 1, hashTemporal, 0);
+            }
+            else if (arena == null) {
+                Hash160.hash160(elementos[i], 0, elementos[i].length, hashTemporal, 0);
+            }
+            else {
+                Hash160.hash160(arena, offsets[i], longitudes[i], hashTemporal, 0);
+            }
+        } catch (DigestException e) {
+            // hashTemporal siempre tiene el largo de un HASH160
+            throw new IllegalStateException(e);
+        }
+        return Arrays.equals(hashTemporal, 0, Hash160.LONGITUD_HASH160, origen, offset, offset + longitud);
+    }
+
+    /*
+        * Retorna la longitud del elemento a la profundidad indicada.
+        *
+        * @param profundidad distancia desde la cima; 0 es la cima
+        * @return cantidad de bytes del elemento
+        * @throws NoSuchElementException si el stack no tiene tantos elementos
+     */
+    public int longitudItem(int profundidad) {
+        return longitudEn(indice(profundidad));
+    }
+
+    /*
+        * Retorna un byte del elemento a la profundidad indicada, sin copiarlo.
+        *
+        * @param profundidad distancia desde la cima; 0 es la cima
+        * @param posicion    posición del byte dentro del elemento
+        * @return el byte pedido
+        * @throws NoSuchElementException si el stack no tiene tantos elementos
+        * @throws IndexOutOfBoundsException si el elemento es más corto
+     */
+    public byte byteDeItem(int profundidad, int posicion) {
+        return byteEn(indice(profundidad), posicion);
+    }
+
+    /*
+        * Extrae el elemento de la cima y lo interpreta como booleano con la
+        * regla de {@link ValoresScript#esVerdadero(byte[])}, sin materializarlo.
+        *
+        * @return {@code true} si el elemento de la cima era [1]
+        * @throws NoSuchElementException si el stack está vacío
+     */
+    public boolean popEsVerdadero() {
+        if (tope == 0) {
+            throw new NoSuchElementException("Stack vacio");
+        }
+
+        int i = tope - 1;
+        boolean verdadero = esNumeroEn(i)
+                ? numeros[i] == 1
+                : longitudEn(i) == 1 && byteEn(i, 0) == 1;
+        descartar(1);
+        return verdadero;
+    }
+
+    /*
+        * Extrae y retorna el elemento en la cima del stack, o {@code null}
+        * si el stack está vacío.
+        *
+        * @return el array de bytes que estaba en la cima, o {@code null}
+     */
+    public byte[] poll() {
+        return tope == 0 ? null : popItem();
     }
 
     /*
         * Retorna el elemento en la cima del stack sin removerlo.
         *
-        * @return el array de bytes en la cima del stack
+        * @return el array de bytes en la cima del stack, o {@code null} si está vacío
      */
     public byte[] peekItem() {
-        return super.peekLast();
+        return tope == 0 ? null : itemPublico(tope - 1);
+    }
+
+    /*
+        * Retorna, en tiempo constante, el elemento ubicado a la profundidad
+        * indicada sin removerlo. La profundidad 0 es la cima.
+        *
+        * @param profundidad distancia desde la cima del elemento buscado
+        * @return el array de bytes a esa profundidad
+        * @throws NoSuchElementException si el stack no tiene tantos elementos
+     */
+    public byte[] peekItem(int profundidad) {
+        return itemPublico(indice(profundidad));
     }
 
     /*
-        * Sobreescribe el iterador para que recorra el stack de la cima a la base.
-        * Sin esta sobreescritura, el iterador heredado de LinkedBlockingDeque
-        * recorrería los elementos de la base a la cima, invirtiendo el orden
-        * visual esperado del stack al momento de imprimirlo o inspeccionarlo.
+        * Retorna la cantidad de elementos en el stack.
+        *
+        * @return número de elementos
+     */
+    public int size() {
+        return tope;
+    }
+
+    /*
+        * Indica si el stack no tiene elementos.
+        *
+        * @return {@code true} si el stack está vacío
+     */
+    public boolean isEmpty() {
+        return tope == 0;
+    }
+
+    /*
+        * Vacía el stack. Libera las referencias a los elementos para que
+        * puedan ser recolectados, pero conserva la capacidad del array
+        * para reutilizarla en la siguiente evaluación.
+        * En modo arena es O(1): solo se reinician los contadores y la arena
+        * completa queda disponible otra vez.
+     */
+    public void clear() {
+        if (elementos != null) {
+            Arrays.fill(elementos, 0, tope, null);
+        }
+        tope = 0;
+        usado = 0;
+        modificaciones++;
+    }
+
+    /*
+        * Retorna un iterador que recorre el stack de la cima a la base.
         *
         * @return un iterador que recorre los elementos desde la cima hacia la base
      */
     @Override
     public Iterator<byte[]> iterator() {
-        return super.descendingIterator();
+        return new Iterator<byte[]>() {
+            private int siguiente = tope - 1;
+            private final int modificacionesEsperadas = modificaciones;
+
+            @Override
+            public boolean hasNext() {
+                return siguiente >= 0;
+            }
+
+            @Override
+            public byte[] next() {
+                if (modificaciones != modificacionesEsperadas) {
+                    throw new ConcurrentModificationException();
+                }
+                if (siguiente < 0) {
+                    throw new NoSuchElementException();
+                }
+                return itemPublico(siguiente--);
+            }
+        };
     }
 
     /*
-        * Sobreescribe forEach para que aplique la acción de la cima a la base,
-        * consistente con el orden definido por el iterador sobreescrito.
-        * Garantiza que cualquier uso externo del stack vea los elementos
-        * en el orden correcto sin depender de la implementación interna de la deque.
+        * Aplica la acción de la cima a la base,
+        * consistente con el orden definido por el iterador.
         *
         * @param action la acción a aplicar a cada elemento del stack
      */
     @Override
     public void forEach(Consumer<? super byte[]> action) {
-        super.descendingIterator().forEachRemaining(action);
+        for (int i = tope - 1; i >= 0; i--) {
+            action.accept(itemPublico(i));
+        }
     }
 
     /*
@@ -87,9 +559,85 @@ public class ScriptStack extends LinkedBlockingDeque<byte[]> {
 
     public void printStackState() {
         System.out.println("Stack state:");
-        Iterator<byte[]> it = super.descendingIterator();
-        while (it.hasNext()) {
-            System.out.println(Arrays.toString(it.next()));
+        for (int i = tope - 1; i >= 0; i--) {
+            System.out.println(Arrays.toString(item(i)));
+        }
+    }
+
+    // Retorna el elemento en la posición indicada para quien lo lee desde fuera; nunca un array compartido
+    private byte[] itemPublico(int i) {
+        byte[] item = item(i);
+        if (esNumeroEn(i) || (arena == null && ValoresScript.esCompartido(item))) {
+            return item.clone();
+        }
+        return item;
+    }
+
+    // Retorna el elemento en la posición indicada; en modo arena, una copia
+    private byte[] item(int i) {
+        if (esNumeroEn(i)) {
+            return ValoresScript.numero((int) numeros[i]);
         }
+        if (arena == null) {
+            return elementos[i];
+        }
+        return Arrays.copyOfRange(arena, offsets[i], offsets[i] + longitudes[i]);
+    }
+
+    private boolean esNumeroEn(int i) {
+        return arena != null ? longitudes[i] < 0 : elementos[i] == null;
+    }
+
+    // Longitud en bytes del elemento en la posición indicada; 1 para las ranuras numéricas
+    private int longitudEn(int i) {
+        if (esNumeroEn(i)) {
+            return 1;
+        }
+        return arena != null ? longitudes[i] : elementos[i].length;
+    }
+
+    private byte byteEn(int i, int posicion) {
+        if (posicion < 0 || posicion >= longitudEn(i)) {
+            throw new IndexOutOfBoundsException("El elemento no tiene un byte en la posicion " + posicion);
+        }
+        if (esNumeroEn(i)) {
+            return (byte) numeros[i];
+        }
+        return arena != null ? arena[offsets[i] + posicion] : elementos[i][posicion];
+    }
+
+    // Traduce una profundidad a la posición del elemento en los arrays
+    private int indice(int profundidad) {
+        if (profundidad < 0 || profundidad >= tope) {
+            throw new NoSuchElementException("El stack no tiene un elemento a profundidad " + profundidad);
+        }
+        return tope - 1 - profundidad;
+    }
+
+    // Garantiza espacio para un elemento más, duplicando la capacidad si hace falta
+    private void asegurarCapacidad() {
+        if (tope < numeros.length) {
+            return;
+        }
+
+        numeros = Arrays.copyOf(numeros, numeros.length * 2);
+        if (arena != null) {
+            offsets = Arrays.copyOf(offsets, numeros.length);
+            longitudes = Arrays.copyOf(longitudes, numeros.length);
+        }
+        else {
+            elementos = Arrays.copyOf(elementos, numeros.length);
+        }
+    }
+
+    // Reserva bytes al final de la arena, duplicándola si no alcanzan, y retorna su offset
+    private int reservar(int longitud) {
+        if (arena.length - usado < longitud) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, usado + longitud));
+        }
+
+        int offset = usado;
+        usado += longitud;
+        return offset;
     }
-}
\ No newline at end of file
+}
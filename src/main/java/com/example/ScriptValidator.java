@@ -0,0 +1,210 @@
+package com.example;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+    * API sin estado y segura entre hilos para validar pares
+    * (scriptSig, scriptPubKey) dados como bytes crudos.
+    *
+    * El {@link Controlador} guarda el stack, los programas cargados y el modo
+    * trace como estado mutable, por lo que una instancia no puede compartirse
+    * entre hilos. Esta clase no guarda nada de eso: cada validación crea su
+    * propio contexto de ejecución, de modo que una misma instancia puede
+    * usarse desde cualquier cantidad de hilos a la vez.
+    *
+    * Para volúmenes grandes, {@link #validarLote(byte[][], byte[][])} reparte
+    * los pares entre los núcleos con un ForkJoinPool: el lote se divide
+    * recursivamente en mitades y los hilos ociosos roban las mitades
+    * pendientes de los ocupados, lo que equilibra la carga aunque los
+    * scripts tengan costos muy distintos.
+    *
+    * @see Controlador
+ */
+public final class ScriptValidator {
+
+    /**
+        * Cantidad de pares por debajo de la cual un sub-lote ya no se divide
+        * y se valida de forma secuencial en el hilo que lo tomó.
+        * Evita que el costo de crear tareas supere al de validar.
+     */
+    private static final int UMBRAL_SECUENCIAL = 64;
+
+    // Pool sobre el que se ejecutan los lotes
+    private final ForkJoinPool pool;
+
+    // Caché compartida de scriptPubKey compilados; puede ser null
+    private final CacheScripts cacheLlaves;
+
+    /**
+        * Crea un validador que ejecuta los lotes en el pool común de la JVM,
+        * dimensionado según la cantidad de núcleos disponibles.
+     */
+    public ScriptValidator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+        * Crea un validador que ejecuta los lotes en el pool indicado,
+        * para limitar o aislar los hilos que usa la validación.
+        *
+        * @param pool el ForkJoinPool sobre el que se reparten los lotes
+     */
+    public ScriptValidator(ForkJoinPool pool) {
+        this(pool, null);
+    }
+
+    /**
+        * Crea un validador que reutiliza los scriptPubKey ya compilados
+        * a través de una caché compartida por todos sus hilos.
+        *
+        * @param pool        el ForkJoinPool sobre el que se reparten los lotes
+        * @param cacheLlaves la caché de scriptPubKey compilados, o {@code null}
+     */
+    public ScriptValidator(ForkJoinPool pool, CacheScripts cacheLlaves) {
+        this.pool = pool;
+        this.cacheLlaves = cacheLlaves;
+    }
+
+    /**
+        * Valida un par de scripts en un contexto de ejecución propio.
+        * Sigue exactamente las reglas de {@link Controlador#evaluarTransaccion(boolean)};
+        * un script que no puede parsearse se considera inválido.
+        *
+        * @param firma        el scriptSig en bytes crudos
+        * @param llavePublica el scriptPubKey en bytes crudos
+        * @return {@code true} si la firma desbloquea la llave pública
+     */
+    public boolean validar(byte[] firma, byte[] llavePublica) {
+        return evaluar(firma, llavePublica) == ScriptError.OK;
+    }
+
+    /**
+        * Igual que {@link #validar(byte[], byte[])}, pero retorna el motivo
+        * del rechazo en lugar de un booleano.
+        *
+        * @param firma        el scriptSig en bytes crudos
+        * @param llavePublica el scriptPubKey en bytes crudos
+        * @return {@link ScriptError#OK} si la firma desbloquea la llave pública,
+        * o el primer error encontrado
+     */
+    public ScriptError evaluar(byte[] firma, byte[] llavePublica) {
+        return evaluar(new Controlador(cacheLlaves), firma, llavePublica);
+    }
+
+    /**
+        * Igual que {@link #evaluar(byte[], byte[])}, pero decodifica y ejecuta
+        * cada script en una sola pasada con {@link InterpreteStreaming}, sin
+        * compilarlo ni consultar la caché. Conviene cuando muchos pares se
+        * rechazan en sus primeras instrucciones.
+        *
+        * @param firma        el scriptSig en bytes crudos
+        * @param llavePublica el scriptPubKey en bytes crudos
+        * @return {@link ScriptError#OK} si la firma desbloquea la llave pública,
+        * o el primer error encontrado en el recorrido
+     */
+    public ScriptError evaluarStreaming(byte[] firma, byte[] llavePublica) {
+        try {
+            return InterpreteStreaming.evaluarTransaccion(firma, llavePublica, new ScriptStack());
+        } catch (RuntimeException e) {
+            return ScriptError.UNKNOWN_ERROR;
+        }
+    }
+
+    /**
+        * Valida en paralelo una colección de pares de scripts.
+        * La posición i del resultado corresponde al par
+        * ({@code firmas[i]}, {@code llaves[i]}).
+        *
+        * @param firmas los scriptSig en bytes crudos
+        * @param llaves los scriptPubKey en bytes crudos, en el mismo orden
+        * @return un array con el resultado de cada par
+        * @throws IllegalArgumentException si ambos arrays no tienen el mismo largo
+     */
+    public boolean[] validarLote(byte[][] firmas, byte[][] llaves) {
+        ScriptError[] errores = evaluarLote(firmas, llaves);
+
+        boolean[] resultados = new boolean[errores.length];
+        for (int i = 0; i < errores.length; i++) {
+            resultados[i] = errores[i] == ScriptError.OK;
+        }
+        return resultados;
+    }
+
+    /**
+        * Igual que {@link #validarLote(byte[][], byte[][])}, pero retorna el
+        * motivo del rechazo de cada par.
+        *
+        * @param firmas los scriptSig en bytes crudos
+        * @param llaves los scriptPubKey en bytes crudos, en el mismo orden
+        * @return un array con el resultado de cada par
+        * @throws IllegalArgumentException si ambos arrays no tienen el mismo largo
+     */
+    public ScriptError[] evaluarLote(byte[][] firmas, byte[][] llaves) {
+        if (firmas.length != llaves.length) {
+            throw new IllegalArgumentException("La cantidad de firmas y de llaves publicas no coincide");
+        }
+
+        ScriptError[] resultados = new ScriptError[firmas.length];
+        pool.invoke(new TareaLote(firmas, llaves, resultados, 0, firmas.length, cacheLlaves));
+        return resultados;
+    }
+
+    /**
+        * Evalúa un par reutilizando un Controlador que pertenece al hilo actual.
+        * El Controlador limpia su stack al inicio de cada evaluación, así que
+        * reutilizarlo dentro de un mismo sub-lote es seguro y evita crear
+        * un stack por par.
+        * Los scripts inválidos se reportan como {@link ScriptError}; solo un
+        * fallo inesperado del intérprete termina como {@link ScriptError#UNKNOWN_ERROR}.
+     */
+    static ScriptError evaluar(Controlador controlador, byte[] firma, byte[] llavePublica) {
+        try {
+            controlador.cargarScripts(firma, llavePublica);
+            return controlador.evaluarTransaccionDetallada(false);
+        } catch (RuntimeException e) {
+            return ScriptError.UNKNOWN_ERROR;
+        }
+    }
+
+    /**
+        * Tarea recursiva que valida el rango [desde, hasta) del lote.
+        * Divide el rango mientras supere el umbral secuencial; cada hoja
+        * usa un único Controlador para todos sus pares, con su stack en modo
+        * arena para que las evaluaciones de la hoja reutilicen la misma memoria.
+     */
+    private static final class TareaLote extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[][] firmas;
+        private final byte[][] llaves;
+        private final ScriptError[] resultados;
+        private final int desde;
+        private final int hasta;
+        private final CacheScripts cacheLlaves;
+
+        TareaLote(byte[][] firmas, byte[][] llaves, ScriptError[] resultados, int desde, int hasta, CacheScripts cacheLlaves) {
+            this.firmas = firmas;
+            this.llaves = llaves;
+            this.resultados = resultados;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.cacheLlaves = cacheLlaves;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde <= UMBRAL_SECUENCIAL) {
+                Controlador controlador = new Controlador(cacheLlaves, true);
+                for (int i = desde; i < hasta; i++) {
+                    resultados[i] = evaluar(controlador, firmas[i], llaves[i]);
+                }
+                return;
+            }
+
+            int mitad = (desde + hasta) >>> 1;
+            invokeAll(new TareaLote(firmas, llaves, resultados, desde, mitad, cacheLlaves),
+                      new TareaLote(firmas, llaves, resultados, mitad, hasta, cacheLlaves));
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+    * Servicio HTTP local para validar pares (scriptSig, scriptPubKey) desde
+    * otros procesos del mismo host sin arrancar una JVM por validación.
+    * Escucha solo en la interfaz de loopback y expone:
+    * <ul>
+    *   <li>{@code POST /validate}: el cuerpo es un par {@code firma,llave} en
+    *   hexadecimal; la respuesta es el nombre del {@link ScriptError}.</li>
+    *   <li>{@code POST /validate/batch}: el cuerpo tiene un par por línea; la
+    *   respuesta tiene un resultado por línea, en el mismo orden. El lote se
+    *   valida en paralelo con {@link ScriptValidator#evaluarLote(byte[][], byte[][])}.</li>
+    * </ul>
+    * La evaluación sigue la semántica del {@link Controlador}, igual que el
+    * resto de los modos, con una caché de scriptPubKey compartida entre
+    * peticiones. Un cuerpo mal formado responde 400, un método distinto de
+    * POST responde 405 y un cuerpo demasiado grande, 413.
+    *
+    * Las peticiones se atienden en hilos virtuales cuando la JVM los ofrece
+    * (Java 21 o superior) y en un pool de hilos de plataforma en Java 17.
+    * La cantidad de peticiones en vuelo está acotada por un semáforo que se
+    * consulta antes de encolar la petición: si no quedan lugares, se responde
+    * 503 de inmediato, sin leer el cuerpo, en lugar de acumular trabajo. Las
+    * respuestas llevan su longitud, así que las conexiones se reutilizan
+    * (keep-alive) entre peticiones.
+    *
+    * @see ProcesadorLote
+    * @see App
+ */
+public final class ServidorValidacion implements Closeable {
+
+    // Un par de scripts de tamaño máximo en hexadecimal, con la coma y un salto de línea \r\n
+    private static final int MAX_CUERPO_PAR = 4 * LimitesScript.CONSENSO.getMaxTamanoScript() + 3;
+
+    // Cuerpo máximo de un lote y cantidad máxima de pares por lote
+    private static final int MAX_CUERPO_LOTE = 16 << 20;
+    private static final int MAX_PARES_LOTE = 10000;
+
+    private static final String USO = "Uso: --serve [--port P] [--max-in-flight N]";
+
+    private final HttpServer servidor;
+    private final ExecutorService trabajadores;
+    private final Semaphore enVuelo;
+    private final ScriptValidator validador;
+
+    ServidorValidacion(int puerto, Semaphore enVuelo) throws IOException {
+        this.enVuelo = enVuelo;
+        this.validador = new ScriptValidator(ForkJoinPool.commonPool(), new CacheScripts(4096, CacheScripts.PoliticaDesalojo.W_TINYLFU));
+        this.trabajadores = crearTrabajadores();
+
+        // Sin executor propio, el hilo despachador del servidor solo reserva un lugar y encola la petición
+        this.servidor = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), puerto), 0);
+        servidor.createContext("/validate", intercambio -> despachar(intercambio, false));
+        servidor.createContext("/validate/batch", intercambio -> despachar(intercambio, true));
+        servidor.start();
+    }
+
+    /**
+        * Inicia el servicio en el puerto indicado.
+        *
+        * @param puerto     el puerto de loopback, o 0 para uno libre cualquiera
+        * @param maxEnVuelo cantidad máxima de peticiones atendiéndose a la vez
+        * @return el servicio ya escuchando, que debe cerrarse al terminar
+        * @throws IOException si el puerto no puede abrirse
+        * @throws IllegalArgumentException si maxEnVuelo no es positivo
+     */
+    public static ServidorValidacion iniciar(int puerto, int maxEnVuelo) throws IOException {
+        if (maxEnVuelo <= 0) {
+            throw new IllegalArgumentException("La cantidad de peticiones en vuelo debe ser positiva");
+        }
+        return new ServidorValidacion(puerto, new Semaphore(maxEnVuelo));
+    }
+
+    /**
+        * Retorna el puerto en el que escucha el servicio.
+        *
+        * @return el puerto, útil cuando se inició con el puerto 0
+     */
+    public int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    /**
+        * Deja de aceptar conexiones y espera hasta un segundo a que terminen
+        * las peticiones en curso.
+     */
+    @Override
+    public void close() {
+        servidor.stop(1);
+        trabajadores.shutdown();
+    }
+
+    /**
+        * Crea un hilo virtual por petición si la JVM los ofrece; en Java 17,
+        * un pool de hilos de plataforma, uno por núcleo. Se busca por
+        * reflexión para compilar con Java 17.
+     */
+    private static ExecutorService crearTrabajadores() {
+        try {
+            Method porTarea = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) porTarea.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        }
+    }
+
+    // Corre en el hilo despachador: debe ser breve y no leer el cuerpo
+    private void despachar(HttpExchange intercambio, boolean lote) throws IOException {
+        if (!enVuelo.tryAcquire()) {
+            intercambio.getResponseHeaders().set("Retry-After", "1");
+            responder(intercambio, 503, "Servicio saturado, reintente mas tarde\n");
+            return;
+        }
+
+        try {
+            trabajadores.execute(() -> {
+                try {
+                    atender(intercambio, lote);
+                } finally {
+                    enVuelo.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            enVuelo.release();
+            responder(intercambio, 503, "Servicio detenido\n");
+        }
+    }
+
+    private void atender(HttpExchange intercambio, boolean lote) {
+        try (intercambio) {
+            // /validate también recibe las rutas que empiezan con /validate/ y no son el lote
+            String ruta = intercambio.getRequestURI().getPath();
+            if (!ruta.equals(lote ? "/validate/batch" : "/validate")) {
+                responder(intercambio, 404, "Ruta desconocida\n");
+                return;
+            }
+            if (!intercambio.getRequestMethod().equals("POST")) {
+                intercambio.getResponseHeaders().set("Allow", "POST");
+                responder(intercambio, 405, "Solo se acepta POST\n");
+                return;
+            }
+
+            byte[] cuerpo = leerCuerpo(intercambio.getRequestBody(), lote ? MAX_CUERPO_LOTE : MAX_CUERPO_PAR);
+            if (cuerpo == null) {
+                responder(intercambio, 413, "Cuerpo demasiado grande\n");
+                return;
+            }
+
+            List<byte[][]> pares;
+            try {
+                pares = parsearPares(cuerpo);
+            } catch (IllegalArgumentException e) {
+                responder(intercambio, 400, e.getMessage() + "\n");
+                return;
+            }
+            if (lote ? pares.size() > MAX_PARES_LOTE : pares.size() != 1) {
+                responder(intercambio, 400, lote
+                        ? "El lote supera los " + MAX_PARES_LOTE + " pares\n"
+                        : "Se esperaba exactamente un par firma,llave\n");
+                return;
+            }
+
+            responder(intercambio, 200, evaluar(pares));
+        } catch (IOException e) {
+            // El cliente cerró la conexión; no hay a quién responder
+        }
+    }
+
+    private String evaluar(List<byte[][]> pares) {
+        byte[][] firmas = new byte[pares.size()][];
+        byte[][] llaves = new byte[pares.size()][];
+        for (int i = 0; i < pares.size(); i++) {
+            firmas[i] = pares.get(i)[0];
+            llaves[i] = pares.get(i)[1];
+        }
+
+        ScriptError[] resultados = pares.size() == 1
+                ? new ScriptError[]{ validador.evaluar(firmas[0], llaves[0]) }
+                : validador.evaluarLote(firmas, llaves);
+        StringBuilder respuesta = new StringBuilder(resultados.length * 12);
+        for (ScriptError resultado : resultados) {
+            respuesta.append(resultado.name()).append('\n');
+        }
+        return respuesta.toString();
+    }
+
+    // Lee el cuerpo completo, o retorna null si supera el máximo
+    private static byte[] leerCuerpo(InputStream entrada, int maximo) throws IOException {
+        byte[] cuerpo = entrada.readNBytes(maximo + 1);
+        return cuerpo.length > maximo ? null : cuerpo;
+    }
+
+    /**
+        * Separa el cuerpo en líneas {@code firma,llave} y decodifica cada
+        * script sin pasar por un {@code String}. Las líneas vacías se ignoran
+        * y se aceptan finales de línea {@code \r\n}.
+     */
+    static List<byte[][]> parsearPares(byte[] cuerpo) {
+        List<byte[][]> pares = new ArrayList<>();
+        int inicio = 0;
+        int numeroLinea = 0;
+        while (inicio < cuerpo.length) {
+            int fin = inicio;
+            while (fin < cuerpo.length && cuerpo[fin] != '\n') {
+                fin++;
+            }
+            numeroLinea++;
+
+            int finContenido = fin > inicio && cuerpo[fin - 1] == '\r' ? fin - 1 : fin;
+            if (finContenido > inicio) {
+                int coma = -1;
+                for (int i = inicio; i < finContenido; i++) {
+                    if (cuerpo[i] == ',') {
+                        if (coma >= 0) {
+                            coma = -1;
+                            break;
+                        }
+                        coma = i;
+                    }
+                }
+                if (coma < 0) {
+                    throw new IllegalArgumentException("Linea " + numeroLinea + ": se esperaba un par firma,llave");
+                }
+
+                try {
+                    pares.add(new byte[][]{ decodificar(cuerpo, inicio, coma), decodificar(cuerpo, coma + 1, finContenido) });
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Linea " + numeroLinea + ": " + e.getMessage(), e);
+                }
+            }
+            inicio = fin + 1;
+        }
+        return pares;
+    }
+
+    private static byte[] decodificar(byte[] hex, int inicio, int fin) {
+        byte[] script = new byte[(fin - inicio) / 2];
+        DecodificadorHex.decodificar(hex, inicio, fin, script, 0);
+        return script;
+    }
+
+    private static void responder(HttpExchange intercambio, int estado, String texto) throws IOException {
+        byte[] cuerpo = texto.getBytes(StandardCharsets.UTF_8);
+        intercambio.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        intercambio.sendResponseHeaders(estado, cuerpo.length);
+        try (OutputStream salida = intercambio.getResponseBody()) {
+            salida.write(cuerpo);
+        }
+    }
+
+    /**
+        * Ejecuta el servicio a partir de los argumentos de la línea de
+        * comandos y bloquea hasta que la JVM recibe la señal de terminar.
+        *
+        * @param args los argumentos, incluido {@code --serve}
+        * @return el código de salida: 0 al detenerse, 1 si el puerto no
+        * pudo abrirse, 2 si los argumentos son inválidos
+     */
+    public static int ejecutar(String[] args) {
+        int puerto = 8080;
+        int maxEnVuelo = 256;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--serve":
+                        break;
+                    case "--port":
+                        puerto = Integer.parseInt(args[++i]);
+                        break;
+                    case "--max-in-flight":
+                        maxEnVuelo = Integer.parseInt(args[++i]);
+                        break;
+                    default:
+                        System.err.println("Argumento desconocido: " + args[i] + "\n" + USO);
+                        return 2;
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            System.err.println(USO);
+            return 2;
+        }
+        if (puerto < 0 || puerto > 0xffff || maxEnVuelo <= 0) {
+            System.err.println(USO);
+            return 2;
+        }
+
+        ServidorValidacion servicio;
+        try {
+            servicio = iniciar(puerto, maxEnVuelo);
+        } catch (IOException e) {
+            System.err.println("No se pudo iniciar el servicio: " + e.getMessage());
+            return 1;
+        }
+
+        CountDownLatch detenido = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            servicio.close();
+            detenido.countDown();
+        }));
+        System.out.println("Validando en http://127.0.0.1:" + servicio.getPuerto() + "/validate");
+
+        try {
+            detenido.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            servicio.close();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,175 @@
+package com.example;
+
+/**
+    * Secuencias frecuentes de OPCODES que {@link ScriptCompilado} reemplaza
+    * por una sola instrucción.
+    *
+    * Cada superinstrucción produce el mismo resultado y el mismo error que
+    * la secuencia original, pero en un solo despacho y sin pushear los
+    * elementos intermedios: las cargas se comparan directamente contra los
+    * bytes del script y los hashes se calculan en un buffer del stack. Como
+    * los intermedios no llegan al stack, cada una verifica al empezar el
+    * límite de elementos contra el pico que habría alcanzado la secuencia.
+    *
+    * Las instrucciones de una secuencia fusionada no se ven por separado, así
+    * que el Controlador ejecuta el programa sin fusionar cuando el modo trace
+    * está activo.
+    *
+    * @see ScriptCompilado#getFusionado()
+ */
+enum Superinstruccion {
+
+    /**
+        * OP_DUP OP_HASH160 &lt;hash&gt; OP_EQUALVERIFY OP_CHECKSIG, el scriptPubKey P2PKH.
+        * El operando es el índice de la carga con el hash esperado.
+    */
+    P2PKH {
+        @Override
+        ScriptError ejecutar(ScriptCompilado programa, int pc, ScriptStack stack, LimitesScript limites) {
+            if (stack.size() < 1)
+                return ScriptError.STACK_UNDERFLOW;
+            // OP_DUP y la carga del hash suben el stack en dos antes de que OP_EQUALVERIFY lo reduzca
+            if (superaLimite(stack, 2, limites))
+                return ScriptError.STACK_SIZE;
+
+            ConvertBytesToOP convertidor = programa.getConvertidor();
+            int carga = programa.getOperando(pc);
+            if (!stack.hash160IgualA(0, convertidor.getLinea(), convertidor.getOffsetCarga(carga), convertidor.getLongitudCarga(carga)))
+                return ScriptError.EQUALVERIFY;
+
+            if (stack.size() < 2)
+                return ScriptError.STACK_UNDERFLOW;
+
+            boolean firmaValida = stack.itemsIguales(0, 1);
+            stack.descartar(2);
+            stack.pushNumero(firmaValida ? 1 : 0);
+            return ScriptError.OK;
+        }
+    },
+
+    /**
+        * &lt;dato&gt; OP_EQUALVERIFY. El operando es el índice de la carga.
+    */
+    PUSH_EQUALVERIFY {
+        @Override
+        ScriptError ejecutar(ScriptCompilado programa, int pc, ScriptStack stack, LimitesScript limites) {
+            // La carga se pushea antes de que la comparación pueda fallar por falta de elementos
+            if (superaLimite(stack, 1, limites))
+                return ScriptError.STACK_SIZE;
+            if (stack.size() < 1)
+                return ScriptError.STACK_UNDERFLOW;
+
+            boolean iguales = igualACarga(programa, pc, stack);
+            stack.descartar(1);
+            return iguales ? ScriptError.OK : ScriptError.EQUALVERIFY;
+        }
+    },
+
+    /**
+        * &lt;dato&gt; OP_EQUAL. El operando es el índice de la carga.
+    */
+    PUSH_EQUAL {
+        @Override
+        ScriptError ejecutar(ScriptCompilado programa, int pc, ScriptStack stack, LimitesScript limites) {
+            // La carga se pushea antes de que la comparación pueda fallar por falta de elementos
+            if (superaLimite(stack, 1, limites))
+                return ScriptError.STACK_SIZE;
+            if (stack.size() < 1)
+                return ScriptError.STACK_UNDERFLOW;
+
+            boolean iguales = igualACarga(programa, pc, stack);
+            stack.descartar(1);
+            stack.pushNumero(iguales ? 1 : 0);
+            return ScriptError.OK;
+        }
+    },
+
+    /**
+        * OP_m &lt;llave&gt;... OP_n OP_CHECKMULTISIG, con las n llaves como cargas.
+        * El operando es el índice de la primera carga; el auxiliar guarda m en
+        * los 8 bits bajos y n en los siguientes. Las llaves se comparan contra
+        * el script y solo las firmas se leen del stack.
+    */
+    MULTISIG {
+        @Override
+        ScriptError ejecutar(ScriptCompilado programa, int pc, ScriptStack stack, LimitesScript limites) {
+            int auxiliar = programa.getAuxiliar(pc);
+            int cantSig = auxiliar & 0xff;
+            int cantPubKey = auxiliar >>> 8;
+
+            // OP_m, las n llaves y OP_n se pushean antes de OP_CHECKMULTISIG
+            if (superaLimite(stack, cantPubKey + 2, limites))
+                return ScriptError.STACK_SIZE;
+            if (cantPubKey > limites.getMaxLlavesMultisig())
+                return ScriptError.PUBKEY_COUNT;
+            if (cantSig < 1 || cantSig > cantPubKey)
+                return ScriptError.SIG_COUNT;
+            if (stack.size() < cantSig)
+                return ScriptError.STACK_UNDERFLOW;
+
+            ConvertBytesToOP convertidor = programa.getConvertidor();
+            byte[] linea = convertidor.getLinea();
+            // La llave que queda más cerca de la cima es la última que se pusheó
+            int ultimaCarga = programa.getOperando(pc) + cantPubKey - 1;
+
+            int contExitos = 0;
+            int indexCurrentPubKey = 0;
+
+            while (indexCurrentPubKey < cantPubKey && contExitos < cantSig) {
+                int carga = ultimaCarga - indexCurrentPubKey;
+                if (stack.itemIgualA(contExitos, linea, convertidor.getOffsetCarga(carga), convertidor.getLongitudCarga(carga))) {
+                    contExitos++;
+                }
+
+                indexCurrentPubKey++;
+            }
+
+            if (contExitos != cantSig)
+                return ScriptError.CHECKMULTISIG;
+
+            stack.descartar(cantSig);
+            stack.pushNumero(1);
+            return ScriptError.OK;
+        }
+    };
+
+    // Códigos de instrucción de cada superinstrucción, a continuación de los 256 bytes de protocolo.
+    // Son constantes para que el Interprete pueda usarlos en su switch; siguen el orden de declaración.
+    static final int CODIGO_BASE = 0x100;
+    static final int CODIGO_P2PKH = CODIGO_BASE;
+    static final int CODIGO_PUSH_EQUALVERIFY = CODIGO_BASE + 1;
+    static final int CODIGO_PUSH_EQUAL = CODIGO_BASE + 2;
+    static final int CODIGO_MULTISIG = CODIGO_BASE + 3;
+
+    /**
+        * Retorna el código con el que esta superinstrucción se guarda en un programa.
+        *
+        * @return un código mayor o igual a {@link #CODIGO_BASE}
+     */
+    int getCodigo() {
+        return CODIGO_BASE + ordinal();
+    }
+
+    /**
+        * Ejecuta la superinstrucción ubicada en la posición indicada del programa.
+        *
+        * @param programa el programa fusionado que contiene la instrucción
+        * @param pc       posición de la instrucción
+        * @param stack    el stack sobre el que opera
+        * @param limites  los límites de la ejecución
+        * @return {@link ScriptError#OK} o el error que habría reportado la secuencia original
+     */
+    abstract ScriptError ejecutar(ScriptCompilado programa, int pc, ScriptStack stack, LimitesScript limites);
+
+    // Indica si la secuencia original habría superado el límite de elementos al crecer el stack en el pico indicado
+    private static boolean superaLimite(ScriptStack stack, int pico, LimitesScript limites) {
+        return stack.size() + pico > limites.getMaxElementosStack();
+    }
+
+    // Compara la cima del stack con la carga a la que apunta el operando de la instrucción
+    private static boolean igualACarga(ScriptCompilado programa, int pc, ScriptStack stack) {
+        ConvertBytesToOP convertidor = programa.getConvertidor();
+        int carga = programa.getOperando(pc);
+        return stack.itemIgualA(0, convertidor.getLinea(), convertidor.getOffsetCarga(carga), convertidor.getLongitudCarga(carga));
+    }
+}
@@ -0,0 +1,87 @@
+package com.example;
+
+/**
+    * Valores constantes que los OPCODES pushean al stack y la regla para
+    * interpretar un elemento del stack como booleano.
+    *
+    * Los OPCODES numéricos (OP_0..OP_16) y los que producen un resultado
+    * booleano (OP_EQUAL, OP_CHECKSIG, OP_CHECKMULTISIG) pushean siempre uno
+    * de estos arrays compartidos en lugar de crear uno nuevo, y
+    * {@link #esVerdadero(byte[])} decide la verdad de un elemento sin
+    * construir un array para compararlo. Así, ejecutar estos OPCODES
+    * no reserva memoria.
+    *
+    * Compartir los arrays es seguro porque no salen del paquete: ningún
+    * OPCODE ni el {@link ScriptStack} escriben sobre un elemento después de
+    * pushearlo, y los métodos públicos del stack (popItem, peekItem y el
+    * iterador) entregan una copia cuando el elemento es uno de estos arrays
+    * o una ranura numérica. Así, quien lea el stack desde fuera no puede
+    * alterar los valores de todo el intérprete.
+    *
+    * @see ScriptStack
+ */
+public final class ValoresScript {
+
+    // Arrays de un byte con los valores 0 a 16, indexados por su valor; son los que pushean OP_0..OP_16
+    private static final byte[][] NUMEROS = new byte[17][];
+
+    static {
+        for (int i = 0; i < NUMEROS.length; i++) {
+            NUMEROS[i] = new byte[]{ (byte) i };
+        }
+    }
+
+    // Valor que se pushea como resultado verdadero: [1]
+    static final byte[] VERDADERO = NUMEROS[1];
+
+    // Valor que se pushea como resultado falso: [0]
+    static final byte[] FALSO = NUMEROS[0];
+
+    private ValoresScript() {
+    }
+
+    /**
+        * Retorna el array compartido que representa un número pequeño.
+        *
+        * @param valor un número entre 0 y 16
+        * @return el array [valor]; no debe modificarse ni salir del paquete
+        * @throws IndexOutOfBoundsException si el valor está fuera de rango
+     */
+    static byte[] numero(int valor) {
+        return NUMEROS[valor];
+    }
+
+    /**
+        * Retorna el array compartido que representa un resultado booleano.
+        *
+        * @param valor el resultado
+        * @return {@link #VERDADERO} o {@link #FALSO}
+     */
+    static byte[] booleano(boolean valor) {
+        return valor ? VERDADERO : FALSO;
+    }
+
+    /**
+        * Indica si un array es uno de los valores compartidos de esta clase.
+        * Compara por identidad, no por contenido.
+        *
+        * @param item el array a verificar
+        * @return {@code true} si el array es el mismo objeto que alguno de los compartidos
+     */
+    static boolean esCompartido(byte[] item) {
+        return item.length == 1 && item[0] >= 0 && item[0] < NUMEROS.length && NUMEROS[item[0]] == item;
+    }
+
+    /**
+        * Interpreta un elemento del stack como booleano, sin reservar memoria.
+        * Sigue la regla de este procesador: un elemento es verdadero solo si
+        * es exactamente [1]. Es la regla que usan OP_IF y la verificación final
+        * de la transacción.
+        *
+        * @param item el elemento del stack
+        * @return {@code true} si el elemento es [1]
+     */
+    public static boolean esVerdadero(byte[] item) {
+        return item.length == 1 && item[0] == 1;
+    }
+}
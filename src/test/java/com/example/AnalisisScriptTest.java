@@ -0,0 +1,161 @@
+package com.example;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class AnalisisScriptTest {
+
+    private static ConvertBytesToOP parsear(int... bytes) {
+        byte[] script = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            script[i] = (byte) bytes[i];
+        }
+        return new ConvertBytesToOP(script);
+    }
+
+    @Test
+    public void rechazaFallosSeguros(){
+        Assertions.assertEquals(ScriptError.STACK_UNDERFLOW, AnalisisScript.analizar(parsear(0x76)).getError());
+        Assertions.assertEquals(ScriptError.STACK_UNDERFLOW, AnalisisScript.analizar(parsear(0x51, 0x87)).getError());
+        Assertions.assertEquals(ScriptError.UNBALANCED_CONDITIONAL, AnalisisScript.analizar(parsear(0x51, 0x63)).getError());
+        Assertions.assertEquals(ScriptError.UNBALANCED_CONDITIONAL, AnalisisScript.analizar(parsear(0x68)).getError());
+        Assertions.assertEquals(ScriptError.BAD_OPCODE, AnalisisScript.analizar(parsear(0x51, 0xff)).getError());
+        // OP_1 OP_1 OP_0 OP_CHECKMULTISIG: 0 llaves no admiten ninguna firma
+        Assertions.assertEquals(ScriptError.SIG_COUNT, AnalisisScript.analizar(parsear(0x51, 0x51, 0x00, 0xae)).getError());
+    }
+
+    @Test
+    public void sigueSoloLaRamaDeUnaCondicionConstante(){
+        // OP_1 OP_IF OP_DUP OP_ENDIF: la única rama posible duplica sobre un stack vacío
+        Assertions.assertEquals(ScriptError.STACK_UNDERFLOW, AnalisisScript.analizar(parsear(0x51, 0x63, 0x76, 0x68)).getError());
+
+        // OP_0 OP_IF OP_DUP OP_ENDIF OP_1: la rama que falla nunca se toma
+        AnalisisScript analisis = AnalisisScript.analizar(parsear(0x00, 0x63, 0x76, 0x68, 0x51));
+        Assertions.assertFalse(analisis.isRechazado());
+        Assertions.assertEquals(1, analisis.getProfundidadMinima());
+        Assertions.assertEquals(1, analisis.getProfundidadMaxima());
+    }
+
+    @Test
+    public void uneLasProfundidadesDeAmbasRamas(){
+        // OP_IF OP_1 OP_ELSE OP_1 OP_1 OP_ENDIF, con una condición desconocida en el stack
+        AnalisisScript analisis = AnalisisScript.analizar(parsear(0x63, 0x51, 0x67, 0x51, 0x51, 0x68), 1, 1);
+
+        Assertions.assertEquals(ScriptError.OK, analisis.getError());
+        Assertions.assertEquals(1, analisis.getProfundidadMinima());
+        Assertions.assertEquals(2, analisis.getProfundidadMaxima());
+        Assertions.assertEquals(2, analisis.getProfundidadPico());
+
+        // OP_IF OP_DROP OP_ELSE OP_DUP OP_ENDIF: solo la rama falsa puede ejecutarse sobre un stack de 1
+        analisis = AnalisisScript.analizar(parsear(0x63, 0x75, 0x67, 0x76, 0x68), 1, 1);
+        Assertions.assertEquals(ScriptError.STACK_UNDERFLOW, analisis.getError());
+    }
+
+    @Test
+    public void transaccionesDeEjemplo() throws IOException {
+        for (int i = 1; i <= 6; i++) {
+            ConvertBytesToOP firma = new ConvertBytesToOP(LectorDeBytes.getByteArray("src/test/resources/firma" + i + ".txt"));
+            ConvertBytesToOP llave = new ConvertBytesToOP(LectorDeBytes.getByteArray("src/test/resources/llave" + i + ".txt"));
+
+            // La combinación 6 falla por el contenido de las firmas, algo que el análisis no puede saber
+            Assertions.assertEquals(ScriptError.OK, AnalisisScript.analizarTransaccion(firma, llave));
+        }
+
+        // OP_1 | OP_DROP OP_DROP: el scriptPubKey empieza con un solo elemento
+        Assertions.assertEquals(ScriptError.STACK_UNDERFLOW, AnalisisScript.analizarTransaccion(parsear(0x51), parsear(0x75, 0x75)));
+    }
+
+    @Test
+    public void costoEstimado(){
+        // OP_DUP OP_HASH160 <20 bytes> OP_EQUALVERIFY OP_CHECKSIG
+        int[] p2pkh = new int[25];
+        p2pkh[0] = 0x76;
+        p2pkh[1] = 0xa9;
+        p2pkh[2] = 0x4c;
+        p2pkh[3] = 20;
+        p2pkh[24] = 0x88;
+        ConvertBytesToOP sinChecksig = parsear(p2pkh);
+
+        Assertions.assertEquals(14, AnalisisScript.analizar(sinChecksig, 2, 2).getCostoEstimado());
+    }
+
+    @Test
+    public void soloRechazaConElPrimerErrorDeLaEjecucion(){
+        ScriptValidator validador = new ScriptValidator();
+        // OP_1 | <01 02> OP_EQUALVERIFY OP_DROP OP_DROP: falla en OP_EQUALVERIFY antes del underflow probado
+        byte[] firma = { 0x51 };
+        byte[] llave = { 0x4c, 0x01, 0x02, (byte) 0x88, 0x75, 0x75 };
+        Assertions.assertEquals(ScriptError.EQUALVERIFY, validador.evaluar(firma, llave));
+        Assertions.assertEquals(ScriptError.EQUALVERIFY, validador.evaluarStreaming(firma, llave));
+        Assertions.assertEquals(ScriptError.OK, AnalisisScript.analizarTransaccion(parsear(0x51), parsear(0x4c, 0x01, 0x02, 0x88, 0x75, 0x75)));
+
+        // OP_IF OP_DROP OP_DROP OP_ENDIF OP_DUP: la rama verdadera muere antes que el camino de la falsa
+        Assertions.assertTrue(AnalisisScript.analizar(parsear(0x63, 0x75, 0x75, 0x68, 0x76), 1, 1).puedeFallarAntes());
+        // OP_0 OP_CHECKMULTISIG: falta m, así que el error es STACK_UNDERFLOW y no SIG_COUNT
+        Assertions.assertEquals(ScriptError.STACK_UNDERFLOW, AnalisisScript.analizar(parsear(0x00, 0xae)).getError());
+    }
+
+    // Con o sin el rechazo previo, evaluar y evaluarStreaming reportan el mismo primer error
+    @Test
+    public void evaluarYStreamingCoinciden(){
+        int[] alfabeto = { 0x00, 0x51, 0x52, 0x53, 0x76, 0x75, 0x87, 0x88, 0xa9, 0xac, 0xae, 0x63, 0x67, 0x68 };
+        Random aleatorio = new Random(23);
+        ScriptValidator sinCache = new ScriptValidator();
+        ScriptValidator conCache = new ScriptValidator(ForkJoinPool.commonPool(), new CacheScripts(64));
+        int comparados = 0;
+
+        while (comparados < 20000) {
+            byte[] firma = aleatorio(aleatorio, alfabeto, 6);
+            byte[] llave = aleatorio(aleatorio, alfabeto, 3);
+            // Los scripts desbalanceados se rechazan antes de ejecutarse solo en la forma compilada
+            if (!ScriptCompilado.compilar(new ConvertBytesToOP(firma)).isBalanceado()
+                    || !ScriptCompilado.compilar(new ConvertBytesToOP(llave)).isBalanceado()) {
+                continue;
+            }
+
+            ScriptError streaming = sinCache.evaluarStreaming(firma, llave);
+            Assertions.assertEquals(streaming, sinCache.evaluar(firma, llave));
+            Assertions.assertEquals(streaming, conCache.evaluar(firma, llave));
+            comparados++;
+        }
+    }
+
+    private static byte[] aleatorio(Random aleatorio, int[] alfabeto, int maximo) {
+        byte[] script = new byte[aleatorio.nextInt(maximo + 1)];
+        for (int i = 0; i < script.length; i++) {
+            script[i] = (byte) alfabeto[aleatorio.nextInt(alfabeto.length)];
+        }
+        return script;
+    }
+
+    // Un script rechazado por el análisis nunca puede terminar bien al ejecutarse
+    @Test
+    public void nuncaRechazaUnScriptEjecutable(){
+        int[] alfabeto = { 0x00, 0x51, 0x52, 0x53, 0x76, 0x75, 0x87, 0x88, 0xa9, 0xac, 0xae, 0x63, 0x67, 0x68 };
+        Random aleatorio = new Random(17);
+
+        for (int intento = 0; intento < 20000; intento++) {
+            int[] bytes = new int[1 + aleatorio.nextInt(10)];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = alfabeto[aleatorio.nextInt(alfabeto.length)];
+            }
+
+            ConvertBytesToOP convertidor = parsear(bytes);
+            AnalisisScript analisis = AnalisisScript.analizar(convertidor);
+            ScriptStack stack = new ScriptStack();
+            ScriptError ejecucion = Interprete.ejecutar(ScriptCompilado.compilar(convertidor), stack);
+
+            if (analisis.isRechazado()) {
+                Assertions.assertNotEquals(ScriptError.OK, ejecucion);
+            }
+            else if (ejecucion == ScriptError.OK) {
+                Assertions.assertTrue(stack.size() >= analisis.getProfundidadMinima());
+                Assertions.assertTrue(stack.size() <= analisis.getProfundidadMaxima());
+            }
+        }
+    }
+}
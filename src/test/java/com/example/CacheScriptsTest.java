@@ -0,0 +1,106 @@
+package com.example;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CacheScriptsTest {
+
+    @Test
+    public void scriptRepetidoNoSeVuelveACompilar(){
+        CacheScripts cache = new CacheScripts(10);
+        byte[] llave = {(byte) 0x76, (byte) 0xa9, (byte) 0x88, (byte) 0xac};
+
+        ScriptCompilado primero = cache.obtener(llave);
+        ScriptCompilado segundo = cache.obtener(llave.clone());
+
+        Assertions.assertSame(primero, segundo);
+        Assertions.assertEquals(1, cache.getFallos());
+        Assertions.assertEquals(1, cache.getAciertos());
+        Assertions.assertEquals(1, cache.getTamano());
+    }
+
+    @Test
+    public void modificarElArrayOriginalNoAfectaLaEntrada(){
+        CacheScripts cache = new CacheScripts(10);
+        byte[] llave = {(byte) 0x51, (byte) 0x76};
+
+        ScriptCompilado programa = cache.obtener(llave);
+        llave[1] = (byte) 0x75;
+
+        Assertions.assertEquals(2, programa.getLongitud());
+        Assertions.assertNotSame(programa, cache.obtener(llave));
+    }
+
+    @Test
+    public void lruDesalojaLaEntradaMenosReciente(){
+        CacheScripts cache = new CacheScripts(2, CacheScripts.PoliticaDesalojo.LRU);
+        byte[] a = {0x51};
+        byte[] b = {0x52};
+        byte[] c = {0x53};
+
+        cache.obtener(a);
+        cache.obtener(b);
+        cache.obtener(a);
+        cache.obtener(c);
+
+        Assertions.assertEquals(2, cache.getTamano());
+        Assertions.assertEquals(1, cache.getDesalojos());
+        cache.obtener(a);
+        Assertions.assertEquals(2, cache.getAciertos());
+    }
+
+    // Simula 50 scripts populares seguidos de una ráfaga de 1000 scripts
+    // vistos una sola vez, y cuenta cuántos populares siguen en la caché
+    private static long frecuentesRetenidos(CacheScripts.PoliticaDesalojo politica) {
+        CacheScripts cache = new CacheScripts(100, politica);
+        byte[][] frecuentes = new byte[50][];
+        for (int i = 0; i < frecuentes.length; i++) {
+            frecuentes[i] = new byte[]{ 0x4c, 0x01, (byte) i };
+            for (int repeticion = 0; repeticion < 5; repeticion++) {
+                cache.obtener(frecuentes[i]);
+            }
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            cache.obtener(new byte[]{ 0x4c, 0x02, (byte) i, (byte) (i >> 8) });
+        }
+        Assertions.assertTrue(cache.getTamano() <= 100);
+
+        long aciertosAntes = cache.getAciertos();
+        for (byte[] frecuente : frecuentes) {
+            cache.obtener(frecuente);
+        }
+        return cache.getAciertos() - aciertosAntes;
+    }
+
+    @Test
+    public void tinyLfuProtegeLasEntradasFrecuentes(){
+        Assertions.assertEquals(0, frecuentesRetenidos(CacheScripts.PoliticaDesalojo.LRU));
+        Assertions.assertTrue(frecuentesRetenidos(CacheScripts.PoliticaDesalojo.W_TINYLFU) >= 45);
+    }
+
+    @Test
+    public void scriptInvalidoSeGuardaConSuError(){
+        CacheScripts cache = new CacheScripts(10);
+
+        ScriptCompilado programa = cache.obtener(new byte[]{ (byte) 0xff });
+        Assertions.assertEquals(ScriptError.BAD_OPCODE, programa.getError());
+        Assertions.assertSame(programa, cache.obtener(new byte[]{ (byte) 0xff }));
+        Assertions.assertEquals(1, cache.getAciertos());
+    }
+
+    @Test
+    public void validadorConCache() throws IOException {
+        CacheScripts cache = new CacheScripts(16);
+        ScriptValidator validador = new ScriptValidator(ForkJoinPool.commonPool(), cache);
+        byte[] firma = LectorDeBytes.getByteArray("src/test/resources/firma5.txt");
+        byte[] llave = LectorDeBytes.getByteArray("src/test/resources/llave5.txt");
+
+        Assertions.assertTrue(validador.validar(firma, llave));
+        Assertions.assertTrue(validador.validar(firma, llave));
+        Assertions.assertEquals(1, cache.getAciertos());
+    }
+}
@@ -75,4 +75,16 @@ public class ControladorTest {
 
         Assertions.assertFalse(controlador.evaluarTransaccion(false));
     }
+
+    //Este test reutiliza un mismo Controlador con stack en arena para todas las combinaciones
+    @Test
+    public void combinacionesConArena(){
+        Controlador controlador = new Controlador(null, true);
+
+        for (int i = 1; i <= 6; i++) {
+            controlador.obtenerFirmaYLlave("src/test/resources/firma" + i + ".txt", "src/test/resources/llave" + i + ".txt");
+
+            Assertions.assertEquals(i != 6, controlador.evaluarTransaccion(false));
+        }
+    }
 }
@@ -43,4 +43,48 @@ public class ConvertBytesToOPTest {
             Assertions.assertArrayEquals(resultadoByte.get(i), convertidor.getDataToPush().get(i));
         }
     }
+
+    @Test
+    public void cargasComoSlices(){
+        byte[] secuencia = {(byte) 0x51, (byte) 0x4c, 0x02, 0x0a, 0x0b, (byte) 0x4c, 0x01, 0x0c, (byte) 0x87};
+
+        ConvertBytesToOP convertidor = new ConvertBytesToOP(secuencia);
+
+        Assertions.assertEquals(2, convertidor.getCantidadCargas());
+        Assertions.assertSame(secuencia, convertidor.getLinea());
+        Assertions.assertEquals(3, convertidor.getOffsetCarga(0));
+        Assertions.assertEquals(2, convertidor.getLongitudCarga(0));
+        Assertions.assertEquals(7, convertidor.getOffsetCarga(1));
+        Assertions.assertEquals(1, convertidor.getLongitudCarga(1));
+
+        Assertions.assertArrayEquals(new byte[]{0x0a, 0x0b}, convertidor.getCarga(0));
+        Assertions.assertTrue(convertidor.getCargaComoBuffer(1).isReadOnly());
+        Assertions.assertEquals(0x0c, convertidor.getCargaComoBuffer(1).get(0));
+    }
+
+    @Test
+    public void regionDeUnArrayMayor(){
+        byte[] buffer = {(byte) 0xff, (byte) 0x76, (byte) 0x4c, 0x01, 0x05, (byte) 0xff};
+
+        ConvertBytesToOP convertidor = new ConvertBytesToOP(buffer, 1, 5);
+
+        Assertions.assertEquals(List.of(OPCODE.OP_DUP, OPCODE.OP_PUSHDATA1), convertidor.getOpcodes());
+        Assertions.assertArrayEquals(new byte[]{0x05}, convertidor.getCarga(0));
+    }
+
+    @Test
+    public void cargaTruncada(){
+        byte[] secuencia = {(byte) 0x4c, 0x05, 0x01};
+
+        Assertions.assertEquals(ScriptError.PUSH_TRUNCATED, new ConvertBytesToOP(secuencia).getError());
+    }
+
+    @Test
+    public void opcodeDesconocido(){
+        byte[] secuencia = {(byte) 0x76, (byte) 0xff, (byte) 0x76};
+
+        ConvertBytesToOP convertidor = new ConvertBytesToOP(secuencia);
+        Assertions.assertEquals(ScriptError.BAD_OPCODE, convertidor.getError());
+        Assertions.assertEquals(List.of(OPCODE.OP_DUP), convertidor.getOpcodes());
+    }
 }
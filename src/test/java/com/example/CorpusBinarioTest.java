@@ -0,0 +1,154 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CorpusBinarioTest {
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] copia = new byte[buffer.remaining()];
+        buffer.duplicate().get(copia);
+        return copia;
+    }
+
+    @Test
+    public void convierteLosFixtures(@TempDir Path directorio) throws IOException {
+        Path corpus = directorio.resolve("fixtures.bin");
+        Assertions.assertEquals(6, CorpusBinario.convertirFixtures(Path.of("src/test/resources"), corpus));
+
+        try (CorpusBinario lector = LectorDeBytes.abrirCorpusBinario(corpus.toString())) {
+            Assertions.assertEquals(6, lector.getCantidad());
+            // Acceso directo, en cualquier orden
+            for (int i = 5; i >= 0; i--) {
+                byte[] firma = LectorDeBytes.getByteArray("src/test/resources/firma" + (i + 1) + ".txt");
+                byte[] llave = LectorDeBytes.getByteArray("src/test/resources/llave" + (i + 1) + ".txt");
+                Assertions.assertArrayEquals(firma, bytes(lector.getFirma(i)));
+                Assertions.assertArrayEquals(llave, bytes(lector.getLlave(i)));
+                Assertions.assertTrue(lector.getLlave(i).isReadOnly());
+
+                ConvertBytesToOP desdeBuffer = new ConvertBytesToOP(lector.getLlave(i));
+                ConvertBytesToOP desdeArray = new ConvertBytesToOP(llave);
+                Assertions.assertEquals(desdeArray.getError(), desdeBuffer.getError());
+                Assertions.assertEquals(desdeArray.getOpcodes(), desdeBuffer.getOpcodes());
+
+                Assertions.assertEquals(
+                        InterpreteStreaming.evaluarTransaccion(firma, llave, new ScriptStack()),
+                        InterpreteStreaming.evaluarTransaccion(bytes(lector.getFirma(i)), bytes(lector.getLlave(i)), new ScriptStack()));
+            }
+            Assertions.assertThrows(IndexOutOfBoundsException.class, () -> lector.getFirma(6));
+        }
+    }
+
+    @Test
+    public void registrosEnVariosSegmentos(@TempDir Path directorio) throws IOException {
+        Random aleatorio = new Random(22);
+        List<byte[]> firmas = new ArrayList<>();
+        List<byte[]> llaves = new ArrayList<>();
+        Path corpus = directorio.resolve("corpus.bin");
+
+        try (CorpusBinario.Escritor escritor = new CorpusBinario.Escritor(corpus)) {
+            for (int i = 0; i < 500; i++) {
+                byte[] firma = new byte[aleatorio.nextInt(40)];
+                byte[] llave = new byte[aleatorio.nextInt(40)];
+                aleatorio.nextBytes(firma);
+                aleatorio.nextBytes(llave);
+                firmas.add(firma);
+                llaves.add(llave);
+                escritor.agregar(firma, llave);
+            }
+            escritor.terminar();
+        }
+
+        // Segmentos de 64 bytes: la mayoría de los registros cruzan el borde donde empiezan
+        try (CorpusBinario lector = new CorpusBinario(corpus, 64)) {
+            Assertions.assertEquals(500, lector.getCantidad());
+            for (int i = 0; i < 500; i++) {
+                Assertions.assertArrayEquals(firmas.get(i), bytes(lector.getFirma(i)));
+                Assertions.assertArrayEquals(llaves.get(i), bytes(lector.getLlave(i)));
+            }
+        }
+    }
+
+    @Test
+    public void convierteUnCorpusDeTexto(@TempDir Path directorio) throws IOException {
+        Path texto = directorio.resolve("corpus.csv");
+        Files.writeString(texto, "51,5187\n\n,51\n");
+        Path binario = directorio.resolve("corpus.bin");
+
+        Assertions.assertEquals(2, CorpusBinario.convertir(texto, binario));
+        try (CorpusBinario lector = CorpusBinario.abrir(binario)) {
+            Assertions.assertArrayEquals(HexFormat.of().parseHex("5187"), bytes(lector.getLlave(0)));
+            Assertions.assertEquals(0, lector.getFirma(1).remaining());
+        }
+
+        Files.writeString(texto, "51\n");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CorpusBinario.convertir(texto, binario));
+    }
+
+    // Una conversión que falla a la mitad no deja un corpus truncado que pueda abrirse
+    @Test
+    public void conversionFallidaNoDejaCorpus(@TempDir Path directorio) throws IOException {
+        Path texto = directorio.resolve("corpus.csv");
+        Files.writeString(texto, "51,5187\n51,51\n51,zz\n51,51\n");
+        Path binario = directorio.resolve("corpus.bin");
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CorpusBinario.convertir(texto, binario));
+        Assertions.assertFalse(Files.exists(binario));
+        Assertions.assertThrows(IOException.class, () -> CorpusBinario.abrir(binario));
+
+        // Un fixture ilegible después de los primeros pares
+        Path fixtures = directorio.resolve("fixtures");
+        Files.createDirectory(fixtures);
+        Files.writeString(fixtures.resolve("firma1.txt"), "51");
+        Files.writeString(fixtures.resolve("llave1.txt"), "51");
+        Files.writeString(fixtures.resolve("firma2.txt"), "5");
+        Files.writeString(fixtures.resolve("llave2.txt"), "51");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CorpusBinario.convertirFixtures(fixtures, binario));
+        Assertions.assertFalse(Files.exists(binario));
+
+        // Un escritor que se cierra sin terminar tampoco deja el archivo
+        try (CorpusBinario.Escritor escritor = new CorpusBinario.Escritor(binario)) {
+            escritor.agregar(new byte[]{ 0x51 }, new byte[]{ 0x51 });
+        }
+        Assertions.assertFalse(Files.exists(binario));
+    }
+
+    @Test
+    public void rechazaArchivosInvalidos(@TempDir Path directorio) throws IOException {
+        Path corpus = directorio.resolve("corpus.bin");
+        Files.write(corpus, new byte[]{ 0x51, 0x52 });
+        Assertions.assertThrows(IOException.class, () -> CorpusBinario.abrir(corpus));
+
+        // Un corpus que no se cerró no tiene índice ni pie
+        Files.write(corpus, HexFormat.of().parseHex("42534331" + "01000000" + "51" + "01000000" + "51" + "00".repeat(20)));
+        Assertions.assertThrows(IOException.class, () -> CorpusBinario.abrir(corpus));
+    }
+
+    @Test
+    public void convertidorDesdeBuffer(){
+        byte[] contenedor = { 0x00, 0x76, (byte) 0xa9, 0x4c, 0x01, 0x07, (byte) 0x87, 0x00 };
+        ByteBuffer buffer = ByteBuffer.wrap(contenedor, 1, 6);
+
+        // Un buffer respaldado por un array se parsea sin copiarlo
+        ConvertBytesToOP convertidor = new ConvertBytesToOP(buffer);
+        Assertions.assertSame(contenedor, convertidor.getLinea());
+        Assertions.assertEquals(4, convertidor.getOpcodes().size());
+        Assertions.assertEquals(1, buffer.position());
+
+        ByteBuffer directo = ByteBuffer.allocateDirect(6).put(contenedor, 1, 6).flip();
+        Assertions.assertEquals(convertidor.getOpcodes(), new ConvertBytesToOP(directo).getOpcodes());
+
+        ByteBuffer largo = ByteBuffer.allocateDirect(10001);
+        Assertions.assertEquals(ScriptError.SCRIPT_SIZE, new ConvertBytesToOP(largo).getError());
+    }
+}
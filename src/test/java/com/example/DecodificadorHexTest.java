@@ -0,0 +1,133 @@
+package com.example;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DecodificadorHexTest {
+
+    private static byte[] hexAleatorio(Random aleatorio, byte[] bytes) {
+        aleatorio.nextBytes(bytes);
+        String hex = HexFormat.of().formatHex(bytes);
+        char[] caracteres = hex.toCharArray();
+        for (int i = 0; i < caracteres.length; i++) {
+            if (aleatorio.nextBoolean()) {
+                caracteres[i] = Character.toUpperCase(caracteres[i]);
+            }
+        }
+        return new String(caracteres).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    public void decodificaComoHexFormat(){
+        Random aleatorio = new Random(23);
+        for (int longitud = 0; longitud < 100; longitud++) {
+            byte[] esperado = new byte[longitud];
+            byte[] hex = hexAleatorio(aleatorio, esperado);
+
+            Assertions.assertArrayEquals(esperado, DecodificadorHex.decodificar(hex));
+
+            ByteBuffer directo = ByteBuffer.allocateDirect(hex.length).put(hex).flip();
+            ByteBuffer destino = ByteBuffer.allocateDirect(longitud);
+            Assertions.assertEquals(longitud, DecodificadorHex.decodificar(directo, destino));
+            Assertions.assertEquals(0, directo.remaining());
+            byte[] decodificado = new byte[longitud];
+            destino.flip().get(decodificado);
+            Assertions.assertArrayEquals(esperado, decodificado);
+        }
+    }
+
+    @Test
+    public void decodificaUnaRegion(){
+        byte[] hex = "xx76a9FF87yy".getBytes(StandardCharsets.US_ASCII);
+        byte[] destino = new byte[6];
+
+        Assertions.assertEquals(4, DecodificadorHex.decodificar(hex, 2, 10, destino, 1));
+        Assertions.assertArrayEquals(new byte[]{ 0, 0x76, (byte) 0xa9, (byte) 0xff, (byte) 0x87, 0 }, destino);
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> DecodificadorHex.decodificar(hex, 2, 10, destino, 3));
+    }
+
+    @Test
+    public void decodificaUnaRegionDeUnBuffer(){
+        byte[] hex = "xx76a9FF87yy".getBytes(StandardCharsets.US_ASCII);
+        byte[] destino = new byte[6];
+
+        ByteBuffer directo = ByteBuffer.allocateDirect(hex.length).put(hex).flip();
+        Assertions.assertEquals(4, DecodificadorHex.decodificar(directo, 2, 10, destino, 1));
+        Assertions.assertArrayEquals(new byte[]{ 0, 0x76, (byte) 0xa9, (byte) 0xff, (byte) 0x87, 0 }, destino);
+        Assertions.assertEquals(0, directo.position());
+
+        // El orden del buffer no cambia qué caracter es el alto de cada par
+        byte[] invertido = new byte[6];
+        DecodificadorHex.decodificar(directo.order(ByteOrder.LITTLE_ENDIAN), 2, 10, invertido, 1);
+        Assertions.assertArrayEquals(destino, invertido);
+
+        IllegalArgumentException error = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> DecodificadorHex.decodificar(directo, 8, 12, destino, 0));
+        Assertions.assertTrue(error.getMessage().endsWith("posicion 10"), error.getMessage());
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> DecodificadorHex.decodificar(directo, 2, 10, destino, 3));
+    }
+
+    // Cada byte que no es un dígito hexadecimal se rechaza en cualquier posición de la palabra
+    @Test
+    public void rechazaCaracteresInvalidos(){
+        for (int valor = 0; valor < 256; valor++) {
+            boolean valido = (valor >= '0' && valor <= '9') || (valor >= 'a' && valor <= 'f') || (valor >= 'A' && valor <= 'F');
+            for (int posicion = 0; posicion < 18; posicion++) {
+                byte[] hex = "0123456789abcdefAB".getBytes(StandardCharsets.US_ASCII);
+                hex[posicion] = (byte) valor;
+
+                if (valido) {
+                    Assertions.assertArrayEquals(HexFormat.of().parseHex(new String(hex, StandardCharsets.US_ASCII)), DecodificadorHex.decodificar(hex));
+                }
+                else {
+                    IllegalArgumentException error = Assertions.assertThrows(IllegalArgumentException.class, () -> DecodificadorHex.decodificar(hex));
+                    Assertions.assertTrue(error.getMessage().endsWith("posicion " + posicion), error.getMessage());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void rechazaLongitudImpar(){
+        Assertions.assertThrows(IllegalArgumentException.class, () -> DecodificadorHex.decodificar(new byte[]{ '7', '6', 'a' }));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> DecodificadorHex.decodificar(new ByteArrayInputStream("76a".getBytes(StandardCharsets.US_ASCII)), new ByteArrayOutputStream()));
+        // Los saltos de línea tampoco son hexadecimales
+        Assertions.assertThrows(IllegalArgumentException.class, () -> DecodificadorHex.decodificar("76a9\n".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    public void modoStreaming() throws IOException {
+        Random aleatorio = new Random(230);
+        byte[] esperado = new byte[300_001];
+        byte[] hex = hexAleatorio(aleatorio, esperado);
+
+        // Un stream que entrega lecturas de largo variable, muchas de ellas impares
+        InputStream entrada = new ByteArrayInputStream(hex) {
+            @Override
+            public synchronized int read(byte[] destino, int offset, int largo) {
+                return super.read(destino, offset, Math.min(largo, 1 + aleatorio.nextInt(40_000)));
+            }
+        };
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        Assertions.assertEquals(esperado.length, DecodificadorHex.decodificar(entrada, salida));
+        Assertions.assertArrayEquals(esperado, salida.toByteArray());
+
+        // La posición del error se cuenta desde el inicio del stream
+        hex[200_001] = 'g';
+        IllegalArgumentException error = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> DecodificadorHex.decodificar(new ByteArrayInputStream(hex), new ByteArrayOutputStream()));
+        Assertions.assertTrue(error.getMessage().endsWith("posicion 200001"), error.getMessage());
+    }
+}
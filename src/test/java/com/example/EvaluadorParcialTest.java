@@ -0,0 +1,138 @@
+package com.example;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.example.OPCODES.Hash160;
+import com.example.OPCODES.OPCODE;
+
+public class EvaluadorParcialTest {
+
+    private static byte[] bytes(int... valores) {
+        byte[] script = new byte[valores.length];
+        for (int i = 0; i < valores.length; i++) {
+            script[i] = (byte) valores[i];
+        }
+        return script;
+    }
+
+    private static ScriptCompilado evaluado(byte[] script) {
+        return ScriptCompilado.compilarEvaluado(new ConvertBytesToOP(script));
+    }
+
+    @Test
+    public void resuelveCondicionalesConstantes(){
+        // OP_1 OP_IF OP_HASH160 OP_ELSE OP_DROP OP_ENDIF OP_CHECKSIG (llave3)
+        ScriptCompilado programa = evaluado(bytes(0x51, 0x63, 0xa9, 0x67, 0x75, 0x68, 0xac));
+        Assertions.assertEquals(7, programa.getLongitud());
+        Assertions.assertEquals(2, programa.getFusionado().getLongitud());
+        Assertions.assertEquals(OPCODE.OP_HASH160, programa.getFusionado().getOpcode(0));
+
+        // Condicionales anidados (llave4): la rama falsa interna también se descarta
+        programa = evaluado(bytes(0x51, 0x63, 0x51, 0x63, 0xa9, 0x67, 0x75, 0x68, 0x67, 0x75, 0x68, 0xac));
+        Assertions.assertEquals(2, programa.getFusionado().getLongitud());
+
+        // OP_0 OP_IF OP_HASH160 OP_ELSE OP_DROP OP_ENDIF OP_CHECKSIG
+        programa = evaluado(bytes(0x00, 0x63, 0xa9, 0x67, 0x75, 0x68, 0xac));
+        Assertions.assertEquals(OPCODE.OP_DROP, programa.getFusionado().getOpcode(0));
+    }
+
+    @Test
+    public void pliegaConstantes(){
+        byte[] dato = {0x02, 0x11, 0x22};
+        byte[] hash = Hash160.hash160(dato);
+        // <dato> OP_HASH160 <hash> OP_EQUAL
+        byte[] script = new byte[2 + dato.length + 1 + 2 + hash.length + 1];
+        script[0] = 0x4c;
+        script[1] = (byte) dato.length;
+        System.arraycopy(dato, 0, script, 2, dato.length);
+        script[5] = (byte) 0xa9;
+        script[6] = 0x4c;
+        script[7] = (byte) hash.length;
+        System.arraycopy(hash, 0, script, 8, hash.length);
+        script[28] = (byte) 0x87;
+
+        ScriptCompilado residuo = evaluado(script).getFusionado();
+        Assertions.assertEquals(1, residuo.getLongitud());
+        Assertions.assertEquals(OPCODE.OP_1, residuo.getOpcode(0));
+        Assertions.assertEquals(2, residuo.getMargenStack());
+    }
+
+    @Test
+    public void sinPrefijoConstanteNoCambia(){
+        // OP_DUP OP_HASH160 ...: el primer OPCODE ya necesita al scriptSig
+        ScriptCompilado programa = evaluado(bytes(0x76, 0xa9, 0x87));
+        Assertions.assertSame(programa, programa.getFusionado());
+
+        // Solo pushes: no hay nada que evaluar
+        programa = evaluado(bytes(0x51, 0x52, 0x53));
+        Assertions.assertSame(programa, programa.getFusionado());
+    }
+
+    @Test
+    public void conservaElLimiteDelStack(){
+        LimitesScript limites = new LimitesScript(10000, 520, 201, 4, 20);
+        // OP_1 OP_1 OP_1 OP_EQUAL OP_DROP OP_IF OP_1 OP_ENDIF: 3 elementos antes de plegarse
+        ScriptCompilado programa = ScriptCompilado.compilarEvaluado(
+                new ConvertBytesToOP(bytes(0x51, 0x51, 0x51, 0x87, 0x75, 0x63, 0x51, 0x68), 0, 8, limites));
+        Assertions.assertEquals(1, programa.getFusionado().getLongitud());
+        Assertions.assertEquals(3, programa.getFusionado().getMargenStack());
+
+        ScriptStack stack = new ScriptStack();
+        stack.pushItem(new byte[]{ 1 });
+        stack.pushItem(new byte[]{ 1 });
+        Assertions.assertEquals(ScriptError.STACK_SIZE, Interprete.ejecutar(programa, stack, limites));
+        stack = new ScriptStack();
+        stack.pushItem(new byte[]{ 1 });
+        stack.pushItem(new byte[]{ 1 });
+        Assertions.assertEquals(ScriptError.STACK_SIZE, Interprete.ejecutar(programa.getFusionado(), stack, limites));
+
+        stack = new ScriptStack();
+        stack.pushItem(new byte[]{ 1 });
+        Assertions.assertEquals(ScriptError.OK, Interprete.ejecutar(programa.getFusionado(), stack, limites));
+        Assertions.assertEquals(2, stack.size());
+    }
+
+    // El residuo termina con el mismo error y el mismo stack que el script original
+    @Test
+    public void residuoEquivalenteAlOriginal(){
+        int[] alfabeto = { 0x00, 0x51, 0x52, 0x76, 0x75, 0x87, 0x88, 0xa9, 0xac, 0x63, 0x67, 0x68 };
+        LimitesScript limites = new LimitesScript(10000, 520, 201, 5, 20);
+        Random aleatorio = new Random(20);
+        int evaluados = 0;
+
+        for (int intento = 0; intento < 20000; intento++) {
+            int[] valores = new int[1 + aleatorio.nextInt(12)];
+            for (int i = 0; i < valores.length; i++) {
+                valores[i] = alfabeto[aleatorio.nextInt(alfabeto.length)];
+            }
+            byte[] script = bytes(valores);
+            ScriptCompilado programa = ScriptCompilado.compilarEvaluado(new ConvertBytesToOP(script, 0, script.length, limites));
+            if (programa.getFusionado() == programa || programa.getFusionado().getMargenStack() == 0) {
+                continue;
+            }
+            evaluados++;
+
+            int elementos = aleatorio.nextInt(4);
+            ScriptStack original = new ScriptStack();
+            ScriptStack residuo = new ScriptStack();
+            for (int i = 0; i < elementos; i++) {
+                byte[] elemento = { (byte) aleatorio.nextInt(3) };
+                original.pushItem(elemento);
+                residuo.pushItem(elemento);
+            }
+
+            ScriptError error = Interprete.ejecutar(programa, original, limites);
+            Assertions.assertEquals(error, Interprete.ejecutar(programa.getFusionado(), residuo, limites));
+            if (error == ScriptError.OK) {
+                Assertions.assertEquals(original.size(), residuo.size());
+                for (int i = 0; i < original.size(); i++) {
+                    Assertions.assertArrayEquals(original.peekItem(i), residuo.peekItem(i));
+                }
+            }
+        }
+        Assertions.assertTrue(evaluados > 500);
+    }
+}
@@ -1,5 +1,7 @@
 package com.example;
 
+import java.security.DigestException;
+import java.util.Arrays;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -39,6 +41,21 @@ public class Hash160Test {
         } catch (Exception e) {
             System.out.println(e.getMessage());
         }
-    }   
-    
+    }
+
+    @Test
+    void hash160EnBufferDelLlamador() throws Exception {
+        byte[] pubKey = hex("02c6047f9441ed7d6d3045406e95c07cd85a2c99fee1e7cda4b8f6e6b4b9a8e8a5");
+        byte[] entrada = new byte[pubKey.length + 4];
+        System.arraycopy(pubKey, 0, entrada, 2, pubKey.length);
+        byte[] salida = new byte[24];
+
+        Hash160.hash160(entrada, 2, pubKey.length, salida, 3);
+        Hash160.hash160(entrada, 2, pubKey.length, salida, 3);
+
+        byte[] resultado = Arrays.copyOfRange(salida, 3, 23);
+        Assertions.assertEquals("0bbc1aca4327be385a7cff2a7fe32066b1433f30", toHex(resultado));
+        Assertions.assertThrows(DigestException.class,
+                () -> Hash160.hash160(entrada, 2, pubKey.length, salida, 5));
+    }
 }
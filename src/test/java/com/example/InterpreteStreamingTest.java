@@ -0,0 +1,201 @@
+package com.example;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class InterpreteStreamingTest {
+
+    private static byte[] script(int... bytes) {
+        byte[] script = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            script[i] = (byte) bytes[i];
+        }
+        return script;
+    }
+
+    // Evalúa el par con el Controlador y exige que el intérprete en streaming lo acepte o rechace igual
+    private static void mismoVeredicto(byte[] firma, byte[] llave) {
+        Controlador controlador = new Controlador();
+        controlador.cargarScripts(firma, llave);
+        boolean esperado = controlador.evaluarTransaccion(false);
+
+        ScriptError obtenido = InterpreteStreaming.evaluarTransaccion(firma, llave, new ScriptStack());
+        Assertions.assertEquals(esperado, obtenido == ScriptError.OK);
+    }
+
+    @Test
+    public void combinacionesDeEjemplo() throws IOException {
+        ScriptValidator validador = new ScriptValidator();
+
+        for (int i = 1; i <= 6; i++) {
+            byte[] firma = LectorDeBytes.getByteArray("src/test/resources/firma" + i + ".txt");
+            byte[] llave = LectorDeBytes.getByteArray("src/test/resources/llave" + i + ".txt");
+
+            Assertions.assertEquals(validador.evaluar(firma, llave), validador.evaluarStreaming(firma, llave));
+            mismoVeredicto(firma, llave);
+        }
+    }
+
+    @Test
+    public void condicionalesAnidados(){
+        int[][] scripts = {
+            // OP_1 OP_IF OP_2 OP_ELSE OP_3 OP_ENDIF OP_2 OP_EQUAL
+            { 0x51, 0x63, 0x52, 0x67, 0x53, 0x68, 0x52, 0x87 },
+            // OP_0 OP_IF OP_2 OP_ELSE OP_3 OP_ENDIF OP_3 OP_EQUAL
+            { 0x00, 0x63, 0x52, 0x67, 0x53, 0x68, 0x53, 0x87 },
+            // OP_0 OP_IF OP_1 OP_IF OP_DROP OP_ENDIF OP_ELSE OP_1 OP_ENDIF
+            { 0x00, 0x63, 0x51, 0x63, 0x75, 0x68, 0x67, 0x51, 0x68 },
+            // OP_1 OP_IF OP_0 OP_IF OP_0 OP_ELSE OP_1 OP_ENDIF OP_ENDIF
+            { 0x51, 0x63, 0x00, 0x63, 0x00, 0x67, 0x51, 0x68, 0x68 },
+            // OP_1 OP_IF OP_0 OP_ELSE OP_0 OP_ELSE OP_1 OP_ENDIF
+            { 0x51, 0x63, 0x00, 0x67, 0x00, 0x67, 0x51, 0x68 },
+            // OP_0 OP_IF OP_1 OP_ELSE OP_1 OP_ELSE OP_0 OP_ENDIF
+            { 0x00, 0x63, 0x51, 0x67, 0x51, 0x67, 0x00, 0x68 },
+        };
+
+        for (int[] bytes : scripts) {
+            mismoVeredicto(new byte[0], script(bytes));
+        }
+    }
+
+    @Test
+    public void ramaDescartadaSaltaCargasYValidaOpcodes(){
+        ScriptStack stack = new ScriptStack();
+
+        // OP_0 OP_IF PUSHDATA1 [0x63 0x67] OP_ENDIF OP_1: la carga no se interpreta como condicional
+        Assertions.assertEquals(ScriptError.OK,
+            InterpreteStreaming.ejecutar(script(0x00, 0x63, 0x4c, 0x02, 0x63, 0x67, 0x68, 0x51), stack));
+        Assertions.assertEquals(1, stack.size());
+
+        // OP_0 OP_IF 0xff OP_ENDIF: un byte inválido rechaza el script aunque no se ejecute
+        Assertions.assertEquals(ScriptError.BAD_OPCODE,
+            InterpreteStreaming.ejecutar(script(0x00, 0x63, 0xff, 0x68), new ScriptStack()));
+    }
+
+    @Test
+    public void condicionalesDesbalanceados(){
+        Assertions.assertEquals(ScriptError.UNBALANCED_CONDITIONAL,
+            InterpreteStreaming.ejecutar(script(0x51, 0x51, 0x63, 0x76), new ScriptStack()));
+        Assertions.assertEquals(ScriptError.UNBALANCED_CONDITIONAL,
+            InterpreteStreaming.ejecutar(script(0x67, 0x68), new ScriptStack()));
+        Assertions.assertEquals(ScriptError.UNBALANCED_CONDITIONAL,
+            InterpreteStreaming.ejecutar(script(0x68), new ScriptStack()));
+        Assertions.assertEquals(ScriptError.STACK_UNDERFLOW,
+            InterpreteStreaming.ejecutar(script(0x63, 0x68), new ScriptStack()));
+    }
+
+    @Test
+    public void seDetieneEnElPrimerError() throws IOException {
+        // OP_DUP sobre un stack vacío, seguido de un PUSHDATA truncado que nunca se llega a leer
+        byte[] firma = script(0x76, 0x4c, 0x40, 0x01);
+        Assertions.assertEquals(ScriptError.STACK_UNDERFLOW, InterpreteStreaming.evaluarTransaccion(firma, script(0x51), new ScriptStack()));
+
+        InputStream entrada = new ByteArrayInputStream(firma);
+        Assertions.assertEquals(ScriptError.STACK_UNDERFLOW, InterpreteStreaming.ejecutar(entrada, new ScriptStack()));
+        Assertions.assertEquals(3, entrada.available());
+    }
+
+    @Test
+    public void cargaTruncada() throws IOException {
+        byte[] truncado = script(0x4c, 0x05, 0x01, 0x02);
+
+        Assertions.assertEquals(ScriptError.PUSH_TRUNCATED, InterpreteStreaming.ejecutar(truncado, new ScriptStack()));
+        Assertions.assertEquals(ScriptError.PUSH_TRUNCATED, InterpreteStreaming.ejecutar(new ByteArrayInputStream(truncado), new ScriptStack()));
+        Assertions.assertEquals(ScriptError.PUSH_TRUNCATED, InterpreteStreaming.ejecutar(script(0x4d, 0x01), new ScriptStack()));
+    }
+
+    @Test
+    public void mismasCargasDesdeCadaFuente() throws IOException {
+        // PUSHDATA1 [0x0a 0x0b] OP_DUP PUSHDATA2 [0x0c]
+        byte[] bytes = script(0x4c, 0x02, 0x0a, 0x0b, 0x76, 0x4d, 0x01, 0x00, 0x0c);
+
+        ByteBuffer directo = ByteBuffer.allocateDirect(bytes.length + 1);
+        directo.put((byte) 0x75).put(bytes).flip().position(1);
+
+        ScriptStack[] stacks = { new ScriptStack(), new ScriptStack(), ScriptStack.conArena(), new ScriptStack() };
+        Assertions.assertEquals(ScriptError.OK, InterpreteStreaming.ejecutar(bytes, stacks[0]));
+        Assertions.assertEquals(ScriptError.OK, InterpreteStreaming.ejecutar(directo, stacks[1]));
+        Assertions.assertEquals(ScriptError.OK, InterpreteStreaming.ejecutar(ByteBuffer.wrap(bytes), stacks[2]));
+        Assertions.assertEquals(ScriptError.OK, InterpreteStreaming.ejecutar(new ByteArrayInputStream(bytes), stacks[3]));
+        Assertions.assertEquals(1, directo.position());
+
+        for (ScriptStack stack : stacks) {
+            Assertions.assertEquals(3, stack.size());
+            Assertions.assertArrayEquals(new byte[]{ 0x0c }, stack.peekItem(0));
+            Assertions.assertArrayEquals(new byte[]{ 0x0a, 0x0b }, stack.peekItem(1));
+            Assertions.assertArrayEquals(new byte[]{ 0x0a, 0x0b }, stack.peekItem(2));
+        }
+    }
+
+    @Test
+    public void endifInternoNoReactivaUnaRamaExternaFalsa(){
+        // OP_0 OP_IF OP_1 OP_IF OP_ENDIF OP_DUP OP_ENDIF OP_1: el OP_DUP sigue descartado
+        byte[] llave = script(0x00, 0x63, 0x51, 0x63, 0x68, 0x76, 0x68, 0x51);
+        Assertions.assertEquals(ScriptError.OK, InterpreteStreaming.evaluarTransaccion(new byte[0], llave, new ScriptStack()));
+
+        // OP_1 OP_IF OP_0 OP_IF OP_ELSE OP_1 OP_ENDIF OP_ENDIF: el OP_ELSE interno reactiva su rama
+        llave = script(0x51, 0x63, 0x00, 0x63, 0x67, 0x51, 0x68, 0x68);
+        Assertions.assertEquals(ScriptError.OK, InterpreteStreaming.evaluarTransaccion(new byte[0], llave, new ScriptStack()));
+    }
+
+    @Test
+    public void anidamientoProfundo(){
+        int niveles = 100000;
+        LimitesScript amplios = new LimitesScript(Integer.MAX_VALUE, 520, Integer.MAX_VALUE, 1000, 20);
+
+        // OP_0 OP_IF (OP_1 OP_IF)^n (OP_ENDIF)^n OP_ELSE OP_1 OP_ENDIF
+        byte[] llave = new byte[3 * niveles + 5];
+        int i = 0;
+        llave[i++] = 0x00;
+        llave[i++] = 0x63;
+        for (int n = 0; n < niveles; n++) {
+            llave[i++] = 0x51;
+            llave[i++] = 0x63;
+        }
+        Arrays.fill(llave, i, i + niveles, (byte) 0x68);
+        i += niveles;
+        llave[i++] = 0x67;
+        llave[i++] = 0x51;
+        llave[i] = 0x68;
+
+        Assertions.assertEquals(ScriptError.OK, InterpreteStreaming.evaluarTransaccion(new byte[0], llave, new ScriptStack(), amplios));
+    }
+
+    // En scripts con condicionales al azar, el streaming y el programa compilado terminan igual
+    @Test
+    public void condicionalesAlAzarComoElCompilado(){
+        int[] alfabeto = { 0x00, 0x51, 0x76, 0x75, 0x87, 0x63, 0x63, 0x67, 0x68, 0x68 };
+        Random aleatorio = new Random(19);
+
+        for (int intento = 0; intento < 20000; intento++) {
+            int[] bytes = new int[1 + aleatorio.nextInt(16)];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = alfabeto[aleatorio.nextInt(alfabeto.length)];
+            }
+
+            byte[] llave = script(bytes);
+            ScriptCompilado programa = ScriptCompilado.compilar(new ConvertBytesToOP(llave));
+            ScriptStack compilado = new ScriptStack();
+            ScriptStack streaming = new ScriptStack();
+
+            ScriptError esperado = Interprete.ejecutar(programa, compilado);
+            ScriptError obtenido = InterpreteStreaming.ejecutar(llave, streaming);
+
+            if (!programa.isBalanceado()) {
+                Assertions.assertNotEquals(ScriptError.OK, obtenido);
+                continue;
+            }
+            Assertions.assertEquals(esperado, obtenido);
+            if (esperado == ScriptError.OK) {
+                Assertions.assertEquals(compilado.size(), streaming.size());
+            }
+        }
+    }
+}
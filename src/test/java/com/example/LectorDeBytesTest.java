@@ -1,10 +1,17 @@
 package com.example;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class LectorDeBytesTest {
     @Test
@@ -35,4 +42,78 @@ public class LectorDeBytesTest {
         
         Assertions.assertArrayEquals(secuencia, lectura);
     }
+
+    @Test
+    public void corpusDeParesFirmaLlave(@TempDir Path directorio) throws IOException {
+        StringBuilder contenido = new StringBuilder();
+        for (int i = 1; i <= 6; i++) {
+            contenido.append(Files.readString(Path.of("src/test/resources/firma" + i + ".txt")).trim())
+                    .append(',')
+                    .append(Files.readString(Path.of("src/test/resources/llave" + i + ".txt")).trim())
+                    .append(i % 2 == 0 ? "\r\n" : "\n\n");
+        }
+        Path corpus = directorio.resolve("corpus.csv");
+        Files.writeString(corpus, contenido, StandardCharsets.US_ASCII);
+
+        int registros = 0;
+        try (CorpusScripts lector = LectorDeBytes.abrirCorpus(corpus.toString())) {
+            while (lector.hasNext()) {
+                CorpusScripts.Registro registro = lector.next();
+                registros++;
+
+                Assertions.assertEquals(2, registro.getCantidad());
+                Assertions.assertArrayEquals(LectorDeBytes.getByteArray("src/test/resources/firma" + registros + ".txt"), registro.copiar(0));
+                Assertions.assertArrayEquals(LectorDeBytes.getByteArray("src/test/resources/llave" + registros + ".txt"), registro.copiar(1));
+            }
+        }
+        Assertions.assertEquals(6, registros);
+    }
+
+    @Test
+    public void corpusConVentanasPequenas(@TempDir Path directorio) throws IOException {
+        // Registros de distinto largo que cruzan el borde de ventanas de 16 bytes
+        List<byte[]> scripts = new ArrayList<>();
+        StringBuilder contenido = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            byte[] script = new byte[i % 7];
+            for (int j = 0; j < script.length; j++) {
+                script[j] = (byte) (i * 31 + j);
+            }
+            scripts.add(script);
+            contenido.append(script.length == 0 ? "" : HexFormat.of().withUpperCase().formatHex(script)).append('\n');
+        }
+        Path corpus = directorio.resolve("corpus.txt");
+        Files.writeString(corpus, contenido, StandardCharsets.US_ASCII);
+
+        int indice = 0;
+        try (CorpusScripts lector = new CorpusScripts(corpus, 16)) {
+            for (CorpusScripts.Registro registro : (Iterable<CorpusScripts.Registro>) () -> lector) {
+                while (scripts.get(indice).length == 0) {
+                    indice++;
+                }
+                Assertions.assertEquals(1, registro.getCantidad());
+                Assertions.assertEquals(indice + 1, registro.getNumeroLinea());
+                Assertions.assertArrayEquals(scripts.get(indice), registro.copiar(0));
+                indice++;
+            }
+        }
+        Assertions.assertEquals(200, indice);
+    }
+
+    @Test
+    public void corpusInvalido(@TempDir Path directorio) throws IOException {
+        Path corpus = directorio.resolve("corpus.txt");
+        Files.writeString(corpus, "51\n5g\n");
+        try (CorpusScripts lector = LectorDeBytes.abrirCorpus(corpus.toString())) {
+            Assertions.assertEquals(1, lector.next().getLongitud(0));
+            Assertions.assertThrows(IllegalArgumentException.class, lector::hasNext);
+        }
+
+        // Una línea de 40 caracteres no cabe en una ventana de 16 bytes
+        Files.writeString(corpus, "51\n" + "51".repeat(20) + "\n");
+        try (CorpusScripts lector = new CorpusScripts(corpus, 16)) {
+            lector.next();
+            Assertions.assertThrows(UncheckedIOException.class, lector::next);
+        }
+    }
 }
@@ -0,0 +1,144 @@
+package com.example;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LimitesScriptTest {
+
+    private static byte[] repetir(int valor, int veces) {
+        byte[] script = new byte[veces];
+        Arrays.fill(script, (byte) valor);
+        return script;
+    }
+
+    private static byte[] concatenar(byte[]... partes) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        for (byte[] parte : partes) {
+            salida.writeBytes(parte);
+        }
+        return salida.toByteArray();
+    }
+
+    // Evalúa el par con el Controlador (fusionado y en trace) y con el intérprete en streaming, y exige el mismo error
+    private static ScriptError evaluarEnTodos(byte[] firma, byte[] llave, LimitesScript limites) {
+        Controlador controlador = new Controlador(null, false, limites);
+        controlador.cargarScripts(firma, llave);
+
+        ScriptError error = controlador.evaluarTransaccionDetallada(false);
+        Assertions.assertEquals(error, controlador.evaluarTransaccionDetallada(true));
+        Assertions.assertEquals(error, InterpreteStreaming.evaluarTransaccion(firma, llave, new ScriptStack(), limites));
+        return error;
+    }
+
+    @Test
+    public void longitudDeCargaSinSignoLittleEndian(){
+        // PUSHDATA1 de 200 bytes: con signo la longitud sería negativa
+        ConvertBytesToOP convertidor = new ConvertBytesToOP(concatenar(new byte[]{ 0x4c, (byte) 200 }, new byte[200]));
+        Assertions.assertEquals(ScriptError.OK, convertidor.getError());
+        Assertions.assertEquals(200, convertidor.getLongitudCarga(0));
+
+        // PUSHDATA2 00 01: 256 bytes, no 1
+        convertidor = new ConvertBytesToOP(concatenar(new byte[]{ 0x4d, 0x00, 0x01 }, new byte[256]));
+        Assertions.assertEquals(ScriptError.OK, convertidor.getError());
+        Assertions.assertEquals(256, convertidor.getLongitudCarga(0));
+
+        ScriptStack stack = new ScriptStack();
+        Assertions.assertEquals(ScriptError.OK, InterpreteStreaming.ejecutar(concatenar(new byte[]{ 0x4d, 0x00, 0x01 }, new byte[256]), stack));
+        Assertions.assertEquals(256, stack.longitudItem(0));
+    }
+
+    @Test
+    public void cargaDemasiadoGrande() throws IOException {
+        byte[] carga521 = concatenar(new byte[]{ 0x4d, 0x09, 0x02 }, new byte[521]);
+        Assertions.assertEquals(ScriptError.PUSH_SIZE, new ConvertBytesToOP(carga521).getError());
+
+        // Un PUSHDATA4 que anuncia 4 GB se rechaza por su encabezado, sin leer ni reservar la carga
+        byte[] enorme = { 0x4e, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff };
+        Assertions.assertEquals(ScriptError.PUSH_SIZE, new ConvertBytesToOP(enorme).getError());
+        Assertions.assertEquals(ScriptError.PUSH_SIZE, InterpreteStreaming.ejecutar(new ByteArrayInputStream(enorme), new ScriptStack()));
+
+        Assertions.assertEquals(ScriptError.PUSH_SIZE, evaluarEnTodos(carga521, new byte[]{ 0x51 }, LimitesScript.CONSENSO));
+    }
+
+    @Test
+    public void scriptDemasiadoLargo() throws IOException {
+        // 20 cargas de 520 bytes y un OP_1: 10461 bytes con solo 21 elementos en el stack
+        byte[] carga = concatenar(new byte[]{ 0x4d, 0x08, 0x02 }, new byte[520]);
+        byte[][] partes = new byte[21][];
+        Arrays.fill(partes, carga);
+        partes[20] = new byte[]{ 0x51 };
+        byte[] largo = concatenar(partes);
+
+        Assertions.assertEquals(ScriptError.SCRIPT_SIZE, new ConvertBytesToOP(largo).getError());
+        Assertions.assertEquals(ScriptError.SCRIPT_SIZE, InterpreteStreaming.ejecutar(new ByteArrayInputStream(largo), new ScriptStack()));
+        Assertions.assertEquals(ScriptError.SCRIPT_SIZE, evaluarEnTodos(new byte[0], largo, LimitesScript.CONSENSO));
+
+        LimitesScript amplios = new LimitesScript(20000, 520, 201, 1000, 20);
+        Assertions.assertEquals(ScriptError.OK, evaluarEnTodos(new byte[0], largo, amplios));
+    }
+
+    @Test
+    public void demasiadosOpcodes(){
+        // OP_1 seguido de 201 OP_DUP está en el límite; uno más lo supera
+        byte[] enElLimite = concatenar(new byte[]{ 0x51 }, repetir(0x76, 201));
+        byte[] excedido = concatenar(new byte[]{ 0x51 }, repetir(0x76, 202));
+
+        Assertions.assertEquals(ScriptError.OK, new ConvertBytesToOP(enElLimite).getError());
+        Assertions.assertEquals(ScriptError.OP_COUNT, new ConvertBytesToOP(excedido).getError());
+        Assertions.assertEquals(ScriptError.OP_COUNT, evaluarEnTodos(new byte[0], excedido, LimitesScript.CONSENSO));
+
+        // Los pushes no cuentan
+        Assertions.assertEquals(ScriptError.OK, new ConvertBytesToOP(repetir(0x51, 500)).getError());
+    }
+
+    @Test
+    public void stackDemasiadoGrande(){
+        LimitesScript limites = new LimitesScript(10000, 520, 201, 4, 20);
+
+        Assertions.assertEquals(ScriptError.OK, evaluarEnTodos(repetir(0x51, 2), repetir(0x51, 2), limites));
+        Assertions.assertEquals(ScriptError.STACK_SIZE, evaluarEnTodos(repetir(0x51, 3), repetir(0x51, 2), limites));
+        // OP_1 OP_1 OP_1 OP_1 OP_DUP
+        Assertions.assertEquals(ScriptError.STACK_SIZE, evaluarEnTodos(repetir(0x51, 4), new byte[]{ 0x76 }, limites));
+        // El quinto elemento llega con un PUSHDATA
+        Assertions.assertEquals(ScriptError.STACK_SIZE, evaluarEnTodos(repetir(0x51, 4), new byte[]{ 0x4c, 0x01, 0x01 }, limites));
+
+        Assertions.assertEquals(ScriptError.STACK_SIZE, InterpreteStreaming.ejecutar(repetir(0x51, 1001), new ScriptStack()));
+    }
+
+    @Test
+    public void demasiadasLlavesMultisig(){
+        byte[] a = {0x4c, 0x01, 0x0a};
+        byte[] b = {0x4c, 0x01, 0x0b};
+        byte[] c = {0x4c, 0x01, 0x0c};
+        // OP_1 <a> <b> <c> OP_3 OP_CHECKMULTISIG
+        byte[] multisig = concatenar(new byte[]{ 0x51 }, a, b, c, new byte[]{ 0x53, (byte) 0xae });
+
+        Assertions.assertEquals(ScriptError.OK, evaluarEnTodos(a, multisig, LimitesScript.CONSENSO));
+        Assertions.assertEquals(ScriptError.PUBKEY_COUNT, evaluarEnTodos(a, multisig, new LimitesScript(10000, 520, 201, 1000, 2)));
+    }
+
+    @Test
+    public void cacheConOtrosLimitesSeRechaza(){
+        LimitesScript estrictos = new LimitesScript(100, 520, 201, 1000, 20);
+        CacheScripts consenso = new CacheScripts(16);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new Controlador(consenso, false, estrictos));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new Controlador(new CacheScripts(16, CacheScripts.PoliticaDesalojo.W_TINYLFU, estrictos), false, LimitesScript.CONSENSO));
+
+        // Con los mismos valores la caché se acepta y sus scriptPubKey respetan los límites del Controlador
+        CacheScripts cache = new CacheScripts(16, CacheScripts.PoliticaDesalojo.W_TINYLFU, new LimitesScript(100, 520, 201, 1000, 20));
+        Controlador controlador = new Controlador(cache, false, estrictos);
+        controlador.cargarScripts(new byte[0], repetir(0x51, 101));
+        Assertions.assertEquals(ScriptError.SCRIPT_SIZE, controlador.evaluarTransaccionDetallada(false));
+    }
+
+    @Test
+    public void limitesNegativos(){
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LimitesScript(-1, 520, 201, 1000, 20));
+    }
+}
@@ -0,0 +1,98 @@
+package com.example;
+
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.example.OPCODES.Hash160;
+import com.example.OPCODES.Ripemd160;
+import com.example.OPCODES.Sha256;
+
+/**
+ * Verifica los motores propios de SHA-256 y RIPEMD-160 contra vectores
+ * conocidos y contra las implementaciones de la JDK y de BouncyCastle.
+ */
+public class MotoresHashTest {
+
+    private static byte[] sha256(byte[] entrada) {
+        byte[] salida = new byte[Sha256.LONGITUD_DIGEST];
+        new Sha256().hashear(entrada, 0, entrada.length, salida, 0);
+        return salida;
+    }
+
+    private static byte[] ripemd160(byte[] entrada) {
+        byte[] salida = new byte[Ripemd160.LONGITUD_DIGEST];
+        new Ripemd160().hashear(entrada, 0, entrada.length, salida, 0);
+        return salida;
+    }
+
+    @Test
+    public void vectoresConocidos(){
+        byte[] abc = "abc".getBytes();
+
+        Assertions.assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", Hash160Test.toHex(sha256(abc)));
+        Assertions.assertEquals("9c1185a5c5e9fc54612808977ee8f548b2258d31", Hash160Test.toHex(ripemd160(new byte[0])));
+        Assertions.assertEquals("8eb208f7e05d987a9b044a8e98c6b087f15a0bfc", Hash160Test.toHex(ripemd160(abc)));
+    }
+
+    @Test
+    public void coincideConJdkYBouncyCastle() throws Exception {
+        MessageDigest shaJdk = MessageDigest.getInstance("SHA-256");
+        MessageDigest ripemdBc = MessageDigest.getInstance("RIPEMD160", new BouncyCastleProvider());
+        Random random = new Random(160);
+
+        for (int longitud = 0; longitud <= 200; longitud++) {
+            byte[] entrada = new byte[longitud];
+            random.nextBytes(entrada);
+
+            Assertions.assertArrayEquals(shaJdk.digest(entrada), sha256(entrada), "SHA-256 de " + longitud + " bytes");
+            Assertions.assertArrayEquals(ripemdBc.digest(entrada), ripemd160(entrada), "RIPEMD-160 de " + longitud + " bytes");
+            Assertions.assertArrayEquals(ripemdBc.digest(shaJdk.digest(entrada)), Hash160.hash160(entrada), "HASH160 de " + longitud + " bytes");
+        }
+    }
+
+    @Test
+    public void updateEnPartes(){
+        byte[] entrada = new byte[150];
+        new Random(7).nextBytes(entrada);
+        Sha256 sha = new Sha256();
+        Ripemd160 ripemd = new Ripemd160();
+        byte[] salidaSha = new byte[Sha256.LONGITUD_DIGEST];
+        byte[] salidaRipemd = new byte[Ripemd160.LONGITUD_DIGEST];
+
+        sha.update(entrada, 0, 10);
+        sha.update(entrada, 10, 70);
+        sha.update(entrada, 80, 70);
+        sha.digest(salidaSha, 0);
+        ripemd.update(entrada, 0, 63);
+        ripemd.update(entrada, 63, 87);
+        ripemd.digest(salidaRipemd, 0);
+
+        Assertions.assertArrayEquals(sha256(entrada), salidaSha);
+        Assertions.assertArrayEquals(ripemd160(entrada), salidaRipemd);
+    }
+
+    @Test
+    public void hash160BatchCoincideConHash160(){
+        Random random = new Random(33);
+        byte[][] entradas = new byte[5000][];
+        for (int i = 0; i < entradas.length; i++) {
+            int[] longitudes = {33, 65, 0, 20, 55, 56, 119, 120, 300};
+            entradas[i] = new byte[i % 4 == 3 ? longitudes[random.nextInt(longitudes.length)] : (i % 2 == 0 ? 33 : 65)];
+            random.nextBytes(entradas[i]);
+        }
+
+        byte[] resultados = Hash160.hash160Batch(entradas);
+
+        Assertions.assertEquals(entradas.length * Hash160.LONGITUD_HASH160, resultados.length);
+        for (int i = 0; i < entradas.length; i++) {
+            byte[] esperado = Hash160.hash160(entradas[i]);
+            byte[] obtenido = Arrays.copyOfRange(resultados, i * 20, i * 20 + 20);
+            Assertions.assertArrayEquals(esperado, obtenido, "HASH160 del mensaje " + i);
+        }
+    }
+}
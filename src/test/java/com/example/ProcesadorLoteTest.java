@@ -0,0 +1,88 @@
+package com.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ProcesadorLoteTest {
+
+    private static ScriptError evaluarFixture(int i) throws IOException {
+        Controlador controlador = new Controlador();
+        controlador.cargarScripts(LectorDeBytes.getByteArray("src/test/resources/firma" + i + ".txt"),
+                LectorDeBytes.getByteArray("src/test/resources/llave" + i + ".txt"));
+        return controlador.evaluarTransaccionDetallada(false);
+    }
+
+    @Test
+    public void resultadosEnElOrdenDeEntrada() throws IOException {
+        StringBuilder manifiesto = new StringBuilder("# firma\tllave\n");
+        for (int repeticion = 0; repeticion < 200; repeticion++) {
+            for (int i = 1; i <= 6; i++) {
+                manifiesto.append("firma").append(i).append(".txt\tllave").append(i).append(".txt\n");
+            }
+        }
+        // Scripts en línea: OP_1 | OP_1 OP_EQUAL, y una línea sin tabulador
+        manifiesto.append("51\t5187\n\nsolo-un-campo\n");
+
+        StringWriter salida = new StringWriter();
+        ProcesadorLote.Resumen resumen = new ProcesadorLote(4).procesar(
+                new BufferedReader(new StringReader(manifiesto.toString())), Path.of("src/test/resources"), salida);
+
+        List<String> lineas = salida.toString().lines().toList();
+        Assertions.assertEquals(1 + 1202, lineas.size());
+        long validos = 0;
+        for (int i = 0; i < 1200; i++) {
+            String[] columnas = lineas.get(i + 1).split("\t");
+            ScriptError esperado = evaluarFixture(i % 6 + 1);
+            Assertions.assertEquals(String.valueOf(i + 2), columnas[0]);
+            Assertions.assertEquals(esperado.name(), columnas[2]);
+            Assertions.assertEquals(String.valueOf(esperado == ScriptError.OK), columnas[1]);
+            validos += esperado == ScriptError.OK ? 1 : 0;
+        }
+        Assertions.assertTrue(lineas.get(1201).startsWith("1202\ttrue\tOK\t"));
+        Assertions.assertTrue(lineas.get(1202).startsWith("1204\tfalse\t" + ProcesadorLote.ENTRADA_INVALIDA + "\t"));
+
+        Assertions.assertEquals(1202, resumen.getPares());
+        Assertions.assertEquals(validos + 1, resumen.getValidos());
+        Assertions.assertEquals(1, resumen.getEntradasInvalidas());
+        Assertions.assertEquals(1200 - validos, resumen.getRechazados());
+        Assertions.assertTrue(resumen.getLatenciaMicros(50) <= resumen.getLatenciaMicros(99));
+        Assertions.assertTrue(resumen.getParesPorSegundo() > 0);
+    }
+
+    @Test
+    public void archivoInexistenteEsEntradaInvalida() throws IOException {
+        StringWriter salida = new StringWriter();
+        ProcesadorLote.Resumen resumen = new ProcesadorLote(1).procesar(
+                new BufferedReader(new StringReader("no-existe.txt\t51\n")), Path.of("src/test/resources"), salida);
+
+        Assertions.assertEquals(1, resumen.getEntradasInvalidas());
+        Assertions.assertTrue(salida.toString().contains(ProcesadorLote.ENTRADA_INVALIDA));
+    }
+
+    @Test
+    public void lineaDeComandos(@TempDir Path directorio) throws IOException {
+        Path manifiesto = directorio.resolve("manifiesto.tsv");
+        Path resultados = directorio.resolve("resultados.tsv");
+        Files.writeString(manifiesto, "51\t5187\n00\t5187\n");
+
+        Assertions.assertEquals(0, ProcesadorLote.ejecutar(new String[]{ "--batch", manifiesto.toString(), "--threads", "2", "--out", resultados.toString() }));
+        List<String> lineas = Files.readAllLines(resultados);
+        Assertions.assertEquals(3, lineas.size());
+        Assertions.assertTrue(lineas.get(1).startsWith("1\ttrue\tOK\t"));
+        Assertions.assertTrue(lineas.get(2).startsWith("2\tfalse\tEVAL_FALSE\t"));
+
+        Assertions.assertEquals(2, ProcesadorLote.ejecutar(new String[]{ "--batch" }));
+        Assertions.assertEquals(2, ProcesadorLote.ejecutar(new String[]{ "--batch", manifiesto.toString(), "--threads", "0" }));
+        Assertions.assertEquals(2, ProcesadorLote.ejecutar(new String[]{ "--batch", manifiesto.toString(), "--desconocido" }));
+        Assertions.assertEquals(1, ProcesadorLote.ejecutar(new String[]{ "--batch", directorio.resolve("falta.tsv").toString() }));
+    }
+}
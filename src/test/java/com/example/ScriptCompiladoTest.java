@@ -0,0 +1,178 @@
+package com.example;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.example.OPCODES.Hash160;
+import com.example.OPCODES.OPCODE;
+
+public class ScriptCompiladoTest {
+
+    private ScriptCompilado compilar(int... bytes) {
+        byte[] script = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            script[i] = (byte) bytes[i];
+        }
+        return ScriptCompilado.compilar(new ConvertBytesToOP(script));
+    }
+
+    // OP_1 OP_IF OP_DUP OP_ELSE OP_DROP OP_ENDIF OP_CHECKSIG
+    @Test
+    public void saltosIfElseEndif(){
+        ScriptCompilado programa = compilar(0x51, 0x63, 0x76, 0x67, 0x75, 0x68, 0xac);
+
+        Assertions.assertTrue(programa.isBalanceado());
+        Assertions.assertEquals(OPCODE.OP_IF, programa.getOpcode(1));
+        Assertions.assertEquals(4, programa.getOperando(1));
+        Assertions.assertEquals(6, programa.getOperando(3));
+    }
+
+    // OP_1 OP_IF OP_1 OP_IF OP_DUP OP_ENDIF OP_ELSE OP_DROP OP_ENDIF
+    @Test
+    public void saltosAnidados(){
+        ScriptCompilado programa = compilar(0x51, 0x63, 0x51, 0x63, 0x76, 0x68, 0x67, 0x75, 0x68);
+
+        Assertions.assertTrue(programa.isBalanceado());
+        Assertions.assertEquals(7, programa.getOperando(1));
+        Assertions.assertEquals(6, programa.getOperando(3));
+        Assertions.assertEquals(9, programa.getOperando(6));
+    }
+
+    @Test
+    public void indicesDeCarga(){
+        ScriptCompilado programa = compilar(0x4c, 0x01, 0x0a, 0x76, 0x4c, 0x02, 0x0b, 0x0c);
+
+        Assertions.assertEquals(3, programa.getLongitud());
+        Assertions.assertEquals(0, programa.getOperando(0));
+        Assertions.assertEquals(1, programa.getOperando(2));
+        Assertions.assertArrayEquals(new byte[]{0x0b, 0x0c}, programa.getCarga(2));
+    }
+
+    @Test
+    public void condicionalesDesbalanceados(){
+        Assertions.assertFalse(compilar(0x51, 0x63, 0x76).isBalanceado());
+        Assertions.assertFalse(compilar(0x67, 0x68).isBalanceado());
+        Assertions.assertFalse(compilar(0x68).isBalanceado());
+    }
+
+    private static byte[] concatenar(byte[]... partes) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        for (byte[] parte : partes) {
+            salida.writeBytes(parte);
+        }
+        return salida.toByteArray();
+    }
+
+    private static byte[] push(byte[] dato) {
+        return concatenar(new byte[]{ 0x4c, (byte) dato.length }, dato);
+    }
+
+    // Evalúa el par con el programa fusionado, con el original (modo trace) y en streaming, y exige el mismo resultado
+    private static ScriptError evaluarAmbos(byte[] firma, byte[] llave) {
+        Controlador controlador = new Controlador();
+        controlador.cargarScripts(firma, llave);
+
+        ScriptError fusionado = controlador.evaluarTransaccionDetallada(false);
+        Assertions.assertEquals(fusionado, controlador.evaluarTransaccionDetallada(true));
+        Assertions.assertEquals(fusionado, InterpreteStreaming.evaluarTransaccion(firma, llave, new ScriptStack()));
+        return fusionado;
+    }
+
+    // scriptSig con la cantidad indicada de OP_1 seguida de las cargas
+    private static byte[] unos(int cantidad, byte[]... cargas) {
+        byte[] prefijo = new byte[cantidad];
+        Arrays.fill(prefijo, (byte) 0x51);
+        byte[][] partes = new byte[cargas.length + 1][];
+        partes[0] = prefijo;
+        for (int i = 0; i < cargas.length; i++) {
+            partes[i + 1] = push(cargas[i]);
+        }
+        return concatenar(partes);
+    }
+
+    @Test
+    public void fusionaP2PKHDentroDeUnIf(){
+        byte[] hash = new byte[20];
+        // OP_1 OP_IF OP_DUP OP_HASH160 <hash> OP_EQUALVERIFY OP_CHECKSIG OP_ELSE OP_0 OP_ENDIF
+        ScriptCompilado programa = ScriptCompilado.compilar(new ConvertBytesToOP(concatenar(
+                new byte[]{ 0x51, 0x63, 0x76, (byte) 0xa9 }, push(hash), new byte[]{ (byte) 0x88, (byte) 0xac, 0x67, 0x00, 0x68 })));
+        ScriptCompilado fusionado = programa.getFusionado();
+
+        Assertions.assertEquals(10, programa.getLongitud());
+        Assertions.assertEquals(6, fusionado.getLongitud());
+        Assertions.assertTrue(fusionado.esSuperinstruccion(2));
+        Assertions.assertNull(fusionado.getOpcode(2));
+        Assertions.assertEquals(4, fusionado.getOperando(1));
+        Assertions.assertEquals(6, fusionado.getOperando(3));
+        Assertions.assertSame(fusionado, fusionado.getFusionado());
+    }
+
+    @Test
+    public void sinSecuenciasNoSeFusiona(){
+        ScriptCompilado programa = compilar(0x51, 0x63, 0x76, 0x67, 0x75, 0x68, 0xac);
+
+        Assertions.assertSame(programa, programa.getFusionado());
+    }
+
+    @Test
+    public void fusionConservaResultadosYErrores(){
+        byte[] llavePublica = {0x02, 0x11, 0x22, 0x33};
+        byte[] hash = Hash160.hash160(llavePublica);
+        byte[] p2pkh = concatenar(new byte[]{ 0x76, (byte) 0xa9 }, push(hash), new byte[]{ (byte) 0x88, (byte) 0xac });
+
+        Assertions.assertEquals(ScriptError.OK, evaluarAmbos(concatenar(push(llavePublica), push(llavePublica)), p2pkh));
+        Assertions.assertEquals(ScriptError.EVAL_FALSE, evaluarAmbos(concatenar(push(new byte[]{ 9 }), push(llavePublica)), p2pkh));
+        Assertions.assertEquals(ScriptError.EQUALVERIFY, evaluarAmbos(concatenar(push(llavePublica), push(new byte[]{ 9 })), p2pkh));
+        Assertions.assertEquals(ScriptError.STACK_UNDERFLOW, evaluarAmbos(push(llavePublica), p2pkh));
+        Assertions.assertEquals(ScriptError.STACK_UNDERFLOW, evaluarAmbos(new byte[0], p2pkh));
+
+        byte[] igual = concatenar(push(llavePublica), new byte[]{ (byte) 0x87 });
+        byte[] igualVerify = concatenar(push(llavePublica), new byte[]{ (byte) 0x88, 0x51 });
+        Assertions.assertEquals(ScriptError.OK, evaluarAmbos(push(llavePublica), igual));
+        Assertions.assertEquals(ScriptError.EVAL_FALSE, evaluarAmbos(push(hash), igual));
+        Assertions.assertEquals(ScriptError.OK, evaluarAmbos(push(llavePublica), igualVerify));
+        Assertions.assertEquals(ScriptError.EQUALVERIFY, evaluarAmbos(push(hash), igualVerify));
+        Assertions.assertEquals(ScriptError.STACK_UNDERFLOW, evaluarAmbos(new byte[0], igualVerify));
+
+        byte[] a = {0x0a};
+        byte[] b = {0x0b};
+        byte[] c = {0x0c};
+        // OP_2 <c> <b> <a> OP_3 OP_CHECKMULTISIG
+        byte[] multisig = concatenar(new byte[]{ 0x52 }, push(c), push(b), push(a), new byte[]{ 0x53, (byte) 0xae });
+        Assertions.assertEquals(1, ScriptCompilado.compilar(new ConvertBytesToOP(multisig)).getFusionado().getLongitud());
+        Assertions.assertEquals(ScriptError.OK, evaluarAmbos(concatenar(push(c), push(a)), multisig));
+        Assertions.assertEquals(ScriptError.CHECKMULTISIG, evaluarAmbos(concatenar(push(a), push(c)), multisig));
+        Assertions.assertEquals(ScriptError.STACK_UNDERFLOW, evaluarAmbos(push(a), multisig));
+
+        byte[] demasiadasFirmas = concatenar(new byte[]{ 0x54 }, push(c), push(b), push(a), new byte[]{ 0x53, (byte) 0xae });
+        Assertions.assertEquals(ScriptError.SIG_COUNT, evaluarAmbos(concatenar(push(c), push(a)), demasiadasFirmas));
+    }
+
+    // El límite es de 1000 elementos; cada secuencia fusionada se prueba justo en su pico y uno más allá
+    @Test
+    public void fusionRespetaLimiteDelStack(){
+        byte[] llavePublica = {0x02, 0x11, 0x22, 0x33};
+        byte[] hash = Hash160.hash160(llavePublica);
+        byte[] p2pkh = concatenar(new byte[]{ 0x76, (byte) 0xa9 }, push(hash), new byte[]{ (byte) 0x88, (byte) 0xac });
+        Assertions.assertEquals(ScriptError.OK, evaluarAmbos(unos(996, llavePublica, llavePublica), p2pkh));
+        Assertions.assertEquals(ScriptError.STACK_SIZE, evaluarAmbos(unos(997, llavePublica, llavePublica), p2pkh));
+        Assertions.assertEquals(ScriptError.STACK_SIZE, evaluarAmbos(unos(998, llavePublica, llavePublica), p2pkh));
+
+        byte[] igual = concatenar(push(llavePublica), new byte[]{ (byte) 0x87 });
+        byte[] igualVerify = concatenar(push(llavePublica), new byte[]{ (byte) 0x88, 0x51 });
+        Assertions.assertEquals(ScriptError.OK, evaluarAmbos(unos(998, llavePublica), igual));
+        Assertions.assertEquals(ScriptError.STACK_SIZE, evaluarAmbos(unos(999, llavePublica), igual));
+        Assertions.assertEquals(ScriptError.OK, evaluarAmbos(unos(998, llavePublica), igualVerify));
+        Assertions.assertEquals(ScriptError.STACK_SIZE, evaluarAmbos(unos(999, llavePublica), igualVerify));
+
+        byte[] a = {0x0a};
+        byte[] b = {0x0b};
+        byte[] c = {0x0c};
+        byte[] multisig = concatenar(new byte[]{ 0x52 }, push(c), push(b), push(a), new byte[]{ 0x53, (byte) 0xae });
+        Assertions.assertEquals(ScriptError.OK, evaluarAmbos(unos(993, c, a), multisig));
+        Assertions.assertEquals(ScriptError.STACK_SIZE, evaluarAmbos(unos(994, c, a), multisig));
+    }
+}
@@ -11,6 +11,8 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.example.OPCODES.Hash160;
+
 public class ScriptStackTest 
 {
     ScriptStack stack = new ScriptStack();
@@ -69,4 +71,86 @@ public class ScriptStackTest
         ScriptStack stack = new ScriptStack();
         Assertions.assertThrows(NoSuchElementException.class, () -> stack.popItem());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void peekPorProfundidad(){
+        assertArrayEquals(new byte[]{4}, stack.peekItem(0));
+        assertArrayEquals(new byte[]{1}, stack.peekItem(3));
+        Assertions.assertThrows(NoSuchElementException.class, () -> stack.peekItem(4));
+        Assertions.assertEquals(4, stack.size());
+    }
+
+    @Test
+    public void creceSobreLaCapacidadInicial(){
+        ScriptStack stack = new ScriptStack();
+        for (int i = 0; i < ScriptStack.CAPACIDAD_INICIAL + 1; i++) {
+            stack.pushItem(new byte[]{(byte) i});
+        }
+
+        Assertions.assertEquals(ScriptStack.CAPACIDAD_INICIAL + 1, stack.size());
+        assertArrayEquals(new byte[]{(byte) ScriptStack.CAPACIDAD_INICIAL}, stack.popItem());
+    }
+
+    @Test
+    public void primitivasEnAmbosModos(){
+        for (ScriptStack stack : new ScriptStack[]{ new ScriptStack(), ScriptStack.conArena() }) {
+            byte[] script = {9, 7, 7, 9};
+            stack.pushSlice(script, 1, 1);
+            stack.pushSlice(script, 2, 1);
+            stack.duplicarTope();
+
+            Assertions.assertEquals(3, stack.size());
+            Assertions.assertTrue(stack.itemsIguales(0, 2));
+            Assertions.assertEquals(7, stack.byteDeItem(1, 0));
+
+            stack.hash160Tope();
+            Assertions.assertEquals(20, stack.longitudItem(0));
+            assertArrayEquals(Hash160.hash160(new byte[]{7}), stack.peekItem(0));
+
+            stack.descartar(2);
+            stack.pushItem(ValoresScript.VERDADERO);
+            Assertions.assertTrue(stack.popEsVerdadero());
+            Assertions.assertFalse(stack.popEsVerdadero());
+            Assertions.assertTrue(stack.isEmpty());
+        }
+    }
+
+    @Test
+    public void arenaSeReutilizaDespuesDeClear(){
+        ScriptStack stack = ScriptStack.conArena();
+        byte[] grande = new byte[ScriptStack.BYTES_ARENA_INICIAL * 3];
+        grande[0] = 5;
+
+        stack.pushItem(grande);
+        stack.pushItem(new byte[]{1, 2});
+        assertArrayEquals(new byte[]{1, 2}, stack.popItem());
+        assertArrayEquals(grande, stack.peekItem());
+
+        stack.clear();
+        Assertions.assertTrue(stack.isEmpty());
+        stack.pushItem(new byte[]{3});
+        assertArrayEquals(new byte[]{3}, stack.popItem());
+    }
+
+    @Test
+    public void ranurasNumericas(){
+        for (ScriptStack stack : new ScriptStack[]{ new ScriptStack(), ScriptStack.conArena() }) {
+            stack.pushItem(new byte[]{3});
+            stack.pushNumero(3);
+            stack.pushNumero(3);
+
+            Assertions.assertTrue(stack.esNumero(0));
+            Assertions.assertFalse(stack.esNumero(2));
+            Assertions.assertTrue(stack.itemsIguales(0, 1));
+            Assertions.assertTrue(stack.itemsIguales(0, 2));
+            Assertions.assertEquals(1, stack.longitudItem(0));
+            byte[] numero = stack.popItem();
+            assertArrayEquals(new byte[]{3}, numero);
+            Assertions.assertNotSame(ValoresScript.numero(3), numero);
+
+            stack.hash160Tope();
+            assertArrayEquals(Hash160.hash160(new byte[]{3}), stack.popItem());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> stack.pushNumero(17));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ScriptValidatorTest {
+
+    private static byte[] leer(String nombre) throws IOException {
+        return LectorDeBytes.getByteArray("src/test/resources/" + nombre + ".txt");
+    }
+
+    @Test
+    public void validarPar() throws IOException {
+        ScriptValidator validador = new ScriptValidator();
+
+        Assertions.assertTrue(validador.validar(leer("firma1"), leer("llave1")));
+        Assertions.assertFalse(validador.validar(leer("firma6"), leer("llave6")));
+    }
+
+    @Test
+    public void scriptNoParseableEsInvalido(){
+        ScriptValidator validador = new ScriptValidator();
+
+        Assertions.assertFalse(validador.validar(new byte[]{ (byte) 0xff }, new byte[]{ 0x51 }));
+    }
+
+    @Test
+    public void evaluarReportaElMotivoDelRechazo() throws IOException {
+        ScriptValidator validador = new ScriptValidator();
+
+        Assertions.assertEquals(ScriptError.OK, validador.evaluar(leer("firma1"), leer("llave1")));
+        Assertions.assertEquals(ScriptError.BAD_OPCODE, validador.evaluar(new byte[]{ (byte) 0xff }, new byte[]{ 0x51 }));
+        Assertions.assertEquals(ScriptError.STACK_UNDERFLOW, validador.evaluar(new byte[0], new byte[]{ 0x76 }));
+        Assertions.assertEquals(ScriptError.EQUALVERIFY, validador.evaluar(new byte[]{ 0x51 }, new byte[]{ 0x52, (byte) 0x88 }));
+        Assertions.assertEquals(ScriptError.UNBALANCED_CONDITIONAL, validador.evaluar(new byte[]{ 0x51 }, new byte[]{ 0x63 }));
+        Assertions.assertEquals(ScriptError.EVAL_FALSE, validador.evaluar(new byte[]{ 0x51 }, new byte[]{ 0x52 }));
+    }
+
+    @Test
+    public void validarLoteConservaElOrden() throws IOException {
+        int cantidad = 1000;
+        byte[][] firmas = new byte[cantidad][];
+        byte[][] llaves = new byte[cantidad][];
+        boolean[] esperados = new boolean[cantidad];
+
+        for (int i = 0; i < cantidad; i++) {
+            int combinacion = i % 6 + 1;
+            firmas[i] = leer("firma" + combinacion);
+            llaves[i] = leer("llave" + combinacion);
+            esperados[i] = combinacion != 6;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Assertions.assertArrayEquals(esperados, new ScriptValidator(pool).validarLote(firmas, llaves));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Semaphore;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ServidorValidacionTest {
+
+    private static HttpResponse<String> post(HttpClient cliente, int puerto, String ruta, String cuerpo) throws IOException, InterruptedException {
+        HttpRequest peticion = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + puerto + ruta))
+                .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                .build();
+        return cliente.send(peticion, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String par(int i) throws IOException {
+        return Files.readString(Path.of("src/test/resources/firma" + i + ".txt")).strip() + ","
+                + Files.readString(Path.of("src/test/resources/llave" + i + ".txt")).strip();
+    }
+
+    private static ScriptError evaluarFixture(int i) throws IOException {
+        Controlador controlador = new Controlador();
+        controlador.cargarScripts(LectorDeBytes.getByteArray("src/test/resources/firma" + i + ".txt"),
+                LectorDeBytes.getByteArray("src/test/resources/llave" + i + ".txt"));
+        return controlador.evaluarTransaccionDetallada(false);
+    }
+
+    @Test
+    public void validaComoElControlador() throws Exception {
+        HttpClient cliente = HttpClient.newHttpClient();
+        try (ServidorValidacion servicio = ServidorValidacion.iniciar(0, 8)) {
+            int puerto = servicio.getPuerto();
+
+            StringBuilder lote = new StringBuilder();
+            StringBuilder esperado = new StringBuilder();
+            for (int i = 1; i <= 6; i++) {
+                HttpResponse<String> respuesta = post(cliente, puerto, "/validate", par(i));
+                Assertions.assertEquals(200, respuesta.statusCode());
+                Assertions.assertEquals(evaluarFixture(i).name() + "\n", respuesta.body());
+
+                lote.append(par(i)).append("\r\n\n");
+                esperado.append(evaluarFixture(i).name()).append('\n');
+            }
+
+            HttpResponse<String> respuesta = post(cliente, puerto, "/validate/batch", lote.toString());
+            Assertions.assertEquals(200, respuesta.statusCode());
+            Assertions.assertEquals(esperado.toString(), respuesta.body());
+
+            // Un scriptSig vacío es válido en el formato
+            Assertions.assertEquals("STACK_UNDERFLOW\n", post(cliente, puerto, "/validate", ",87").body());
+        }
+    }
+
+    @Test
+    public void rechazaPeticionesInvalidas() throws Exception {
+        HttpClient cliente = HttpClient.newHttpClient();
+        try (ServidorValidacion servicio = ServidorValidacion.iniciar(0, 8)) {
+            int puerto = servicio.getPuerto();
+
+            Assertions.assertEquals(400, post(cliente, puerto, "/validate", "5g,51").statusCode());
+            Assertions.assertEquals(400, post(cliente, puerto, "/validate", "51").statusCode());
+            Assertions.assertEquals(400, post(cliente, puerto, "/validate", "51,51,51").statusCode());
+            Assertions.assertEquals(400, post(cliente, puerto, "/validate", "51,51\n51,51").statusCode());
+            Assertions.assertEquals(404, post(cliente, puerto, "/validate/otra", "51,51").statusCode());
+            Assertions.assertEquals(413, post(cliente, puerto, "/validate", "51".repeat(30000) + ",51").statusCode());
+
+            // Un par de tamaño máximo entra con cualquier final de línea; un byte más ya no
+            String maximo = "51".repeat(10000) + "," + "51".repeat(10000);
+            Assertions.assertEquals(200, post(cliente, puerto, "/validate", maximo + "\r\n").statusCode());
+            Assertions.assertEquals(413, post(cliente, puerto, "/validate", maximo + " \r\n").statusCode());
+
+            HttpRequest get = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + puerto + "/validate")).GET().build();
+            Assertions.assertEquals(405, cliente.send(get, HttpResponse.BodyHandlers.ofString()).statusCode());
+        }
+    }
+
+    @Test
+    public void respondeNoDisponibleSinLugaresLibres() throws Exception {
+        HttpClient cliente = HttpClient.newHttpClient();
+        Semaphore enVuelo = new Semaphore(1);
+        try (ServidorValidacion servicio = new ServidorValidacion(0, enVuelo)) {
+            enVuelo.acquire();
+            HttpResponse<String> respuesta = post(cliente, servicio.getPuerto(), "/validate", "51,51");
+            Assertions.assertEquals(503, respuesta.statusCode());
+            Assertions.assertEquals("1", respuesta.headers().firstValue("Retry-After").orElse(null));
+
+            enVuelo.release();
+            Assertions.assertEquals(200, post(cliente, servicio.getPuerto(), "/validate", "51,51").statusCode());
+        }
+    }
+}
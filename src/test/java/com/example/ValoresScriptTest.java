@@ -0,0 +1,65 @@
+package com.example;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.example.OPCODES.Hash160;
+import com.example.OPCODES.OPCODE;
+
+public class ValoresScriptTest {
+
+    @Test
+    public void soloUnoEsVerdadero(){
+        Assertions.assertTrue(ValoresScript.esVerdadero(new byte[]{ 1 }));
+        Assertions.assertFalse(ValoresScript.esVerdadero(new byte[]{ 0 }));
+        Assertions.assertFalse(ValoresScript.esVerdadero(new byte[]{ 2 }));
+        Assertions.assertFalse(ValoresScript.esVerdadero(new byte[]{ 1, 0 }));
+        Assertions.assertFalse(ValoresScript.esVerdadero(new byte[0]));
+    }
+
+    @Test
+    public void opcodesPusheanValoresCompartidos() throws Exception {
+        ScriptStack stack = new ScriptStack();
+
+        OPCODE.OP_16.aplicar(null, stack);
+        Assertions.assertTrue(stack.esNumero(0));
+        Assertions.assertArrayEquals(new byte[]{ 16 }, stack.popItem());
+
+        stack.pushItem(new byte[]{ 7 });
+        stack.pushItem(new byte[]{ 7 });
+        OPCODE.OP_EQUAL.aplicar(null, stack);
+        Assertions.assertTrue(stack.esNumero(0));
+        Assertions.assertArrayEquals(new byte[]{ 1 }, stack.popItem());
+
+        stack.pushItem(new byte[]{ 7 });
+        stack.pushItem(new byte[]{ 8 });
+        OPCODE.OP_CHECKSIG.aplicar(null, stack);
+        Assertions.assertTrue(stack.esNumero(0));
+        Assertions.assertArrayEquals(new byte[]{ 0 }, stack.popItem());
+    }
+
+    // Modificar lo que retorna el stack no puede alterar los valores compartidos
+    @Test
+    public void lecturasPublicasNoExponenValoresCompartidos() throws Exception {
+        for (ScriptStack stack : new ScriptStack[]{ new ScriptStack(), ScriptStack.conArena() }) {
+            stack.pushNumero(1);
+            stack.pushItem(ValoresScript.VERDADERO);
+            stack.peekItem(1)[0] = 0;
+            stack.peekItem()[0] = 0;
+            for (byte[] item : stack) {
+                item[0] = 0;
+            }
+            stack.forEach(item -> item[0] = 0);
+            stack.popItem()[0] = 0;
+            stack.popItem()[0] = 0;
+        }
+
+        Assertions.assertArrayEquals(new byte[]{ 1 }, ValoresScript.VERDADERO);
+        Assertions.assertArrayEquals(new byte[]{ 1 }, ValoresScript.numero(1));
+
+        ScriptStack stack = new ScriptStack();
+        OPCODE.OP_1.aplicar(null, stack);
+        OPCODE.OP_HASH160.aplicar(null, stack);
+        Assertions.assertArrayEquals(Hash160.hash160(new byte[]{ 1 }), stack.popItem());
+    }
+}